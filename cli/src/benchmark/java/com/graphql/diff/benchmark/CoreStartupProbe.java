@@ -0,0 +1,29 @@
+package com.graphql.diff.benchmark;
+
+import com.graphql.diff.DiffSet;
+import com.graphql.diff.SchemaDiff;
+import com.graphql.diff.reporting.PrintStreamReporter;
+import graphql.language.Document;
+import graphql.parser.Parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/*
+ * What a short lived job that embeds the library does : parse two SDL files and diff them, printing the events.
+ * It is run by StartupBenchmark on a class path of just the core library and graphql-java.
+ */
+public class CoreStartupProbe {
+
+    public static void main(String[] args) throws IOException {
+        Document oldSchema = parse(args[0]);
+        Document newSchema = parse(args[1]);
+        new SchemaDiff().diffSchema(DiffSet.diffSet(oldSchema, newSchema), new PrintStreamReporter());
+    }
+
+    private static Document parse(String file) throws IOException {
+        return new Parser().parseDocument(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8));
+    }
+}
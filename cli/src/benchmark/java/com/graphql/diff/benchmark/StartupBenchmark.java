@@ -0,0 +1,120 @@
+package com.graphql.diff.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/*
+ * Measures what a short lived job pays before it sees anything : the time from launching a JVM to the first difference
+ * event it prints.  Each run is a fresh JVM and the time is taken in this process, from just before the launch to the
+ * moment the first event line arrives on the child's output, so JVM start up, class loading, schema parsing and the
+ * start of the diff are all included.  The first run of each command is a warm up of the disk cache and is not counted.
+ *
+ * Run it with the startupBenchmark task of the graphql-diff-cli project.
+ */
+public class StartupBenchmark {
+
+    // the lines PrintStreamReporter prints for an event, such as "BREAKING - 'Object' : 'Query.hero' : ..."
+    private static final Pattern EVENT_LINE = Pattern.compile("^\t?\\w+ - '");
+
+    private static class Candidate {
+        final String name;
+        final List<String> command;
+        final Map<String, String> environment;
+
+        Candidate(String name, List<String> command, Map<String, String> environment) {
+            this.name = name;
+            this.command = command;
+            this.environment = environment;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].substring(1), args[i + 1]);
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "10"));
+        String oldSchema = required(options, "oldSchema");
+        String newSchema = required(options, "newSchema");
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+        List<Candidate> candidates = new ArrayList<>();
+        if (options.containsKey("coreClasspath")) {
+            candidates.add(new Candidate("core library",
+                    Arrays.asList(java, "-cp", options.get("coreClasspath"), CoreStartupProbe.class.getName(), oldSchema, newSchema),
+                    Collections.emptyMap()));
+        }
+        if (options.containsKey("cli")) {
+            List<String> cli = Arrays.asList(options.get("cli"), "-oldSchema", oldSchema, "-newSchema", newSchema);
+            candidates.add(new Candidate("cli", cli, Collections.emptyMap()));
+            String cdsArchive = options.get("cdsArchive");
+            if (cdsArchive != null && new File(cdsArchive).isFile()) {
+                candidates.add(new Candidate("cli with AppCDS archive", cli, Collections.singletonMap("JAVA_OPTS", "-XX:SharedArchiveFile=" + cdsArchive)));
+            } else {
+                System.out.println("No AppCDS archive at " + cdsArchive + ", run the cdsArchive task to include it");
+            }
+        }
+
+        Map<String, long[]> results = new LinkedHashMap<>();
+        for (Candidate candidate : candidates) {
+            timeToFirstEvent(candidate);
+            long[] nanos = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                nanos[run] = timeToFirstEvent(candidate);
+            }
+            Arrays.sort(nanos);
+            results.put(candidate.name, nanos);
+        }
+
+        System.out.println(String.format("Time to first event over %d runs", runs));
+        System.out.println(String.format("%-28s %10s %10s %10s", "", "min ms", "median ms", "p90 ms"));
+        results.forEach((name, nanos) -> System.out.println(String.format("%-28s %10.1f %10.1f %10.1f",
+                name, millis(nanos[0]), millis(nanos[nanos.length / 2]), millis(nanos[Math.min(nanos.length - 1, nanos.length * 9 / 10)]))));
+    }
+
+    private static long timeToFirstEvent(Candidate candidate) throws IOException, InterruptedException {
+        ProcessBuilder processBuilder = new ProcessBuilder(candidate.command).redirectErrorStream(true);
+        processBuilder.environment().putAll(candidate.environment);
+        long start = System.nanoTime();
+        Process process = processBuilder.start();
+        long elapsed = -1;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            // the rest of the output is read too so that the child never blocks on a full pipe
+            while ((line = reader.readLine()) != null) {
+                if (elapsed < 0 && EVENT_LINE.matcher(line).find()) {
+                    elapsed = System.nanoTime() - start;
+                }
+            }
+        }
+        process.waitFor();
+        if (elapsed < 0) {
+            throw new IllegalStateException("No difference event was printed by " + candidate.name + " : " + candidate.command);
+        }
+        return elapsed;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("-" + name + " is required");
+        }
+        return value;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,298 @@
+package com.graphql.diff.cli;
+
+import com.graphql.diff.util.TypeHasher;
+import graphql.Internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Runs diffs in a long lived background JVM so that CLI runs do not pay for JVM start up, class loading and a cold
+ * JIT every time.  The first -daemon run starts a daemon for the working directory, listening on a localhost port,
+ * and every run forwards its arguments to it and streams back what the diff prints and its exit code.  The daemon
+ * keeps the schemas it has loaded until their files change, handles one run at a time since runs print through
+ * System.out, and exits once no run has come in for a while.
+ *
+ * The port and a random token are kept in a file only the user can read, under ~/.graphql-diff/daemons, and a run
+ * has to present the token before the daemon acts on it.
+ */
+@Internal
+class DiffDaemon {
+
+    static final long DEFAULT_IDLE_MILLIS = 10 * 60 * 1000;
+    static final String SERVER_ARG = "-daemonServer";
+
+    private static final long START_TIMEOUT_MILLIS = 30_000;
+    // a run is handled at a time, so a client that connects and sends nothing must not hold the daemon up
+    static final int HANDSHAKE_TIMEOUT_MILLIS = 10_000;
+    private static final int STDOUT = 1;
+    private static final int STDERR = 2;
+    private static final int EXIT = 0;
+
+    /*
+     * Forwards the arguments of a run to the daemon of the working directory, starting it if need be
+     */
+    static int forward(String[] args, long idleMillis) throws IOException {
+        return forward(args, idleMillis, System.out, System.err);
+    }
+
+    static int forward(String[] args, long idleMillis, PrintStream stdout, PrintStream stderr) throws IOException {
+        Path portFile = portFile();
+        Socket socket = connect(portFile);
+        if (socket == null) {
+            start(portFile, idleMillis);
+            socket = connect(portFile);
+            if (socket == null) {
+                throw new IOException("Unable to connect to the diff daemon, see " + logFile(portFile));
+            }
+        }
+        try (Socket connection = socket) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            out.writeUTF(readToken(portFile));
+            out.writeInt(args.length);
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            out.flush();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            while (true) {
+                int channel = in.readByte();
+                if (channel == EXIT) {
+                    return in.readInt();
+                }
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                PrintStream target = channel == STDERR ? stderr : stdout;
+                target.write(bytes, 0, bytes.length);
+                target.flush();
+            }
+        }
+    }
+
+    /*
+     * The daemon side, run by a JVM started with -daemonServer
+     */
+    static void serve(long idleMillis) throws IOException {
+        serve(idleMillis, HANDSHAKE_TIMEOUT_MILLIS);
+    }
+
+    static void serve(long idleMillis, int handshakeTimeoutMillis) throws IOException {
+        Path portFile = portFile();
+        byte[] tokenBytes = new byte[16];
+        new SecureRandom().nextBytes(tokenBytes);
+        String token = TypeHasher.toHex(tokenBytes);
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            writePortFile(portFile, server.getLocalPort() + " " + token);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deletePortFile(portFile, server.getLocalPort())));
+            server.setSoTimeout((int) Math.min(idleMillis, Integer.MAX_VALUE));
+            Main.schemaCache = new SchemaCache();
+            System.out.println("Diff daemon listening on port " + server.getLocalPort() + " for " + Paths.get("").toAbsolutePath());
+            while (true) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    System.out.println("Diff daemon idle for " + idleMillis + " ms, exiting");
+                    return;
+                }
+                try (Socket connection = socket) {
+                    handle(connection, token, handshakeTimeoutMillis);
+                } catch (IOException e) {
+                    // the client went away, there is nothing to tell it
+                    System.out.println("Diff daemon run failed : " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void handle(Socket connection, String token, int handshakeTimeoutMillis) throws IOException {
+        connection.setSoTimeout(handshakeTimeoutMillis);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+        // compared in constant time so that the token cannot be guessed a byte at a time
+        if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), in.readUTF().getBytes(StandardCharsets.UTF_8))) {
+            System.out.println("Diff daemon run refused, the token did not match");
+            return;
+        }
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        int exitCode;
+        try (PrintStream runOut = new PrintStream(new FrameOutputStream(out, STDOUT), true, "UTF-8");
+             PrintStream runErr = new PrintStream(new FrameOutputStream(out, STDERR), true, "UTF-8")) {
+            System.setOut(runOut);
+            System.setErr(runErr);
+            exitCode = Main.run(args);
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+        out.writeByte(EXIT);
+        out.writeInt(exitCode);
+        out.flush();
+    }
+
+    private static Socket connect(Path portFile) throws IOException {
+        if (!Files.exists(portFile)) {
+            return null;
+        }
+        int port;
+        try {
+            port = Integer.parseInt(new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8).split(" ")[0]);
+        } catch (IOException | RuntimeException e) {
+            // half written by a starting daemon
+            return null;
+        }
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1000);
+            return socket;
+        } catch (ConnectException e) {
+            // left behind by a daemon that did not exit cleanly
+            socket.close();
+            Files.deleteIfExists(portFile);
+            return null;
+        }
+    }
+
+    private static void start(Path portFile, long idleMillis) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        // the daemon has to find the same port file
+        command.add("-Duser.home=" + System.getProperty("user.home"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Main.class.getName());
+        command.add(SERVER_ARG);
+        command.add(String.valueOf(idleMillis));
+        File logFile = logFile(portFile).toFile();
+        new ProcessBuilder(command)
+                .directory(new File(System.getProperty("user.dir")))
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile))
+                .redirectInput(ProcessBuilder.Redirect.from(new File(File.separatorChar == '/' ? "/dev/null" : "NUL")))
+                .start();
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+        while (!Files.exists(portFile)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("The diff daemon did not start within " + START_TIMEOUT_MILLIS + " ms, see " + logFile);
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while starting the diff daemon", e);
+            }
+        }
+    }
+
+    private static String readToken(Path portFile) throws IOException {
+        return new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8).split(" ")[1];
+    }
+
+    /*
+     * one daemon per working directory since schema locations are relative to it
+     */
+    static Path portFile() throws IOException {
+        String workingDirectory = Paths.get("").toAbsolutePath().toString();
+        String key = TypeHasher.toHex(TypeHasher.sha256().digest(workingDirectory.getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+        Path directory = Paths.get(System.getProperty("user.home"), ".graphql-diff", "daemons");
+        Files.createDirectories(directory);
+        return directory.resolve(key);
+    }
+
+    private static Path logFile(Path portFile) {
+        return portFile.resolveSibling(portFile.getFileName() + ".log");
+    }
+
+    /*
+     * written aside and moved into place so that a client never reads half a file
+     */
+    private static void writePortFile(Path portFile, String content) throws IOException {
+        Path temporary = portFile.resolveSibling(portFile.getFileName() + ".tmp");
+        Files.deleteIfExists(temporary);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(temporary, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        Files.write(temporary, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, portFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /*
+     * only removes the file if it is still ours, a newer daemon may have replaced it
+     */
+    private static void deletePortFile(Path portFile, int port) {
+        try {
+            if (new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8).startsWith(port + " ")) {
+                Files.deleteIfExists(portFile);
+            }
+        } catch (IOException e) {
+            // already gone
+        }
+    }
+
+    /*
+     * each write becomes a frame of a channel byte, a length and the bytes
+     */
+    private static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final int channel;
+
+        FrameOutputStream(DataOutputStream out, int channel) {
+            this.out = out;
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            out.writeByte(channel);
+            out.writeInt(length);
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,730 @@
+package com.graphql.diff.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graphql.diff.DiffCompletion;
+import com.graphql.diff.DiffLevel;
+import com.graphql.diff.DiffResult;
+import com.graphql.diff.DiffSet;
+import com.graphql.diff.DiffSummary;
+import com.graphql.diff.HashedSchemaLoader;
+import com.graphql.diff.SchemaChainDiff;
+import com.graphql.diff.SchemaDiff;
+import com.graphql.diff.SchemaMatrixDiff;
+import com.graphql.diff.cache.DiskDiffResultCache;
+import com.graphql.diff.jfr.DiffFlightRecorder;
+import com.graphql.diff.metrics.DiffMetricsListener;
+import com.graphql.diff.metrics.DiffPhase;
+import com.graphql.diff.metrics.PrintStreamMetricsListener;
+import com.graphql.diff.reporting.DifferenceReporter;
+import com.graphql.diff.reporting.PrintStreamReporter;
+import com.graphql.diff.reporting.SummarizingReporter;
+import com.graphql.diff.snapshot.SchemaSnapshot;
+import com.graphql.diff.snapshot.SchemaSnapshotWriter;
+import com.graphql.diff.usage.OperationCorpusValidator;
+import com.graphql.diff.usage.OperationUsageIndex;
+import com.graphql.diff.usage.UsageAwareReporter;
+import com.graphql.diff.util.TypeHasher;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.introspection.IntrospectionQuery;
+import graphql.introspection.IntrospectionResultToSchema;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.schema.Coercing;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.TypeResolver;
+import graphql.schema.idl.FieldWiringEnvironment;
+import graphql.schema.idl.InterfaceWiringEnvironment;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.ScalarInfo;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import graphql.schema.idl.UnionWiringEnvironment;
+import graphql.schema.idl.WiringFactory;
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class Main {
+
+    static final String SNAPSHOT_EXTENSION = ".gqlsnap";
+    static final long DEFAULT_DEBOUNCE_MILLIS = 50;
+
+    // the schemas kept loaded between runs, only set inside the daemon
+    static SchemaCache schemaCache;
+
+    // the type hashes stored in the snapshots that documents were loaded from, kept for as long as the documents are
+    private static final Map<Document, Map<String, String>> snapshotTypeHashes = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals(DiffDaemon.SERVER_ARG)) {
+            DiffDaemon.serve(args.length > 1 ? Long.parseLong(args[1]) : DiffDaemon.DEFAULT_IDLE_MILLIS);
+            return;
+        }
+        int exitCode = run(args);
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    /*
+     * Runs the command line and returns the exit status rather than exiting, so that the daemon can run it too
+     */
+    static int run(String[] args) {
+
+        Options options = new Options();
+        options.addOption(Option
+                .builder("newSchema")
+                .argName("fileDirGlobOrUrl")
+                .numberOfArgs(1)
+                .build()
+        );
+        options.addOption(Option
+                .builder("oldSchema")
+                .argName("fileDirGlobOrUrl")
+                .numberOfArgs(1)
+                .build()
+        );
+        options.addOption(Option
+                .builder("chain")
+                .argName("fileDirGlobOrUrl,...")
+                .numberOfArgs(1)
+                .desc("diff each of these comma separated schema versions against the one before it and the first against the last, instead of -oldSchema and -newSchema")
+                .build()
+        );
+        options.addOption(Option
+                .builder("matrix")
+                .argName("fileDirGlobOrUrl,...")
+                .numberOfArgs(1)
+                .desc("diff each of these comma separated old schema versions against each comma separated -newSchema version and print a table of breaking changes")
+                .build()
+        );
+        options.addOption(Option
+                .builder("workers")
+                .argName("count")
+                .numberOfArgs(1)
+                .desc("with -chain or -matrix, the number of threads to diff on, default 1 for -chain and a thread per processor for -matrix")
+                .build()
+        );
+        options.addOption(Option
+                .builder("metrics")
+                .desc("print phase timings and diff counters")
+                .build()
+        );
+        options.addOption(Option
+                .builder("failFast")
+                .desc("stop at the first breaking change and exit with status 1")
+                .build()
+        );
+        options.addOption(Option
+                .builder("maxBreakages")
+                .argName("count")
+                .numberOfArgs(1)
+                .desc("stop once this many breaking changes are found and exit with status 1")
+                .build()
+        );
+        options.addOption(Option
+                .builder("deadline")
+                .argName("millis")
+                .numberOfArgs(1)
+                .desc("stop diffing after this many milliseconds and exit with status 2")
+                .build()
+        );
+        options.addOption(Option
+                .builder("scope")
+                .argName("Type.field,Type,...")
+                .numberOfArgs(1)
+                .desc("only diff these comma separated fields and types and the types reachable from them")
+                .build()
+        );
+        options.addOption(Option
+                .builder("disableRules")
+                .argName("rule,...")
+                .numberOfArgs(1)
+                .desc("turn off these comma separated compatibility rules, such as argumentDefaultValue")
+                .build()
+        );
+        options.addOption(Option
+                .builder("timeRules")
+                .desc("with -metrics, print how long each compatibility rule took")
+                .build()
+        );
+        options.addOption(Option
+                .builder("additions")
+                .desc("also report the operations, types, fields and arguments that only the new schema has")
+                .build()
+        );
+        options.addOption(Option
+                .builder("summary")
+                .desc("print a summary of the changes, with counts, the types with the most breaking changes and a few examples of each category, instead of every change")
+                .build()
+        );
+        options.addOption(Option
+                .builder("watch")
+                .desc("keep running and diff again every time the new schema files change")
+                .build()
+        );
+        options.addOption(Option
+                .builder("debounce")
+                .argName("millis")
+                .numberOfArgs(1)
+                .desc("in watch mode, wait for this many quiet milliseconds after a change before diffing, default " + DEFAULT_DEBOUNCE_MILLIS)
+                .build()
+        );
+        options.addOption(Option
+                .builder("cacheDir")
+                .argName("directory")
+                .numberOfArgs(1)
+                .desc("reuse the results of previous diffs of the same schemas kept in this directory")
+                .build()
+        );
+        options.addOption(Option
+                .builder("writeSnapshot")
+                .argName("file")
+                .numberOfArgs(1)
+                .desc("save the new schema as a binary snapshot that can later be used as a " + SNAPSHOT_EXTENSION + " schema location")
+                .build()
+        );
+        options.addOption(Option
+                .builder("operations")
+                .argName("directory")
+                .numberOfArgs(1)
+                .desc("annotate each breaking change with the operations in this directory of .graphql files that use it")
+                .build()
+        );
+        options.addOption(Option
+                .builder("validate")
+                .argName("directory")
+                .numberOfArgs(1)
+                .desc("validate the operations in this directory of .graphql files against -newSchema and report the ones that fail, instead of diffing")
+                .build()
+        );
+        options.addOption(Option
+                .builder("onlyUsedBreakages")
+                .desc("with -operations, leave out the breaking changes that no operation uses")
+                .build()
+        );
+        options.addOption(Option
+                .builder("daemon")
+                .desc("run in a background JVM that stays up between runs and keeps the schemas it has read loaded, starting it if need be")
+                .build()
+        );
+        options.addOption(Option
+                .builder("daemonIdle")
+                .argName("millis")
+                .numberOfArgs(1)
+                .desc("with -daemon, stop the background JVM after it has been idle for this many milliseconds, default " + DiffDaemon.DEFAULT_IDLE_MILLIS)
+                .build()
+        );
+        int exitCode = 0;
+        try {
+            CommandLine commandLine = new DefaultParser().parse(options, args);
+            if (commandLine.hasOption("daemon")) {
+                return forwardToDaemon(commandLine, args);
+            }
+            exitCode = runDiff(commandLine);
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            e.printStackTrace();
+        }
+        return exitCode;
+    }
+
+    private static int forwardToDaemon(CommandLine commandLine, String[] args) throws IOException {
+        if (commandLine.hasOption("watch")) {
+            throw new RuntimeException("-watch cannot be run in the daemon, it already stays up");
+        }
+        long idleMillis = Long.parseLong(commandLine.getOptionValue("daemonIdle", String.valueOf(DiffDaemon.DEFAULT_IDLE_MILLIS)));
+        List<String> forwardedArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-daemonIdle")) {
+                i++;
+            } else if (!args[i].equals("-daemon")) {
+                forwardedArgs.add(args[i]);
+            }
+        }
+        return DiffDaemon.forward(forwardedArgs.toArray(new String[0]), idleMillis);
+    }
+
+    private static int runDiff(CommandLine commandLine) throws IOException {
+
+        if (commandLine.hasOption("chain")) {
+            return runChainDiff(commandLine);
+        }
+        if (commandLine.hasOption("matrix")) {
+            return runMatrixDiff(commandLine);
+        }
+        if (commandLine.hasOption("validate")) {
+            return runValidation(commandLine);
+        }
+        if (!commandLine.hasOption("oldSchema") || !commandLine.hasOption("newSchema")) {
+            throw new RuntimeException("Both -oldSchema and -newSchema are required unless -chain or -matrix is used");
+        }
+        String oldSchemaLocation = commandLine.getOptionValue("oldSchema");
+        String newSchemaLocation = commandLine.getOptionValue("newSchema");
+
+        DiffMetricsListener metrics = commandLine.hasOption("metrics") ? new PrintStreamMetricsListener() : DiffMetricsListener.NOOP;
+
+        System.out.println("Reading old schema at : " + oldSchemaLocation);
+        System.out.println("Reading new schema at : " + newSchemaLocation);
+
+        Document oldSchema = loadSchema(oldSchemaLocation, metrics);
+        Document newSchema = loadSchema(newSchemaLocation, metrics);
+
+        if (commandLine.hasOption("writeSnapshot")) {
+            String snapshotLocation = commandLine.getOptionValue("writeSnapshot");
+            SchemaSnapshotWriter.write(newSchema, Paths.get(snapshotLocation));
+            System.out.println("Wrote new schema snapshot to : " + snapshotLocation);
+        }
+
+        DiffSet diffSet = DiffSet.diffSet(oldSchema, newSchema, snapshotTypeHashes.get(oldSchema), snapshotTypeHashes.get(newSchema));
+        SchemaDiff.Options diffOptions = diffOptions(commandLine, metrics);
+        if (commandLine.hasOption("watch")) {
+            long debounceMillis = Long.parseLong(commandLine.getOptionValue("debounce", String.valueOf(DEFAULT_DEBOUNCE_MILLIS)));
+            return watch(oldSchema, newSchemaLocation, new SchemaDiff(diffOptions), debounceMillis, metrics);
+        }
+        if (commandLine.hasOption("operations")) {
+            return diffUsage(oldSchema, diffSet, new SchemaDiff(diffOptions), Paths.get(commandLine.getOptionValue("operations")), commandLine.hasOption("onlyUsedBreakages"));
+        }
+        DifferenceReporter reporter = commandLine.hasOption("summary") ? new SummarizingReporter() : new PrintStreamReporter();
+        DiffSummary summary = new SchemaDiff(diffOptions).diffSchemaWithSummary(diffSet, reporter);
+        return exitCode(summary);
+    }
+
+    /*
+     * The operations were written against the old schema so that is what they are resolved against
+     */
+    private static int diffUsage(Document oldSchema, DiffSet diffSet, SchemaDiff schemaDiff, Path operationsDirectory, boolean onlyUsedBreakages) throws IOException {
+        long start = System.nanoTime();
+        OperationUsageIndex usageIndex = OperationUsageIndex.build(oldSchema, operationsDirectory);
+        System.out.println(String.format("Indexed %d operation(s) in %.1f ms", usageIndex.getOperationCount(), (System.nanoTime() - start) / 1_000_000.0));
+        UsageAwareReporter reporter = new UsageAwareReporter(new PrintStreamReporter(), usageIndex, onlyUsedBreakages);
+        DiffSummary summary = schemaDiff.diffSchemaWithSummary(diffSet, reporter);
+        System.out.println(String.format("%d breaking change(s) affect %d of %d operation(s), %d breaking change(s) are not used by any operation",
+                reporter.getUsedBreakageCount(), reporter.getAffectedOperations().size(), usageIndex.getOperationCount(), reporter.getUnusedBreakageCount()));
+        return exitCode(summary);
+    }
+
+    private static SchemaDiff.Options diffOptions(CommandLine commandLine, DiffMetricsListener metrics) throws IOException {
+        SchemaDiff.Options diffOptions = SchemaDiff.Options.defaultOptions().metricsListener(metrics);
+        if (commandLine.hasOption("failFast")) {
+            diffOptions = diffOptions.failFast();
+        }
+        if (commandLine.hasOption("maxBreakages")) {
+            diffOptions = diffOptions.maxBreakages(Integer.parseInt(commandLine.getOptionValue("maxBreakages")));
+        }
+        if (commandLine.hasOption("deadline")) {
+            diffOptions = diffOptions.deadline(Duration.ofMillis(Long.parseLong(commandLine.getOptionValue("deadline"))));
+        }
+        if (commandLine.hasOption("cacheDir")) {
+            diffOptions = diffOptions.resultCache(new DiskDiffResultCache(Paths.get(commandLine.getOptionValue("cacheDir"))));
+        }
+        if (commandLine.hasOption("scope")) {
+            diffOptions = diffOptions.scope(commandLine.getOptionValue("scope").split(","));
+        }
+        if (commandLine.hasOption("disableRules")) {
+            diffOptions = diffOptions.disableRules(commandLine.getOptionValue("disableRules").split(","));
+        }
+        if (commandLine.hasOption("timeRules")) {
+            diffOptions = diffOptions.timeRules();
+        }
+        if (commandLine.hasOption("additions")) {
+            diffOptions = diffOptions.reportAdditions();
+        }
+        return diffOptions;
+    }
+
+    /*
+     * Each version is loaded once.  The reports of the pairs are buffered since they may be diffed on several
+     * threads, and are printed in chain order followed by the cumulative difference.
+     */
+    private static int runChainDiff(CommandLine commandLine) throws IOException {
+        List<String> versions = Arrays.asList(commandLine.getOptionValue("chain").split(","));
+        if (versions.size() < 2) {
+            throw new RuntimeException("-chain needs at least two schema locations");
+        }
+        DiffMetricsListener metrics = commandLine.hasOption("metrics") ? new PrintStreamMetricsListener() : DiffMetricsListener.NOOP;
+        int workers = Integer.parseInt(commandLine.getOptionValue("workers", "1"));
+        SchemaChainDiff chainDiff = new SchemaChainDiff(new SchemaDiff(diffOptions(commandLine, metrics)), workers);
+
+        Map<String, ByteArrayOutputStream> reports = new ConcurrentHashMap<>();
+        SchemaChainDiff.Result result = chainDiff.diffChain(versions, schemaLoader(metrics), (oldVersion, newVersion) -> {
+            ByteArrayOutputStream report = new ByteArrayOutputStream();
+            reports.put(oldVersion + " -> " + newVersion, report);
+            return new PrintStreamReporter(new PrintStream(report, true));
+        });
+
+        List<SchemaChainDiff.Step> steps = new ArrayList<>(result.getSteps());
+        if (steps.size() > 1) {
+            steps.add(result.getCumulative());
+        }
+        int exitCode = 0;
+        for (SchemaChainDiff.Step step : steps) {
+            String pair = step.getOldVersion() + " -> " + step.getNewVersion();
+            System.out.println("Diff of " + pair + " :");
+            System.out.print(reports.get(pair).toString());
+            exitCode = Math.max(exitCode, exitCode(step.getSummary()));
+        }
+        System.out.println("Chain summary :");
+        for (SchemaChainDiff.Step step : steps) {
+            DiffSummary summary = step.getSummary();
+            System.out.println(String.format("\t%s%s -> %s : %d breaking, %d dangerous",
+                    step == result.getCumulative() ? "cumulative " : "", step.getOldVersion(), step.getNewVersion(),
+                    summary.getBreakingCount(), summary.getEventCount(DiffLevel.DANGEROUS)));
+        }
+        return exitCode;
+    }
+
+    /*
+     * Only the breaking change counts are printed, as a table with a row per old version and a column per new version
+     */
+    private static int runMatrixDiff(CommandLine commandLine) throws IOException {
+        if (!commandLine.hasOption("newSchema")) {
+            throw new RuntimeException("-matrix needs the -newSchema versions to diff against");
+        }
+        List<String> oldVersions = Arrays.asList(commandLine.getOptionValue("matrix").split(","));
+        List<String> newVersions = Arrays.asList(commandLine.getOptionValue("newSchema").split(","));
+        DiffMetricsListener metrics = commandLine.hasOption("metrics") ? new PrintStreamMetricsListener() : DiffMetricsListener.NOOP;
+        int workers = Integer.parseInt(commandLine.getOptionValue("workers", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        SchemaMatrixDiff matrixDiff = new SchemaMatrixDiff(new SchemaDiff(diffOptions(commandLine, metrics)), workers);
+
+        SchemaMatrixDiff.Result result = matrixDiff.diffMatrix(oldVersions, newVersions, schemaLoader(metrics),
+                (oldVersion, newVersion) -> DifferenceReporter.NOOP);
+
+        System.out.println("Breaking changes of each old schema (row) in each new schema (column) :");
+        for (int i = 0; i < newVersions.size(); i++) {
+            System.out.println(String.format("\t[%d] %s", i + 1, newVersions.get(i)));
+        }
+        int rowLabelWidth = oldVersions.stream().mapToInt(String::length).max().orElse(0);
+        StringBuilder header = new StringBuilder(String.format("%-" + rowLabelWidth + "s", ""));
+        for (int i = 0; i < newVersions.size(); i++) {
+            header.append(String.format(" %6s", "[" + (i + 1) + "]"));
+        }
+        System.out.println(header);
+        int exitCode = 0;
+        for (String oldVersion : oldVersions) {
+            StringBuilder row = new StringBuilder(String.format("%-" + rowLabelWidth + "s", oldVersion));
+            for (String newVersion : newVersions) {
+                DiffSummary summary = result.getSummary(oldVersion, newVersion);
+                // a cell that stopped early is a lower bound
+                row.append(String.format(" %6s", summary.getBreakingCount() + (summary.isComplete() ? "" : "+")));
+                if (!summary.isComplete()) {
+                    exitCode = Math.max(exitCode, summary.getCompletion() == DiffCompletion.STOPPED_AT_DEADLINE ? 2 : 1);
+                }
+            }
+            System.out.println(row);
+        }
+        return exitCode;
+    }
+
+    /*
+     * Invalid operations are printed as they are found, so the output is in the order the pool gets to them
+     */
+    private static int runValidation(CommandLine commandLine) throws IOException {
+        if (!commandLine.hasOption("newSchema")) {
+            throw new RuntimeException("-validate needs the -newSchema to validate against");
+        }
+        String newSchemaLocation = commandLine.getOptionValue("newSchema");
+        DiffMetricsListener metrics = commandLine.hasOption("metrics") ? new PrintStreamMetricsListener() : DiffMetricsListener.NOOP;
+        System.out.println("Reading new schema at : " + newSchemaLocation);
+        GraphQLSchema schema = makeExecutableSchema(loadRegistry(newSchemaLocation, metrics));
+
+        OperationCorpusValidator validator = new OperationCorpusValidator(schema);
+        OperationCorpusValidator.Summary summary = validator.validate(Paths.get(commandLine.getOptionValue("validate")), (operationId, errors) -> {
+            synchronized (System.out) {
+                System.out.println("INVALID - " + operationId);
+                errors.forEach(error -> System.out.println("\t" + error));
+            }
+        });
+        System.out.println(String.format("%d of %d operation(s) are invalid, %d distinct operation(s) validated in %.1f ms",
+                summary.getInvalidCount(), summary.getOperationCount(), summary.getValidatedCount(), summary.getElapsedNanos() / 1_000_000.0));
+        return summary.getInvalidCount() == 0 ? 0 : 1;
+    }
+
+    /*
+     * Schema files are used as is while other locations are loaded as documents and turned back into a registry
+     */
+    private static TypeDefinitionRegistry loadRegistry(String schemaLocation, DiffMetricsListener metrics) {
+        if (schemaLocation.contains("http") || schemaLocation.endsWith(SNAPSHOT_EXTENSION)) {
+            TypeDefinitionRegistry registry = new TypeDefinitionRegistry();
+            for (Definition definition : loadSchema(schemaLocation, metrics).getDefinitions()) {
+                registry.add(definition);
+            }
+            return registry;
+        }
+        return SchemaFiles.merge(SchemaFiles.parse(SchemaFiles.resolve(schemaLocation)));
+    }
+
+    /*
+     * The baseline stays loaded and hashed, and each change is diffed incrementally from the previous result
+     */
+    private static int watch(Document oldSchema, String newSchemaLocation, SchemaDiff schemaDiff, long debounceMillis, DiffMetricsListener metrics) throws IOException {
+        if (newSchemaLocation.contains("http") || newSchemaLocation.endsWith(SNAPSHOT_EXTENSION)) {
+            throw new RuntimeException("Only schema files can be watched : " + newSchemaLocation);
+        }
+        Map<String, String> oldTypeHashes = snapshotTypeHashes.get(oldSchema);
+        if (oldTypeHashes == null) {
+            oldTypeHashes = TypeHasher.typeHashes(oldSchema);
+        }
+        try (SchemaWatcher watcher = new SchemaWatcher(newSchemaLocation, debounceMillis, registry -> toDocument(registry, metrics))) {
+            Document newSchema = watcher.load();
+            DiffResult previous = null;
+            while (true) {
+                long start = System.nanoTime();
+                if (newSchema != null) {
+                    previous = schemaDiff.diffSchemaIncrementally(previous, DiffSet.diffSet(oldSchema, newSchema, oldTypeHashes, null), new PrintStreamReporter());
+                    System.out.println(String.format("Diffed in %.1f ms, watching %s for changes ...", (System.nanoTime() - start) / 1_000_000.0, newSchemaLocation));
+                }
+                Set<Path> changedFiles = watcher.awaitChanges();
+                start = System.nanoTime();
+                try {
+                    newSchema = watcher.reload(changedFiles);
+                    System.out.println(String.format("Reloaded %d changed file(s) in %.1f ms", changedFiles.size(), (System.nanoTime() - start) / 1_000_000.0));
+                } catch (RuntimeException e) {
+                    // keep watching, the file is probably half edited
+                    System.out.println("Unable to read the new schema : " + e.getMessage());
+                    newSchema = null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private static int exitCode(DiffSummary summary) {
+        switch (summary.getCompletion()) {
+            case STOPPED_AT_MAX_BREAKAGES:
+                System.out.println("Stopped after finding " + summary.getBreakingCount() + " breaking change(s)");
+                return 1;
+            case STOPPED_AT_DEADLINE:
+                System.out.println("Stopped because the deadline passed");
+                return 2;
+            default:
+                return 0;
+        }
+    }
+
+    /*
+     * Snapshots come with their type hashes, so the versions loaded from them are not hashed again
+     */
+    private static HashedSchemaLoader schemaLoader(DiffMetricsListener metrics) {
+        return new HashedSchemaLoader() {
+            @Override
+            public Document load(String version) {
+                return loadSchema(version, metrics);
+            }
+
+            @Override
+            public Map<String, String> typeHashes(String version, Document document) {
+                return snapshotTypeHashes.get(document);
+            }
+        };
+    }
+
+    private static Document loadSchema(String schemaLocation, DiffMetricsListener metrics) {
+        if (schemaCache != null) {
+            return schemaCache.get(schemaLocation, () -> readSchema(schemaLocation, metrics));
+        }
+        return readSchema(schemaLocation, metrics);
+    }
+
+    private static Document readSchema(String schemaLocation, DiffMetricsListener metrics) {
+        try {
+            if (schemaLocation.contains("http")) {
+                long start = System.nanoTime();
+                DiffFlightRecorder.Span span = DiffFlightRecorder.get().beginLoad(schemaLocation);
+                Map<String, Object> introspection = loadSchemaViaHttp(schemaLocation);
+                span.finish();
+                metrics.onPhase(DiffPhase.LOAD, System.nanoTime() - start);
+                return convert(introspection, metrics);
+            } else if (schemaLocation.endsWith(SNAPSHOT_EXTENSION)) {
+                return loadSnapshot(schemaLocation, metrics);
+            } else {
+                return loadSchemaFile(schemaLocation, metrics);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read schema from location : " + schemaLocation + " : " + e.getMessage());
+        }
+    }
+
+    private static Document convert(Map<String, Object> introspection, DiffMetricsListener metrics) {
+        long start = System.nanoTime();
+        Document document = new IntrospectionResultToSchema().createSchemaDefinition(introspection);
+        metrics.onPhase(DiffPhase.CONVERT, System.nanoTime() - start);
+        return document;
+    }
+
+    private static Document loadSnapshot(String schemaLocation, DiffMetricsListener metrics) throws IOException {
+        long start = System.nanoTime();
+        DiffFlightRecorder.Span span = DiffFlightRecorder.get().beginLoad(schemaLocation);
+        SchemaSnapshot snapshot = SchemaSnapshot.open(Paths.get(schemaLocation));
+        Document document = snapshot.toDocument();
+        snapshotTypeHashes.put(document, snapshot.getTypeHashes());
+        span.finish();
+        metrics.onPhase(DiffPhase.LOAD, System.nanoTime() - start);
+        return document;
+    }
+
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static Object fromJson(String jsonStr) throws IOException {
+        return OBJECT_MAPPER.readValue(jsonStr, Object.class);
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> loadSchemaViaHttp(String schemaLocationUrl) throws IOException {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .build();
+
+        HttpUrl httpUrl = HttpUrl.parse(schemaLocationUrl);
+        if (httpUrl == null) {
+            throw new RuntimeException("The schema location is not a valid http url : " + schemaLocationUrl);
+        }
+
+        Map<String, Object> graphqlQuery = new HashMap<>();
+        graphqlQuery.put("query", IntrospectionQuery.INTROSPECTION_QUERY);
+
+        RequestBody requestBody = RequestBody.create(MediaType.parse("application/json"), toJsonStr(graphqlQuery));
+        Request request = new Request.Builder()
+                .method("POST", requestBody)
+                .url(httpUrl)
+                .build();
+        Call call = client.newCall(request);
+        Response response = call.execute();
+        ResponseBody body = response.body();
+
+        return (Map<String, Object>) jsonObjToMap(body).get("data");
+    }
+
+    private static Map<String, Object> jsonObjToMap(ResponseBody body) throws IOException {
+        String jsonString;
+        Object obj = null;
+        if (body != null) {
+            jsonString = body.string();
+            obj = fromJson(jsonString);
+        }
+        //noinspection unchecked
+        return (Map<String, Object>) obj;
+    }
+
+    private static String toJsonStr(Map<String, Object> graphqlQuery) throws IOException {
+        StringWriter json = new StringWriter();
+        OBJECT_MAPPER.writeValue(json, graphqlQuery);
+        return json.toString();
+    }
+
+    /*
+     * the location is a file, a directory of schema files or a glob of schema files
+     */
+    private static Document loadSchemaFile(String schemaLocation, DiffMetricsListener metrics) {
+        long start = System.nanoTime();
+        DiffFlightRecorder.Span span = DiffFlightRecorder.get().beginLoad(schemaLocation);
+        TypeDefinitionRegistry registry = SchemaFiles.merge(SchemaFiles.parse(SchemaFiles.resolve(schemaLocation)));
+        span.finish();
+        metrics.onPhase(DiffPhase.LOAD, System.nanoTime() - start);
+        return toDocument(registry, metrics);
+    }
+
+    /*
+     * The SDL is turned into an executable schema and introspected so that it is diffed exactly as a running service would be
+     */
+    private static Document toDocument(TypeDefinitionRegistry registry, DiffMetricsListener metrics) {
+        long start = System.nanoTime();
+        GraphQLSchema schema = makeExecutableSchema(registry);
+        GraphQL graphQL = GraphQL.newGraphQL(schema).build();
+        ExecutionResult executionResult = graphQL.execute(IntrospectionQuery.INTROSPECTION_QUERY);
+        metrics.onPhase(DiffPhase.INTROSPECT, System.nanoTime() - start);
+        return convert(executionResult.getData(), metrics);
+    }
+
+    private static GraphQLSchema makeExecutableSchema(TypeDefinitionRegistry registry) {
+        return new SchemaGenerator().makeExecutableSchema(registry, fakeRuntime(registry));
+    }
+
+    private static RuntimeWiring fakeRuntime(TypeDefinitionRegistry registry) {
+        RuntimeWiring.Builder builder = RuntimeWiring.newRuntimeWiring();
+        registry.scalars().forEach((name, scalarTypeDefinition) -> {
+            GraphQLScalarType scalarType = fakeScalar(name);
+            if (!ScalarInfo.isStandardScalar(scalarType)) {
+                builder.scalar(scalarType);
+            }
+        });
+        builder.wiringFactory(new WiringFactory() {
+            @Override
+            public boolean providesTypeResolver(InterfaceWiringEnvironment environment) {
+                return true;
+            }
+
+            @Override
+            public TypeResolver getTypeResolver(InterfaceWiringEnvironment environment) {
+                return env -> env.getSchema().getQueryType();
+            }
+
+            @Override
+            public boolean providesTypeResolver(UnionWiringEnvironment environment) {
+                return true;
+            }
+
+            @Override
+            public TypeResolver getTypeResolver(UnionWiringEnvironment environment) {
+                return env -> env.getSchema().getQueryType();
+            }
+
+            @Override
+            public DataFetcher getDefaultDataFetcher(FieldWiringEnvironment environment) {
+                return env -> null;
+            }
+        });
+
+        return builder.build();
+    }
+
+    private static GraphQLScalarType fakeScalar(String name) {
+        return new GraphQLScalarType(name, name, new Coercing() {
+            @Override
+            public Object serialize(Object dataFetcherResult) {
+                return null;
+            }
+
+            @Override
+            public Object parseValue(Object input) {
+                return null;
+            }
+
+            @Override
+            public Object parseLiteral(Object input) {
+                return null;
+            }
+        });
+    }
+}
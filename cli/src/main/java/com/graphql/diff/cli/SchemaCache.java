@@ -0,0 +1,71 @@
+package com.graphql.diff.cli;
+
+import graphql.Internal;
+import graphql.language.Document;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*
+ * Keeps loaded schemas between the runs of a long lived process such as the daemon.  A schema read from files is
+ * reused until any of its files is added, removed or modified, and schemas read over http are always loaded again
+ * since there is no cheap way to tell whether they have changed.
+ */
+@Internal
+class SchemaCache {
+
+    private static class Entry {
+        final String stamp;
+        final Document document;
+
+        Entry(String stamp, Document document) {
+            this.stamp = stamp;
+            this.document = document;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    Document get(String schemaLocation, Supplier<Document> loader) {
+        if (schemaLocation.contains("http")) {
+            return loader.get();
+        }
+        String stamp = stamp(schemaLocation);
+        Entry entry = entries.get(schemaLocation);
+        if (entry != null && entry.stamp.equals(stamp)) {
+            return entry.document;
+        }
+        Document document = loader.get();
+        entries.put(schemaLocation, new Entry(stamp, document));
+        return document;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /*
+     * the paths, sizes and modification times of the files of a location
+     */
+    private static String stamp(String schemaLocation) {
+        List<Path> files = schemaLocation.endsWith(Main.SNAPSHOT_EXTENSION)
+                ? java.util.Collections.singletonList(Paths.get(schemaLocation).toAbsolutePath())
+                : SchemaFiles.resolve(schemaLocation);
+        StringBuilder stamp = new StringBuilder();
+        try {
+            for (Path file : files) {
+                stamp.append(file).append(':').append(Files.size(file)).append(':').append(Files.getLastModifiedTime(file).toMillis()).append('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return stamp.toString();
+    }
+}
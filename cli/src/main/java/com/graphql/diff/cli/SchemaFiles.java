@@ -0,0 +1,156 @@
+package com.graphql.diff.cli;
+
+import graphql.Internal;
+import graphql.language.ScalarTypeDefinition;
+import graphql.language.TypeDefinition;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Resolves an SDL schema location, which is a file, a directory of .graphqls / .graphql files or a glob
+ * such as modules/**.graphqls, and parses the files in parallel into one type registry
+ */
+@Internal
+class SchemaFiles {
+
+    private static final PathMatcher SDL_FILES = FileSystems.getDefault().getPathMatcher("glob:*.{graphqls,graphql}");
+
+    static boolean isGlob(String location) {
+        return location.contains("*") || location.contains("?") || location.contains("[") || location.contains("{");
+    }
+
+    /*
+     * the directory that is searched for the files of the location
+     */
+    static Path baseDirectory(String location) {
+        if (!isGlob(location)) {
+            Path path = Paths.get(location);
+            return Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+        }
+        String prefix = location.substring(0, firstGlobChar(location));
+        int slash = prefix.lastIndexOf('/');
+        if (slash < 0) {
+            return Paths.get(".");
+        }
+        return Paths.get(slash == 0 ? "/" : prefix.substring(0, slash));
+    }
+
+    /*
+     * the absolute paths of the files of a location in path order so that parses and errors are repeatable
+     */
+    static List<Path> resolve(String location) {
+        if (!isGlob(location) && !Files.isDirectory(Paths.get(location))) {
+            Path path = Paths.get(location);
+            if (!Files.isReadable(path)) {
+                throw new RuntimeException("The schema location is not a valid file : " + location);
+            }
+            return Collections.singletonList(path.toAbsolutePath().normalize());
+        }
+        PathMatcher matcher = isGlob(location) ? FileSystems.getDefault().getPathMatcher("glob:" + location) : file -> SDL_FILES.matches(file.getFileName());
+        try (Stream<Path> files = Files.walk(baseDirectory(location))) {
+            List<Path> resolved = files
+                    .filter(Files::isRegularFile)
+                    // the walked paths start with the base directory as written, so ./schemas/**.graphqls matches them
+                    // as they are, while a glob without a directory such as *.graphqls needs the ./ of the base removed
+                    .filter(file -> matcher.matches(file) || matcher.matches(file.normalize()))
+                    .map(file -> file.toAbsolutePath().normalize())
+                    .sorted()
+                    .collect(Collectors.toList());
+            if (resolved.isEmpty()) {
+                throw new RuntimeException("The schema location has no schema files : " + location);
+            }
+            return resolved;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * each file is parsed on its own so the work spreads across the common fork join pool
+     */
+    static Map<Path, TypeDefinitionRegistry> parse(List<Path> files) {
+        Map<Path, TypeDefinitionRegistry> parsed = files.parallelStream()
+                .collect(Collectors.toConcurrentMap(file -> file, SchemaFiles::parse));
+        Map<Path, TypeDefinitionRegistry> ordered = new LinkedHashMap<>();
+        files.forEach(file -> ordered.put(file, parsed.get(file)));
+        return ordered;
+    }
+
+    static TypeDefinitionRegistry parse(Path file) {
+        try {
+            return new SchemaParser().parse(file.toFile());
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Unable to parse schema file " + file + " : " + e.getMessage(), e);
+        }
+    }
+
+    /*
+     * The registry merge reports duplicates without saying where they came from so they are found here first
+     */
+    static TypeDefinitionRegistry merge(Map<Path, TypeDefinitionRegistry> registries) {
+        Set<String> builtInScalars = new TypeDefinitionRegistry().scalars().keySet();
+        Map<String, Path> definedIn = new HashMap<>();
+        Path schemaDefinedIn = null;
+        List<String> duplicates = new ArrayList<>();
+        for (Map.Entry<Path, TypeDefinitionRegistry> entry : registries.entrySet()) {
+            Path file = entry.getKey();
+            TypeDefinitionRegistry registry = entry.getValue();
+            Set<String> typeNames = new LinkedHashSet<>();
+            for (TypeDefinition typeDefinition : registry.types().values()) {
+                typeNames.add(typeDefinition.getName());
+            }
+            for (ScalarTypeDefinition scalarDefinition : registry.scalars().values()) {
+                if (!builtInScalars.contains(scalarDefinition.getName())) {
+                    typeNames.add(scalarDefinition.getName());
+                }
+            }
+            for (String typeName : typeNames) {
+                Path previous = definedIn.putIfAbsent(typeName, file);
+                if (previous != null) {
+                    duplicates.add(String.format("type '%s' is defined in both %s and %s", typeName, previous, file));
+                }
+            }
+            if (registry.schemaDefinition().isPresent()) {
+                if (schemaDefinedIn != null) {
+                    duplicates.add(String.format("the schema is defined in both %s and %s", schemaDefinedIn, file));
+                }
+                schemaDefinedIn = file;
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            throw new RuntimeException("The schema files have duplicate definitions : " + String.join(", ", duplicates));
+        }
+        TypeDefinitionRegistry merged = new TypeDefinitionRegistry();
+        registries.values().forEach(merged::merge);
+        return merged;
+    }
+
+    private static int firstGlobChar(String location) {
+        int first = location.length();
+        for (char c : new char[]{'*', '?', '[', '{'}) {
+            int index = location.indexOf(c);
+            if (index >= 0 && index < first) {
+                first = index;
+            }
+        }
+        return first;
+    }
+}
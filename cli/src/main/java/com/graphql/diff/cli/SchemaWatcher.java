@@ -0,0 +1,138 @@
+package com.graphql.diff.cli;
+
+import graphql.Internal;
+import graphql.language.Document;
+import graphql.schema.idl.TypeDefinitionRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/*
+ * Watches the files of an SDL schema location and keeps the parse of each file so that only the files
+ * that changed are parsed again.  Editors tend to save in bursts (write, rename, touch) so changes are
+ * debounced until the files have been quiet for a while.
+ */
+@Internal
+class SchemaWatcher implements Closeable {
+
+    private final String schemaLocation;
+    private final long debounceMillis;
+    private final Function<TypeDefinitionRegistry, Document> toDocument;
+    private final WatchService watchService;
+    private final Map<Path, TypeDefinitionRegistry> registries = new HashMap<>();
+    private List<Path> files;
+
+    SchemaWatcher(String schemaLocation, long debounceMillis, Function<TypeDefinitionRegistry, Document> toDocument) throws IOException {
+        this.schemaLocation = schemaLocation;
+        this.debounceMillis = debounceMillis;
+        this.toDocument = toDocument;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Path baseDirectory = SchemaFiles.baseDirectory(schemaLocation);
+        if (Files.isDirectory(Paths.get(schemaLocation)) || SchemaFiles.isGlob(schemaLocation)) {
+            try (Stream<Path> directories = Files.walk(baseDirectory)) {
+                for (Path directory : directories.filter(Files::isDirectory).collect(Collectors.toList())) {
+                    register(directory);
+                }
+            }
+        } else {
+            register(baseDirectory);
+        }
+    }
+
+    private void register(Path directory) throws IOException {
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+    }
+
+    Document load() {
+        files = SchemaFiles.resolve(schemaLocation);
+        return reload(new LinkedHashSet<>(files));
+    }
+
+    /*
+     * parses the changed files again and merges them with the kept parses of the other files.  The old parses of
+     * the changed files are dropped first, so a file that fails to parse half way through an edit is parsed again
+     * on every reload until it does, rather than its old parse being used once some other file changes.
+     */
+    Document reload(Set<Path> changedFiles) {
+        files = SchemaFiles.resolve(schemaLocation);
+        registries.keySet().retainAll(files);
+        registries.keySet().removeAll(changedFiles);
+        List<Path> toParse = new ArrayList<>();
+        for (Path file : files) {
+            if (changedFiles.contains(file) || !registries.containsKey(file)) {
+                toParse.add(file);
+            }
+        }
+        registries.putAll(SchemaFiles.parse(toParse));
+        Map<Path, TypeDefinitionRegistry> ordered = new LinkedHashMap<>();
+        files.forEach(file -> ordered.put(file, registries.get(file)));
+        return toDocument.apply(SchemaFiles.merge(ordered));
+    }
+
+    /*
+     * blocks until a schema file changes and then until there have been no changes for the debounce period
+     */
+    Set<Path> awaitChanges() throws InterruptedException {
+        Set<Path> changed = new LinkedHashSet<>();
+        while (changed.isEmpty()) {
+            collect(watchService.take(), changed);
+        }
+        WatchKey key;
+        while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+            collect(key, changed);
+        }
+        return changed;
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                // events were lost so assume everything changed
+                changed.addAll(files);
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context()).toAbsolutePath().normalize();
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    // the directory went away again
+                }
+            }
+            // a created or deleted file may or may not be part of the schema so the files are resolved again on reload
+            if (files.contains(path) || event.kind() != ENTRY_MODIFY) {
+                changed.add(path);
+            }
+        }
+        key.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
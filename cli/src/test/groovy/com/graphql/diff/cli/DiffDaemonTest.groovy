@@ -0,0 +1,99 @@
+package com.graphql.diff.cli
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+
+class DiffDaemonTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    String previousHome
+    Thread daemon
+
+    def setup() {
+        // the port file is kept under the home directory
+        previousHome = System.getProperty("user.home")
+        System.setProperty("user.home", temporaryFolder.newFolder("home").toString())
+    }
+
+    def cleanup() {
+        daemon?.join(10_000)
+        Main.schemaCache = null
+        System.setProperty("user.home", previousHome)
+    }
+
+    Path write(String name, String sdl) {
+        def file = temporaryFolder.root.toPath().resolve(name)
+        Files.write(file, sdl.getBytes(StandardCharsets.UTF_8))
+        file
+    }
+
+    List<String> startDaemon() {
+        daemon = Thread.start { DiffDaemon.serve(1000, 200) }
+        def portFile = DiffDaemon.portFile()
+        long deadline = System.nanoTime() + 10_000_000_000L
+        while (!Files.exists(portFile)) {
+            assert System.nanoTime() < deadline: "the daemon did not start"
+            Thread.sleep(20)
+        }
+        new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8).split(" ").toList()
+    }
+
+    def "runs are forwarded to the daemon with their output and exit code"() {
+        def oldSchema = write("old.graphqls", "type Query { hero : Hero } type Hero { name : String age : Int }")
+        def newSchema = write("new.graphqls", "type Query { hero : Hero } type Hero { name : String }")
+        startDaemon()
+        def stdout = new ByteArrayOutputStream()
+        def stderr = new ByteArrayOutputStream()
+
+        when:
+        def exitCode = DiffDaemon.forward(["-oldSchema", oldSchema.toString(), "-newSchema", newSchema.toString(), "-maxBreakages", "1"] as String[],
+                1000, new PrintStream(stdout, true), new PrintStream(stderr, true))
+
+        then:
+        exitCode == 1
+        stdout.toString().contains("Reading old schema at : " + oldSchema)
+        stdout.toString().contains("Stopped after finding 1 breaking change(s)")
+        stderr.size() == 0
+
+        when: "the run fails"
+        stdout.reset()
+        exitCode = DiffDaemon.forward(["-oldSchema", oldSchema.toString(), "-newSchema", temporaryFolder.root.toPath().resolve("missing.graphqls").toString()] as String[],
+                1000, new PrintStream(stdout, true), new PrintStream(stderr, true))
+
+        then: "its stack trace comes back on the error channel"
+        exitCode == 0
+        stderr.toString().contains("RuntimeException")
+        !stdout.toString().contains("RuntimeException")
+    }
+
+    def "a run with the wrong token is refused and a silent client does not hold the daemon up"() {
+        def schema = write("schema.graphqls", "type Query { hero : String }")
+        def port = Integer.parseInt(startDaemon()[0])
+
+        when:
+        def refused = new Socket(InetAddress.getLoopbackAddress(), port)
+        def refusedOut = new DataOutputStream(refused.getOutputStream())
+        refusedOut.writeUTF("not the token")
+        refusedOut.writeInt(0)
+        refusedOut.flush()
+        def refusedReply = refused.getInputStream().read()
+        refused.close()
+        def silent = new Socket(InetAddress.getLoopbackAddress(), port)
+        def stdout = new ByteArrayOutputStream()
+        def exitCode = DiffDaemon.forward(["-oldSchema", schema.toString(), "-newSchema", schema.toString()] as String[],
+                1000, new PrintStream(stdout, true), new PrintStream(new ByteArrayOutputStream(), true))
+        silent.close()
+
+        then:
+        refusedReply == -1
+        exitCode == 0
+        stdout.toString().contains("Reading new schema at : " + schema)
+    }
+}
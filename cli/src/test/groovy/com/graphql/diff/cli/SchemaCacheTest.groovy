@@ -0,0 +1,67 @@
+package com.graphql.diff.cli
+
+import graphql.language.Document
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+
+class SchemaCacheTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    Path write(Path dir, String name, String sdl) {
+        def file = dir.resolve(name)
+        Files.createDirectories(file.parent)
+        Files.write(file, sdl.bytes)
+        file
+    }
+
+    def "schemas are kept until their files change"() {
+        def dir = temporaryFolder.root.toPath()
+        def query = write(dir, "query.graphqls", "type Query { hero : String }")
+        def cache = new SchemaCache()
+        def loads = 0
+        def loader = { loads++; new Document([]) }
+
+        when:
+        def first = cache.get(dir.toString(), loader)
+        def second = cache.get(dir.toString(), loader)
+
+        then:
+        loads == 1
+        first.is(second)
+
+        when: "a file is modified"
+        Files.write(query, "type Query { hero : Int }".bytes)
+        Files.setLastModifiedTime(query, FileTime.fromMillis(Files.getLastModifiedTime(query).toMillis() + 1000))
+        cache.get(dir.toString(), loader)
+
+        then:
+        loads == 2
+
+        when: "a file is added"
+        write(dir, "hero.graphqls", "type Hero { name : String }")
+        cache.get(dir.toString(), loader)
+
+        then:
+        loads == 3
+        cache.size() == 1
+    }
+
+    def "http locations are always loaded again"() {
+        def cache = new SchemaCache()
+        def loads = 0
+
+        when:
+        2.times { cache.get("http://localhost/graphql", { loads++; new Document([]) }) }
+
+        then:
+        loads == 2
+        cache.size() == 0
+    }
+}
@@ -0,0 +1,73 @@
+package com.graphql.diff.cli
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class SchemaFilesTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    Path write(Path dir, String name, String sdl) {
+        def file = dir.resolve(name)
+        Files.createDirectories(file.parent)
+        Files.write(file, sdl.bytes)
+        file
+    }
+
+    def "directories are searched for schema files and merged"() {
+        def dir = temporaryFolder.root.toPath()
+        write(dir, "query.graphqls", "type Query { hero : Hero }")
+        write(dir, "module/hero.graphqls", "type Hero { name : String }")
+        write(dir, "module/notes.txt", "not a schema")
+
+        when:
+        def files = SchemaFiles.resolve(dir.toString())
+        def registry = SchemaFiles.merge(SchemaFiles.parse(files))
+
+        then:
+        files.size() == 2
+        registry.getType("Query").isPresent()
+        registry.getType("Hero").isPresent()
+    }
+
+    def "globs select schema files"() {
+        def dir = temporaryFolder.root.toPath()
+        write(dir, "query.graphqls", "type Query { hero : String }")
+        write(dir, "module/hero.graphqls", "type Hero { name : String }")
+
+        expect:
+        SchemaFiles.resolve(dir.toString() + "/module/*.graphqls").collect { it.fileName.toString() } == ["hero.graphqls"]
+    }
+
+    def "globs that are not written in normal form still select schema files"() {
+        def dir = temporaryFolder.root.toPath()
+        write(dir, "query.graphqls", "type Query { hero : String }")
+        write(dir, "module/hero.graphqls", "type Hero { name : String }")
+
+        expect:
+        SchemaFiles.resolve(dir.toString() + glob).collect { it.toString() } == [dir.resolve("module/hero.graphqls").toString()]
+
+        where:
+        glob << ["/./module/**.graphqls", "/module/../module/*.graphqls"]
+    }
+
+    def "duplicate definitions name both files"() {
+        def dir = temporaryFolder.root.toPath()
+        def first = write(dir, "a.graphqls", "type Query { hero : String }")
+        def second = write(dir, "b.graphqls", "type Query { villain : String }")
+
+        when:
+        SchemaFiles.merge(SchemaFiles.parse(SchemaFiles.resolve(dir.toString())))
+
+        then:
+        def e = thrown(RuntimeException)
+        e.message.contains("type 'Query' is defined in both")
+        e.message.contains(first.fileName.toString())
+        e.message.contains(second.fileName.toString())
+    }
+}
@@ -0,0 +1,156 @@
+package com.graphql.diff.cli
+
+import graphql.schema.idl.TypeDefinitionRegistry
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.function.Function
+
+class SchemaWatcherTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    Path dir
+    List<TypeDefinitionRegistry> merged = []
+    SchemaWatcher watcher
+
+    def setup() {
+        dir = temporaryFolder.newFolder("sdl").toPath().toRealPath()
+    }
+
+    def cleanup() {
+        watcher?.close()
+    }
+
+    Path write(String name, String sdl) {
+        def file = dir.resolve(name)
+        Files.write(file, sdl.getBytes(StandardCharsets.UTF_8))
+        file
+    }
+
+    SchemaWatcher watch(long debounceMillis) {
+        // the merged registry is kept rather than turned into a document, which these tests do not need
+        watcher = new SchemaWatcher(dir.toString(), debounceMillis, { registry -> merged << registry; null } as Function)
+        watcher
+    }
+
+    List<String> heroFields() {
+        merged.last().getType("Hero").get().fieldDefinitions*.name
+    }
+
+    def "a burst of changes is collected until the files have been quiet"() {
+        def query = write("query.graphqls", "type Query { hero : Hero }")
+        def hero = write("hero.graphqls", "type Hero { name : String }")
+        watch(500).load()
+
+        when:
+        def editor = Thread.start {
+            Thread.sleep(100)
+            write("hero.graphqls", "type Hero { name : String age : Int }")
+            Thread.sleep(100)
+            write("query.graphqls", "type Query { hero : Hero heroes : [Hero] }")
+            Thread.sleep(100)
+            write("hero.graphqls", "type Hero { name : String age : Int height : Float }")
+        }
+        long start = System.nanoTime()
+        def changed = watcher.awaitChanges()
+        long waitedMillis = (System.nanoTime() - start).intdiv(1_000_000)
+        editor.join()
+
+        then:
+        changed == [hero, query] as Set
+        // the last write was at least 200 ms in, and then it had to be quiet for the debounce period
+        waitedMillis >= 700
+    }
+
+    def "only the changed files are parsed again"() {
+        def query = write("query.graphqls", "type Query { hero : Hero }")
+        def hero = write("hero.graphqls", "type Hero { name : String }")
+        watch(100).load()
+        def queryParse = watcher.registries[query]
+        def heroParse = watcher.registries[hero]
+
+        when:
+        write("hero.graphqls", "type Hero { name : String age : Int }")
+        watcher.reload([hero] as Set)
+
+        then:
+        watcher.registries[query].is(queryParse)
+        !watcher.registries[hero].is(heroParse)
+        heroFields() == ["name", "age"]
+    }
+
+    def "a file that fails to parse half way through an edit is parsed again until it does"() {
+        def query = write("query.graphqls", "type Query { hero : Hero }")
+        def hero = write("hero.graphqls", "type Hero { name : String }")
+        watch(100).load()
+
+        when: "the file is saved half edited"
+        write("hero.graphqls", "type Hero { name : String age : ")
+        watcher.reload([hero] as Set)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.message.contains("hero.graphqls")
+
+        when: "another file changes while it is still half edited"
+        write("query.graphqls", "type Query { hero : Hero heroes : [Hero] }")
+        watcher.reload([query] as Set)
+
+        then: "its old parse is not used instead"
+        thrown(RuntimeException)
+
+        when: "the edit is finished"
+        write("hero.graphqls", "type Hero { name : String age : Int }")
+        watcher.reload([hero] as Set)
+
+        then:
+        heroFields() == ["name", "age"]
+        merged.last().getType("Query").get().fieldDefinitions*.name == ["hero", "heroes"]
+    }
+
+    def "watch mode carries on diffing after a file fails to parse"() {
+        // outside of the watched directory
+        def oldSchema = temporaryFolder.newFile("old.graphqls").toPath()
+        Files.write(oldSchema, "type Query { hero : Hero } type Hero { name : String age : Int }".getBytes(StandardCharsets.UTF_8))
+        write("schema.graphqls", "type Query { hero : Hero } type Hero { name : String age : Int }")
+        def output = new ByteArrayOutputStream()
+        def originalOut = System.out
+        System.setOut(new PrintStream(output, true))
+        def exitCode = -1
+        def watching = Thread.start {
+            exitCode = Main.run(["-oldSchema", oldSchema.toString(), "-newSchema", dir.toString(), "-watch", "-debounce", "100"] as String[])
+        }
+
+        when:
+        awaitOutput(output, "watching", 1)
+        write("schema.graphqls", "type Query { hero : Hero } type Hero { name : ")
+        awaitOutput(output, "Unable to read the new schema", 1)
+        write("schema.graphqls", "type Query { hero : Hero } type Hero { name : String }")
+        awaitOutput(output, "watching", 2)
+        watching.interrupt()
+        watching.join(10_000)
+
+        then:
+        !watching.isAlive()
+        exitCode == 0
+        output.toString().contains("age")
+
+        cleanup:
+        System.setOut(originalOut)
+        watching.interrupt()
+    }
+
+    static void awaitOutput(ByteArrayOutputStream output, String text, int times) {
+        long deadline = System.nanoTime() + 10_000_000_000L
+        while (output.toString().count(text) < times) {
+            assert System.nanoTime() < deadline: "timed out waiting for '" + text + "' in : " + output
+            Thread.sleep(20)
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.graphql.diff;
+
+import graphql.PublicApi;
+
+/**
+ * How a {@link com.graphql.diff.SchemaDiff} run finished
+ */
+@PublicApi
+public enum DiffCompletion {
+    /**
+     * The whole schema was examined
+     */
+    COMPLETED,
+    /**
+     * The run stopped early because the maximum number of breaking changes was found
+     */
+    STOPPED_AT_MAX_BREAKAGES,
+    /**
+     * The run stopped early because its deadline passed
+     */
+    STOPPED_AT_DEADLINE
+}
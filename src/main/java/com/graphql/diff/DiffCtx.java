@@ -1,66 +1,284 @@
 package com.graphql.diff;
 
 import com.graphql.diff.reporting.DifferenceReporter;
+import com.graphql.diff.rules.RuleContext;
 import graphql.Internal;
-import graphql.language.Document;
+import graphql.language.FieldDefinition;
+import graphql.language.ObjectTypeDefinition;
 import graphql.language.Type;
 import graphql.language.TypeDefinition;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Stack;
+import java.util.function.Function;
 
 /*
  * A helper class that represents diff state (eg visited types) as well as helpers
  */
 @Internal
-class DiffCtx {
-    final List<String> examinedTypes = new ArrayList<>();
+class DiffCtx implements RuleContext {
+    final Set<String> examinedTypes = new LinkedHashSet<>();
     final Stack<String> currentTypes = new Stack<>();
+    private final Map<List<?>, List<?>> sortedMembers = new IdentityHashMap<>();
     private final DifferenceReporter reporter;
-    final Document oldDoc;
-    final Document newDoc;
+    final SchemaModel oldModel;
+    final SchemaModel newModel;
+    final TypeGraph oldGraph;
+    final TypeGraph newGraph;
+    // the joint ranks of the names of the two models, see SchemaModel.jointRanks
+    final int[] oldRanks;
+    final int[] newRanks;
 
-    DiffCtx(DifferenceReporter reporter, Document oldDoc, Document newDoc) {
+    // the structural type hashes, if given and no custom rules are in place, so that unchanged types can be skipped
+    Map<String, String> oldTypeHashes;
+    Map<String, String> newTypeHashes;
+
+    // for incremental differences, the events grouped by type and the only types to examine
+    Map<String, List<DiffEvent>> eventsByType;
+    Set<String> typesToExamine;
+
+    // counters that end up in the DiffSummary
+    int typesVisited;
+    int fieldsCompared;
+    int lookups;
+    int cacheHits;
+    int eventCount;
+    int breakingCount;
+
+    // whether elements that are only in the new schema are reported
+    boolean reportAdditions;
+
+    // when to stop early
+    int maxBreakages = Integer.MAX_VALUE;
+    boolean hasDeadline;
+    long deadlineNanos;
+
+    // per type flight recorder state
+    boolean traceTypes;
+    long nestedTypeNanos;
+    int nestedTypeEvents;
+
+    // what the rule being run is comparing, set by the RuleTable
+    TypeDefinition ruleOldType;
+    TypeDefinition ruleNewType;
+    FieldDefinition ruleOldField;
+    FieldDefinition ruleNewField;
+    // the model index of the compared member or argument, or -1
+    int ruleOldIndex;
+    int ruleNewIndex;
+
+    // per rule timings, only kept if the options ask for them
+    long[] ruleNanos;
+    int[] ruleChecks;
+    long nestedRuleNanos;
+
+    DiffCtx(DifferenceReporter reporter, SchemaModel oldModel, SchemaModel newModel) {
         this.reporter = reporter;
-        this.oldDoc = oldDoc;
-        this.newDoc = newDoc;
+        this.oldModel = oldModel;
+        this.newModel = newModel;
+        this.oldGraph = oldModel.graph;
+        this.newGraph = newModel.graph;
+        int[][] ranks = SchemaModel.jointRanks(oldModel, newModel);
+        this.oldRanks = ranks[0];
+        this.newRanks = ranks[1];
     }
 
-    void report(DiffEvent differenceEvent) {
+    @Override
+    public void report(DiffEvent differenceEvent) {
+        eventCount++;
+        if (eventsByType != null) {
+            String typeName = currentTypes.isEmpty() ? DiffResult.SCHEMA_EVENTS : currentTypes.peek();
+            eventsByType.computeIfAbsent(typeName, k -> new ArrayList<>()).add(differenceEvent);
+        }
         reporter.report(differenceEvent);
+        if (differenceEvent.getLevel() == DiffLevel.BREAKING && ++breakingCount >= maxBreakages) {
+            throw new DiffStoppedException(DiffCompletion.STOPPED_AT_MAX_BREAKAGES);
+        }
+        checkDeadline();
+    }
+
+    /*
+     * Called cooperatively at each type and each reported event (which happens at least once per field)
+     */
+    void checkDeadline() {
+        if (hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+            throw new DiffStoppedException(DiffCompletion.STOPPED_AT_DEADLINE);
+        }
     }
 
     boolean examiningType(String typeName) {
-        if (examinedTypes.contains(typeName)) {
+        if (!examinedTypes.add(typeName)) {
             return true;
         }
-        examinedTypes.add(typeName);
         currentTypes.push(typeName);
         return false;
     }
 
+    /*
+     * A type whose hash is the same in both schemas is skipped only if comparing it reads nothing but its own
+     * definition.  An object type that implements interfaces is not, since it is checked against the interfaces of
+     * the new schema, which its hash does not cover.
+     */
+    boolean isUnchanged(String typeName) {
+        if (oldTypeHashes == null || newTypeHashes == null) {
+            return false;
+        }
+        String oldHash = oldTypeHashes.get(typeName);
+        if (oldHash == null || !oldHash.equals(newTypeHashes.get(typeName))) {
+            return false;
+        }
+        TypeDefinition oldDef = oldModel.typeDefinition(typeName);
+        return !(oldDef instanceof ObjectTypeDefinition) || ((ObjectTypeDefinition) oldDef).getImplements().isEmpty();
+    }
+
+    boolean isReused(String typeName) {
+        return typesToExamine != null && !typesToExamine.contains(typeName);
+    }
+
+    /*
+     * reports the events of a type from a previous result as if it had been examined
+     */
+    void reuse(String typeName, List<DiffEvent> events) {
+        currentTypes.push(typeName);
+        for (DiffEvent event : events) {
+            report(event);
+        }
+        currentTypes.pop();
+    }
+
+    /*
+     * examines part of a type, such as a scoped field, without marking the type as examined
+     */
+    void enterType(String typeName) {
+        currentTypes.push(typeName);
+    }
+
+    void markExamined(String typeName) {
+        examinedTypes.add(typeName);
+    }
+
     void exitType() {
         currentTypes.pop();
     }
 
+    /*
+     * The member lists of a definition are sorted once per diff and then reused, for example
+     * interfaces are compared once for every object type that implements them
+     */
+    @SuppressWarnings("unchecked")
+    <T> List<T> sorted(List<T> listOfNamedThings, Function<T, String> nameFunc) {
+        List<T> sorted = (List<T>) sortedMembers.get(listOfNamedThings);
+        if (sorted == null) {
+            sorted = SortedMerge.sort(listOfNamedThings, nameFunc);
+            sortedMembers.put(listOfNamedThings, sorted);
+        } else {
+            cacheHits++;
+        }
+        return sorted;
+    }
+
+    /*
+     * the members, such as the fields, of two model types in name order, either of which can be -1 for no type
+     */
+    void mergeMembers(int oldTypeId, int newTypeId, SortedMerge.IndexVisitor visitor) {
+        SortedMerge.merge(oldModel.memberNames, oldRanks, memberStart(oldModel, oldTypeId), memberEnd(oldModel, oldTypeId),
+                newModel.memberNames, newRanks, memberStart(newModel, newTypeId), memberEnd(newModel, newTypeId), visitor);
+    }
+
+    void mergeArgs(int oldMember, int newMember, SortedMerge.IndexVisitor visitor) {
+        SortedMerge.merge(oldModel.argNames, oldRanks, oldModel.argStart[oldMember], oldModel.argStart[oldMember + 1],
+                newModel.argNames, newRanks, newModel.argStart[newMember], newModel.argStart[newMember + 1], visitor);
+    }
+
+    private static int memberStart(SchemaModel model, int typeId) {
+        return typeId < 0 ? 0 : model.memberStart[typeId];
+    }
+
+    private static int memberEnd(SchemaModel model, int typeId) {
+        return typeId < 0 ? 0 : model.memberStart[typeId + 1];
+    }
+
+    boolean sameName(int oldNameId, int newNameId) {
+        return oldRanks[oldNameId] == newRanks[newNameId];
+    }
+
+    /*
+     * compares the types of two fields or input fields of the models
+     */
+    DiffCategory compareMemberTypes(int oldMember, int newMember) {
+        return SchemaModel.compareTypes(sameName(oldModel.memberTypeNames[oldMember], newModel.memberTypeNames[newMember]),
+                oldModel.memberWrappers[oldMember], newModel.memberWrappers[newMember]);
+    }
+
+    DiffCategory compareArgTypes(int oldArg, int newArg) {
+        return SchemaModel.compareTypes(sameName(oldModel.argTypeNames[oldArg], newModel.argTypeNames[newArg]),
+                oldModel.argWrappers[oldArg], newModel.argWrappers[newArg]);
+    }
+
+    int oldTypeId(String typeName) {
+        lookups++;
+        return oldModel.typeId(typeName);
+    }
+
+    int newTypeId(String typeName) {
+        lookups++;
+        return newModel.typeId(typeName);
+    }
+
+    <T> void merge(List<T> oldThings, List<T> newThings, Function<T, String> nameFunc, SortedMerge.Visitor<T> visitor) {
+        SortedMerge.merge(sorted(oldThings, nameFunc), sorted(newThings, nameFunc), nameFunc, visitor);
+    }
+
+    @Override
+    public TypeDefinition getOldType() {
+        return ruleOldType;
+    }
+
+    @Override
+    public TypeDefinition getNewType() {
+        return ruleNewType;
+    }
+
+    @Override
+    public FieldDefinition getOldField() {
+        return ruleOldField;
+    }
+
+    @Override
+    public FieldDefinition getNewField() {
+        return ruleNewField;
+    }
+
+    @Override
+    public Optional<TypeDefinition> getOldTypeDefinition(String typeName) {
+        return getType(typeName, TypeDefinition.class, oldModel);
+    }
+
+    @Override
+    public Optional<TypeDefinition> getNewTypeDefinition(String typeName) {
+        return getType(typeName, TypeDefinition.class, newModel);
+    }
+
     <T extends TypeDefinition> Optional<T> getOldTypeDef(Type type, Class<T> typeDefClass) {
-        return getType(SchemaDiff.getTypeName(type), typeDefClass, oldDoc);
+        return getType(SchemaDiff.getTypeName(type), typeDefClass, oldModel);
     }
 
     <T extends TypeDefinition> Optional<T> getNewTypeDef(Type type, Class<T> typeDefClass) {
-        return getType(SchemaDiff.getTypeName(type), typeDefClass, newDoc);
+        return getType(SchemaDiff.getTypeName(type), typeDefClass, newModel);
     }
 
-    private <T extends TypeDefinition> Optional<T> getType(String typeName, Class<T> typeDefClass, Document doc) {
+    private <T extends TypeDefinition> Optional<T> getType(String typeName, Class<T> typeDefClass, SchemaModel model) {
         if (typeName == null) {
             return Optional.empty();
         }
-        return doc.getDefinitions().stream()
-                .filter(def -> typeDefClass.isAssignableFrom(def.getClass()))
-                .map(typeDefClass::cast)
-                .filter(defT -> defT.getName().equals(typeName))
-                .findFirst();
+        lookups++;
+        TypeDefinition typeDefinition = model.typeDefinition(typeName);
+        return typeDefClass.isInstance(typeDefinition) ? Optional.of(typeDefClass.cast(typeDefinition)) : Optional.empty();
     }
 }
@@ -0,0 +1,87 @@
+package com.graphql.diff;
+
+import graphql.PublicApi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of a {@link com.graphql.diff.SchemaDiff} that can be used as the starting point of an incremental
+ * difference, see {@link com.graphql.diff.SchemaDiff#diffSchemaIncrementally(DiffResult, DiffSet, com.graphql.diff.reporting.DifferenceReporter)}.
+ * The events are grouped by the type that was being examined when they were reported.
+ */
+@PublicApi
+public class DiffResult {
+
+    /**
+     * The group of the events that are about the schema operations rather than a type
+     */
+    public static final String SCHEMA_EVENTS = "";
+
+    private final String oldFingerprint;
+    private final String newFingerprint;
+    private final String optionsKey;
+    private final Map<String, String> newTypeHashes;
+    private final Map<String, List<DiffEvent>> eventsByType;
+    private final DiffSummary summary;
+
+    DiffResult(String oldFingerprint, String newFingerprint, String optionsKey, Map<String, String> newTypeHashes, Map<String, List<DiffEvent>> eventsByType, DiffSummary summary) {
+        this.oldFingerprint = oldFingerprint;
+        this.newFingerprint = newFingerprint;
+        this.optionsKey = optionsKey;
+        this.newTypeHashes = Collections.unmodifiableMap(newTypeHashes);
+        this.eventsByType = Collections.unmodifiableMap(new LinkedHashMap<>(eventsByType));
+        this.summary = summary;
+    }
+
+    public String getOldFingerprint() {
+        return oldFingerprint;
+    }
+
+    public String getNewFingerprint() {
+        return newFingerprint;
+    }
+
+    String getOptionsKey() {
+        return optionsKey;
+    }
+
+    /**
+     * @return the hex structural hashes of the types of the newer schema keyed by type name
+     */
+    public Map<String, String> getNewTypeHashes() {
+        return newTypeHashes;
+    }
+
+    /**
+     * @return the events keyed by the name of the type being examined, or {@link #SCHEMA_EVENTS}
+     */
+    public Map<String, List<DiffEvent>> getEventsByType() {
+        return eventsByType;
+    }
+
+    /**
+     * @return all the events, a group at a time
+     */
+    public List<DiffEvent> getEvents() {
+        List<DiffEvent> events = new ArrayList<>();
+        eventsByType.values().forEach(events::addAll);
+        return events;
+    }
+
+    public DiffSummary getSummary() {
+        return summary;
+    }
+
+    @Override
+    public String toString() {
+        return "DiffResult{" +
+                "oldFingerprint='" + oldFingerprint + '\'' +
+                ", newFingerprint='" + newFingerprint + '\'' +
+                ", summary=" + summary +
+                '}';
+    }
+}
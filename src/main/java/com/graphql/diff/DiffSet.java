@@ -1,37 +1,145 @@
 package com.graphql.diff;
 
-import graphql.Assert;
-import graphql.ExecutionResult;
-import graphql.GraphQL;
+import com.graphql.diff.metrics.DiffMetricsListener;
+import com.graphql.diff.metrics.DiffPhase;
+import com.graphql.diff.store.SchemaStore;
+import com.graphql.diff.util.TypeHasher;
 import graphql.PublicApi;
-import graphql.introspection.IntrospectionQuery;
+import graphql.introspection.IntrospectionResultToSchema;
+import graphql.language.Document;
 import graphql.schema.GraphQLSchema;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
- * Represents 2 schemas that can be diffed.  The {@link com.graphql.diff.SchemaDiff} code
- * assumes that that schemas to be diffed are the result of an introspection query.
+ * Represents 2 schemas that can be diffed.  The schemas are either the result of an introspection query
+ * or schema definition documents, such as those read from a {@link com.graphql.diff.snapshot.SchemaSnapshot}
  */
 @PublicApi
 public class DiffSet {
 
     private final Map<String, Object> introspectionOld;
     private final Map<String, Object> introspectionNew;
+    private Document documentOld;
+    private Document documentNew;
+    private Map<String, String> typeHashesOld;
+    private Map<String, String> typeHashesNew;
+    private String fingerprintOld;
+    private String fingerprintNew;
+    // whether the type hashes came with the schemas, as opposed to being computed for the fingerprints
+    private boolean typeHashesGiven;
+    private IntrospectedSchema introspectedOld;
+    private IntrospectedSchema introspectedNew;
 
     public DiffSet(Map<String, Object> introspectionOld, Map<String, Object> introspectionNew) {
         this.introspectionOld = introspectionOld;
         this.introspectionNew = introspectionNew;
     }
 
+    private DiffSet(IntrospectedSchema introspectedOld, IntrospectedSchema introspectedNew) {
+        this(introspectedOld.introspection, introspectedNew.introspection);
+        this.introspectedOld = introspectedOld;
+        this.introspectedNew = introspectedNew;
+    }
+
+    private DiffSet(Document documentOld, Document documentNew) {
+        this.introspectionOld = null;
+        this.introspectionNew = null;
+        this.documentOld = documentOld;
+        this.documentNew = documentNew;
+    }
+
+    /**
+     * @return the older introspection result or null if this diff set was created from documents
+     */
     public Map<String, Object> getOld() {
         return introspectionOld;
     }
 
+    /**
+     * @return the newer introspection result or null if this diff set was created from documents
+     */
     public Map<String, Object> getNew() {
         return introspectionNew;
     }
 
+    /**
+     * @return the hex structural type hashes of the older schema or null if they are not known
+     */
+    public Map<String, String> getOldTypeHashes() {
+        return typeHashesOld;
+    }
+
+    /**
+     * @return the hex structural type hashes of the newer schema or null if they are not known
+     */
+    public Map<String, String> getNewTypeHashes() {
+        return typeHashesNew;
+    }
+
+    /*
+     * Only type hashes that came with the schemas let unchanged types be skipped, so that computing the fingerprints,
+     * say for a result cache key, does not change what a difference operation reports
+     */
+    boolean isTypeHashesGiven() {
+        return typeHashesGiven;
+    }
+
+    /**
+     * A canonical hash of the older schema, see {@link com.graphql.diff.util.TypeHasher#fingerprint(graphql.language.Document, java.util.Map)}.
+     * Computing it also makes the type hashes of the schema known.
+     *
+     * @return the hex fingerprint of the older schema
+     */
+    public String getOldFingerprint() {
+        if (fingerprintOld == null) {
+            Document document = getOldDocument();
+            if (typeHashesOld == null) {
+                typeHashesOld = TypeHasher.typeHashes(document);
+            }
+            fingerprintOld = TypeHasher.fingerprint(document, typeHashesOld);
+        }
+        return fingerprintOld;
+    }
+
+    /**
+     * A canonical hash of the newer schema, see {@link com.graphql.diff.util.TypeHasher#fingerprint(graphql.language.Document, java.util.Map)}.
+     * Computing it also makes the type hashes of the schema known.
+     *
+     * @return the hex fingerprint of the newer schema
+     */
+    public String getNewFingerprint() {
+        if (fingerprintNew == null) {
+            Document document = getNewDocument();
+            if (typeHashesNew == null) {
+                typeHashesNew = TypeHasher.typeHashes(document);
+            }
+            fingerprintNew = TypeHasher.fingerprint(document, typeHashesNew);
+        }
+        return fingerprintNew;
+    }
+
+    /**
+     * @return the older schema as a schema definition document, converting the introspection result if need be
+     */
+    public Document getOldDocument() {
+        if (documentOld == null) {
+            documentOld = introspectedOld != null ? introspectedOld.document() : new IntrospectionResultToSchema().createSchemaDefinition(introspectionOld);
+        }
+        return documentOld;
+    }
+
+    /**
+     * @return the newer schema as a schema definition document, converting the introspection result if need be
+     */
+    public Document getNewDocument() {
+        if (documentNew == null) {
+            documentNew = introspectedNew != null ? introspectedNew.document() : new IntrospectionResultToSchema().createSchemaDefinition(introspectionNew);
+        }
+        return documentNew;
+    }
+
 
     /**
      * Creates a diff set out of the result of 2 introspection queries.
@@ -45,6 +153,57 @@ public class DiffSet {
         return new DiffSet(introspectionOld, introspectionNew);
     }
 
+    /**
+     * Creates a diff set out of 2 schema definition documents.
+     *
+     * @param documentOld the older schema definition
+     * @param documentNew the newer schema definition
+     *
+     * @return a diff set representing them
+     */
+    public static DiffSet diffSet(Document documentOld, Document documentNew) {
+        return new DiffSet(documentOld, documentNew);
+    }
+
+    /**
+     * Creates a diff set out of 2 schema definition documents along with the structural hashes of their types, as computed
+     * by {@link com.graphql.diff.util.TypeHasher#hashHex(graphql.language.TypeDefinition)}.  Types whose hashes are
+     * the same in both schemas, and whose comparison only looks at their own definition, are known to be unchanged
+     * and are not compared.  Object types that implement interfaces are always compared, and no type is skipped when
+     * the differ has custom rules since those can look at any type.
+     *
+     * @param documentOld   the older schema definition
+     * @param documentNew   the newer schema definition
+     * @param typeHashesOld the hex type hashes of the older schema keyed by type name
+     * @param typeHashesNew the hex type hashes of the newer schema keyed by type name
+     *
+     * @return a diff set representing them
+     */
+    public static DiffSet diffSet(Document documentOld, Document documentNew, Map<String, String> typeHashesOld, Map<String, String> typeHashesNew) {
+        DiffSet diffSet = new DiffSet(documentOld, documentNew);
+        diffSet.typeHashesOld = typeHashesOld;
+        diffSet.typeHashesNew = typeHashesNew;
+        diffSet.typeHashesGiven = typeHashesOld != null && typeHashesNew != null;
+        return diffSet;
+    }
+
+    /**
+     * Creates a diff set out of 2 versions of a service schema in a schema store.  Only the types whose
+     * hashes differ between the version manifests are compared.
+     *
+     * @param store      the schema store
+     * @param service    the name of the service
+     * @param oldVersion the older version
+     * @param newVersion the newer version
+     *
+     * @return a diff set representing them
+     *
+     * @throws IOException if either version is not in the store or cannot be read
+     */
+    public static DiffSet diffSet(SchemaStore store, String service, String oldVersion, String newVersion) throws IOException {
+        return store.diffSet(service, oldVersion, newVersion);
+    }
+
     /**
      * Creates a diff set out of the result of 2 schema.
      *
@@ -54,15 +213,26 @@ public class DiffSet {
      * @return a diff set representing them
      */
     public static DiffSet diffSet(GraphQLSchema schemaOld, GraphQLSchema schemaNew) {
-        Map<String, Object> introspectionOld = introspect(schemaOld);
-        Map<String, Object> introspectionNew = introspect(schemaNew);
-        return diffSet(introspectionOld, introspectionNew);
+        return diffSet(schemaOld, schemaNew, DiffMetricsListener.NOOP);
     }
 
-    private static Map<String, Object> introspect(GraphQLSchema schema) {
-        GraphQL gql = GraphQL.newGraphQL(schema).build();
-        ExecutionResult result = gql.execute(IntrospectionQuery.INTROSPECTION_QUERY);
-        Assert.assertTrue(result.getErrors().size() == 0, "The schema has errors during Introspection");
-        return result.getData();
+    /**
+     * Creates a diff set out of the result of 2 schema, reporting how long introspection took.  The introspection
+     * result and schema definition document of each schema object are kept for as long as the schema object is in
+     * use, so diffing the same schema object again neither introspects nor converts it.  The introspection results
+     * of such a diff set are shared and must not be changed.
+     *
+     * @param schemaOld       the older schema
+     * @param schemaNew       the newer schema
+     * @param metricsListener the listener to call with the {@link com.graphql.diff.metrics.DiffPhase#INTROSPECT} timing
+     *
+     * @return a diff set representing them
+     */
+    public static DiffSet diffSet(GraphQLSchema schemaOld, GraphQLSchema schemaNew, DiffMetricsListener metricsListener) {
+        long start = System.nanoTime();
+        IntrospectedSchema introspectedOld = IntrospectedSchema.of(schemaOld);
+        IntrospectedSchema introspectedNew = IntrospectedSchema.of(schemaNew);
+        metricsListener.onPhase(DiffPhase.INTROSPECT, System.nanoTime() - start);
+        return new DiffSet(introspectedOld, introspectedNew);
     }
 }
@@ -0,0 +1,24 @@
+package com.graphql.diff;
+
+import graphql.Internal;
+
+/*
+ * Thrown from inside the traversal to unwind it once a breakage limit or deadline has been reached.  It
+ * never escapes the SchemaDiff and hence has no need of a stack trace.
+ */
+@Internal
+class DiffStoppedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DiffCompletion completion;
+
+    DiffStoppedException(DiffCompletion completion) {
+        super(completion.name(), null, false, false);
+        this.completion = completion;
+    }
+
+    DiffCompletion getCompletion() {
+        return completion;
+    }
+}
@@ -0,0 +1,179 @@
+package com.graphql.diff;
+
+import com.graphql.diff.metrics.DiffPhase;
+import graphql.PublicApi;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The counters and phase timings of a {@link com.graphql.diff.SchemaDiff} run
+ */
+@PublicApi
+public class DiffSummary {
+
+    /**
+     * How often a {@link com.graphql.diff.rules.CompatibilityRule} was called and how long it took.  The time is the
+     * self time of the rule, not counting other rules it led to, and includes reporting its events.
+     */
+    @PublicApi
+    public static class RuleTiming {
+        private final int checks;
+        private final long nanos;
+
+        RuleTiming(int checks, long nanos) {
+            this.checks = checks;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return the number of element pairs the rule compared
+         */
+        public int getChecks() {
+            return checks;
+        }
+
+        /**
+         * @return the total time the rule took in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "RuleTiming{" +
+                    "checks=" + checks +
+                    ", nanos=" + nanos +
+                    '}';
+        }
+    }
+
+    private final int typesVisited;
+    private final int fieldsCompared;
+    private final int lookups;
+    private final int cacheHits;
+    private final Map<DiffLevel, Integer> eventsByLevel;
+    private final Map<DiffCategory, Integer> eventsByCategory;
+    private final Map<DiffPhase, Long> phaseNanos;
+    private final DiffCompletion completion;
+    private final Map<String, RuleTiming> ruleTimings;
+
+    DiffSummary(int typesVisited, int fieldsCompared, int lookups, int cacheHits, Map<DiffLevel, Integer> eventsByLevel, Map<DiffCategory, Integer> eventsByCategory, Map<DiffPhase, Long> phaseNanos, DiffCompletion completion) {
+        this(typesVisited, fieldsCompared, lookups, cacheHits, eventsByLevel, eventsByCategory, phaseNanos, completion, Collections.emptyMap());
+    }
+
+    DiffSummary(int typesVisited, int fieldsCompared, int lookups, int cacheHits, Map<DiffLevel, Integer> eventsByLevel, Map<DiffCategory, Integer> eventsByCategory, Map<DiffPhase, Long> phaseNanos, DiffCompletion completion, Map<String, RuleTiming> ruleTimings) {
+        this.typesVisited = typesVisited;
+        this.fieldsCompared = fieldsCompared;
+        this.lookups = lookups;
+        this.cacheHits = cacheHits;
+        this.eventsByLevel = Collections.unmodifiableMap(new EnumMap<>(eventsByLevel));
+        this.eventsByCategory = Collections.unmodifiableMap(new EnumMap<>(eventsByCategory));
+        this.phaseNanos = Collections.unmodifiableMap(new EnumMap<>(phaseNanos));
+        this.completion = completion;
+        this.ruleTimings = Collections.unmodifiableMap(new LinkedHashMap<>(ruleTimings));
+    }
+
+    /**
+     * @return the number of breaking changes found
+     */
+    public int getBreakingCount() {
+        return getEventCount(DiffLevel.BREAKING);
+    }
+
+    /**
+     * @return how the difference operation finished
+     */
+    public DiffCompletion getCompletion() {
+        return completion;
+    }
+
+    /**
+     * @return true if the whole schema was examined and false if the difference operation stopped early
+     */
+    public boolean isComplete() {
+        return completion == DiffCompletion.COMPLETED;
+    }
+
+    /**
+     * @return the number of types that were compared
+     */
+    public int getTypesVisited() {
+        return typesVisited;
+    }
+
+    /**
+     * @return the number of fields, input fields and arguments that were present in both schemas and hence compared
+     */
+    public int getFieldsCompared() {
+        return fieldsCompared;
+    }
+
+    /**
+     * @return the number of type definition lookups made
+     */
+    public int getLookups() {
+        return lookups;
+    }
+
+    /**
+     * @return the number of times a cached value was reused rather than recomputed
+     */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getEventCount(DiffLevel level) {
+        return eventsByLevel.getOrDefault(level, 0);
+    }
+
+    public int getEventCount(DiffCategory category) {
+        return eventsByCategory.getOrDefault(category, 0);
+    }
+
+    public Map<DiffLevel, Integer> getEventsByLevel() {
+        return eventsByLevel;
+    }
+
+    public Map<DiffCategory, Integer> getEventsByCategory() {
+        return eventsByCategory;
+    }
+
+    /**
+     * @param phase the phase in question
+     *
+     * @return the time in nanoseconds spent in that phase or 0 if the phase did not happen as part of the diff
+     */
+    public long getPhaseNanos(DiffPhase phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    public Map<DiffPhase, Long> getPhaseNanos() {
+        return phaseNanos;
+    }
+
+    /**
+     * @return the timings of each enabled rule by rule name, which are only kept when
+     * {@link com.graphql.diff.SchemaDiff.Options#timeRules()} is set and are otherwise empty
+     */
+    public Map<String, RuleTiming> getRuleTimings() {
+        return ruleTimings;
+    }
+
+    @Override
+    public String toString() {
+        return "DiffSummary{" +
+                "typesVisited=" + typesVisited +
+                ", fieldsCompared=" + fieldsCompared +
+                ", lookups=" + lookups +
+                ", cacheHits=" + cacheHits +
+                ", eventsByLevel=" + eventsByLevel +
+                ", eventsByCategory=" + eventsByCategory +
+                ", phaseNanos=" + phaseNanos +
+                ", completion=" + completion +
+                '}';
+    }
+}
@@ -0,0 +1,27 @@
+package com.graphql.diff;
+
+import graphql.PublicSpi;
+import graphql.language.Document;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A {@link com.graphql.diff.SchemaLoader} that already has the structural type hashes of the versions it loads, say
+ * from a {@link com.graphql.diff.snapshot.SchemaSnapshot} or the manifests of a {@link com.graphql.diff.store.SchemaStore},
+ * so that they are not computed again from the loaded documents
+ */
+@PublicSpi
+public interface HashedSchemaLoader extends SchemaLoader {
+
+    /**
+     * @param version  the version that was loaded
+     * @param document the schema definition that {@link #load(String)} returned for the version
+     *
+     * @return the hex structural hashes of the types keyed by type name, or null to have them computed
+     *
+     * @throws IOException if the hashes cannot be read
+     * @see com.graphql.diff.util.TypeHasher#typeHashes(graphql.language.Document)
+     */
+    Map<String, String> typeHashes(String version, Document document) throws IOException;
+}
@@ -0,0 +1,76 @@
+package com.graphql.diff;
+
+import graphql.Assert;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.Internal;
+import graphql.introspection.IntrospectionQuery;
+import graphql.introspection.IntrospectionResultToSchema;
+import graphql.language.Document;
+import graphql.schema.GraphQLSchema;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The introspection result of a schema object and the schema definition document converted from it, kept for as
+ * long as the schema object is in use so that diffing the same schema object again skips introspecting and
+ * converting it.  Schema objects have no equality of their own so they are compared by identity, and they cannot
+ * change once built.
+ */
+@Internal
+class IntrospectedSchema {
+
+    private static final Map<GraphQLSchema, IntrospectedSchema> SCHEMAS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    final Map<String, Object> introspection;
+    private volatile Document document;
+
+    private IntrospectedSchema(Map<String, Object> introspection) {
+        this.introspection = introspection;
+    }
+
+    /**
+     * @param schema the schema object
+     *
+     * @return the introspected schema, introspected now if it has not been before
+     */
+    static IntrospectedSchema of(GraphQLSchema schema) {
+        IntrospectedSchema introspected = SCHEMAS.get(schema);
+        if (introspected == null) {
+            // the entry must not refer to the schema object itself, else the schema object would never be collected
+            introspected = new IntrospectedSchema(introspect(schema));
+            SCHEMAS.put(schema, introspected);
+        }
+        return introspected;
+    }
+
+    static boolean isIntrospected(GraphQLSchema schema) {
+        return SCHEMAS.containsKey(schema);
+    }
+
+    /**
+     * @return the schema definition document, converted now if it has not been before
+     */
+    Document document() {
+        Document converted = document;
+        if (converted == null) {
+            synchronized (this) {
+                converted = document;
+                if (converted == null) {
+                    converted = new IntrospectionResultToSchema().createSchemaDefinition(introspection);
+                    document = converted;
+                }
+            }
+        }
+        return converted;
+    }
+
+    private static Map<String, Object> introspect(GraphQLSchema schema) {
+        GraphQL gql = GraphQL.newGraphQL(schema).build();
+        ExecutionResult result = gql.execute(IntrospectionQuery.INTROSPECTION_QUERY);
+        Assert.assertTrue(result.getErrors().size() == 0, "The schema has errors during Introspection");
+        return result.getData();
+    }
+}
@@ -0,0 +1,35 @@
+package com.graphql.diff;
+
+import com.graphql.diff.util.TypeHasher;
+import graphql.Internal;
+import graphql.language.Document;
+
+import java.io.IOException;
+import java.util.Map;
+
+/*
+ * A version of a schema that has been loaded and hashed once so that it can be diffed against many others
+ */
+@Internal
+class LoadedSchema {
+
+    final String name;
+    final Document document;
+    final Map<String, String> typeHashes;
+
+    LoadedSchema(String name, Document document, Map<String, String> typeHashes) {
+        this.name = name;
+        this.document = document;
+        this.typeHashes = typeHashes;
+    }
+
+    static LoadedSchema load(SchemaLoader loader, String name) throws IOException {
+        Document document = loader.load(name);
+        Map<String, String> typeHashes = loader instanceof HashedSchemaLoader ? ((HashedSchemaLoader) loader).typeHashes(name, document) : null;
+        return new LoadedSchema(name, document, typeHashes != null ? typeHashes : TypeHasher.typeHashes(document));
+    }
+
+    DiffSet diffSet(LoadedSchema newSchema) {
+        return DiffSet.diffSet(document, newSchema.document, typeHashes, newSchema.typeHashes);
+    }
+}
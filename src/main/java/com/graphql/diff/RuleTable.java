@@ -0,0 +1,111 @@
+package com.graphql.diff;
+
+import com.graphql.diff.rules.CompatibilityRule;
+import com.graphql.diff.rules.ElementKind;
+import graphql.Assert;
+import graphql.Internal;
+import graphql.language.FieldDefinition;
+import graphql.language.TypeDefinition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * The enabled rules laid out by element kind and type kind once per differ, so that finding the rules for an element
+ * is two array lookups and an element with no rules is skipped without any calls.  Each rule also has a number that
+ * indexes its timings in the DiffCtx.
+ */
+@Internal
+class RuleTable {
+
+    private static final int[] NO_RULES = new int[0];
+
+    private final List<CompatibilityRule<Object>> rules = new ArrayList<>();
+    private final int[][][] rulesByKind = new int[ElementKind.values().length][TypeKind.values().length][];
+
+    @SuppressWarnings("unchecked")
+    RuleTable(Collection<CompatibilityRule<?>> allRules, Set<String> disabledRules) {
+        Set<String> names = new HashSet<>();
+        for (CompatibilityRule<?> rule : allRules) {
+            Assert.assertTrue(names.add(rule.getName()), "There is more than one rule called '" + rule.getName() + "'");
+        }
+        for (String disabledRule : disabledRules) {
+            Assert.assertTrue(names.contains(disabledRule), "There is no rule called '" + disabledRule + "' to disable");
+        }
+        List<List<Integer>> byKind = new ArrayList<>();
+        for (int i = 0; i < ElementKind.values().length * TypeKind.values().length; i++) {
+            byKind.add(new ArrayList<>());
+        }
+        for (CompatibilityRule<?> rule : allRules) {
+            if (disabledRules.contains(rule.getName())) {
+                continue;
+            }
+            int ruleNumber = rules.size();
+            rules.add((CompatibilityRule<Object>) rule);
+            for (TypeKind typeKind : rule.getTypeKinds()) {
+                byKind.get(rule.getElementKind().ordinal() * TypeKind.values().length + typeKind.ordinal()).add(ruleNumber);
+            }
+        }
+        for (ElementKind elementKind : ElementKind.values()) {
+            for (TypeKind typeKind : TypeKind.values()) {
+                List<Integer> ruleNumbers = byKind.get(elementKind.ordinal() * TypeKind.values().length + typeKind.ordinal());
+                rulesByKind[elementKind.ordinal()][typeKind.ordinal()] = ruleNumbers.isEmpty() ? NO_RULES : ruleNumbers.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+
+    int size() {
+        return rules.size();
+    }
+
+    /*
+     * Implemented interfaces are compared once as types rather than by the rules, so the built in rules do not nest,
+     * but the context is still set again before each rule and timings are still self times in case a rule does run
+     * others.  The indexes are those of the compared members or arguments in the SchemaModels, or -1 for other elements.
+     */
+    void apply(DiffCtx ctx, ElementKind elementKind, TypeKind typeKind, TypeDefinition oldType, TypeDefinition newType,
+               FieldDefinition oldField, FieldDefinition newField, Object oldElement, Object newElement, int oldIndex, int newIndex) {
+        int[] ruleNumbers = rulesByKind[elementKind.ordinal()][typeKind.ordinal()];
+        for (int ruleNumber : ruleNumbers) {
+            ctx.ruleOldType = oldType;
+            ctx.ruleNewType = newType;
+            ctx.ruleOldField = oldField;
+            ctx.ruleNewField = newField;
+            ctx.ruleOldIndex = oldIndex;
+            ctx.ruleNewIndex = newIndex;
+            if (ctx.ruleNanos == null) {
+                rules.get(ruleNumber).check(ctx, oldElement, newElement);
+                continue;
+            }
+            long outerNestedNanos = ctx.nestedRuleNanos;
+            ctx.nestedRuleNanos = 0;
+            long start = System.nanoTime();
+            try {
+                rules.get(ruleNumber).check(ctx, oldElement, newElement);
+            } finally {
+                long elapsedNanos = System.nanoTime() - start;
+                ctx.ruleNanos[ruleNumber] += elapsedNanos - ctx.nestedRuleNanos;
+                ctx.ruleChecks[ruleNumber]++;
+                ctx.nestedRuleNanos = outerNestedNanos + elapsedNanos;
+            }
+        }
+    }
+
+    /*
+     * the timings of a difference operation keyed by rule name, in rule order
+     */
+    Map<String, DiffSummary.RuleTiming> timings(long[] ruleNanos, int[] ruleChecks) {
+        Map<String, DiffSummary.RuleTiming> timings = new LinkedHashMap<>();
+        if (ruleNanos != null) {
+            for (int i = 0; i < rules.size(); i++) {
+                timings.put(rules.get(i).getName(), new DiffSummary.RuleTiming(ruleChecks[i], ruleNanos[i]));
+            }
+        }
+        return timings;
+    }
+}
@@ -0,0 +1,268 @@
+package com.graphql.diff;
+
+import com.graphql.diff.reporting.DifferenceReporterFactory;
+import graphql.Assert;
+import graphql.PublicApi;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.language.TypeDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Diffs an ordered chain of schema versions v1, v2 ... vN, such as a release history.  Each version is loaded and
+ * hashed once and then diffed against the version before it, so that the N - 1 differences do not load the middle
+ * versions twice.  The first version is also diffed against the last to give the cumulative difference of the chain.
+ *
+ * Only two versions are kept materialized at a time when diffing on one worker.  The cumulative difference needs the
+ * types of the first version, but any type that is structurally the same in the latest version is shared with it,
+ * so only the types of the first version that have drifted are kept.  With more workers, version loading is
+ * pipelined with the differences and up to workers + 1 versions are materialized.
+ */
+@PublicApi
+public class SchemaChainDiff {
+
+    /**
+     * The difference of two versions in the chain
+     */
+    @PublicApi
+    public static class Step {
+        private final String oldVersion;
+        private final String newVersion;
+        private final DiffSummary summary;
+
+        Step(String oldVersion, String newVersion, DiffSummary summary) {
+            this.oldVersion = oldVersion;
+            this.newVersion = newVersion;
+            this.summary = summary;
+        }
+
+        public String getOldVersion() {
+            return oldVersion;
+        }
+
+        public String getNewVersion() {
+            return newVersion;
+        }
+
+        public DiffSummary getSummary() {
+            return summary;
+        }
+
+        @Override
+        public String toString() {
+            return "Step{" +
+                    "oldVersion='" + oldVersion + '\'' +
+                    ", newVersion='" + newVersion + '\'' +
+                    ", summary=" + summary +
+                    '}';
+        }
+    }
+
+    /**
+     * The differences of the consecutive versions in the chain and of the first and last versions
+     */
+    @PublicApi
+    public static class Result {
+        private final List<Step> steps;
+        private final Step cumulative;
+
+        Result(List<Step> steps, Step cumulative) {
+            this.steps = Collections.unmodifiableList(steps);
+            this.cumulative = cumulative;
+        }
+
+        /**
+         * @return the differences of each version against the one before it, in chain order
+         */
+        public List<Step> getSteps() {
+            return steps;
+        }
+
+        /**
+         * @return the difference of the first version against the last
+         */
+        public Step getCumulative() {
+            return cumulative;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "steps=" + steps +
+                    ", cumulative=" + cumulative +
+                    '}';
+        }
+    }
+
+    private final SchemaDiff schemaDiff;
+    private final int workers;
+
+    /**
+     * Constructs a chain differ that diffs on the calling thread
+     *
+     * @param schemaDiff the differ to use for each pair of versions
+     */
+    public SchemaChainDiff(SchemaDiff schemaDiff) {
+        this(schemaDiff, 1);
+    }
+
+    /**
+     * Constructs a chain differ
+     *
+     * @param schemaDiff the differ to use for each pair of versions
+     * @param workers    the number of threads to diff on, 1 diffs on the calling thread
+     */
+    public SchemaChainDiff(SchemaDiff schemaDiff, int workers) {
+        Assert.assertTrue(workers > 0, "workers must be greater than zero");
+        this.schemaDiff = Assert.assertNotNull(schemaDiff, "schemaDiff must be provided");
+        this.workers = workers;
+    }
+
+    /**
+     * Diffs each version against the one before it and the first version against the last
+     *
+     * @param versions  the versions in chain order, at least two
+     * @param loader    how to load a version
+     * @param reporters the reporters of the differences
+     *
+     * @return the summaries of the differences
+     *
+     * @throws IOException if a version cannot be loaded
+     */
+    public Result diffChain(List<String> versions, SchemaLoader loader, DifferenceReporterFactory reporters) throws IOException {
+        Assert.assertTrue(versions.size() >= 2, "At least two versions are needed to diff a chain");
+        if (workers == 1) {
+            return diffChainSerially(versions, loader, reporters);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "graphql-diff-chain");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return diffChainPipelined(versions, loader, reporters, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Result diffChainSerially(List<String> versions, SchemaLoader loader, DifferenceReporterFactory reporters) throws IOException {
+        LoadedSchema first = LoadedSchema.load(loader, versions.get(0));
+        Baseline baseline = new Baseline(first);
+        List<Step> steps = new ArrayList<>();
+        LoadedSchema previous = first;
+        for (String name : versions.subList(1, versions.size())) {
+            LoadedSchema current = LoadedSchema.load(loader, name);
+            baseline.shareWith(current);
+            steps.add(diff(previous, current, reporters));
+            previous = current;
+        }
+        return new Result(steps, cumulative(baseline, previous, steps, reporters));
+    }
+
+    /*
+     * the versions are loaded in order on the calling thread while the differences run on the workers, and a version
+     * is not loaded until a worker is free so that the loaded versions do not pile up ahead of the differences
+     */
+    private Result diffChainPipelined(List<String> versions, SchemaLoader loader, DifferenceReporterFactory reporters, ExecutorService executor) throws IOException {
+        Semaphore freeWorkers = new Semaphore(workers);
+        List<Future<Step>> futures = new ArrayList<>();
+        LoadedSchema first = LoadedSchema.load(loader, versions.get(0));
+        Baseline baseline = new Baseline(first);
+        LoadedSchema previous = first;
+        try {
+            for (String name : versions.subList(1, versions.size())) {
+                freeWorkers.acquire();
+                LoadedSchema current = LoadedSchema.load(loader, name);
+                baseline.shareWith(current);
+                LoadedSchema oldVersion = previous;
+                futures.add(executor.submit(() -> {
+                    try {
+                        return diff(oldVersion, current, reporters);
+                    } finally {
+                        freeWorkers.release();
+                    }
+                }));
+                previous = current;
+            }
+            List<Step> steps = new ArrayList<>();
+            for (Future<Step> future : futures) {
+                steps.add(future.get());
+            }
+            return new Result(steps, cumulative(baseline, previous, steps, reporters));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while diffing the chain of versions", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private Step cumulative(Baseline baseline, LoadedSchema last, List<Step> steps, DifferenceReporterFactory reporters) {
+        if (steps.size() == 1) {
+            return steps.get(0);
+        }
+        return diff(baseline.toVersion(), last, reporters);
+    }
+
+    private Step diff(LoadedSchema oldVersion, LoadedSchema newVersion, DifferenceReporterFactory reporters) {
+        DiffSummary summary = schemaDiff.diffSchemaWithSummary(oldVersion.diffSet(newVersion), reporters.reporterFor(oldVersion.name, newVersion.name));
+        return new Step(oldVersion.name, newVersion.name, summary);
+    }
+
+    /*
+     * The definitions of the first version, where every type that hashes the same as in the latest version is
+     * replaced by the latest definition so that only the types that have drifted keep their own copy
+     */
+    private static class Baseline {
+        final String name;
+        final Map<String, String> typeHashes;
+        final List<Definition> otherDefinitions = new ArrayList<>();
+        final Map<String, TypeDefinition> typeDefinitions = new LinkedHashMap<>();
+
+        Baseline(LoadedSchema first) {
+            this.name = first.name;
+            this.typeHashes = first.typeHashes;
+            for (Definition definition : first.document.getDefinitions()) {
+                if (definition instanceof TypeDefinition) {
+                    typeDefinitions.put(((TypeDefinition) definition).getName(), (TypeDefinition) definition);
+                } else {
+                    otherDefinitions.add(definition);
+                }
+            }
+        }
+
+        void shareWith(LoadedSchema latest) {
+            Map<String, TypeDefinition> latestDefinitions = new HashMap<>();
+            for (Definition definition : latest.document.getDefinitions()) {
+                if (definition instanceof TypeDefinition) {
+                    latestDefinitions.put(((TypeDefinition) definition).getName(), (TypeDefinition) definition);
+                }
+            }
+            typeDefinitions.replaceAll((typeName, definition) ->
+                    Objects.equals(typeHashes.get(typeName), latest.typeHashes.get(typeName)) ? latestDefinitions.get(typeName) : definition);
+        }
+
+        LoadedSchema toVersion() {
+            List<Definition> definitions = new ArrayList<>(otherDefinitions);
+            definitions.addAll(typeDefinitions.values());
+            return new LoadedSchema(name, new Document(definitions), typeHashes);
+        }
+    }
+}
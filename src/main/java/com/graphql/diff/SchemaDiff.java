@@ -1,9 +1,14 @@
 package com.graphql.diff;
 
+import com.graphql.diff.cache.DiffResultCache;
+import com.graphql.diff.jfr.DiffFlightRecorder;
+import com.graphql.diff.metrics.DiffMetricsListener;
+import com.graphql.diff.metrics.DiffPhase;
 import com.graphql.diff.reporting.DifferenceReporter;
+import com.graphql.diff.rules.CompatibilityRule;
+import com.graphql.diff.rules.ElementKind;
 import com.graphql.diff.util.TypeInfo;
-import graphql.introspection.IntrospectionResultToSchema;
-import graphql.language.Argument;
+import graphql.Assert;
 import graphql.language.Directive;
 import graphql.language.Document;
 import graphql.language.EnumTypeDefinition;
@@ -14,26 +19,31 @@ import graphql.language.InputValueDefinition;
 import graphql.language.InterfaceTypeDefinition;
 import graphql.language.ObjectTypeDefinition;
 import graphql.language.OperationTypeDefinition;
-import graphql.language.ScalarTypeDefinition;
 import graphql.language.SchemaDefinition;
 import graphql.language.Type;
 import graphql.language.TypeDefinition;
 import graphql.language.TypeName;
 import graphql.language.UnionTypeDefinition;
-import graphql.language.Value;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.graphql.diff.DiffCategory.ADDITION;
-import static com.graphql.diff.DiffCategory.DIFFERENT;
 import static com.graphql.diff.DiffCategory.INVALID;
 import static com.graphql.diff.DiffCategory.MISSING;
 import static com.graphql.diff.DiffCategory.STRICTER;
@@ -41,7 +51,6 @@ import static com.graphql.diff.DiffEvent.apiBreakage;
 import static com.graphql.diff.DiffEvent.apiDanger;
 import static com.graphql.diff.DiffEvent.newInfo;
 import static com.graphql.diff.TypeKind.getTypeKind;
-import static com.graphql.diff.util.TypeInfo.getAstDesc;
 import static com.graphql.diff.util.TypeInfo.typeInfo;
 
 /**
@@ -57,25 +66,222 @@ public class SchemaDiff {
      */
     public static class Options {
 
-        final boolean enforceDirectives;
+        boolean enforceDirectives;
+        DiffMetricsListener metricsListener = DiffMetricsListener.NOOP;
+        int maxBreakages = Integer.MAX_VALUE;
+        Duration deadline;
+        DiffResultCache resultCache;
+        Set<String> scope;
+        List<CompatibilityRule<?>> rules = Collections.emptyList();
+        Set<String> disabledRules = Collections.emptySet();
+        boolean timeRules;
+        boolean reportAdditions;
+
+        Options() {
+        }
 
-        Options(boolean enforceDirectives) {
-            this.enforceDirectives = enforceDirectives;
+        private Options copy() {
+            Options options = new Options();
+            options.enforceDirectives = enforceDirectives;
+            options.metricsListener = metricsListener;
+            options.maxBreakages = maxBreakages;
+            options.deadline = deadline;
+            options.resultCache = resultCache;
+            options.scope = scope;
+            options.rules = rules;
+            options.disabledRules = disabledRules;
+            options.timeRules = timeRules;
+            options.reportAdditions = reportAdditions;
+            return options;
         }
 
         public Options enforceDirectives() {
-            return new Options(true);
+            Options options = copy();
+            options.enforceDirectives = true;
+            return options;
+        }
+
+        /**
+         * @param metricsListener the listener to call with phase timings and counters
+         *
+         * @return new options with the metrics listener in place
+         */
+        public Options metricsListener(DiffMetricsListener metricsListener) {
+            Options options = copy();
+            options.metricsListener = Assert.assertNotNull(metricsListener, "metricsListener must be provided");
+            return options;
+        }
+
+        /**
+         * The difference operation will stop as soon as this many breaking changes have been found
+         *
+         * @param maxBreakages the number of breaking changes to stop at
+         *
+         * @return new options with the breakage limit in place
+         */
+        public Options maxBreakages(int maxBreakages) {
+            Assert.assertTrue(maxBreakages > 0, "maxBreakages must be greater than zero");
+            Options options = copy();
+            options.maxBreakages = maxBreakages;
+            return options;
+        }
+
+        /**
+         * The difference operation will stop at the first breaking change
+         *
+         * @return new options that fail fast
+         */
+        public Options failFast() {
+            return maxBreakages(1);
+        }
+
+        /**
+         * The difference operation will stop once it has run for this long.  The deadline is checked
+         * cooperatively as the schemas are traversed.
+         *
+         * @param deadline how long the difference operation can run for
+         *
+         * @return new options with the deadline in place
+         */
+        public Options deadline(Duration deadline) {
+            Options options = copy();
+            options.deadline = Assert.assertNotNull(deadline, "deadline must be provided");
+            return options;
+        }
+
+        /**
+         * Difference results are looked up in and added to this cache.  A cached result is replayed to the reporter
+         * without traversing the schemas.  Results that were stopped by a deadline are not cached.
+         *
+         * @param resultCache the cache of difference results
+         *
+         * @return new options with the result cache in place
+         */
+        public Options resultCache(DiffResultCache resultCache) {
+            Options options = copy();
+            options.resultCache = Assert.assertNotNull(resultCache, "resultCache must be provided");
+            return options;
+        }
+
+        /**
+         * Restricts the difference operation to a slice of the schema.  Each coordinate is either a field such as
+         * {@code Query.orders}, in which case only that field of its type is compared, or a type name such as
+         * {@code Order}, in which case the whole type is compared.  The types reachable from the coordinates in either
+         * schema are compared too and the rest of the schema, including the operations themselves, is not examined.
+         *
+         * @param coordinates the fields and types in scope
+         *
+         * @return new options with the scope in place
+         */
+        public Options scope(Collection<String> coordinates) {
+            Assert.assertTrue(coordinates != null && !coordinates.isEmpty(), "scope must have at least one field or type");
+            Options options = copy();
+            options.scope = new TreeSet<>(coordinates);
+            return options;
+        }
+
+        /**
+         * See {@link #scope(java.util.Collection)}
+         *
+         * @param coordinates the fields and types in scope
+         *
+         * @return new options with the scope in place
+         */
+        public Options scope(String... coordinates) {
+            return scope(Arrays.asList(coordinates));
+        }
+
+        /**
+         * Adds a rule that is run after the built in rules for the same kind of element.  See
+         * {@link com.graphql.diff.rules.CompatibilityRule}.
+         *
+         * @param rule the rule to add
+         *
+         * @return new options with the rule added
+         */
+        public Options rule(CompatibilityRule<?> rule) {
+            Assert.assertNotNull(rule, "rule must be provided");
+            Options options = copy();
+            options.rules = new ArrayList<>(rules);
+            options.rules.add(rule);
+            return options;
+        }
+
+        /**
+         * Turns rules off so that they are never called.  The built in rules are named in
+         * {@link com.graphql.diff.rules.BuiltInRules}.
+         *
+         * @param ruleNames the names of the rules to turn off
+         *
+         * @return new options with the rules turned off
+         */
+        public Options disableRules(String... ruleNames) {
+            Options options = copy();
+            options.disabledRules = new TreeSet<>(disabledRules);
+            options.disabledRules.addAll(Arrays.asList(ruleNames));
+            return options;
+        }
+
+        /**
+         * Times each rule and puts the timings in {@link com.graphql.diff.DiffSummary#getRuleTimings()}, to find
+         * the rules that are expensive.  Rules are not timed otherwise since timing costs a clock read per check.
+         *
+         * @return new options that time rules
+         */
+        public Options timeRules() {
+            Options options = copy();
+            options.timeRules = true;
+            return options;
+        }
+
+        /**
+         * Reports an info event with the {@link com.graphql.diff.DiffCategory#ADDITION} category for every operation,
+         * type, field, argument, input field, interface and directive that is only in the new schema.  The additions
+         * are found in the same pass as everything else since both schemas are walked together, so there is no need
+         * to diff the schemas again the other way around.
+         *
+         * @return new options that report additions
+         */
+        public Options reportAdditions() {
+            Options options = copy();
+            options.reportAdditions = true;
+            return options;
+        }
+
+        /*
+         * the options that change the events of a difference operation, the listener, deadline, cache and timing do not
+         */
+        String cacheKey() {
+            String cacheKey = "enforceDirectives=" + enforceDirectives + ",maxBreakages=" + maxBreakages;
+            if (scope != null) {
+                cacheKey += ",scope=" + String.join(",", scope);
+            }
+            if (!disabledRules.isEmpty()) {
+                cacheKey += ",disabledRules=" + String.join(",", disabledRules);
+            }
+            if (reportAdditions) {
+                cacheKey += ",reportAdditions=true";
+            }
+            if (!rules.isEmpty()) {
+                // a name alone does not tell two rules apart, so their classes are part of the key too
+                cacheKey += ",rules=" + rules.stream().map(rule -> rule.getName() + "@" + rule.getClass().getName()).collect(Collectors.joining(","));
+            }
+            return cacheKey;
         }
 
         public static Options defaultOptions() {
-            return new Options(false);
+            return new Options();
         }
 
     }
 
     private class CountingReporter implements DifferenceReporter {
         final DifferenceReporter delegate;
-        int breakingCount = 1;
+        final Map<DiffLevel, Integer> eventsByLevel = new EnumMap<>(DiffLevel.class);
+        final Map<DiffCategory, Integer> eventsByCategory = new EnumMap<>(DiffCategory.class);
+        long reportNanos;
+        // the events to put in the result cache if there is one
+        List<DiffEvent> captured;
 
         private CountingReporter(DifferenceReporter delegate) {
             this.delegate = delegate;
@@ -83,19 +289,29 @@ public class SchemaDiff {
 
         @Override
         public void report(DiffEvent differenceEvent) {
-            if (differenceEvent.getLevel().equals(DiffLevel.BREAKING)) {
-                breakingCount++;
+            eventsByLevel.merge(differenceEvent.getLevel(), 1, Integer::sum);
+            if (differenceEvent.getCategory() != null) {
+                eventsByCategory.merge(differenceEvent.getCategory(), 1, Integer::sum);
             }
+            if (captured != null) {
+                captured.add(differenceEvent);
+            }
+            long start = System.nanoTime();
             delegate.report(differenceEvent);
+            reportNanos += System.nanoTime() - start;
         }
 
         @Override
         public void onEnd() {
+            long start = System.nanoTime();
             delegate.onEnd();
+            reportNanos += System.nanoTime() - start;
         }
     }
 
     private final Options options;
+    private final RuleTable rules;
+    private final DiffFlightRecorder flightRecorder = DiffFlightRecorder.get();
 
     /**
      * Constructs a differ using default options
@@ -112,6 +328,9 @@ public class SchemaDiff {
      */
     public SchemaDiff(Options options) {
         this.options = options;
+        List<CompatibilityRule<?>> allRules = new ArrayList<>(StandardRules.rules());
+        allRules.addAll(options.rules);
+        this.rules = new RuleTable(allRules, options.disabledRules);
     }
 
 
@@ -126,30 +345,320 @@ public class SchemaDiff {
     @SuppressWarnings("unchecked")
     public int diffSchema(DiffSet diffSet, DifferenceReporter reporter) {
 
+        return diffSchemaWithSummary(diffSet, reporter).getBreakingCount();
+    }
+
+    /**
+     * This will perform a difference on the two schemas and summarise the counters and timings of the operation.
+     * The same summary is given to any {@link com.graphql.diff.metrics.DiffMetricsListener} in the options.
+     *
+     * @param diffSet  the two schemas to compare for difference
+     * @param reporter the place to report difference events to
+     *
+     * @return a summary of the difference operation
+     */
+    public DiffSummary diffSchemaWithSummary(DiffSet diffSet, DifferenceReporter reporter) {
         CountingReporter countingReporter = new CountingReporter(reporter);
-        diffSchemaImpl(diffSet, countingReporter);
-        return countingReporter.breakingCount;
+        return diffSchemaImpl(diffSet, countingReporter, null, null);
     }
 
-    private void diffSchemaImpl(DiffSet diffSet, DifferenceReporter reporter) {
-        Map<String, Object> oldApi = diffSet.getOld();
-        Map<String, Object> newApi = diffSet.getNew();
+    /**
+     * This will perform a difference on the two schemas and keep the events grouped by type along with
+     * the type hashes of the newer schema, so that the result can be the starting point of an incremental difference.
+     *
+     * @param diffSet  the two schemas to compare for difference
+     * @param reporter the place to report difference events to
+     *
+     * @return the result of the difference operation
+     */
+    public DiffResult diffSchemaWithResult(DiffSet diffSet, DifferenceReporter reporter) {
+        return diffSchemaIncrementally(null, diffSet, reporter);
+    }
 
-        Document oldDoc = new IntrospectionResultToSchema().createSchemaDefinition(oldApi);
-        Document newDoc = new IntrospectionResultToSchema().createSchemaDefinition(newApi);
+    /**
+     * This will perform a difference on the two schemas starting from a previous result for the same older schema.
+     * Only the types whose hashes have changed since the previous result, and the types that refer to them, are examined
+     * again.  The events of every other type are taken from the previous result and reported after the fresh events.
+     *
+     * If the older schema or the options are not the same as in the previous result, or the previous difference
+     * stopped early, then a full difference is done.  A full difference is also done when the options have custom
+     * rules, since a rule can look at any type and so the types its events depend on are not known.  The breakage
+     * limit and deadline of the options do not apply so that the result is always complete, and the events are the
+     * same as those of a full difference, only in a different order.
+     *
+     * @param previous the previous result or null to do a full difference
+     * @param diffSet  the two schemas to compare for difference
+     * @param reporter the place to report difference events to
+     *
+     * @return the result of the difference operation
+     */
+    public DiffResult diffSchemaIncrementally(DiffResult previous, DiffSet diffSet, DifferenceReporter reporter) {
+        if (previous != null && !(options.rules.isEmpty()
+                && previous.getSummary().isComplete()
+                && previous.getOldFingerprint().equals(diffSet.getOldFingerprint())
+                && previous.getOptionsKey().equals(options.cacheKey()))) {
+            previous = null;
+        }
+        Map<String, List<DiffEvent>> eventsByType = new LinkedHashMap<>();
+        DiffSummary summary = diffSchemaImpl(diffSet, new CountingReporter(reporter), eventsByType, previous);
+        return new DiffResult(diffSet.getOldFingerprint(), diffSet.getNewFingerprint(), options.cacheKey(),
+                diffSet.getNewTypeHashes(), eventsByType, summary);
+    }
 
-        DiffCtx ctx = new DiffCtx(reporter, oldDoc, newDoc);
+    private DiffSummary diffSchemaImpl(DiffSet diffSet, CountingReporter reporter, Map<String, List<DiffEvent>> eventsByType, DiffResult previous) {
+        DiffMetricsListener metrics = options.metricsListener;
+        metrics.onDiffStart();
+        DiffSummary summary;
+        try {
+            summary = diffSchemaImpl(diffSet, reporter, metrics, eventsByType, previous);
+        } catch (Throwable e) {
+            metrics.onDiffError(e);
+            throw e;
+        }
+        // outside of the try so that a listener that throws from it is not told of an error as well
+        metrics.onDiffEnd(summary);
+        return summary;
+    }
 
-        Optional<SchemaDefinition> oldSchemaDef = getSchemaDef(oldDoc);
-        Optional<SchemaDefinition> newSchemaDef = getSchemaDef(newDoc);
+    private DiffSummary diffSchemaImpl(DiffSet diffSet, CountingReporter reporter, DiffMetricsListener metrics, Map<String, List<DiffEvent>> eventsByType, DiffResult previous) {
+        Map<DiffPhase, Long> phaseNanos = new EnumMap<>(DiffPhase.class);
+
+        DiffFlightRecorder.DiffSpan diffSpan = flightRecorder.beginDiff();
+
+        long start = System.nanoTime();
+        long deadlineNanos = options.deadline == null ? 0 : start + options.deadline.toNanos();
+        DiffFlightRecorder.Span conversionSpan = flightRecorder.beginConversion();
+        Document oldDoc = diffSet.getOldDocument();
+        Document newDoc = diffSet.getNewDocument();
+        int modelsReused = (SchemaModel.isBuilt(oldDoc) ? 1 : 0) + (SchemaModel.isBuilt(newDoc) ? 1 : 0);
+        SchemaModel oldModel = SchemaModel.of(oldDoc);
+        SchemaModel newModel = SchemaModel.of(newDoc);
+        // grouped results are not kept in the result cache
+        String cacheKey = options.resultCache == null || eventsByType != null ? null : cacheKey(diffSet);
+        if (eventsByType != null) {
+            // makes the type hashes known for the result
+            diffSet.getOldFingerprint();
+            diffSet.getNewFingerprint();
+        }
+        conversionSpan.finish();
+        phase(metrics, phaseNanos, DiffPhase.CONVERT, System.nanoTime() - start);
+
+        if (cacheKey != null) {
+            List<DiffEvent> cachedEvents = options.resultCache.get(cacheKey);
+            if (cachedEvents != null) {
+                return replay(cachedEvents, reporter, metrics, phaseNanos, diffSpan);
+            }
+            reporter.captured = new ArrayList<>();
+        }
+
+        DiffCtx ctx = new DiffCtx(reporter, oldModel, newModel);
+        ctx.cacheHits += modelsReused;
+        ctx.traceTypes = flightRecorder.isTypeTracingEnabled();
+        if (options.rules.isEmpty() && diffSet.isTypeHashesGiven()) {
+            // a custom rule can look at any type through its context, which the type hashes do not cover
+            ctx.oldTypeHashes = diffSet.getOldTypeHashes();
+            ctx.newTypeHashes = diffSet.getNewTypeHashes();
+        }
+        ctx.eventsByType = eventsByType;
+        ctx.reportAdditions = options.reportAdditions;
+        if (options.timeRules) {
+            ctx.ruleNanos = new long[rules.size()];
+            ctx.ruleChecks = new int[rules.size()];
+        }
+        if (previous == null) {
+            ctx.maxBreakages = options.maxBreakages;
+            ctx.hasDeadline = options.deadline != null;
+            ctx.deadlineNanos = deadlineNanos;
+        } else {
+            ctx.typesToExamine = typesToExamine(ctx, previous.getNewTypeHashes(), diffSet.getNewTypeHashes());
+        }
+
+        start = System.nanoTime();
+        DiffCompletion completion = DiffCompletion.COMPLETED;
+        try {
+            ctx.checkDeadline();
+
+            if (options.scope != null) {
+                checkScope(ctx, options.scope);
+            } else {
+                Optional<SchemaDefinition> oldSchemaDef = Optional.ofNullable(oldModel.schemaDefinition);
+                Optional<SchemaDefinition> newSchemaDef = Optional.ofNullable(newModel.schemaDefinition);
 
 
-        // check query operation
-        checkOperation(ctx, "query", oldSchemaDef, newSchemaDef);
-        checkOperation(ctx, "mutation", oldSchemaDef, newSchemaDef);
-        checkOperation(ctx, "subscription", oldSchemaDef, newSchemaDef);
+                // check query operation
+                checkOperation(ctx, "query", oldSchemaDef, newSchemaDef);
+                checkOperation(ctx, "mutation", oldSchemaDef, newSchemaDef);
+                checkOperation(ctx, "subscription", oldSchemaDef, newSchemaDef);
+
+                // and then every other type so that types only reachable via interfaces or unions (or not at all) are diffed too
+                for (String typeName : coverageOrder(ctx, oldSchemaDef, newSchemaDef)) {
+                    checkType(ctx, typeName, typeName);
+                }
+            }
+            if (previous != null) {
+                reuseEvents(ctx, previous);
+            }
+        } catch (DiffStoppedException e) {
+            completion = e.getCompletion();
+        }
+        phase(metrics, phaseNanos, DiffPhase.TRAVERSE, System.nanoTime() - start - reporter.reportNanos);
 
         reporter.onEnd();
+        phase(metrics, phaseNanos, DiffPhase.REPORT, reporter.reportNanos);
+
+        if (cacheKey != null && completion != DiffCompletion.STOPPED_AT_DEADLINE) {
+            options.resultCache.put(cacheKey, reporter.captured);
+        }
+
+        DiffSummary summary = new DiffSummary(ctx.typesVisited, ctx.fieldsCompared, ctx.lookups, ctx.cacheHits,
+                reporter.eventsByLevel, reporter.eventsByCategory, phaseNanos, completion, rules.timings(ctx.ruleNanos, ctx.ruleChecks));
+        diffSpan.finish(summary);
+        return summary;
+    }
+
+    /*
+     * The types whose hashes have changed plus the types that refer to them in either schema, for example the
+     * object types that implement a changed interface, since the events of a type can depend on those it refers to
+     */
+    private Set<String> typesToExamine(DiffCtx ctx, Map<String, String> previousTypeHashes, Map<String, String> typeHashes) {
+        Set<String> changed = new HashSet<>();
+        typeHashes.forEach((typeName, hash) -> {
+            if (!hash.equals(previousTypeHashes.get(typeName))) {
+                changed.add(typeName);
+            }
+        });
+        previousTypeHashes.keySet().forEach(typeName -> {
+            if (!typeHashes.containsKey(typeName)) {
+                changed.add(typeName);
+            }
+        });
+        Set<String> typesToExamine = new HashSet<>(changed);
+        typesToExamine.addAll(ctx.oldGraph.referrersOf(changed));
+        typesToExamine.addAll(ctx.newGraph.referrersOf(changed));
+        return typesToExamine;
+    }
+
+    private void reuseEvents(DiffCtx ctx, DiffResult previous) {
+        previous.getEventsByType().forEach((typeName, events) -> {
+            if (!typeName.equals(DiffResult.SCHEMA_EVENTS) && !ctx.typesToExamine.contains(typeName)) {
+                ctx.reuse(typeName, events);
+            }
+        });
+    }
+
+    private String cacheKey(DiffSet diffSet) {
+        return diffSet.getOldFingerprint() + ":" + diffSet.getNewFingerprint() + ":" + options.cacheKey();
+    }
+
+    /*
+     * A cached result is reported as is.  The breakage limit is part of the cache key so reaching it
+     * means that the original difference operation stopped there too.
+     */
+    private DiffSummary replay(List<DiffEvent> cachedEvents, CountingReporter reporter, DiffMetricsListener metrics, Map<DiffPhase, Long> phaseNanos, DiffFlightRecorder.DiffSpan diffSpan) {
+        for (DiffEvent event : cachedEvents) {
+            reporter.report(event);
+        }
+        reporter.onEnd();
+        phase(metrics, phaseNanos, DiffPhase.REPORT, reporter.reportNanos);
+
+        int breakingCount = reporter.eventsByLevel.getOrDefault(DiffLevel.BREAKING, 0);
+        DiffCompletion completion = breakingCount >= options.maxBreakages ? DiffCompletion.STOPPED_AT_MAX_BREAKAGES : DiffCompletion.COMPLETED;
+        DiffSummary summary = new DiffSummary(0, 0, 0, 1,
+                reporter.eventsByLevel, reporter.eventsByCategory, phaseNanos, completion);
+        diffSpan.finish(summary);
+        return summary;
+    }
+
+    /*
+     * The types of both schemas in a stable order : those reachable from the operations in breadth first order
+     * followed by the unreachable ones in name order
+     */
+    private Collection<String> coverageOrder(DiffCtx ctx, Optional<SchemaDefinition> oldSchemaDef, Optional<SchemaDefinition> newSchemaDef) {
+        List<String> oldReachable = ctx.oldGraph.reachableFrom(rootTypeNames(oldSchemaDef));
+        List<String> newReachable = ctx.newGraph.reachableFrom(rootTypeNames(newSchemaDef));
+
+        Set<String> typeNames = new LinkedHashSet<>(ctx.oldGraph.size() + ctx.newGraph.size());
+        typeNames.addAll(oldReachable);
+        typeNames.addAll(newReachable);
+        typeNames.addAll(ctx.oldGraph.unreachable(oldReachable));
+        typeNames.addAll(ctx.newGraph.unreachable(newReachable));
+        return typeNames;
+    }
+
+    /*
+     * Only the scoped fields and types, and the types reachable from them, are examined so that the cost of
+     * a scoped difference follows the size of the slice rather than the size of the schema
+     */
+    private void checkScope(DiffCtx ctx, Set<String> scope) {
+        List<String> oldRoots = new ArrayList<>();
+        List<String> newRoots = new ArrayList<>();
+        for (String coordinate : scope) {
+            int dot = coordinate.indexOf('.');
+            if (dot < 0) {
+                oldRoots.add(coordinate);
+                newRoots.add(coordinate);
+                continue;
+            }
+            String typeName = coordinate.substring(0, dot);
+            String fieldName = coordinate.substring(dot + 1);
+            int oldTypeId = ctx.oldTypeId(typeName);
+            int newTypeId = ctx.newTypeId(typeName);
+            int oldField = fieldNamed(ctx.oldModel, oldTypeId, fieldName);
+            int newField = fieldNamed(ctx.newModel, newTypeId, fieldName);
+            addReferencedTypes(ctx.oldModel, oldField, oldRoots);
+            addReferencedTypes(ctx.newModel, newField, newRoots);
+            // the field is compared on its own, which leaves the rest of its type out of scope
+            if (oldField >= 0 && !ctx.isUnchanged(typeName) && !ctx.isReused(typeName)) {
+                ctx.enterType(typeName);
+                checkFields(ctx, oldTypeId, newTypeId, visitor -> {
+                    if (newField < 0) {
+                        visitor.missing(oldField);
+                    } else {
+                        visitor.common(oldField, newField);
+                    }
+                });
+                ctx.exitType();
+            }
+        }
+        Set<String> typeNames = new LinkedHashSet<>(ctx.oldGraph.reachableFrom(oldRoots));
+        typeNames.addAll(ctx.newGraph.reachableFrom(newRoots));
+        for (String typeName : typeNames) {
+            checkType(ctx, typeName, typeName);
+        }
+    }
+
+    private static int fieldNamed(SchemaModel model, int typeId, String fieldName) {
+        if (typeId < 0 || (model.typeKinds[typeId] != TypeKind.Object && model.typeKinds[typeId] != TypeKind.Interface)) {
+            return -1;
+        }
+        return model.member(typeId, fieldName);
+    }
+
+    private static void addReferencedTypes(SchemaModel model, int field, List<String> typeNames) {
+        if (field < 0) {
+            return;
+        }
+        typeNames.add(model.memberTypeName(field));
+        // in declaration order, which is the order the reachable types are examined in
+        for (InputValueDefinition argument : model.field(field).getInputValueDefinitions()) {
+            typeNames.add(SchemaModel.namedType(argument.getType()));
+        }
+    }
+
+    private List<String> rootTypeNames(Optional<SchemaDefinition> schemaDef) {
+        List<String> rootTypeNames = new ArrayList<>();
+        for (String opName : Arrays.asList("query", "mutation", "subscription")) {
+            rootTypeNames.add(schemaDef
+                    .flatMap(schemaDefinition -> getOpDef(opName, schemaDefinition))
+                    .map(opDef -> getTypeName(opDef.getType()))
+                    .orElse(capitalize(opName)));
+        }
+        return rootTypeNames;
+    }
+
+    private void phase(DiffMetricsListener metrics, Map<DiffPhase, Long> phaseNanos, DiffPhase phase, long elapsedNanos) {
+        phaseNanos.put(phase, elapsedNanos);
+        metrics.onPhase(phase, elapsedNanos);
     }
 
     private void checkOperation(DiffCtx ctx, String opName, Optional<SchemaDefinition> oldSchemaDef, Optional<SchemaDefinition> newSchemaDef) {
@@ -166,6 +675,15 @@ public class SchemaDiff {
 
         // must be new
         if (!oldOpTypeDef.isPresent()) {
+            if (ctx.reportAdditions && newOpTypeDef.isPresent()) {
+                ctx.report(newInfo()
+                        .category(ADDITION)
+                        .typeName(capitalize(opName))
+                        .typeKind(TypeKind.Operation)
+                        .components(opName)
+                        .reasonMsg("The new API has added the operation '%s'", opName)
+                        .build());
+            }
             return;
         }
 
@@ -184,6 +702,8 @@ public class SchemaDiff {
                     .components(opName)
                     .reasonMsg("The new API no longer has the operation '%s'", opName)
                     .build());
+            // the missing operation covers its type so it is not reported missing again
+            ctx.markExamined(getTypeName(oldOpTypeDef.get().getType()));
             return;
         }
 
@@ -197,82 +717,181 @@ public class SchemaDiff {
         if (!oldTD.isPresent()) {
             return;
         }
-        checkType(ctx, oldType, newOpTypeDefinition.getType());
+        checkType(ctx, getTypeName(oldType), getTypeName(newOpTypeDefinition.getType()));
     }
 
-    private void checkType(DiffCtx ctx, Type oldType, Type newType) {
-        String typeName = getTypeName(oldType);
+    private void checkType(DiffCtx ctx, String oldTypeName, String newTypeName) {
+        checkType(ctx, oldTypeName, ctx.oldTypeId(oldTypeName), ctx.newTypeId(newTypeName));
+    }
 
+    /*
+     * compares a type of the old model with a type of the new model, either of which can be -1 for a missing type
+     */
+    private void checkType(DiffCtx ctx, String typeName, int oldTypeId, int newTypeId) {
         // prevent circular references
         if (ctx.examiningType(typeName)) {
             return;
         }
-        if (isSystemScalar(typeName)) {
+        if (isSystemScalar(typeName) || isReservedType(typeName)) {
+            ctx.exitType();
             return;
         }
-        if (isReservedType(typeName)) {
+        if (ctx.isUnchanged(typeName) || ctx.isReused(typeName)) {
+            // the types it refers to are still diffed since every type is visited
+            ctx.exitType();
             return;
         }
-        Optional<TypeDefinition> oldTD = ctx.getOldTypeDef(oldType, TypeDefinition.class);
-        Optional<TypeDefinition> newTD = ctx.getNewTypeDef(newType, TypeDefinition.class);
+        ctx.typesVisited++;
+        ctx.checkDeadline();
+        if (ctx.traceTypes) {
+            checkTypeTraced(ctx, typeName, oldTypeId, newTypeId);
+        } else {
+            checkTypeDefinitions(ctx, typeName, oldTypeId, newTypeId);
+        }
+    }
 
-        if (!oldTD.isPresent()) {
-            ctx.report(newInfo()
-                    .typeName(typeName)
-                    .reasonMsg("Type '%s' is missing", typeName)
-                    .build());
+    /*
+     * Records a flight recorder event per type.  Types nest via their fields so the time and events of the nested
+     * types are subtracted to give the self cost of each type.
+     */
+    private void checkTypeTraced(DiffCtx ctx, String typeName, int oldTypeId, int newTypeId) {
+        DiffFlightRecorder.TypeSpan span = flightRecorder.beginType(typeName);
+        long outerNestedNanos = ctx.nestedTypeNanos;
+        int outerNestedEvents = ctx.nestedTypeEvents;
+        ctx.nestedTypeNanos = 0;
+        ctx.nestedTypeEvents = 0;
+        int eventsBefore = ctx.eventCount;
+        long start = System.nanoTime();
+
+        checkTypeDefinitions(ctx, typeName, oldTypeId, newTypeId);
+
+        long elapsedNanos = System.nanoTime() - start;
+        int events = ctx.eventCount - eventsBefore;
+        TypeKind typeKind = oldTypeId < 0 ? TypeKind.Unknown : ctx.oldModel.typeKinds[oldTypeId];
+        int memberCount = oldTypeId < 0 ? 0 : memberCount(ctx.oldModel.typeDefinitions[oldTypeId]);
+        span.finish(typeKind, memberCount, events - ctx.nestedTypeEvents, elapsedNanos - ctx.nestedTypeNanos);
+
+        ctx.nestedTypeNanos = outerNestedNanos + elapsedNanos;
+        ctx.nestedTypeEvents = outerNestedEvents + events;
+    }
+
+    private void checkTypeDefinitions(DiffCtx ctx, String typeName, int oldTypeId, int newTypeId) {
+        SchemaModel oldModel = ctx.oldModel;
+        SchemaModel newModel = ctx.newModel;
+        if (oldTypeId < 0) {
+            if (ctx.reportAdditions && newTypeId >= 0) {
+                ctx.report(newInfo()
+                        .category(ADDITION)
+                        .typeName(typeName)
+                        .typeKind(newModel.typeKinds[newTypeId])
+                        .reasonMsg("The new API has added a type called '%s'", typeName)
+                        .build());
+            } else if (oldModel.nameId(typeName) >= 0) {
+                // the old API refers to a type it does not define, while a type that only the new API mentions is
+                // an addition and so is left out unless additions are asked for
+                ctx.report(newInfo()
+                        .typeName(typeName)
+                        .reasonMsg("Type '%s' is missing", typeName)
+                        .build());
+            }
+            ctx.exitType();
             return;
 
         }
-        TypeDefinition oldDef = oldTD.get();
+        TypeDefinition oldDef = oldModel.typeDefinitions[oldTypeId];
+        TypeKind typeKind = oldModel.typeKinds[oldTypeId];
 
         ctx.report(newInfo()
                 .typeName(typeName)
-                .typeKind(getTypeKind(oldDef))
+                .typeKind(typeKind)
                 .reasonMsg("Examining type '%s' ...", typeName)
                 .build());
 
-        if (!newTD.isPresent()) {
+        if (newTypeId < 0) {
             ctx.report(apiBreakage()
                     .category(MISSING)
                     .typeName(typeName)
-                    .typeKind(getTypeKind(oldDef))
+                    .typeKind(typeKind)
                     .reasonMsg("The new API does not have a type called '%s'", typeName)
                     .build());
             ctx.exitType();
             return;
         }
-        TypeDefinition newDef = newTD.get();
+        TypeDefinition newDef = newModel.typeDefinitions[newTypeId];
+        TypeKind newTypeKind = newModel.typeKinds[newTypeId];
         if (!oldDef.getClass().equals(newDef.getClass())) {
             ctx.report(apiBreakage()
                     .category(INVALID)
                     .typeName(typeName)
-                    .typeKind(getTypeKind(oldDef))
-                    .components(getTypeKind(oldDef), getTypeKind(newDef))
-                    .reasonMsg("The new API has changed '%s' from a '%s' to a '%s'", typeName, getTypeKind(oldDef), getTypeKind(newDef))
+                    .typeKind(typeKind)
+                    .components(typeKind, newTypeKind)
+                    .reasonMsg("The new API has changed '%s' from a '%s' to a '%s'", typeName, typeKind, newTypeKind)
                     .build());
             ctx.exitType();
             return;
         }
-        if (oldDef instanceof ObjectTypeDefinition) {
-            checkObjectType(ctx, (ObjectTypeDefinition) oldDef, (ObjectTypeDefinition) newDef);
+        // the members are walked here, everything else about the types is left to the rules
+        switch (typeKind) {
+            case Object:
+                checkFields(ctx, oldTypeId, newTypeId);
+                if (ctx.reportAdditions) {
+                    reportAddedInterfaces(ctx, (ObjectTypeDefinition) oldDef, (ObjectTypeDefinition) newDef);
+                }
+                break;
+            case Interface:
+                checkFields(ctx, oldTypeId, newTypeId);
+                break;
+            case InputObject:
+                checkInputFields(ctx, oldTypeId, newTypeId);
+                break;
+            case Enum:
+                checkEnumValues(ctx, oldTypeId, newTypeId);
+                break;
+            default:
+                break;
         }
-        if (oldDef instanceof InterfaceTypeDefinition) {
-            checkInterfaceType(ctx, (InterfaceTypeDefinition) oldDef, (InterfaceTypeDefinition) newDef);
+        rules.apply(ctx, ElementKind.TYPE, typeKind, oldDef, newDef, null, null, oldDef, newDef, -1, -1);
+        checkDirectives(ctx, typeKind, oldDef, newDef, null, null, oldDef.getDirectives(), newDef.getDirectives());
+        ctx.exitType();
+    }
+
+    /*
+     * the interfaces that the object type no longer implements are left to the rules, which can be disabled, while the
+     * additions are reported here along with the other additions
+     */
+    private void reportAddedInterfaces(DiffCtx ctx, ObjectTypeDefinition oldDef, ObjectTypeDefinition newDef) {
+        ctx.merge(oldDef.getImplements(), newDef.getImplements(), SchemaDiff::getTypeName, new SortedMerge.Visitor<Type>() {
+            @Override
+            public void added(Type newType) {
+                String newInterfaceName = getTypeName(newType);
+                ctx.report(newInfo()
+                        .category(ADDITION)
+                        .typeName(oldDef.getName())
+                        .typeKind(TypeKind.Object)
+                        .components(newInterfaceName)
+                        .reasonMsg("The new API has added the interface named '%s'", newInterfaceName)
+                        .build());
+            }
+        });
+    }
+
+    private static int memberCount(TypeDefinition def) {
+        if (def instanceof ObjectTypeDefinition) {
+            return ((ObjectTypeDefinition) def).getFieldDefinitions().size();
         }
-        if (oldDef instanceof UnionTypeDefinition) {
-            checkUnionType(ctx, (UnionTypeDefinition) oldDef, (UnionTypeDefinition) newDef);
+        if (def instanceof InterfaceTypeDefinition) {
+            return ((InterfaceTypeDefinition) def).getFieldDefinitions().size();
         }
-        if (oldDef instanceof InputObjectTypeDefinition) {
-            checkInputObjectType(ctx, (InputObjectTypeDefinition) oldDef, (InputObjectTypeDefinition) newDef);
+        if (def instanceof UnionTypeDefinition) {
+            return ((UnionTypeDefinition) def).getMemberTypes().size();
         }
-        if (oldDef instanceof EnumTypeDefinition) {
-            checkEnumType(ctx, (EnumTypeDefinition) oldDef, (EnumTypeDefinition) newDef);
+        if (def instanceof InputObjectTypeDefinition) {
+            return ((InputObjectTypeDefinition) def).getInputValueDefinitions().size();
         }
-        if (oldDef instanceof ScalarTypeDefinition) {
-            checkScalarType(ctx, (ScalarTypeDefinition) oldDef, (ScalarTypeDefinition) newDef);
+        if (def instanceof EnumTypeDefinition) {
+            return ((EnumTypeDefinition) def).getEnumValueDefinitions().size();
         }
-        ctx.exitType();
+        return 0;
     }
 
     private boolean isReservedType(String typeName) {
@@ -300,474 +919,320 @@ public class SchemaDiff {
         return SYSTEM_SCALARS.contains(typeName);
     }
 
-    private void checkObjectType(DiffCtx ctx, ObjectTypeDefinition oldDef, ObjectTypeDefinition newDef) {
-        Map<String, FieldDefinition> oldFields = sortedMap(oldDef.getFieldDefinitions(), FieldDefinition::getName);
-        Map<String, FieldDefinition> newFields = sortedMap(newDef.getFieldDefinitions(), FieldDefinition::getName);
-
-        checkFields(ctx, oldDef, oldFields, newFields);
-
-        checkImplements(ctx, oldDef, oldDef.getImplements(), newDef.getImplements());
-
-        checkDirectives(ctx, oldDef, newDef);
-    }
-
-    private void checkInterfaceType(DiffCtx ctx, InterfaceTypeDefinition oldDef, InterfaceTypeDefinition newDef) {
-        Map<String, FieldDefinition> oldFields = sortedMap(oldDef.getFieldDefinitions(), FieldDefinition::getName);
-        Map<String, FieldDefinition> newFields = sortedMap(newDef.getFieldDefinitions(), FieldDefinition::getName);
-
-        checkFields(ctx, oldDef, oldFields, newFields);
-
-        checkDirectives(ctx, oldDef, newDef);
-    }
-
-    private void checkUnionType(DiffCtx ctx, UnionTypeDefinition oldDef, UnionTypeDefinition newDef) {
-        Map<String, Type> oldMemberTypes = sortedMap(oldDef.getMemberTypes(), SchemaDiff::getTypeName);
-        Map<String, Type> newMemberTypes = sortedMap(newDef.getMemberTypes(), SchemaDiff::getTypeName);
-
-        for (Map.Entry<String, Type> entry : oldMemberTypes.entrySet()) {
-            String oldMemberTypeName = entry.getKey();
-            if (!newMemberTypes.containsKey(oldMemberTypeName)) {
-                ctx.report(apiBreakage()
-                        .category(MISSING)
-                        .typeName(oldDef.getName())
-                        .typeKind(getTypeKind(oldDef))
-                        .components(oldMemberTypeName)
-                        .reasonMsg("The new API does not contain union member type '%s'", oldMemberTypeName)
-                        .build());
-            }
-        }
-        for (Map.Entry<String, Type> entry : newMemberTypes.entrySet()) {
-            String newMemberTypeName = entry.getKey();
-            if (!oldMemberTypes.containsKey(newMemberTypeName)) {
-                ctx.report(apiDanger()
-                        .category(ADDITION)
-                        .typeName(oldDef.getName())
-                        .typeKind(getTypeKind(oldDef))
-                        .components(newMemberTypeName)
-                        .reasonMsg("The new API has added a new union member type '%s'", newMemberTypeName)
-                        .build());
-            }
-        }
-        checkDirectives(ctx, oldDef, newDef);
-    }
-
-
-    private void checkInputObjectType(DiffCtx ctx, InputObjectTypeDefinition oldDef, InputObjectTypeDefinition newDef) {
-
-        checkInputFields(ctx, oldDef, oldDef.getInputValueDefinitions(), newDef.getInputValueDefinitions());
-
-        checkDirectives(ctx, oldDef, newDef);
-    }
-
-    private void checkInputFields(DiffCtx ctx, TypeDefinition old, List<InputValueDefinition> oldIVD, List<InputValueDefinition> newIVD) {
-        Map<String, InputValueDefinition> oldDefinitionMap = sortedMap(oldIVD, InputValueDefinition::getName);
-        Map<String, InputValueDefinition> newDefinitionMap = sortedMap(newIVD, InputValueDefinition::getName);
-
-        for (String inputFieldName : oldDefinitionMap.keySet()) {
-            InputValueDefinition oldField = oldDefinitionMap.get(inputFieldName);
-            Optional<InputValueDefinition> newField = Optional.ofNullable(newDefinitionMap.get(inputFieldName));
-
-            ctx.report(newInfo()
-                    .typeName(old.getName())
-                    .typeKind(getTypeKind(old))
-                    .fieldName(oldField.getName())
-                    .reasonMsg("\tExamining input field '%s' ...", mkDotName(old.getName(), oldField.getName()))
-                    .build());
-
-
-            if (!newField.isPresent()) {
+    private void checkInputFields(DiffCtx ctx, int oldTypeId, int newTypeId) {
+        SchemaModel oldModel = ctx.oldModel;
+        SchemaModel newModel = ctx.newModel;
+        TypeDefinition old = oldModel.typeDefinitions[oldTypeId];
+        TypeDefinition newDef = newModel.typeDefinitions[newTypeId];
+        ctx.mergeMembers(oldTypeId, newTypeId, new SortedMerge.IndexVisitor() {
+            @Override
+            public void missing(int oldField) {
+                reportExamining(oldField);
                 ctx.report(apiBreakage()
                         .category(MISSING)
                         .typeName(old.getName())
-                        .typeKind(getTypeKind(old))
-                        .fieldName(oldField.getName())
-                        .reasonMsg("The new API is missing an input field '%s'", mkDotName(old.getName(), oldField.getName()))
+                        .typeKind(TypeKind.InputObject)
+                        .fieldName(oldModel.memberName(oldField))
+                        .reasonMsg("The new API is missing an input field '%s'", mkDotName(old.getName(), oldModel.memberName(oldField)))
                         .build());
-            } else {
-                DiffCategory category = checkTypeWithNonNullAndList(oldField.getType(), newField.get().getType());
-                if (category != null) {
-                    ctx.report(apiBreakage()
-                            .category(category)
-                            .typeName(old.getName())
-                            .typeKind(getTypeKind(old))
-                            .fieldName(oldField.getName())
-                            .components(getAstDesc(oldField.getType()), getAstDesc(newField.get().getType()))
-                            .reasonMsg("The new API has changed input field '%s' from type '%s' to '%s'",
-                                    oldField.getName(), getAstDesc(oldField.getType()), getAstDesc(newField.get().getType()))
-                            .build());
-                }
             }
-        }
 
-        // check new fields are not mandatory
-        for (String inputFieldName : newDefinitionMap.keySet()) {
-            InputValueDefinition newField = newDefinitionMap.get(inputFieldName);
-            Optional<InputValueDefinition> oldField = Optional.ofNullable(oldDefinitionMap.get(inputFieldName));
+            @Override
+            public void common(int oldField, int newField) {
+                reportExamining(oldField);
+                ctx.fieldsCompared++;
+                rules.apply(ctx, ElementKind.INPUT_FIELD, TypeKind.InputObject, old, newDef, null, null,
+                        oldModel.inputField(oldField), newModel.inputField(newField), oldField, newField);
+            }
 
-            if (!oldField.isPresent()) {
+            @Override
+            public void added(int newField) {
+                String newFieldName = newModel.memberName(newField);
                 // new fields MUST not be mandatory
-                if (typeInfo(newField.getType()).isNonNull()) {
+                if (SchemaModel.isNonNull(newModel.memberWrappers[newField])) {
                     ctx.report(apiBreakage()
                             .category(STRICTER)
                             .typeName(old.getName())
-                            .typeKind(getTypeKind(old))
-                            .fieldName(newField.getName())
-                            .reasonMsg("The new API has made the new input field '%s' non null and hence more strict for old consumers", newField.getName())
+                            .typeKind(TypeKind.InputObject)
+                            .fieldName(newFieldName)
+                            .reasonMsg("The new API has made the new input field '%s' non null and hence more strict for old consumers", newFieldName)
+                            .build());
+                } else if (ctx.reportAdditions) {
+                    ctx.report(newInfo()
+                            .category(ADDITION)
+                            .typeName(old.getName())
+                            .typeKind(TypeKind.InputObject)
+                            .fieldName(newFieldName)
+                            .reasonMsg("The new API has added the input field '%s'", mkDotName(old.getName(), newFieldName))
                             .build());
                 }
             }
-        }
-    }
 
-    private void checkEnumType(DiffCtx ctx, EnumTypeDefinition oldDef, EnumTypeDefinition newDef) {
-        Map<String, EnumValueDefinition> oldDefinitionMap = sortedMap(oldDef.getEnumValueDefinitions(), EnumValueDefinition::getName);
-        Map<String, EnumValueDefinition> newDefinitionMap = sortedMap(newDef.getEnumValueDefinitions(), EnumValueDefinition::getName);
-
-        for (String enumName : oldDefinitionMap.keySet()) {
-            EnumValueDefinition oldEnum = oldDefinitionMap.get(enumName);
-            Optional<EnumValueDefinition> newEnum = Optional.ofNullable(newDefinitionMap.get(enumName));
+            private void reportExamining(int oldField) {
+                ctx.report(newInfo()
+                        .typeName(old.getName())
+                        .typeKind(TypeKind.InputObject)
+                        .fieldName(oldModel.memberName(oldField))
+                        .reasonMsg("\tExamining input field '%s' ...", mkDotName(old.getName(), oldModel.memberName(oldField)))
+                        .build());
+            }
+        });
+    }
 
-            if (!newEnum.isPresent()) {
+    private void checkEnumValues(DiffCtx ctx, int oldTypeId, int newTypeId) {
+        SchemaModel oldModel = ctx.oldModel;
+        SchemaModel newModel = ctx.newModel;
+        TypeDefinition oldDef = oldModel.typeDefinitions[oldTypeId];
+        TypeDefinition newDef = newModel.typeDefinitions[newTypeId];
+        ctx.mergeMembers(oldTypeId, newTypeId, new SortedMerge.IndexVisitor() {
+            @Override
+            public void missing(int oldEnum) {
                 ctx.report(apiBreakage()
                         .category(MISSING)
                         .typeName(oldDef.getName())
-                        .typeKind(getTypeKind(oldDef))
-                        .components(oldEnum.getName())
-                        .reasonMsg("The new API is missing an enum value '%s'", oldEnum.getName())
+                        .typeKind(TypeKind.Enum)
+                        .components(oldModel.memberName(oldEnum))
+                        .reasonMsg("The new API is missing an enum value '%s'", oldModel.memberName(oldEnum))
                         .build());
-            } else {
-                checkDirectives(ctx, oldDef, oldEnum.getDirectives(), newEnum.get().getDirectives());
             }
-        }
-        for (String enumName : newDefinitionMap.keySet()) {
-            EnumValueDefinition oldEnum = oldDefinitionMap.get(enumName);
 
-            if (oldEnum == null) {
+            @Override
+            public void common(int oldEnum, int newEnum) {
+                EnumValueDefinition oldValue = oldModel.enumValue(oldEnum);
+                EnumValueDefinition newValue = newModel.enumValue(newEnum);
+                rules.apply(ctx, ElementKind.ENUM_VALUE, TypeKind.Enum, oldDef, newDef, null, null, oldValue, newValue, oldEnum, newEnum);
+                checkDirectives(ctx, TypeKind.Enum, oldDef, newDef, null, null, oldValue.getDirectives(), newValue.getDirectives());
+            }
+
+            @Override
+            public void added(int newEnum) {
                 ctx.report(apiDanger()
                         .category(ADDITION)
                         .typeName(oldDef.getName())
-                        .typeKind(getTypeKind(oldDef))
-                        .components(enumName)
-                        .reasonMsg("The new API has added a new enum value '%s'", enumName)
+                        .typeKind(TypeKind.Enum)
+                        .components(newModel.memberName(newEnum))
+                        .reasonMsg("The new API has added a new enum value '%s'", newModel.memberName(newEnum))
                         .build());
             }
-        }
-        checkDirectives(ctx, oldDef, newDef);
+        });
     }
 
-    private void checkScalarType(DiffCtx ctx, ScalarTypeDefinition oldDef, ScalarTypeDefinition newDef) {
-        checkDirectives(ctx, oldDef, newDef);
+    private void checkFields(DiffCtx ctx, int oldTypeId, int newTypeId) {
+        checkFields(ctx, oldTypeId, newTypeId, visitor -> ctx.mergeMembers(oldTypeId, newTypeId, visitor));
     }
 
-    private void checkImplements(DiffCtx ctx, ObjectTypeDefinition old, List<Type> oldImplements, List<Type> newImplements) {
-        Map<String, Type> oldImplementsMap = sortedMap(oldImplements, t -> ((TypeName) t).getName());
-        Map<String, Type> newImplementsMap = sortedMap(newImplements, t -> ((TypeName) t).getName());
-
-        for (Map.Entry<String, Type> entry : oldImplementsMap.entrySet()) {
-            InterfaceTypeDefinition oldInterface = ctx.getOldTypeDef(entry.getValue(), InterfaceTypeDefinition.class).get();
-            Optional<InterfaceTypeDefinition> newInterface = ctx.getNewTypeDef(newImplementsMap.get(entry.getKey()), InterfaceTypeDefinition.class);
-            if (!newInterface.isPresent()) {
+    /*
+     * the fields of the old type are merged with those of the new type, which can be -1 if there is no such type
+     */
+    private void checkFields(DiffCtx ctx, int oldTypeId, int newTypeId, Consumer<SortedMerge.IndexVisitor> merge) {
+        SchemaModel oldModel = ctx.oldModel;
+        SchemaModel newModel = ctx.newModel;
+        TypeDefinition oldDef = oldModel.typeDefinitions[oldTypeId];
+        TypeDefinition newDef = newTypeId < 0 ? null : newModel.typeDefinitions[newTypeId];
+        TypeKind typeKind = oldModel.typeKinds[oldTypeId];
+        merge.accept(new SortedMerge.IndexVisitor() {
+            @Override
+            public void missing(int oldField) {
+                reportExamining(oldField);
                 ctx.report(apiBreakage()
                         .category(MISSING)
-                        .typeName(old.getName())
-                        .typeKind(getTypeKind(old))
-                        .components(oldInterface.getName())
-                        .reasonMsg("The new API is missing the interface named '%s'", oldInterface.getName())
+                        .typeName(oldDef.getName())
+                        .typeKind(typeKind)
+                        .fieldName(oldModel.memberName(oldField))
+                        .reasonMsg("The new API is missing the field '%s'", mkDotName(oldDef.getName(), oldModel.memberName(oldField)))
                         .build());
-            } else {
-                checkInterfaceType(ctx, oldInterface, newInterface.get());
             }
-        }
-    }
-
 
-    private void checkFields(DiffCtx ctx, TypeDefinition oldDef, Map<String, FieldDefinition> oldFields, Map<String, FieldDefinition> newFields) {
-        for (Map.Entry<String, FieldDefinition> entry : oldFields.entrySet()) {
+            @Override
+            public void common(int oldField, int newField) {
+                reportExamining(oldField);
+                ctx.fieldsCompared++;
+                checkField(ctx, typeKind, oldDef, newDef, oldField, newField);
+            }
 
-            String fieldName = entry.getKey();
-            ctx.report(newInfo()
-                    .typeName(oldDef.getName())
-                    .typeKind(getTypeKind(oldDef))
-                    .fieldName(fieldName)
-                    .reasonMsg("\tExamining field '%s' ...", mkDotName(oldDef.getName(), fieldName))
-                    .build());
+            @Override
+            public void added(int newField) {
+                // a new field is not walked into, its type is examined on its own if it is new too
+                if (ctx.reportAdditions) {
+                    ctx.report(newInfo()
+                            .category(ADDITION)
+                            .typeName(oldDef.getName())
+                            .typeKind(typeKind)
+                            .fieldName(newModel.memberName(newField))
+                            .reasonMsg("The new API has added the field '%s'", mkDotName(oldDef.getName(), newModel.memberName(newField)))
+                            .build());
+                }
+            }
 
-            FieldDefinition newField = newFields.get(fieldName);
-            if (newField == null) {
-                ctx.report(apiBreakage()
-                        .category(MISSING)
+            private void reportExamining(int oldField) {
+                ctx.report(newInfo()
                         .typeName(oldDef.getName())
-                        .typeKind(getTypeKind(oldDef))
-                        .fieldName(fieldName)
-                        .reasonMsg("The new API is missing the field '%s'", mkDotName(oldDef.getName(), fieldName))
+                        .typeKind(typeKind)
+                        .fieldName(oldModel.memberName(oldField))
+                        .reasonMsg("\tExamining field '%s' ...", mkDotName(oldDef.getName(), oldModel.memberName(oldField)))
                         .build());
-            } else {
-                checkField(ctx, oldDef, entry.getValue(), newField);
             }
-        }
+        });
     }
 
 
-    private void checkField(DiffCtx ctx, TypeDefinition old, FieldDefinition oldField, FieldDefinition newField) {
-        Type oldFieldType = oldField.getType();
-        Type newFieldType = newField.getType();
+    private void checkField(DiffCtx ctx, TypeKind typeKind, TypeDefinition old, TypeDefinition newDef, int oldMember, int newMember) {
+        FieldDefinition oldField = ctx.oldModel.field(oldMember);
+        FieldDefinition newField = ctx.newModel.field(newMember);
+        rules.apply(ctx, ElementKind.FIELD, typeKind, old, newDef, null, null, oldField, newField, oldMember, newMember);
 
-        DiffCategory category = checkTypeWithNonNullAndList(oldFieldType, newFieldType);
-        if (category != null) {
-            ctx.report(apiBreakage()
-                    .category(category)
-                    .typeName(old.getName())
-                    .typeKind(getTypeKind(old))
-                    .fieldName(oldField.getName())
-                    .components(getAstDesc(oldFieldType), getAstDesc(newFieldType))
-                    .reasonMsg("The new API has changed field '%s' from type '%s' to '%s'", mkDotName(old.getName(), oldField.getName()), getAstDesc(oldFieldType), getAstDesc(newFieldType))
-                    .build());
-        }
+        checkFieldArguments(ctx, typeKind, old, newDef, oldMember, newMember);
 
-        checkFieldArguments(ctx, old, oldField, oldField.getInputValueDefinitions(), newField.getInputValueDefinitions());
-
-        checkDirectives(ctx, old, oldField.getDirectives(), newField.getDirectives());
+        checkDirectives(ctx, typeKind, old, newDef, oldField, newField, oldField.getDirectives(), newField.getDirectives());
         //
         // and down we go again recursively via fields
         //
-        checkType(ctx, oldFieldType, newFieldType);
+        checkType(ctx, ctx.oldModel.memberTypeName(oldMember),
+                ctx.oldModel.typeOfName(ctx.oldModel.memberTypeNames[oldMember]), ctx.newModel.typeOfName(ctx.newModel.memberTypeNames[newMember]));
     }
 
-    private void checkFieldArguments(DiffCtx ctx, TypeDefinition oldDef, FieldDefinition oldField, List<InputValueDefinition> oldInputValueDefinitions, List<InputValueDefinition> newInputValueDefinitions) {
-        Map<String, InputValueDefinition> oldArgsMap = sortedMap(oldInputValueDefinitions, InputValueDefinition::getName);
-        Map<String, InputValueDefinition> newArgMap = sortedMap(newInputValueDefinitions, InputValueDefinition::getName);
+    private void checkFieldArguments(DiffCtx ctx, TypeKind typeKind, TypeDefinition oldDef, TypeDefinition newDef, int oldMember, int newMember) {
+        SchemaModel oldModel = ctx.oldModel;
+        SchemaModel newModel = ctx.newModel;
+        String fieldName = oldModel.memberName(oldMember);
+        int oldArgCount = oldModel.argStart[oldMember + 1] - oldModel.argStart[oldMember];
+        int newArgCount = newModel.argStart[newMember + 1] - newModel.argStart[newMember];
 
-        if (oldArgsMap.size() > newArgMap.size()) {
+        if (oldArgCount > newArgCount) {
             ctx.report(apiBreakage()
                     .category(MISSING)
                     .typeName(oldDef.getName())
-                    .typeKind(getTypeKind(oldDef))
-                    .fieldName(oldField.getName())
-                    .reasonMsg("The new API has less arguments on field '%s' of type '%s' than the old API", mkDotName(oldDef.getName(), oldField.getName()), oldDef.getName())
+                    .typeKind(typeKind)
+                    .fieldName(fieldName)
+                    .reasonMsg("The new API has less arguments on field '%s' of type '%s' than the old API", mkDotName(oldDef.getName(), fieldName), oldDef.getName())
                     .build());
             return;
         }
 
-        for (Map.Entry<String, InputValueDefinition> entry : oldArgsMap.entrySet()) {
-
-            String argName = entry.getKey();
-            ctx.report(newInfo()
-                    .typeName(oldDef.getName())
-                    .typeKind(getTypeKind(oldDef))
-                    .fieldName(oldField.getName())
-                    .reasonMsg("\tExamining field argument '%s' ...", mkDotName(oldDef.getName(), oldField.getName(), argName))
-                    .build());
-
-
-            InputValueDefinition newArg = newArgMap.get(argName);
-            if (newArg == null) {
+        ctx.mergeArgs(oldMember, newMember, new SortedMerge.IndexVisitor() {
+            @Override
+            public void missing(int oldArg) {
+                reportExamining(oldArg);
                 ctx.report(apiBreakage()
                         .category(MISSING)
                         .typeName(oldDef.getName())
-                        .typeKind(getTypeKind(oldDef))
-                        .fieldName(oldField.getName())
-                        .components(argName)
-                        .reasonMsg("The new API is missing the field argument '%s'", mkDotName(oldDef.getName(), oldField.getName(), argName))
+                        .typeKind(typeKind)
+                        .fieldName(fieldName)
+                        .components(oldModel.argName(oldArg))
+                        .reasonMsg("The new API is missing the field argument '%s'", mkDotName(oldDef.getName(), fieldName, oldModel.argName(oldArg)))
                         .build());
-            } else {
-                checkFieldArg(ctx, oldDef, oldField, entry.getValue(), newArg);
             }
-        }
 
-        // check new fields are not mandatory
-        for (Map.Entry<String, InputValueDefinition> entry : newArgMap.entrySet()) {
-            InputValueDefinition newArg = entry.getValue();
-            Optional<InputValueDefinition> oldArg = Optional.ofNullable(oldArgsMap.get(newArg.getName()));
+            @Override
+            public void common(int oldArg, int newArg) {
+                reportExamining(oldArg);
+                ctx.fieldsCompared++;
+                checkFieldArg(ctx, typeKind, oldDef, newDef, oldMember, newMember, oldArg, newArg);
+            }
 
-            if (!oldArg.isPresent()) {
+            @Override
+            public void added(int newArg) {
+                String newArgName = newModel.argName(newArg);
                 // new args MUST not be mandatory
-                if (typeInfo(newArg.getType()).isNonNull()) {
+                if (SchemaModel.isNonNull(newModel.argWrappers[newArg])) {
                     ctx.report(apiBreakage()
                             .category(STRICTER)
                             .typeName(oldDef.getName())
-                            .typeKind(getTypeKind(oldDef))
-                            .fieldName(oldField.getName())
-                            .components(newArg.getName())
-                            .reasonMsg("The new API has made the new argument '%s' on field '%s' non null and hence more strict for old consumers", newArg.getName(), mkDotName(oldDef.getName(), oldField.getName()))
+                            .typeKind(typeKind)
+                            .fieldName(fieldName)
+                            .components(newArgName)
+                            .reasonMsg("The new API has made the new argument '%s' on field '%s' non null and hence more strict for old consumers", newArgName, mkDotName(oldDef.getName(), fieldName))
+                            .build());
+                } else if (ctx.reportAdditions) {
+                    ctx.report(newInfo()
+                            .category(ADDITION)
+                            .typeName(oldDef.getName())
+                            .typeKind(typeKind)
+                            .fieldName(fieldName)
+                            .components(newArgName)
+                            .reasonMsg("The new API has added the field argument '%s'", mkDotName(oldDef.getName(), fieldName, newArgName))
                             .build());
                 }
             }
-        }
 
+            private void reportExamining(int oldArg) {
+                ctx.report(newInfo()
+                        .typeName(oldDef.getName())
+                        .typeKind(typeKind)
+                        .fieldName(fieldName)
+                        .reasonMsg("\tExamining field argument '%s' ...", mkDotName(oldDef.getName(), fieldName, oldModel.argName(oldArg)))
+                        .build());
+            }
+        });
     }
 
-    private void checkFieldArg(DiffCtx ctx, TypeDefinition oldDef, FieldDefinition oldField, InputValueDefinition oldArg, InputValueDefinition newArg) {
-
-        Type oldArgType = oldArg.getType();
-        Type newArgType = newArg.getType();
-
-        DiffCategory category = checkTypeWithNonNullAndList(oldArgType, newArgType);
-        if (category != null) {
-            ctx.report(apiBreakage()
-                    .category(category)
-                    .typeName(oldDef.getName())
-                    .typeKind(getTypeKind(oldDef))
-                    .fieldName(oldField.getName())
-                    .components(getAstDesc(oldArgType), getAstDesc(newArgType))
-                    .reasonMsg("The new API has changed field '%s' argument '%s' from type '%s' to '%s'", mkDotName(oldDef.getName(), oldField.getName()), oldArg.getName(), getAstDesc(oldArgType), getAstDesc(newArgType))
-                    .build());
-        } else {
+    private void checkFieldArg(DiffCtx ctx, TypeKind typeKind, TypeDefinition oldDef, TypeDefinition newDef, int oldMember, int newMember, int oldArg, int newArg) {
+        SchemaModel oldModel = ctx.oldModel;
+        SchemaModel newModel = ctx.newModel;
+        // an argument whose type has changed is reported by the argument type rule instead
+        if (ctx.compareArgTypes(oldArg, newArg) == null) {
             //
             // and down we go again recursively via arg types
             //
-            checkType(ctx, oldArgType, newArgType);
+            checkType(ctx, oldModel.argTypeName(oldArg), oldModel.typeOfName(oldModel.argTypeNames[oldArg]), newModel.typeOfName(newModel.argTypeNames[newArg]));
         }
 
-        boolean changedDefaultValue = false;
-        Value oldValue = oldArg.getDefaultValue();
-        Value newValue = newArg.getDefaultValue();
-        if (oldValue != null && newValue != null) {
-            if (!oldValue.getClass().equals(newValue.getClass())) {
-                ctx.report(apiBreakage()
-                        .category(INVALID)
-                        .typeName(oldDef.getName())
-                        .typeKind(getTypeKind(oldDef))
-                        .fieldName(oldField.getName())
-                        .components(oldArg.getName())
-                        .reasonMsg("The new API has changed default value types on argument named '%s' on field '%s' of type '%s", oldArg.getName(), mkDotName(oldDef.getName(), oldField.getName()), oldDef.getName())
-                        .build());
-            }
-            if (!oldValue.isEqualTo(newValue)) {
-                changedDefaultValue = true;
-            }
-        }
-        if (oldValue == null && newValue != null) {
-            changedDefaultValue = true;
-        }
-        if (oldValue != null && newValue == null) {
-            changedDefaultValue = true;
-        }
-        if (changedDefaultValue) {
-            ctx.report(apiDanger()
-                    .category(DIFFERENT)
-                    .typeName(oldDef.getName())
-                    .typeKind(getTypeKind(oldDef))
-                    .fieldName(oldField.getName())
-                    .components(oldArg.getName())
-                    .reasonMsg("The new API has changed default value on argument named '%s' on field '%s' of type '%s", oldArg.getName(), mkDotName(oldDef.getName(), oldField.getName()), oldDef.getName())
-                    .build());
-        }
+        FieldDefinition oldField = oldModel.field(oldMember);
+        FieldDefinition newField = newModel.field(newMember);
+        InputValueDefinition oldArgDef = oldModel.argDefinition(oldArg);
+        InputValueDefinition newArgDef = newModel.argDefinition(newArg);
+        rules.apply(ctx, ElementKind.ARGUMENT, typeKind, oldDef, newDef, oldField, newField, oldArgDef, newArgDef, oldArg, newArg);
 
-        checkDirectives(ctx, oldDef, oldArg.getDirectives(), newArg.getDirectives());
+        checkDirectives(ctx, typeKind, oldDef, newDef, oldField, newField, oldArgDef.getDirectives(), newArgDef.getDirectives());
     }
 
-    private void checkDirectives(DiffCtx ctx, TypeDefinition oldDef, TypeDefinition newDef) {
-        List<Directive> oldDirectives = oldDef.getDirectives();
-        List<Directive> newDirectives = newDef.getDirectives();
-
-        checkDirectives(ctx, oldDef, oldDirectives, newDirectives);
+    void checkDirectives(DiffCtx ctx, TypeDefinition old, List<Directive> oldDirectives, List<Directive> newDirectives) {
+        checkDirectives(ctx, getTypeKind(old), old, old, null, null, oldDirectives, newDirectives);
     }
 
-    void checkDirectives(DiffCtx ctx, TypeDefinition old, List<Directive> oldDirectives, List<Directive> newDirectives) {
+    private void checkDirectives(DiffCtx ctx, TypeKind typeKind, TypeDefinition old, TypeDefinition newDef, FieldDefinition oldField, FieldDefinition newField,
+                                 List<Directive> oldDirectives, List<Directive> newDirectives) {
         if (!options.enforceDirectives) {
             return;
         }
 
-        Map<String, Directive> oldDirectivesMap = sortedMap(oldDirectives, Directive::getName);
-        Map<String, Directive> newDirectivesMap = sortedMap(newDirectives, Directive::getName);
-
-        for (String directiveName : oldDirectivesMap.keySet()) {
-            Directive oldDirective = oldDirectivesMap.get(directiveName);
-            Optional<Directive> newDirective = Optional.ofNullable(newDirectivesMap.get(directiveName));
-            if (!newDirective.isPresent()) {
+        ctx.merge(oldDirectives, newDirectives, Directive::getName, new SortedMerge.Visitor<Directive>() {
+            @Override
+            public void missing(Directive oldDirective) {
                 ctx.report(apiBreakage()
                         .category(MISSING)
                         .typeName(old.getName())
-                        .typeKind(getTypeKind(old))
-                        .components(directiveName)
-                        .reasonMsg("The new API does not have a directive named '%s' on type '%s'", directiveName, old.getName())
+                        .typeKind(typeKind)
+                        .components(oldDirective.getName())
+                        .reasonMsg("The new API does not have a directive named '%s' on type '%s'", oldDirective.getName(), old.getName())
                         .build());
-                continue;
             }
 
-
-            Map<String, Argument> oldArgumentsByName = new TreeMap<>(oldDirective.getArgumentsByName());
-            Map<String, Argument> newArgumentsByName = new TreeMap<>(newDirective.get().getArgumentsByName());
-
-            if (oldArgumentsByName.size() > newArgumentsByName.size()) {
-                ctx.report(apiBreakage()
-                        .category(MISSING)
-                        .typeName(old.getName())
-                        .typeKind(getTypeKind(old))
-                        .components(directiveName)
-                        .reasonMsg("The new API has less arguments on directive '%s' on type '%s' than the old API", directiveName, old.getName())
-                        .build());
-                return;
+            @Override
+            public void common(Directive oldDirective, Directive newDirective) {
+                rules.apply(ctx, ElementKind.DIRECTIVE, typeKind, old, newDef, oldField, newField, oldDirective, newDirective, -1, -1);
             }
 
-            for (String argName : oldArgumentsByName.keySet()) {
-                Argument oldArgument = oldArgumentsByName.get(argName);
-                Optional<Argument> newArgument = Optional.ofNullable(newArgumentsByName.get(argName));
-
-                if (!newArgument.isPresent()) {
-                    ctx.report(apiBreakage()
-                            .category(MISSING)
+            @Override
+            public void added(Directive newDirective) {
+                if (ctx.reportAdditions) {
+                    ctx.report(newInfo()
+                            .category(ADDITION)
                             .typeName(old.getName())
-                            .typeKind(getTypeKind(old))
-                            .components(directiveName, argName)
-                            .reasonMsg("The new API does not have an argument named '%s' on directive '%s' on type '%s'", argName, directiveName, old.getName())
+                            .typeKind(typeKind)
+                            .components(newDirective.getName())
+                            .reasonMsg("The new API has added a directive named '%s' on type '%s'", newDirective.getName(), old.getName())
                             .build());
-                } else {
-                    Value oldValue = oldArgument.getValue();
-                    Value newValue = newArgument.get().getValue();
-                    if (oldValue != null && newValue != null) {
-                        if (!oldValue.getClass().equals(newValue.getClass())) {
-                            ctx.report(apiBreakage()
-                                    .category(INVALID)
-                                    .typeName(old.getName())
-                                    .typeKind(getTypeKind(old))
-                                    .components(directiveName, argName)
-                                    .reasonMsg("The new API has changed value types on argument named '%s' on directive '%s' on type '%s'", argName, directiveName, old.getName())
-                                    .build());
-                        }
-                    }
                 }
             }
-        }
+        });
     }
 
     DiffCategory checkTypeWithNonNullAndList(Type oldType, Type newType) {
-        TypeInfo oldTypeInfo = typeInfo(oldType);
-        TypeInfo newTypeInfo = typeInfo(newType);
-
-        if (!oldTypeInfo.getName().equals(newTypeInfo.getName())) {
-            return INVALID;
-        }
-
-        while (true) {
-            //
-            // its allowed to get more less strict in the new but not more strict
-            if (oldTypeInfo.isNonNull() && newTypeInfo.isNonNull()) {
-                oldTypeInfo = oldTypeInfo.unwrapOne();
-                newTypeInfo = newTypeInfo.unwrapOne();
-            } else if (oldTypeInfo.isNonNull() && !newTypeInfo.isNonNull()) {
-                oldTypeInfo = oldTypeInfo.unwrapOne();
-            } else if (!oldTypeInfo.isNonNull() && newTypeInfo.isNonNull()) {
-                return STRICTER;
-            }
-            // lists
-            if (oldTypeInfo.isList() && !newTypeInfo.isList()) {
-                return INVALID;
-            }
-            // plain
-            if (oldTypeInfo.isPlain()) {
-                if (!newTypeInfo.isPlain()) {
-                    return INVALID;
-                }
-                break;
-            }
-            oldTypeInfo = oldTypeInfo.unwrapOne();
-            newTypeInfo = newTypeInfo.unwrapOne();
-        }
-        return null;
+        return SchemaModel.compareTypes(SchemaModel.namedType(oldType).equals(SchemaModel.namedType(newType)),
+                SchemaModel.wrappers(oldType), SchemaModel.wrappers(newType));
     }
 
-
     static String getTypeName(Type type) {
         if (type == null) {
             return null;
@@ -775,14 +1240,6 @@ public class SchemaDiff {
         return typeInfo(type).getName();
     }
 
-    @SuppressWarnings("ConstantConditions")
-    private Optional<SchemaDefinition> getSchemaDef(Document document) {
-        return document.getDefinitions().stream()
-                .filter(d -> d instanceof SchemaDefinition)
-                .map(SchemaDefinition.class::cast)
-                .findFirst();
-    }
-
     private Optional<OperationTypeDefinition> getOpDef(String opName, SchemaDefinition schemaDef) {
         return schemaDef.getOperationTypeDefinitions()
                 .stream()
@@ -803,11 +1260,6 @@ public class SchemaDiff {
         }
     }
 
-    private <T> Map<String, T> sortedMap(List<T> listOfNamedThings, Function<T, String> nameFunc) {
-        Map<String, T> map = listOfNamedThings.stream().collect(Collectors.toMap(nameFunc, Function.identity(), (x, y) -> y));
-        return new TreeMap<>(map);
-    }
-
     private static String capitalize(String name) {
         if (name != null && name.length() != 0) {
             char[] chars = name.toCharArray();
@@ -0,0 +1,22 @@
+package com.graphql.diff;
+
+import graphql.PublicSpi;
+import graphql.language.Document;
+
+import java.io.IOException;
+
+/**
+ * Loads a version of a schema, for example from a file location or a {@link com.graphql.diff.store.SchemaStore}
+ */
+@PublicSpi
+public interface SchemaLoader {
+
+    /**
+     * @param version the version to load
+     *
+     * @return the schema definition of the version
+     *
+     * @throws IOException if the version cannot be read
+     */
+    Document load(String version) throws IOException;
+}
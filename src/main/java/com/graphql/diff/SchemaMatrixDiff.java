@@ -0,0 +1,236 @@
+package com.graphql.diff;
+
+import com.graphql.diff.reporting.DifferenceReporterFactory;
+import graphql.Assert;
+import graphql.PublicApi;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Diffs every one of a set of older schema versions against every one of a set of newer versions, for example the
+ * schemas that each released client version was built against against the schema a server is about to deploy.
+ *
+ * Each distinct version is loaded and hashed once, in parallel, and shared by all the pairs it is part of.  The pairs
+ * are then diffed in parallel, starting with the pairs that have the most changed types since they take the longest.
+ */
+@PublicApi
+public class SchemaMatrixDiff {
+
+    /**
+     * The breaking changes of every pair of older and newer versions
+     */
+    @PublicApi
+    public static class Result {
+        private final List<String> oldVersions;
+        private final List<String> newVersions;
+        private final Map<String, Map<String, DiffSummary>> summaries;
+
+        Result(List<String> oldVersions, List<String> newVersions, Map<String, Map<String, DiffSummary>> summaries) {
+            this.oldVersions = Collections.unmodifiableList(oldVersions);
+            this.newVersions = Collections.unmodifiableList(newVersions);
+            this.summaries = summaries;
+        }
+
+        /**
+         * @return the rows of the matrix
+         */
+        public List<String> getOldVersions() {
+            return oldVersions;
+        }
+
+        /**
+         * @return the columns of the matrix
+         */
+        public List<String> getNewVersions() {
+            return newVersions;
+        }
+
+        /**
+         * @param oldVersion the older version
+         * @param newVersion the newer version
+         *
+         * @return the summary of the difference of the two versions
+         */
+        public DiffSummary getSummary(String oldVersion, String newVersion) {
+            Map<String, DiffSummary> row = summaries.get(oldVersion);
+            Assert.assertTrue(row != null && row.containsKey(newVersion), "The versions are not part of the matrix");
+            return row.get(newVersion);
+        }
+
+        /**
+         * @param oldVersion the older version
+         * @param newVersion the newer version
+         *
+         * @return the number of breaking changes from the older version to the newer one
+         */
+        public int getBreakingCount(String oldVersion, String newVersion) {
+            return getSummary(oldVersion, newVersion).getBreakingCount();
+        }
+
+        /**
+         * @param oldVersion the older version
+         * @param newVersion the newer version
+         *
+         * @return true if the newer version has no breaking changes for consumers of the older one
+         */
+        public boolean isCompatible(String oldVersion, String newVersion) {
+            return getBreakingCount(oldVersion, newVersion) == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "oldVersions=" + oldVersions +
+                    ", newVersions=" + newVersions +
+                    '}';
+        }
+    }
+
+    private static class Pair {
+        final LoadedSchema oldSchema;
+        final LoadedSchema newSchema;
+        final int changedTypes;
+
+        Pair(LoadedSchema oldSchema, LoadedSchema newSchema) {
+            this.oldSchema = oldSchema;
+            this.newSchema = newSchema;
+            this.changedTypes = changedTypes(oldSchema.typeHashes, newSchema.typeHashes);
+        }
+    }
+
+    private final SchemaDiff schemaDiff;
+    private final int workers;
+
+    /**
+     * Constructs a matrix differ that uses a thread per available processor
+     *
+     * @param schemaDiff the differ to use for each pair of versions
+     */
+    public SchemaMatrixDiff(SchemaDiff schemaDiff) {
+        this(schemaDiff, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a matrix differ
+     *
+     * @param schemaDiff the differ to use for each pair of versions
+     * @param workers    the number of threads to load and diff on
+     */
+    public SchemaMatrixDiff(SchemaDiff schemaDiff, int workers) {
+        Assert.assertTrue(workers > 0, "workers must be greater than zero");
+        this.schemaDiff = Assert.assertNotNull(schemaDiff, "schemaDiff must be provided");
+        this.workers = workers;
+    }
+
+    /**
+     * Diffs every older version against every newer version
+     *
+     * @param oldVersions the older versions, the rows of the matrix
+     * @param newVersions the newer versions, the columns of the matrix
+     * @param loader      how to load a version
+     * @param reporters   the reporters of the differences
+     *
+     * @return the summaries of the differences
+     *
+     * @throws IOException if a version cannot be loaded
+     */
+    public Result diffMatrix(List<String> oldVersions, List<String> newVersions, SchemaLoader loader, DifferenceReporterFactory reporters) throws IOException {
+        Assert.assertTrue(!oldVersions.isEmpty() && !newVersions.isEmpty(), "At least one older and one newer version are needed");
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "graphql-diff-matrix");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Map<String, LoadedSchema> schemas = loadAll(oldVersions, newVersions, loader, executor);
+
+            List<Pair> pairs = new ArrayList<>();
+            for (String oldVersion : oldVersions) {
+                for (String newVersion : newVersions) {
+                    pairs.add(new Pair(schemas.get(oldVersion), schemas.get(newVersion)));
+                }
+            }
+            // the pool takes work in submission order so the longest differences start first and do not end up last on their own
+            pairs.sort(Comparator.comparingInt((Pair pair) -> pair.changedTypes).reversed());
+            Map<Pair, Future<DiffSummary>> futures = new LinkedHashMap<>();
+            for (Pair pair : pairs) {
+                futures.put(pair, executor.submit(() ->
+                        schemaDiff.diffSchemaWithSummary(pair.oldSchema.diffSet(pair.newSchema), reporters.reporterFor(pair.oldSchema.name, pair.newSchema.name))));
+            }
+
+            Map<String, Map<String, DiffSummary>> summaries = new LinkedHashMap<>();
+            for (Map.Entry<Pair, Future<DiffSummary>> entry : futures.entrySet()) {
+                Pair pair = entry.getKey();
+                summaries.computeIfAbsent(pair.oldSchema.name, name -> new LinkedHashMap<>()).put(pair.newSchema.name, await(entry.getValue()));
+            }
+            return new Result(new ArrayList<>(oldVersions), new ArrayList<>(newVersions), summaries);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Map<String, LoadedSchema> loadAll(List<String> oldVersions, List<String> newVersions, SchemaLoader loader, ExecutorService executor) {
+        Set<String> versions = new LinkedHashSet<>(oldVersions);
+        versions.addAll(newVersions);
+        Map<String, Future<LoadedSchema>> futures = new LinkedHashMap<>();
+        for (String version : versions) {
+            futures.put(version, executor.submit(() -> {
+                try {
+                    return LoadedSchema.load(loader, version);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        Map<String, LoadedSchema> schemas = new LinkedHashMap<>();
+        futures.forEach((version, future) -> schemas.put(version, await(future)));
+        return schemas;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while diffing the matrix of versions", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /*
+     * types that are unchanged are skipped by the differ so the number of changed types is what a difference costs
+     */
+    private static int changedTypes(Map<String, String> oldTypeHashes, Map<String, String> newTypeHashes) {
+        int changed = 0;
+        for (Map.Entry<String, String> entry : oldTypeHashes.entrySet()) {
+            if (!entry.getValue().equals(newTypeHashes.get(entry.getKey()))) {
+                changed++;
+            }
+        }
+        for (String typeName : newTypeHashes.keySet()) {
+            if (!oldTypeHashes.containsKey(typeName)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
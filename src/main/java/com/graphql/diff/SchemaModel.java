@@ -0,0 +1,453 @@
+package com.graphql.diff;
+
+import graphql.Assert;
+import graphql.Internal;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValueDefinition;
+import graphql.language.FieldDefinition;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ListType;
+import graphql.language.Node;
+import graphql.language.NonNullType;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.SchemaDefinition;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import static com.graphql.diff.DiffCategory.INVALID;
+import static com.graphql.diff.DiffCategory.STRICTER;
+
+/*
+ * An immutable, int indexed view of a schema document that the differ runs against.  It is built once per document
+ * and kept for as long as the document is, so diffing a baseline against many other schemas pays for it once.
+ *
+ * Every name in the schema is in one sorted pool and is referred to by its index, which means that name order is int
+ * order.  Types are numbered in document order.  The members of each type (fields, input fields or enum values) and
+ * the arguments of each field are laid out in flat arrays, sorted by name with the last of any duplicates kept, and
+ * a type or field refers to its range of them.  The list and non null wrappers of a field or argument type are
+ * folded into an int so that comparing two type references is an int comparison in the common case.
+ *
+ * Only the type definitions are kept of the AST.  The rules and difference events that are given a member or argument
+ * node have it looked up in the definition of its type, so the model holds no reference per member or argument.
+ */
+@Internal
+class SchemaModel {
+
+    // the low bits of a wrapper signature are the list depth and the rest flag the non null levels, outermost first
+    private static final int DEPTH_BITS = 5;
+    private static final int DEPTH_MASK = (1 << DEPTH_BITS) - 1;
+
+    private static final Map<Document, SchemaModel> MODELS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    final String[] names;
+
+    final TypeDefinition[] typeDefinitions;
+    final TypeKind[] typeKinds;
+    final int[] typeNames;
+    private final int[] typesByName;
+    final SchemaDefinition schemaDefinition;
+    final TypeGraph graph;
+
+    final int[] memberStart;
+    final int[] memberNames;
+    final int[] memberTypeNames;
+    final int[] memberWrappers;
+
+    final int[] argStart;
+    final int[] argNames;
+    final int[] argTypeNames;
+    final int[] argWrappers;
+
+    /**
+     * Documents are compared by identity and are not expected to change once they have been diffed
+     *
+     * @param document the schema document, which can be null for an empty schema
+     *
+     * @return the model of the document, built now if it has not been before
+     */
+    static SchemaModel of(Document document) {
+        if (document == null) {
+            return new SchemaModel(Collections.emptyList());
+        }
+        SchemaModel model = MODELS.get(document);
+        if (model == null) {
+            // the model must not refer to the document itself, else the document would never be collected
+            model = new SchemaModel(document.getDefinitions());
+            MODELS.put(document, model);
+        }
+        return model;
+    }
+
+    static boolean isBuilt(Document document) {
+        return document != null && MODELS.containsKey(document);
+    }
+
+    private SchemaModel(List<Definition> definitions) {
+        List<TypeDefinition> types = new ArrayList<>();
+        SchemaDefinition schemaDefinition = null;
+        for (Definition definition : definitions) {
+            if (definition instanceof TypeDefinition) {
+                types.add((TypeDefinition) definition);
+            } else if (definition instanceof SchemaDefinition && schemaDefinition == null) {
+                schemaDefinition = (SchemaDefinition) definition;
+            }
+        }
+        this.schemaDefinition = schemaDefinition;
+        this.graph = TypeGraph.build(types);
+
+        // the members of each type and the arguments of each field in name order
+        int typeCount = types.size();
+        List<List<? extends Node>> membersOfTypes = new ArrayList<>(typeCount);
+        List<List<InputValueDefinition>> argsOfFields = new ArrayList<>();
+        Set<String> allNames = new HashSet<>();
+        for (TypeDefinition type : types) {
+            allNames.add(type.getName());
+            List<? extends Node> members = sortedMembers(type);
+            membersOfTypes.add(members);
+            for (Node member : members) {
+                allNames.add(nameOf(member));
+                if (member instanceof FieldDefinition) {
+                    List<InputValueDefinition> args = SortedMerge.sort(((FieldDefinition) member).getInputValueDefinitions(), InputValueDefinition::getName);
+                    argsOfFields.add(args);
+                    for (InputValueDefinition arg : args) {
+                        allNames.add(arg.getName());
+                        allNames.add(namedType(arg.getType()));
+                    }
+                } else {
+                    argsOfFields.add(Collections.emptyList());
+                }
+                if (!(member instanceof EnumValueDefinition)) {
+                    allNames.add(namedType(typeOf(member)));
+                }
+            }
+        }
+
+        this.names = allNames.toArray(new String[0]);
+        Arrays.sort(names);
+        Map<String, Integer> nameIds = new HashMap<>(names.length * 2);
+        for (int id = 0; id < names.length; id++) {
+            nameIds.put(names[id], id);
+        }
+
+        this.typeDefinitions = types.toArray(new TypeDefinition[0]);
+        this.typeKinds = new TypeKind[typeCount];
+        this.typeNames = new int[typeCount];
+        this.typesByName = new int[names.length];
+        Arrays.fill(typesByName, -1);
+        for (int typeId = 0; typeId < typeCount; typeId++) {
+            typeKinds[typeId] = TypeKind.getTypeKind(typeDefinitions[typeId]);
+            typeNames[typeId] = nameIds.get(typeDefinitions[typeId].getName());
+            // the last of any types with the same name is the one that is found
+            typesByName[typeNames[typeId]] = typeId;
+        }
+
+        int memberCount = argsOfFields.size();
+        int argCount = 0;
+        for (List<InputValueDefinition> args : argsOfFields) {
+            argCount += args.size();
+        }
+        this.memberStart = new int[typeCount + 1];
+        this.memberNames = new int[memberCount];
+        this.memberTypeNames = new int[memberCount];
+        this.memberWrappers = new int[memberCount];
+        this.argStart = new int[memberCount + 1];
+        this.argNames = new int[argCount];
+        this.argTypeNames = new int[argCount];
+        this.argWrappers = new int[argCount];
+
+        int member = 0;
+        int arg = 0;
+        for (int typeId = 0; typeId < typeCount; typeId++) {
+            memberStart[typeId] = member;
+            for (Node memberDefinition : membersOfTypes.get(typeId)) {
+                memberNames[member] = nameIds.get(nameOf(memberDefinition));
+                if (memberDefinition instanceof EnumValueDefinition) {
+                    memberTypeNames[member] = -1;
+                } else {
+                    Type type = typeOf(memberDefinition);
+                    memberTypeNames[member] = nameIds.get(namedType(type));
+                    memberWrappers[member] = wrappers(type);
+                }
+                argStart[member] = arg;
+                for (InputValueDefinition argDefinition : argsOfFields.get(member)) {
+                    argNames[arg] = nameIds.get(argDefinition.getName());
+                    argTypeNames[arg] = nameIds.get(namedType(argDefinition.getType()));
+                    argWrappers[arg] = wrappers(argDefinition.getType());
+                    arg++;
+                }
+                member++;
+            }
+        }
+        memberStart[typeCount] = member;
+        argStart[memberCount] = arg;
+    }
+
+    private static List<? extends Node> sortedMembers(TypeDefinition type) {
+        return SortedMerge.sort(declaredMembers(type), SchemaModel::nameOf);
+    }
+
+    private static List<? extends Node> declaredMembers(TypeDefinition type) {
+        if (type instanceof ObjectTypeDefinition) {
+            return ((ObjectTypeDefinition) type).getFieldDefinitions();
+        }
+        if (type instanceof InterfaceTypeDefinition) {
+            return ((InterfaceTypeDefinition) type).getFieldDefinitions();
+        }
+        if (type instanceof InputObjectTypeDefinition) {
+            return ((InputObjectTypeDefinition) type).getInputValueDefinitions();
+        }
+        if (type instanceof EnumTypeDefinition) {
+            return ((EnumTypeDefinition) type).getEnumValueDefinitions();
+        }
+        return Collections.emptyList();
+    }
+
+    private static String nameOf(Node member) {
+        if (member instanceof FieldDefinition) {
+            return ((FieldDefinition) member).getName();
+        }
+        if (member instanceof InputValueDefinition) {
+            return ((InputValueDefinition) member).getName();
+        }
+        return ((EnumValueDefinition) member).getName();
+    }
+
+    private static Type typeOf(Node member) {
+        if (member instanceof FieldDefinition) {
+            return ((FieldDefinition) member).getType();
+        }
+        return ((InputValueDefinition) member).getType();
+    }
+
+    /**
+     * @param name a name
+     *
+     * @return the id of the name or -1 if it is not used in this schema
+     */
+    int nameId(String name) {
+        int id = Arrays.binarySearch(names, name);
+        return id < 0 ? -1 : id;
+    }
+
+    /**
+     * @param nameId the id of a name or -1
+     *
+     * @return the id of the type with that name or -1 if there is none
+     */
+    int typeOfName(int nameId) {
+        return nameId < 0 ? -1 : typesByName[nameId];
+    }
+
+    int typeId(String typeName) {
+        return typeOfName(nameId(typeName));
+    }
+
+    TypeDefinition typeDefinition(String typeName) {
+        int typeId = typeId(typeName);
+        return typeId < 0 ? null : typeDefinitions[typeId];
+    }
+
+    int typeCount() {
+        return typeDefinitions.length;
+    }
+
+    /**
+     * @param typeId     the id of a type
+     * @param memberName the name of a member
+     *
+     * @return the index of the named member of the type or -1 if it has none
+     */
+    int member(int typeId, String memberName) {
+        int nameId = nameId(memberName);
+        if (nameId < 0) {
+            return -1;
+        }
+        int member = Arrays.binarySearch(memberNames, memberStart[typeId], memberStart[typeId + 1], nameId);
+        return member < 0 ? -1 : member;
+    }
+
+    FieldDefinition field(int member) {
+        return (FieldDefinition) memberDefinition(member);
+    }
+
+    InputValueDefinition inputField(int member) {
+        return (InputValueDefinition) memberDefinition(member);
+    }
+
+    EnumValueDefinition enumValue(int member) {
+        return (EnumValueDefinition) memberDefinition(member);
+    }
+
+    InputValueDefinition argDefinition(int arg) {
+        int member = rangeOf(argStart, arg);
+        return (InputValueDefinition) find(field(member).getInputValueDefinitions(), argStart, member, arg, names[argNames[arg]]);
+    }
+
+    private Node memberDefinition(int member) {
+        int typeId = rangeOf(memberStart, member);
+        return find(declaredMembers(typeDefinitions[typeId]), memberStart, typeId, member, names[memberNames[member]]);
+    }
+
+    /*
+     * the last of the range starts that is at or before the index, which is the range holding it even when empty
+     * ranges start at the same place
+     */
+    private static int rangeOf(int[] starts, int index) {
+        int low = 0;
+        int high = starts.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * finds the declared node of a member or argument.  Without duplicate names the declarations are usually in name
+     * order already, so the place of the node in its sorted range is tried first, and otherwise the declarations are
+     * searched from the end since the last of any duplicates is the one that was kept.
+     */
+    private static Node find(List<? extends Node> declared, int[] starts, int range, int index, String name) {
+        int position = index - starts[range];
+        if (declared.size() == starts[range + 1] - starts[range] && name.equals(nameOf(declared.get(position)))) {
+            return declared.get(position);
+        }
+        for (int i = declared.size() - 1; i >= 0; i--) {
+            if (name.equals(nameOf(declared.get(i)))) {
+                return declared.get(i);
+            }
+        }
+        return Assert.assertShouldNeverHappen("No declaration of '" + name + "'");
+    }
+
+    String memberName(int member) {
+        return names[memberNames[member]];
+    }
+
+    String memberTypeName(int member) {
+        return names[memberTypeNames[member]];
+    }
+
+    String argName(int arg) {
+        return names[argNames[arg]];
+    }
+
+    String argTypeName(int arg) {
+        return names[argTypeNames[arg]];
+    }
+
+    static String namedType(Type type) {
+        while (!(type instanceof TypeName)) {
+            type = type instanceof NonNullType ? ((NonNullType) type).getType() : ((ListType) type).getType();
+        }
+        return ((TypeName) type).getName();
+    }
+
+    /**
+     * @param type a type reference
+     *
+     * @return the list and non null wrappers of the type folded into an int
+     */
+    static int wrappers(Type type) {
+        int depth = 0;
+        int nonNull = 0;
+        while (!(type instanceof TypeName)) {
+            if (type instanceof NonNullType) {
+                nonNull |= 1 << depth;
+                type = ((NonNullType) type).getType();
+            } else {
+                depth++;
+                type = ((ListType) type).getType();
+            }
+        }
+        return depth | nonNull << DEPTH_BITS;
+    }
+
+    static boolean isNonNull(int wrappers) {
+        return (wrappers & 1 << DEPTH_BITS) != 0;
+    }
+
+    /**
+     * Compares two type references level by level from the outside in.  A level can become less strict but not more
+     * strict, and a list has to stay a list.
+     *
+     * @param sameName    whether the named types of the references are the same
+     * @param oldWrappers the wrappers of the old reference
+     * @param newWrappers the wrappers of the new reference
+     *
+     * @return the category of the change or null if the new reference is compatible
+     */
+    static DiffCategory compareTypes(boolean sameName, int oldWrappers, int newWrappers) {
+        if (!sameName) {
+            return INVALID;
+        }
+        if (oldWrappers == newWrappers) {
+            return null;
+        }
+        int oldDepth = oldWrappers & DEPTH_MASK;
+        int newDepth = newWrappers & DEPTH_MASK;
+        for (int level = 0; ; level++) {
+            boolean oldNonNull = (oldWrappers >>> (DEPTH_BITS + level) & 1) != 0;
+            boolean newNonNull = (newWrappers >>> (DEPTH_BITS + level) & 1) != 0;
+            if (!oldNonNull && newNonNull) {
+                return STRICTER;
+            }
+            boolean oldList = level < oldDepth;
+            if (oldList != level < newDepth) {
+                return INVALID;
+            }
+            if (!oldList) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Ranks the names of two models in one order, so that names can be matched and ordered across the models by
+     * comparing ints.  A name in both models has the same rank in both.
+     *
+     * @param oldModel the old model
+     * @param newModel the new model
+     *
+     * @return the ranks of the old names and the ranks of the new names
+     */
+    static int[][] jointRanks(SchemaModel oldModel, SchemaModel newModel) {
+        String[] oldNames = oldModel.names;
+        String[] newNames = newModel.names;
+        int[] oldRanks = new int[oldNames.length];
+        int[] newRanks = new int[newNames.length];
+        int o = 0;
+        int n = 0;
+        int rank = 0;
+        while (o < oldNames.length || n < newNames.length) {
+            int cmp = o == oldNames.length ? 1 : n == newNames.length ? -1 : oldNames[o].compareTo(newNames[n]);
+            if (cmp <= 0) {
+                oldRanks[o++] = rank;
+            }
+            if (cmp >= 0) {
+                newRanks[n++] = rank;
+            }
+            rank++;
+        }
+        return new int[][]{oldRanks, newRanks};
+    }
+}
@@ -0,0 +1,165 @@
+package com.graphql.diff;
+
+import graphql.Internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+ * The shared comparison primitive of the differ.  Member lists (fields, arguments, enum values, directives and so on)
+ * are sorted by name once and then merge joined in a single linear pass to find the members that are missing,
+ * common or added.
+ */
+@Internal
+class SortedMerge {
+
+    /**
+     * Called back as the merge finds members.  Missing and common members are called back in name order
+     * and added members are called back afterwards (again in name order) so that events come out in a stable order.
+     *
+     * @param <T> the type of named things being merged
+     */
+    interface Visitor<T> {
+
+        default void missing(T oldThing) {
+        }
+
+        default void common(T oldThing, T newThing) {
+        }
+
+        default void added(T newThing) {
+        }
+    }
+
+    /**
+     * Sorts a list of named things by name.  If there are duplicate names then the last one wins.
+     *
+     * @param listOfNamedThings the things to sort
+     * @param nameFunc          how to get a name from a thing
+     * @param <T>               the type of named things
+     *
+     * @return a new sorted list with unique names
+     */
+    static <T> List<T> sort(List<T> listOfNamedThings, Function<T, String> nameFunc) {
+        List<T> sorted = new ArrayList<>(listOfNamedThings);
+        // List.sort is stable so the last of any duplicates stays last in its run
+        sorted.sort(Comparator.comparing(nameFunc));
+        List<T> unique = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            T thing = sorted.get(i);
+            if (i + 1 < sorted.size() && nameFunc.apply(sorted.get(i + 1)).equals(nameFunc.apply(thing))) {
+                continue;
+            }
+            unique.add(thing);
+        }
+        return unique;
+    }
+
+    /**
+     * Merge joins two lists that have been sorted via {@link #sort(java.util.List, java.util.function.Function)}
+     *
+     * @param oldSorted the sorted old things
+     * @param newSorted the sorted new things
+     * @param nameFunc  how to get a name from a thing
+     * @param visitor   the visitor to call back
+     * @param <T>       the type of named things
+     */
+    static <T> void merge(List<T> oldSorted, List<T> newSorted, Function<T, String> nameFunc, Visitor<T> visitor) {
+        List<T> added = null;
+        int o = 0;
+        int n = 0;
+        while (o < oldSorted.size() || n < newSorted.size()) {
+            if (n == newSorted.size()) {
+                visitor.missing(oldSorted.get(o++));
+                continue;
+            }
+            if (o == oldSorted.size()) {
+                added = addTo(added, newSorted.get(n++));
+                continue;
+            }
+            T oldThing = oldSorted.get(o);
+            T newThing = newSorted.get(n);
+            int cmp = nameFunc.apply(oldThing).compareTo(nameFunc.apply(newThing));
+            if (cmp < 0) {
+                visitor.missing(oldThing);
+                o++;
+            } else if (cmp > 0) {
+                added = addTo(added, newThing);
+                n++;
+            } else {
+                visitor.common(oldThing, newThing);
+                o++;
+                n++;
+            }
+        }
+        if (added != null) {
+            for (T newThing : added) {
+                visitor.added(newThing);
+            }
+        }
+    }
+
+    /**
+     * Called back as {@link #merge(int[], int[], int, int, int[], int[], int, int, SortedMerge.IndexVisitor)} finds
+     * members, in the same order as {@link SortedMerge.Visitor}
+     */
+    interface IndexVisitor {
+
+        default void missing(int oldIndex) {
+        }
+
+        default void common(int oldIndex, int newIndex) {
+        }
+
+        default void added(int newIndex) {
+        }
+    }
+
+    /**
+     * Merge joins two ranges of {@link com.graphql.diff.SchemaModel} members or arguments, which are already
+     * sorted by name.  The names are compared by their joint ranks so that no strings are compared.
+     *
+     * @param oldNames the name ids of the old members
+     * @param oldRanks the joint ranks of the old name ids
+     * @param oldFrom  the first old member
+     * @param oldTo    the end of the old members
+     * @param newNames the name ids of the new members
+     * @param newRanks the joint ranks of the new name ids
+     * @param newFrom  the first new member
+     * @param newTo    the end of the new members
+     * @param visitor  the visitor to call back
+     */
+    static void merge(int[] oldNames, int[] oldRanks, int oldFrom, int oldTo,
+                      int[] newNames, int[] newRanks, int newFrom, int newTo, IndexVisitor visitor) {
+        int[] added = null;
+        int addedCount = 0;
+        int o = oldFrom;
+        int n = newFrom;
+        while (o < oldTo || n < newTo) {
+            int cmp = n == newTo ? -1 : o == oldTo ? 1 : Integer.compare(oldRanks[oldNames[o]], newRanks[newNames[n]]);
+            if (cmp < 0) {
+                visitor.missing(o++);
+            } else if (cmp > 0) {
+                if (added == null) {
+                    added = new int[newTo - n];
+                }
+                added[addedCount++] = n++;
+            } else {
+                visitor.common(o++, n++);
+            }
+        }
+        for (int i = 0; i < addedCount; i++) {
+            visitor.added(added[i]);
+        }
+    }
+
+    private static <T> List<T> addTo(List<T> list, T thing) {
+        if (list == null) {
+            list = new ArrayList<>();
+        }
+        list.add(thing);
+        return list;
+    }
+}
@@ -0,0 +1,326 @@
+package com.graphql.diff;
+
+import com.graphql.diff.rules.BuiltInRules;
+import com.graphql.diff.rules.CompatibilityRule;
+import com.graphql.diff.rules.ElementKind;
+import com.graphql.diff.rules.RuleContext;
+import graphql.Internal;
+import graphql.language.Argument;
+import graphql.language.Directive;
+import graphql.language.FieldDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeName;
+import graphql.language.UnionTypeDefinition;
+import graphql.language.Value;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.graphql.diff.DiffCategory.ADDITION;
+import static com.graphql.diff.DiffCategory.DIFFERENT;
+import static com.graphql.diff.DiffCategory.INVALID;
+import static com.graphql.diff.DiffCategory.MISSING;
+import static com.graphql.diff.DiffEvent.apiBreakage;
+import static com.graphql.diff.DiffEvent.apiDanger;
+import static com.graphql.diff.TypeKind.getTypeKind;
+import static com.graphql.diff.util.TypeInfo.getAstDesc;
+
+/*
+ * The rules every differ starts with.  They are given the DiffCtx as their context, which lets them use its sorted
+ * member lists, lookup counters and the precomputed type references of the SchemaModels.
+ */
+@Internal
+class StandardRules {
+
+    private static abstract class Rule<T> implements CompatibilityRule<T> {
+        private final String name;
+        private final ElementKind elementKind;
+        private final Set<TypeKind> typeKinds;
+
+        Rule(String name, ElementKind elementKind, Set<TypeKind> typeKinds) {
+            this.name = name;
+            this.elementKind = elementKind;
+            this.typeKinds = typeKinds;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public ElementKind getElementKind() {
+            return elementKind;
+        }
+
+        @Override
+        public Set<TypeKind> getTypeKinds() {
+            return typeKinds;
+        }
+
+        @Override
+        public void check(RuleContext ctx, T oldElement, T newElement) {
+            check((DiffCtx) ctx, oldElement, newElement);
+        }
+
+        abstract void check(DiffCtx ctx, T oldElement, T newElement);
+    }
+
+    private static final Set<TypeKind> FIELD_TYPES = EnumSet.of(TypeKind.Object, TypeKind.Interface);
+
+    static List<CompatibilityRule<?>> rules() {
+        return Arrays.asList(
+                fieldType(),
+                argumentType(),
+                argumentDefaultValue(),
+                inputFieldType(),
+                objectInterfaces(),
+                unionMembers(),
+                directiveArguments());
+    }
+
+    private static CompatibilityRule<FieldDefinition> fieldType() {
+        return new Rule<FieldDefinition>(BuiltInRules.FIELD_TYPE, ElementKind.FIELD, FIELD_TYPES) {
+            @Override
+            void check(DiffCtx ctx, FieldDefinition oldField, FieldDefinition newField) {
+                TypeDefinition old = ctx.getOldType();
+                Type oldFieldType = oldField.getType();
+                Type newFieldType = newField.getType();
+                DiffCategory category = ctx.compareMemberTypes(ctx.ruleOldIndex, ctx.ruleNewIndex);
+                if (category != null) {
+                    ctx.report(apiBreakage()
+                            .category(category)
+                            .typeName(old.getName())
+                            .typeKind(getTypeKind(old))
+                            .fieldName(oldField.getName())
+                            .components(getAstDesc(oldFieldType), getAstDesc(newFieldType))
+                            .reasonMsg("The new API has changed field '%s' from type '%s' to '%s'", mkDotName(old.getName(), oldField.getName()), getAstDesc(oldFieldType), getAstDesc(newFieldType))
+                            .build());
+                }
+            }
+        };
+    }
+
+    private static CompatibilityRule<InputValueDefinition> argumentType() {
+        return new Rule<InputValueDefinition>(BuiltInRules.ARGUMENT_TYPE, ElementKind.ARGUMENT, FIELD_TYPES) {
+            @Override
+            void check(DiffCtx ctx, InputValueDefinition oldArg, InputValueDefinition newArg) {
+                TypeDefinition oldDef = ctx.getOldType();
+                FieldDefinition oldField = ctx.getOldField();
+                Type oldArgType = oldArg.getType();
+                Type newArgType = newArg.getType();
+                DiffCategory category = ctx.compareArgTypes(ctx.ruleOldIndex, ctx.ruleNewIndex);
+                if (category != null) {
+                    ctx.report(apiBreakage()
+                            .category(category)
+                            .typeName(oldDef.getName())
+                            .typeKind(getTypeKind(oldDef))
+                            .fieldName(oldField.getName())
+                            .components(getAstDesc(oldArgType), getAstDesc(newArgType))
+                            .reasonMsg("The new API has changed field '%s' argument '%s' from type '%s' to '%s'", mkDotName(oldDef.getName(), oldField.getName()), oldArg.getName(), getAstDesc(oldArgType), getAstDesc(newArgType))
+                            .build());
+                }
+            }
+        };
+    }
+
+    private static CompatibilityRule<InputValueDefinition> argumentDefaultValue() {
+        return new Rule<InputValueDefinition>(BuiltInRules.ARGUMENT_DEFAULT_VALUE, ElementKind.ARGUMENT, FIELD_TYPES) {
+            @Override
+            void check(DiffCtx ctx, InputValueDefinition oldArg, InputValueDefinition newArg) {
+                TypeDefinition oldDef = ctx.getOldType();
+                FieldDefinition oldField = ctx.getOldField();
+                boolean changedDefaultValue = false;
+                Value oldValue = oldArg.getDefaultValue();
+                Value newValue = newArg.getDefaultValue();
+                if (oldValue != null && newValue != null) {
+                    if (!oldValue.getClass().equals(newValue.getClass())) {
+                        ctx.report(apiBreakage()
+                                .category(INVALID)
+                                .typeName(oldDef.getName())
+                                .typeKind(getTypeKind(oldDef))
+                                .fieldName(oldField.getName())
+                                .components(oldArg.getName())
+                                .reasonMsg("The new API has changed default value types on argument named '%s' on field '%s' of type '%s", oldArg.getName(), mkDotName(oldDef.getName(), oldField.getName()), oldDef.getName())
+                                .build());
+                    }
+                    if (!oldValue.isEqualTo(newValue)) {
+                        changedDefaultValue = true;
+                    }
+                }
+                if (oldValue == null && newValue != null) {
+                    changedDefaultValue = true;
+                }
+                if (oldValue != null && newValue == null) {
+                    changedDefaultValue = true;
+                }
+                if (changedDefaultValue) {
+                    ctx.report(apiDanger()
+                            .category(DIFFERENT)
+                            .typeName(oldDef.getName())
+                            .typeKind(getTypeKind(oldDef))
+                            .fieldName(oldField.getName())
+                            .components(oldArg.getName())
+                            .reasonMsg("The new API has changed default value on argument named '%s' on field '%s' of type '%s", oldArg.getName(), mkDotName(oldDef.getName(), oldField.getName()), oldDef.getName())
+                            .build());
+                }
+            }
+        };
+    }
+
+    private static CompatibilityRule<InputValueDefinition> inputFieldType() {
+        return new Rule<InputValueDefinition>(BuiltInRules.INPUT_FIELD_TYPE, ElementKind.INPUT_FIELD, EnumSet.of(TypeKind.InputObject)) {
+            @Override
+            void check(DiffCtx ctx, InputValueDefinition oldField, InputValueDefinition newField) {
+                TypeDefinition old = ctx.getOldType();
+                DiffCategory category = ctx.compareMemberTypes(ctx.ruleOldIndex, ctx.ruleNewIndex);
+                if (category != null) {
+                    ctx.report(apiBreakage()
+                            .category(category)
+                            .typeName(old.getName())
+                            .typeKind(getTypeKind(old))
+                            .fieldName(oldField.getName())
+                            .components(getAstDesc(oldField.getType()), getAstDesc(newField.getType()))
+                            .reasonMsg("The new API has changed input field '%s' from type '%s' to '%s'",
+                                    oldField.getName(), getAstDesc(oldField.getType()), getAstDesc(newField.getType()))
+                            .build());
+                }
+            }
+        };
+    }
+
+    private static CompatibilityRule<TypeDefinition> objectInterfaces() {
+        return new Rule<TypeDefinition>(BuiltInRules.OBJECT_INTERFACES, ElementKind.TYPE, EnumSet.of(TypeKind.Object)) {
+            @Override
+            void check(DiffCtx ctx, TypeDefinition oldDef, TypeDefinition newDef) {
+                ObjectTypeDefinition old = (ObjectTypeDefinition) oldDef;
+                List<Type> oldImplements = old.getImplements();
+                List<Type> newImplements = ((ObjectTypeDefinition) newDef).getImplements();
+                ctx.merge(oldImplements, newImplements, t -> ((TypeName) t).getName(), new SortedMerge.Visitor<Type>() {
+                    @Override
+                    public void missing(Type oldType) {
+                        InterfaceTypeDefinition oldInterface = ctx.getOldTypeDef(oldType, InterfaceTypeDefinition.class).get();
+                        reportMissing(oldInterface);
+                    }
+
+                    @Override
+                    public void common(Type oldType, Type newType) {
+                        // the fields of the interface are compared when the interface itself is examined, so all that
+                        // is left here is whether the object type still implements an interface of that name
+                        if (!ctx.getNewTypeDef(newType, InterfaceTypeDefinition.class).isPresent()) {
+                            reportMissing(ctx.getOldTypeDef(oldType, InterfaceTypeDefinition.class).get());
+                        }
+                    }
+
+                    private void reportMissing(InterfaceTypeDefinition oldInterface) {
+                        ctx.report(apiBreakage()
+                                .category(MISSING)
+                                .typeName(old.getName())
+                                .typeKind(getTypeKind(old))
+                                .components(oldInterface.getName())
+                                .reasonMsg("The new API is missing the interface named '%s'", oldInterface.getName())
+                                .build());
+                    }
+                });
+            }
+        };
+    }
+
+    private static CompatibilityRule<TypeDefinition> unionMembers() {
+        return new Rule<TypeDefinition>(BuiltInRules.UNION_MEMBERS, ElementKind.TYPE, EnumSet.of(TypeKind.Union)) {
+            @Override
+            void check(DiffCtx ctx, TypeDefinition oldTypeDef, TypeDefinition newTypeDef) {
+                UnionTypeDefinition oldDef = (UnionTypeDefinition) oldTypeDef;
+                UnionTypeDefinition newDef = (UnionTypeDefinition) newTypeDef;
+                ctx.merge(oldDef.getMemberTypes(), newDef.getMemberTypes(), SchemaDiff::getTypeName, new SortedMerge.Visitor<Type>() {
+                    @Override
+                    public void missing(Type oldMemberType) {
+                        String oldMemberTypeName = SchemaDiff.getTypeName(oldMemberType);
+                        ctx.report(apiBreakage()
+                                .category(MISSING)
+                                .typeName(oldDef.getName())
+                                .typeKind(getTypeKind(oldDef))
+                                .components(oldMemberTypeName)
+                                .reasonMsg("The new API does not contain union member type '%s'", oldMemberTypeName)
+                                .build());
+                    }
+
+                    @Override
+                    public void added(Type newMemberType) {
+                        String newMemberTypeName = SchemaDiff.getTypeName(newMemberType);
+                        ctx.report(apiDanger()
+                                .category(ADDITION)
+                                .typeName(oldDef.getName())
+                                .typeKind(getTypeKind(oldDef))
+                                .components(newMemberTypeName)
+                                .reasonMsg("The new API has added a new union member type '%s'", newMemberTypeName)
+                                .build());
+                    }
+                });
+            }
+        };
+    }
+
+    private static CompatibilityRule<Directive> directiveArguments() {
+        return new Rule<Directive>(BuiltInRules.DIRECTIVE_ARGUMENTS, ElementKind.DIRECTIVE, EnumSet.allOf(TypeKind.class)) {
+            @Override
+            void check(DiffCtx ctx, Directive oldDirective, Directive newDirective) {
+                TypeDefinition old = ctx.getOldType();
+                String directiveName = oldDirective.getName();
+                List<Argument> oldArguments = ctx.sorted(oldDirective.getArguments(), Argument::getName);
+                List<Argument> newArguments = ctx.sorted(newDirective.getArguments(), Argument::getName);
+
+                if (oldArguments.size() > newArguments.size()) {
+                    ctx.report(apiBreakage()
+                            .category(MISSING)
+                            .typeName(old.getName())
+                            .typeKind(getTypeKind(old))
+                            .components(directiveName)
+                            .reasonMsg("The new API has less arguments on directive '%s' on type '%s' than the old API", directiveName, old.getName())
+                            .build());
+                    return;
+                }
+
+                SortedMerge.merge(oldArguments, newArguments, Argument::getName, new SortedMerge.Visitor<Argument>() {
+                    @Override
+                    public void missing(Argument oldArgument) {
+                        ctx.report(apiBreakage()
+                                .category(MISSING)
+                                .typeName(old.getName())
+                                .typeKind(getTypeKind(old))
+                                .components(directiveName, oldArgument.getName())
+                                .reasonMsg("The new API does not have an argument named '%s' on directive '%s' on type '%s'", oldArgument.getName(), directiveName, old.getName())
+                                .build());
+                    }
+
+                    @Override
+                    public void common(Argument oldArgument, Argument newArgument) {
+                        Value oldValue = oldArgument.getValue();
+                        Value newValue = newArgument.getValue();
+                        if (oldValue != null && newValue != null) {
+                            if (!oldValue.getClass().equals(newValue.getClass())) {
+                                ctx.report(apiBreakage()
+                                        .category(INVALID)
+                                        .typeName(old.getName())
+                                        .typeKind(getTypeKind(old))
+                                        .components(directiveName, oldArgument.getName())
+                                        .reasonMsg("The new API has changed value types on argument named '%s' on directive '%s' on type '%s'", oldArgument.getName(), directiveName, old.getName())
+                                        .build());
+                            }
+                        }
+                    }
+                });
+            }
+        };
+    }
+
+    private static String mkDotName(String... objectNames) {
+        return String.join(".", objectNames);
+    }
+}
@@ -0,0 +1,210 @@
+package com.graphql.diff;
+
+import graphql.Internal;
+import graphql.language.FieldDefinition;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.UnionTypeDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.graphql.diff.util.TypeInfo.typeInfo;
+
+/*
+ * The type names of a schema document, which is built as part of its SchemaModel, along with an int indexed
+ * adjacency structure of which types refer to which.  Interfaces are adjacent to the object types that implement
+ * them so that a breadth first walk from the operation types reaches everything a client could ever see.
+ */
+@Internal
+class TypeGraph {
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[][] adjacency;
+
+    private TypeGraph(String[] names, Map<String, Integer> ids, int[][] adjacency) {
+        this.names = names;
+        this.ids = ids;
+        this.adjacency = adjacency;
+    }
+
+    static TypeGraph build(List<TypeDefinition> typeDefinitions) {
+        int size = typeDefinitions.size();
+        String[] names = new String[size];
+        TypeDefinition[] definitions = new TypeDefinition[size];
+        Map<String, Integer> ids = new HashMap<>(size * 2);
+        for (int id = 0; id < size; id++) {
+            definitions[id] = typeDefinitions.get(id);
+            names[id] = definitions[id].getName();
+            ids.put(names[id], id);
+        }
+
+        EdgeBuilder edges = new EdgeBuilder(size, ids);
+        for (int id = 0; id < size; id++) {
+            TypeDefinition definition = definitions[id];
+            if (definition instanceof ObjectTypeDefinition) {
+                ObjectTypeDefinition objectType = (ObjectTypeDefinition) definition;
+                edges.addFields(id, objectType.getFieldDefinitions());
+                for (Type implemented : objectType.getImplements()) {
+                    edges.add(id, implemented);
+                    edges.addReverse(implemented, id);
+                }
+            }
+            if (definition instanceof InterfaceTypeDefinition) {
+                edges.addFields(id, ((InterfaceTypeDefinition) definition).getFieldDefinitions());
+            }
+            if (definition instanceof UnionTypeDefinition) {
+                for (Type memberType : ((UnionTypeDefinition) definition).getMemberTypes()) {
+                    edges.add(id, memberType);
+                }
+            }
+            if (definition instanceof InputObjectTypeDefinition) {
+                edges.addInputValues(id, ((InputObjectTypeDefinition) definition).getInputValueDefinitions());
+            }
+        }
+        return new TypeGraph(names, ids, edges.build());
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * Walks the graph breadth first from the named root types
+     *
+     * @param rootNames the names of the root types, those that are not in the graph are ignored
+     *
+     * @return the names of the reachable types in the order they were reached
+     */
+    List<String> reachableFrom(List<String> rootNames) {
+        BitSet visited = new BitSet(names.length);
+        int[] queue = new int[names.length];
+        int head = 0;
+        int tail = 0;
+        for (String rootName : rootNames) {
+            Integer root = ids.get(rootName);
+            if (root != null && !visited.get(root)) {
+                visited.set(root);
+                queue[tail++] = root;
+            }
+        }
+        while (head < tail) {
+            int id = queue[head++];
+            for (int adjacent : adjacency[id]) {
+                if (!visited.get(adjacent)) {
+                    visited.set(adjacent);
+                    queue[tail++] = adjacent;
+                }
+            }
+        }
+        List<String> reachable = new ArrayList<>(tail);
+        for (int i = 0; i < tail; i++) {
+            reachable.add(names[queue[i]]);
+        }
+        return reachable;
+    }
+
+    /**
+     * @param reachable the result of {@link #reachableFrom(java.util.List)}
+     *
+     * @return the sorted names of the types that are not reachable
+     */
+    List<String> unreachable(List<String> reachable) {
+        BitSet visited = new BitSet(names.length);
+        for (String name : reachable) {
+            visited.set(ids.get(name));
+        }
+        List<String> unreachable = new ArrayList<>();
+        for (int id = visited.nextClearBit(0); id < names.length; id = visited.nextClearBit(id + 1)) {
+            unreachable.add(names[id]);
+        }
+        unreachable.sort(String::compareTo);
+        return unreachable;
+    }
+
+    /**
+     * @param typeNames the names of some types, those that are not in the graph are ignored
+     *
+     * @return the names of the types that have an edge to any of the named types
+     */
+    Set<String> referrersOf(Set<String> typeNames) {
+        Set<String> referrers = new HashSet<>();
+        for (int id = 0; id < names.length; id++) {
+            for (int adjacent : adjacency[id]) {
+                if (typeNames.contains(names[adjacent])) {
+                    referrers.add(names[id]);
+                    break;
+                }
+            }
+        }
+        return referrers;
+    }
+
+    private static class EdgeBuilder {
+        private final Map<String, Integer> ids;
+        private final int[][] edges;
+        private final int[] counts;
+
+        EdgeBuilder(int size, Map<String, Integer> ids) {
+            this.ids = ids;
+            this.edges = new int[size][];
+            this.counts = new int[size];
+            Arrays.fill(edges, new int[0]);
+        }
+
+        void addFields(int from, List<FieldDefinition> fieldDefinitions) {
+            for (FieldDefinition fieldDefinition : fieldDefinitions) {
+                add(from, fieldDefinition.getType());
+                addInputValues(from, fieldDefinition.getInputValueDefinitions());
+            }
+        }
+
+        void addInputValues(int from, List<InputValueDefinition> inputValueDefinitions) {
+            for (InputValueDefinition inputValueDefinition : inputValueDefinitions) {
+                add(from, inputValueDefinition.getType());
+            }
+        }
+
+        void add(int from, Type to) {
+            Integer toId = ids.get(typeInfo(to).getName());
+            if (toId != null) {
+                add(from, toId);
+            }
+        }
+
+        void addReverse(Type from, int to) {
+            Integer fromId = ids.get(typeInfo(from).getName());
+            if (fromId != null) {
+                add(fromId, to);
+            }
+        }
+
+        private void add(int from, int to) {
+            int[] fromEdges = edges[from];
+            if (counts[from] == fromEdges.length) {
+                fromEdges = Arrays.copyOf(fromEdges, Math.max(4, fromEdges.length * 2));
+                edges[from] = fromEdges;
+            }
+            fromEdges[counts[from]++] = to;
+        }
+
+        int[][] build() {
+            int[][] adjacency = new int[edges.length][];
+            for (int id = 0; id < edges.length; id++) {
+                adjacency[id] = Arrays.copyOf(edges[id], counts[id]);
+            }
+            return adjacency;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.graphql.diff.cache;
+
+import com.graphql.diff.DiffEvent;
+import graphql.PublicApi;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A cache that chains together caches from fastest to slowest, such as an {@link com.graphql.diff.cache.LruDiffResultCache}
+ * in front of a {@link com.graphql.diff.cache.DiskDiffResultCache}.  A result found in a slower cache is copied into
+ * the faster caches in front of it.
+ */
+@PublicApi
+public class ChainedDiffResultCache implements DiffResultCache {
+
+    private final List<DiffResultCache> caches;
+
+    public ChainedDiffResultCache(DiffResultCache... caches) {
+        this(Arrays.asList(caches));
+    }
+
+    public ChainedDiffResultCache(List<DiffResultCache> caches) {
+        this.caches = caches;
+    }
+
+    @Override
+    public List<DiffEvent> get(String key) {
+        for (int i = 0; i < caches.size(); i++) {
+            List<DiffEvent> events = caches.get(i).get(key);
+            if (events != null) {
+                for (int j = 0; j < i; j++) {
+                    caches.get(j).put(key, events);
+                }
+                return events;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void put(String key, List<DiffEvent> events) {
+        caches.forEach(cache -> cache.put(key, events));
+    }
+}
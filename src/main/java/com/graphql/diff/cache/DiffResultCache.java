@@ -0,0 +1,30 @@
+package com.graphql.diff.cache;
+
+import com.graphql.diff.DiffEvent;
+import graphql.PublicSpi;
+
+import java.util.List;
+
+/**
+ * A cache of the events of previous difference operations.  The keys are made by {@link com.graphql.diff.SchemaDiff}
+ * out of the fingerprints of both schemas and the options that affect the result, so the same pair of schemas
+ * diffed with the same options always has the same key.
+ *
+ * Implementations must be safe to call from multiple threads.
+ */
+@PublicSpi
+public interface DiffResultCache {
+
+    /**
+     * @param key the key of the difference operation
+     *
+     * @return the events that were reported in order or null if the key is not in the cache
+     */
+    List<DiffEvent> get(String key);
+
+    /**
+     * @param key    the key of the difference operation
+     * @param events the events that were reported in order
+     */
+    void put(String key, List<DiffEvent> events);
+}
@@ -0,0 +1,158 @@
+package com.graphql.diff.cache;
+
+import com.graphql.diff.DiffCategory;
+import com.graphql.diff.DiffEvent;
+import com.graphql.diff.DiffLevel;
+import com.graphql.diff.TypeKind;
+import com.graphql.diff.util.TypeHasher;
+import graphql.PublicApi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cache that keeps difference results as files in a directory so that they outlive the JVM, for example
+ * across the retries and jobs of a CI pipeline.  Files that cannot be read are treated as cache misses.
+ */
+@PublicApi
+public class DiskDiffResultCache implements DiffResultCache {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+
+    /**
+     * @param directory the directory to keep the results in, it is created if need be
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    public DiskDiffResultCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public List<DiffEvent> get(String key) {
+        Path path = pathOf(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != FORMAT_VERSION || !key.equals(readString(in))) {
+                return null;
+            }
+            int count = in.readInt();
+            List<DiffEvent> events = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                events.add(readEvent(in));
+            }
+            return events;
+        } catch (IOException | RuntimeException e) {
+            // a missing or corrupt file is a miss and will be overwritten by the next put
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, List<DiffEvent> events) {
+        Path path = pathOf(key);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, key);
+                out.writeInt(events.size());
+                for (DiffEvent event : events) {
+                    writeEvent(out, event);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // caching is best effort, the next difference operation will simply be a miss
+        } finally {
+            deleteIfLeft(temp);
+        }
+    }
+
+    /*
+     * the temp file is only left behind if writing or moving it failed
+     */
+    private static void deleteIfLeft(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            // nothing more can be done, the file is ignored by get since it does not end in .diff
+        }
+    }
+
+    private Path pathOf(String key) {
+        return directory.resolve(TypeHasher.toHex(TypeHasher.sha256().digest(key.getBytes(StandardCharsets.UTF_8))) + ".diff");
+    }
+
+    private static void writeEvent(DataOutputStream out, DiffEvent event) throws IOException {
+        writeString(out, event.getLevel().name());
+        writeString(out, event.getCategory() == null ? null : event.getCategory().name());
+        writeString(out, event.getTypeKind() == null ? null : event.getTypeKind().name());
+        writeString(out, event.getTypeName());
+        writeString(out, event.getFieldName());
+        writeString(out, event.getReasonMsg());
+        List<String> components = event.getComponents();
+        out.writeInt(components.size());
+        for (String component : components) {
+            writeString(out, component);
+        }
+    }
+
+    private static DiffEvent readEvent(DataInputStream in) throws IOException {
+        DiffEvent.Builder builder = new DiffEvent.Builder().level(DiffLevel.valueOf(readString(in)));
+        String category = readString(in);
+        if (category != null) {
+            builder.category(DiffCategory.valueOf(category));
+        }
+        String typeKind = readString(in);
+        if (typeKind != null) {
+            builder.typeKind(TypeKind.valueOf(typeKind));
+        }
+        builder.typeName(readString(in));
+        builder.fieldName(readString(in));
+        String reasonMsg = readString(in);
+        if (reasonMsg != null) {
+            builder.reasonMsg("%s", reasonMsg);
+        }
+        int count = in.readInt();
+        Object[] components = new Object[count];
+        for (int i = 0; i < count; i++) {
+            components[i] = readString(in);
+        }
+        return builder.components(components).build();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
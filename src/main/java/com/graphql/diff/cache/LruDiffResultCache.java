@@ -0,0 +1,48 @@
+package com.graphql.diff.cache;
+
+import com.graphql.diff.DiffEvent;
+import graphql.Assert;
+import graphql.PublicApi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An in memory cache that holds on to a bounded number of difference results, evicting the least recently used
+ */
+@PublicApi
+public class LruDiffResultCache implements DiffResultCache {
+
+    private final Map<String, List<DiffEvent>> results;
+
+    /**
+     * @param maxEntries the maximum number of difference results to hold on to
+     */
+    public LruDiffResultCache(int maxEntries) {
+        Assert.assertTrue(maxEntries > 0, "maxEntries must be greater than zero");
+        this.results = new LinkedHashMap<String, List<DiffEvent>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<DiffEvent>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized List<DiffEvent> get(String key) {
+        return results.get(key);
+    }
+
+    @Override
+    public synchronized void put(String key, List<DiffEvent> events) {
+        // the list handed out by get is shared by every caller so none of them may change it
+        results.put(key, Collections.unmodifiableList(new ArrayList<>(events)));
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+}
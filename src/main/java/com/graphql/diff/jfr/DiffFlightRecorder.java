@@ -0,0 +1,96 @@
+package com.graphql.diff.jfr;
+
+import com.graphql.diff.DiffSummary;
+import com.graphql.diff.TypeKind;
+import graphql.Internal;
+
+/**
+ * The differ emits Java Flight Recorder events via this class.  If the JVM does not have JFR (or it has been turned off
+ * via the {@code graphql.diff.jfr=false} system property) then a no-op recorder is used and no JFR classes are ever loaded.
+ */
+@Internal
+public class DiffFlightRecorder {
+
+    /**
+     * Ends a load or conversion span
+     */
+    public interface Span {
+        void finish();
+    }
+
+    /**
+     * Ends a whole schema diff span
+     */
+    public interface DiffSpan {
+        void finish(DiffSummary summary);
+    }
+
+    /**
+     * Ends the comparison of a single type
+     */
+    public interface TypeSpan {
+        /**
+         * @param typeKind      the kind of the old type
+         * @param fieldCount    the number of members (fields, input fields, enum values or union members) of the old type
+         * @param eventsEmitted the events emitted by this type not counting those of the nested types it led to
+         * @param selfNanos     the time taken by this type not counting the nested types it led to
+         */
+        void finish(TypeKind typeKind, int fieldCount, int eventsEmitted, long selfNanos);
+    }
+
+    private static final Span NOOP_SPAN = () -> {
+    };
+    private static final DiffSpan NOOP_DIFF_SPAN = summary -> {
+    };
+    private static final TypeSpan NOOP_TYPE_SPAN = (typeKind, fieldCount, eventsEmitted, selfNanos) -> {
+    };
+
+    private static final DiffFlightRecorder INSTANCE = create();
+
+    /**
+     * @return the flight recorder for this JVM
+     */
+    public static DiffFlightRecorder get() {
+        return INSTANCE;
+    }
+
+    private static DiffFlightRecorder create() {
+        if (!Boolean.parseBoolean(System.getProperty("graphql.diff.jfr", "true"))) {
+            return new DiffFlightRecorder();
+        }
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, DiffFlightRecorder.class.getClassLoader());
+            // only now is it safe to load classes that extend jdk.jfr.Event
+            Class<?> recorderClass = Class.forName("com.graphql.diff.jfr.JfrDiffFlightRecorder");
+            return (DiffFlightRecorder) recorderClass.getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            return new DiffFlightRecorder();
+        }
+    }
+
+    DiffFlightRecorder() {
+    }
+
+    /**
+     * @return true if per type comparison events are being recorded
+     */
+    public boolean isTypeTracingEnabled() {
+        return false;
+    }
+
+    public Span beginLoad(String location) {
+        return NOOP_SPAN;
+    }
+
+    public Span beginConversion() {
+        return NOOP_SPAN;
+    }
+
+    public DiffSpan beginDiff() {
+        return NOOP_DIFF_SPAN;
+    }
+
+    public TypeSpan beginType(String typeName) {
+        return NOOP_TYPE_SPAN;
+    }
+}
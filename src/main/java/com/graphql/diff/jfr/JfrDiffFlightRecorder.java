@@ -0,0 +1,60 @@
+package com.graphql.diff.jfr;
+
+import graphql.Internal;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/*
+ * This is only ever loaded reflectively by DiffFlightRecorder once it knows the JVM has JFR
+ */
+@Internal
+class JfrDiffFlightRecorder extends DiffFlightRecorder {
+
+    private final EventType typeComparisonType;
+
+    JfrDiffFlightRecorder() {
+        if (!FlightRecorder.isAvailable()) {
+            throw new IllegalStateException("Flight recorder is not available in this JVM");
+        }
+        FlightRecorder.register(SchemaLoadEvent.class);
+        FlightRecorder.register(SchemaConversionEvent.class);
+        FlightRecorder.register(SchemaDiffEvent.class);
+        FlightRecorder.register(TypeComparisonEvent.class);
+        typeComparisonType = EventType.getEventType(TypeComparisonEvent.class);
+    }
+
+    @Override
+    public boolean isTypeTracingEnabled() {
+        return typeComparisonType.isEnabled();
+    }
+
+    @Override
+    public Span beginLoad(String location) {
+        SchemaLoadEvent event = new SchemaLoadEvent();
+        event.location = location;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public Span beginConversion() {
+        SchemaConversionEvent event = new SchemaConversionEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public DiffSpan beginDiff() {
+        SchemaDiffEvent event = new SchemaDiffEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public TypeSpan beginType(String typeName) {
+        TypeComparisonEvent event = new TypeComparisonEvent();
+        event.typeName = typeName;
+        event.begin();
+        return event;
+    }
+}
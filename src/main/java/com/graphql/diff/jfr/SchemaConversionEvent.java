@@ -0,0 +1,19 @@
+package com.graphql.diff.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("graphql.diff.SchemaConversion")
+@Label("Schema Conversion")
+@Category({"GraphQL", "Schema Diff"})
+@Description("Converting the old and new introspection results into schema definition documents")
+class SchemaConversionEvent extends Event implements DiffFlightRecorder.Span {
+
+    @Override
+    public void finish() {
+        commit();
+    }
+}
@@ -0,0 +1,39 @@
+package com.graphql.diff.jfr;
+
+import com.graphql.diff.DiffLevel;
+import com.graphql.diff.DiffSummary;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("graphql.diff.SchemaDiff")
+@Label("Schema Diff")
+@Category({"GraphQL", "Schema Diff"})
+@Description("A whole schema difference operation")
+class SchemaDiffEvent extends Event implements DiffFlightRecorder.DiffSpan {
+
+    @Label("Types Visited")
+    int typesVisited;
+
+    @Label("Fields Compared")
+    int fieldsCompared;
+
+    @Label("Breaking Events")
+    int breakingEvents;
+
+    @Label("Dangerous Events")
+    int dangerousEvents;
+
+    @Override
+    public void finish(DiffSummary summary) {
+        if (shouldCommit()) {
+            typesVisited = summary.getTypesVisited();
+            fieldsCompared = summary.getFieldsCompared();
+            breakingEvents = summary.getEventCount(DiffLevel.BREAKING);
+            dangerousEvents = summary.getEventCount(DiffLevel.DANGEROUS);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.graphql.diff.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("graphql.diff.SchemaLoad")
+@Label("Schema Load")
+@Category({"GraphQL", "Schema Diff"})
+@Description("Reading a schema from a file or url")
+class SchemaLoadEvent extends Event implements DiffFlightRecorder.Span {
+
+    @Label("Location")
+    String location;
+
+    @Override
+    public void finish() {
+        commit();
+    }
+}
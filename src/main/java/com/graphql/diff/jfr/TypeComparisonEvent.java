@@ -0,0 +1,43 @@
+package com.graphql.diff.jfr;
+
+import com.graphql.diff.TypeKind;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("graphql.diff.TypeComparison")
+@Label("Type Comparison")
+@Category({"GraphQL", "Schema Diff"})
+@Description("The comparison of one old type against its new counterpart.  The duration includes the nested types it led to, the self time does not")
+class TypeComparisonEvent extends Event implements DiffFlightRecorder.TypeSpan {
+
+    @Label("Type Name")
+    String typeName;
+
+    @Label("Type Kind")
+    String typeKind;
+
+    @Label("Field Count")
+    int fieldCount;
+
+    @Label("Events Emitted")
+    int eventsEmitted;
+
+    @Label("Self Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long selfTime;
+
+    @Override
+    public void finish(TypeKind typeKind, int fieldCount, int eventsEmitted, long selfNanos) {
+        if (shouldCommit()) {
+            this.typeKind = String.valueOf(typeKind);
+            this.fieldCount = fieldCount;
+            this.eventsEmitted = eventsEmitted;
+            this.selfTime = selfNanos;
+            commit();
+        }
+    }
+}
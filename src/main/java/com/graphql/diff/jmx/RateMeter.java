@@ -0,0 +1,51 @@
+package com.graphql.diff.jmx;
+
+import graphql.Internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * A lock free rate meter over a sliding window of one second slots.  Slots are lazily reset when a new second
+ * reuses them, and a racing reset can at worst lose a count or two which is fine for a monitoring rate.
+ */
+@Internal
+class RateMeter {
+
+    private final int windowSeconds;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray seconds;
+
+    RateMeter(int windowSeconds) {
+        this.windowSeconds = windowSeconds;
+        this.counts = new AtomicLongArray(windowSeconds);
+        this.seconds = new AtomicLongArray(windowSeconds);
+    }
+
+    void mark(long nowNanos) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(nowNanos);
+        int slot = (int) Math.floorMod(second, (long) windowSeconds);
+        long slotSecond = seconds.get(slot);
+        if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+            counts.set(slot, 0);
+        }
+        counts.incrementAndGet(slot);
+    }
+
+    /**
+     * @param nowNanos the current {@link System#nanoTime()}
+     *
+     * @return the average events per second over the completed seconds of the window
+     */
+    double ratePerSecond(long nowNanos) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(nowNanos);
+        long total = 0;
+        for (int slot = 0; slot < windowSeconds; slot++) {
+            long slotSecond = seconds.get(slot);
+            if (slotSecond < second && second - slotSecond < windowSeconds) {
+                total += counts.get(slot);
+            }
+        }
+        return total / (double) (windowSeconds - 1);
+    }
+}
@@ -0,0 +1,166 @@
+package com.graphql.diff.jmx;
+
+import com.graphql.diff.DiffCategory;
+import com.graphql.diff.DiffLevel;
+import com.graphql.diff.DiffSummary;
+import com.graphql.diff.metrics.DiffMetricsListener;
+import graphql.PublicApi;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live statistics of the {@link com.graphql.diff.SchemaDiff} runs in a process, suitable for exposing via JMX.
+ * <p>
+ * It is updated by using it as the metrics listener of the differ, for example
+ * <pre>
+ * {@code
+ *     SchemaDiffStats stats = new SchemaDiffStats();
+ *     stats.register();
+ *     SchemaDiff differ = new SchemaDiff(SchemaDiff.Options.defaultOptions().metricsListener(stats));
+ * }
+ * </pre>
+ * All updates are made via striped counters and atomic arrays so the differ never takes a lock.
+ */
+@PublicApi
+public class SchemaDiffStats implements SchemaDiffStatsMXBean, DiffMetricsListener {
+
+    public static final String DEFAULT_OBJECT_NAME = "com.graphql.diff:type=SchemaDiffStats";
+
+    private final LongAdder diffCount = new LongAdder();
+    private final LongAdder failedDiffCount = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder[] eventsByLevel = adders(DiffLevel.values().length);
+    private final LongAdder[] eventsByCategory = adders(DiffCategory.values().length);
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final RateMeter rate = new RateMeter(61);
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Registers this with the platform MBean server under {@link #DEFAULT_OBJECT_NAME}
+     *
+     * @return the name it was registered under
+     */
+    public ObjectName register() {
+        return register(ManagementFactory.getPlatformMBeanServer(), DEFAULT_OBJECT_NAME);
+    }
+
+    /**
+     * Registers this with a MBean server
+     *
+     * @param server     the server to register with
+     * @param objectName the name to register under
+     *
+     * @return the name it was registered under
+     */
+    public ObjectName register(MBeanServer server, String objectName) {
+        try {
+            ObjectName name = new ObjectName(objectName);
+            server.registerMBean(this, name);
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register schema diff stats as " + objectName, e);
+        }
+    }
+
+    @Override
+    public void onDiffStart() {
+        inFlight.increment();
+    }
+
+    @Override
+    public void onDiffEnd(DiffSummary summary) {
+        inFlight.decrement();
+        diffCount.increment();
+        rate.mark(System.nanoTime());
+
+        long elapsedNanos = 0;
+        for (Long phaseNanos : summary.getPhaseNanos().values()) {
+            elapsedNanos += phaseNanos;
+        }
+        latencies.record(elapsedNanos);
+
+        summary.getEventsByLevel().forEach((level, count) -> eventsByLevel[level.ordinal()].add(count));
+        summary.getEventsByCategory().forEach((category, count) -> eventsByCategory[category.ordinal()].add(count));
+    }
+
+    @Override
+    public void onDiffError(Throwable error) {
+        inFlight.decrement();
+        failedDiffCount.increment();
+    }
+
+    @Override
+    public long getDiffCount() {
+        return diffCount.sum();
+    }
+
+    @Override
+    public long getFailedDiffCount() {
+        return failedDiffCount.sum();
+    }
+
+    @Override
+    public long getInFlightDiffs() {
+        return inFlight.sum();
+    }
+
+    @Override
+    public double getDiffsPerSecond() {
+        return rate.ratePerSecond(System.nanoTime());
+    }
+
+    @Override
+    public double getLatencyP50Millis() {
+        return millis(latencies.percentile(50));
+    }
+
+    @Override
+    public double getLatencyP90Millis() {
+        return millis(latencies.percentile(90));
+    }
+
+    @Override
+    public double getLatencyP99Millis() {
+        return millis(latencies.percentile(99));
+    }
+
+    @Override
+    public double getLatencyMaxMillis() {
+        return millis(latencies.percentile(100));
+    }
+
+    @Override
+    public Map<String, Long> getEventsByLevel() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (DiffLevel level : DiffLevel.values()) {
+            map.put(level.name(), eventsByLevel[level.ordinal()].sum());
+        }
+        return map;
+    }
+
+    @Override
+    public Map<String, Long> getEventsByCategory() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (DiffCategory category : DiffCategory.values()) {
+            map.put(category.name(), eventsByCategory[category.ordinal()].sum());
+        }
+        return map;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
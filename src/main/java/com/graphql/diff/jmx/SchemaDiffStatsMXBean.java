@@ -0,0 +1,35 @@
+package com.graphql.diff.jmx;
+
+import graphql.PublicApi;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link com.graphql.diff.jmx.SchemaDiffStats}.  Latencies are in milliseconds.
+ */
+@PublicApi
+public interface SchemaDiffStatsMXBean {
+
+    long getDiffCount();
+
+    long getFailedDiffCount();
+
+    long getInFlightDiffs();
+
+    /**
+     * @return the average number of diffs per second over the last minute
+     */
+    double getDiffsPerSecond();
+
+    double getLatencyP50Millis();
+
+    double getLatencyP90Millis();
+
+    double getLatencyP99Millis();
+
+    double getLatencyMaxMillis();
+
+    Map<String, Long> getEventsByLevel();
+
+    Map<String, Long> getEventsByCategory();
+}
@@ -0,0 +1,50 @@
+package com.graphql.diff.metrics;
+
+import com.graphql.diff.DiffSummary;
+import graphql.PublicSpi;
+
+/**
+ * This is called with phase timings and the final counters of a schema difference.  All methods
+ * have no-op defaults so implementations only need to override what they are interested in.
+ */
+@PublicSpi
+public interface DiffMetricsListener {
+
+    /**
+     * A listener that does nothing
+     */
+    DiffMetricsListener NOOP = new DiffMetricsListener() {
+    };
+
+    /**
+     * Called when a {@link com.graphql.diff.SchemaDiff} starts.  Every start is followed by either
+     * {@link #onDiffEnd(com.graphql.diff.DiffSummary)} or {@link #onDiffError(Throwable)}
+     */
+    default void onDiffStart() {
+    }
+
+    /**
+     * Called when a phase has completed
+     *
+     * @param phase        the phase that completed
+     * @param elapsedNanos how long it took in nanoseconds
+     */
+    default void onPhase(DiffPhase phase, long elapsedNanos) {
+    }
+
+    /**
+     * Called when the difference operation is finished
+     *
+     * @param summary the counters and timings of the difference operation
+     */
+    default void onDiffEnd(DiffSummary summary) {
+    }
+
+    /**
+     * Called when the difference operation failed with an exception or an error
+     *
+     * @param error the throwable that ended the difference operation
+     */
+    default void onDiffError(Throwable error) {
+    }
+}
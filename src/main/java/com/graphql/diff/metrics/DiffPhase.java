@@ -0,0 +1,31 @@
+package com.graphql.diff.metrics;
+
+import graphql.PublicApi;
+
+/**
+ * The phases that a schema difference goes through and that are timed
+ * via a {@link com.graphql.diff.metrics.DiffMetricsListener}
+ */
+@PublicApi
+public enum DiffPhase {
+    /**
+     * Reading a schema from a file or url
+     */
+    LOAD,
+    /**
+     * Running the introspection query against a schema
+     */
+    INTROSPECT,
+    /**
+     * Converting introspection results into schema definition documents
+     */
+    CONVERT,
+    /**
+     * Traversing the old and new schema documents looking for differences (not including reporting)
+     */
+    TRAVERSE,
+    /**
+     * Time spent inside the {@link com.graphql.diff.reporting.DifferenceReporter}
+     */
+    REPORT
+}
@@ -0,0 +1,45 @@
+package com.graphql.diff.metrics;
+
+import com.graphql.diff.DiffSummary;
+import graphql.PublicApi;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * A metrics listener that prints phase timings and the final summary to a PrintStream
+ */
+@PublicApi
+public class PrintStreamMetricsListener implements DiffMetricsListener {
+
+    final PrintStream out;
+
+    public PrintStreamMetricsListener() {
+        this(System.out);
+    }
+
+    public PrintStreamMetricsListener(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onPhase(DiffPhase phase, long elapsedNanos) {
+        out.println(format("phase %s took %.3f ms", phase, elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+    }
+
+    @Override
+    public void onDiffEnd(DiffSummary summary) {
+        out.println(format("%d types visited", summary.getTypesVisited()));
+        out.println(format("%d fields compared", summary.getFieldsCompared()));
+        out.println(format("%d lookups", summary.getLookups()));
+        out.println(format("%d cache hits", summary.getCacheHits()));
+        out.println(format("events by level %s", summary.getEventsByLevel()));
+        out.println(format("events by category %s", summary.getEventsByCategory()));
+        summary.getRuleTimings().entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().getNanos(), a.getValue().getNanos()))
+                .forEach(entry -> out.println(format("rule %s checked %d time(s) in %.3f ms",
+                        entry.getKey(), entry.getValue().getChecks(), entry.getValue().getNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1))));
+    }
+}
@@ -7,7 +7,8 @@ import java.util.Arrays;
 import java.util.List;
 
 /**
- * A reporter that chains together one or more reporters
+ * A reporter that chains together one or more reporters, calling them one after another on the reporting thread.
+ * See {@link FanOutReporter} for one that calls each reporter on its own thread.
  */
 @PublicApi
 public class ChainedReporter implements DifferenceReporter {
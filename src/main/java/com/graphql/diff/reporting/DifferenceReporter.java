@@ -9,6 +9,19 @@ import graphql.PublicSpi;
 @PublicSpi
 public interface DifferenceReporter {
 
+    /**
+     * A reporter that ignores every event, for when only the summary of a difference operation is wanted
+     */
+    DifferenceReporter NOOP = new DifferenceReporter() {
+        @Override
+        public void report(DiffEvent differenceEvent) {
+        }
+
+        @Override
+        public void onEnd() {
+        }
+    };
+
     /**
      * Called to report a difference
      *
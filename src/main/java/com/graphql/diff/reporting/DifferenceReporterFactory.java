@@ -0,0 +1,20 @@
+package com.graphql.diff.reporting;
+
+import graphql.PublicSpi;
+
+/**
+ * Makes the reporter for the difference of two schema versions when many pairs of versions are diffed.  The pairs
+ * may be diffed on several threads at once, so the factory must be safe to call from multiple threads and each
+ * reporter it makes is only used by one difference operation.
+ */
+@PublicSpi
+public interface DifferenceReporterFactory {
+
+    /**
+     * @param oldVersion the older version
+     * @param newVersion the newer version
+     *
+     * @return the place to report the difference events of those versions to
+     */
+    DifferenceReporter reporterFor(String oldVersion, String newVersion);
+}
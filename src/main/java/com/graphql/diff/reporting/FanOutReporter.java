@@ -0,0 +1,205 @@
+package com.graphql.diff.reporting;
+
+import com.graphql.diff.DiffEvent;
+import graphql.Assert;
+import graphql.PublicApi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A reporter that hands each event to one or more reporters, each on its own thread, so that the difference
+ * operation only waits for them when they fall behind.  Unlike {@link ChainedReporter} the time taken by the
+ * reporters does not add up on the thread doing the difference operation.
+ *
+ * Each reporter has a bounded queue of events that have not been reported to it yet.  When the queue of a reporter
+ * is full, reporting waits until it has room, so a slow reporter slows the difference operation down rather than
+ * holding on to every event.  A reporter that throws is given no more events and its exception is kept in
+ * {@link #getFailures()}, while the other reporters carry on.  {@link #onEnd()} waits for every reporter to have
+ * been given all the events and to have ended, so their results can be read once it returns.
+ *
+ * If the reporting thread is interrupted while it waits for a reporter with a full queue, that reporter has missed
+ * the event, so it is failed with the {@link InterruptedException} and given no more events, and the thread stays
+ * interrupted.  Reporters with room in their queues carry on, but {@link #onEnd()} does not wait for them while the
+ * thread is interrupted, and the next difference operation waits for them before it hands them any events instead.
+ *
+ * Each reporter is only ever called from one thread at a time, so it does not need to be thread safe itself.
+ */
+@PublicApi
+public class FanOutReporter implements DifferenceReporter {
+
+    /**
+     * How many events each reporter can fall behind by before reporting waits for it
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final Object END = new Object();
+
+    private final List<Child> children = new ArrayList<>();
+    private boolean started;
+
+    public FanOutReporter(DifferenceReporter... reporters) {
+        this(Arrays.asList(reporters));
+    }
+
+    public FanOutReporter(List<DifferenceReporter> reporters) {
+        this(DEFAULT_QUEUE_CAPACITY, reporters);
+    }
+
+    /**
+     * @param queueCapacity how many events each reporter can fall behind by before reporting waits for it
+     * @param reporters     the reporters to hand the events to
+     */
+    public FanOutReporter(int queueCapacity, List<DifferenceReporter> reporters) {
+        Assert.assertTrue(queueCapacity > 0, "queueCapacity must be greater than zero");
+        for (DifferenceReporter reporter : reporters) {
+            children.add(new Child(Assert.assertNotNull(reporter, "reporters must not be null"), queueCapacity));
+        }
+    }
+
+    @Override
+    public void report(DiffEvent differenceEvent) {
+        start();
+        for (Child child : children) {
+            child.offer(differenceEvent);
+        }
+    }
+
+    @Override
+    public void onEnd() {
+        start();
+        for (Child child : children) {
+            child.offer(END);
+        }
+        for (Child child : children) {
+            child.awaitEnd();
+        }
+        started = false;
+    }
+
+    /**
+     * @return the reporters that threw, with the first exception each threw, in the order the reporters were given
+     */
+    public Map<DifferenceReporter, Throwable> getFailures() {
+        Map<DifferenceReporter, Throwable> failures = new LinkedHashMap<>();
+        for (Child child : children) {
+            Throwable failure = child.failure;
+            if (failure != null) {
+                failures.put(child.reporter, failure);
+            }
+        }
+        return failures;
+    }
+
+    // the threads are started on the first event of each difference operation rather than when the reporter is
+    // made, so a reporter that is never used or has ended holds no threads, and a reporter that has failed is not
+    // started again
+    private void start() {
+        if (started) {
+            return;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            children.get(i).start("graphql-diff-reporter-" + i);
+        }
+        started = true;
+    }
+
+    private static class Child implements Runnable {
+        final DifferenceReporter reporter;
+        final BlockingQueue<Object> queue;
+        volatile Throwable failure;
+        Thread thread;
+
+        Child(DifferenceReporter reporter, int queueCapacity) {
+            this.reporter = reporter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void start(String name) {
+            // an interrupted onEnd does not wait for the thread of the last run, which has to finish with its events
+            // before a new thread takes over the queue, as otherwise both would call the reporter at once
+            awaitPrevious();
+            if (failure != null) {
+                thread = null;
+                return;
+            }
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void offer(Object item) {
+            // a failed reporter takes no more events, so its full queue cannot hold the others up
+            if (failure != null) {
+                return;
+            }
+            // only a full queue is waited on, so that an interrupted thread can still hand events to the others
+            if (queue.offer(item)) {
+                return;
+            }
+            try {
+                queue.put(item);
+            } catch (InterruptedException e) {
+                // the event is lost to this reporter, and since it will not be given the end either its thread is
+                // stopped rather than left waiting for it
+                fail(e);
+                thread.interrupt();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // the first failure is kept, whichever of the reporting thread and this reporter's thread saw it
+        synchronized void fail(Throwable e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        private void awaitPrevious() {
+            boolean interrupted = false;
+            while (thread != null && thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void awaitEnd() {
+            if (thread == null) {
+                return;
+            }
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Object item = queue.take();
+                    if (item == END) {
+                        reporter.onEnd();
+                        return;
+                    }
+                    reporter.report((DiffEvent) item);
+                }
+            } catch (Throwable e) {
+                fail(e);
+                queue.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.graphql.diff.reporting;
+
+import graphql.Internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * The space saving sketch of the most frequent keys of a stream, in a fixed number of counters.  When a key that
+ * is not counted arrives and every counter is taken, the counter with the smallest count is given to the new key,
+ * which inherits that count as its possible overestimate.  Any key seen more than (total / counters) times is sure
+ * to be counted, and every count is at most its error more than the true count.
+ */
+@Internal
+class HeavyHitters {
+
+    static class Counter {
+        final String key;
+        long count;
+        long error;
+
+        Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    HeavyHitters(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    void add(String key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter(key, 1, 0));
+            return;
+        }
+        // only keys that are not already counted pay for the scan, and there are few counters
+        Counter smallest = null;
+        for (Counter candidate : counters.values()) {
+            if (smallest == null || candidate.count < smallest.count) {
+                smallest = candidate;
+            }
+        }
+        counters.remove(smallest.key);
+        counters.put(key, new Counter(key, smallest.count + 1, smallest.count));
+    }
+
+    /**
+     * @param k how many keys to return
+     *
+     * @return at most k counters with the highest counts, highest first and then by key
+     */
+    List<Counter> top(int k) {
+        List<Counter> top = new ArrayList<>(counters.values());
+        top.sort((a, b) -> a.count != b.count ? Long.compare(b.count, a.count) : a.key.compareTo(b.key));
+        return new ArrayList<>(top.subList(0, Math.min(k, top.size())));
+    }
+}
@@ -0,0 +1,193 @@
+package com.graphql.diff.reporting;
+
+import com.graphql.diff.DiffCategory;
+import com.graphql.diff.DiffEvent;
+import com.graphql.diff.DiffLevel;
+import com.graphql.diff.TypeKind;
+import graphql.Assert;
+import graphql.PublicApi;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * A reporter for difference operations with too many events to keep or print.  It keeps the counts of the events
+ * by level, category and type kind, the types with the most breaking changes and the first few events of each
+ * category, all in memory that does not grow with the number of events, and prints a short summary at the end.
+ *
+ * The types with the most breaking changes are found with a sketch of a fixed number of counters, so their counts
+ * can be overestimates and a type with few breaking changes can be missing from them.  Any overestimate is shown.
+ */
+@PublicApi
+public class SummarizingReporter implements DifferenceReporter {
+
+    /**
+     * A type and its count of breaking changes
+     */
+    @PublicApi
+    public static class TypeCount {
+        private final String typeName;
+        private final long count;
+        private final long maxOverestimate;
+
+        TypeCount(String typeName, long count, long maxOverestimate) {
+            this.typeName = typeName;
+            this.count = count;
+            this.maxOverestimate = maxOverestimate;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        /**
+         * @return the count of breaking changes, which is at most {@link #getMaxOverestimate()} more than the true count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxOverestimate() {
+            return maxOverestimate;
+        }
+    }
+
+    // each of the top types is tracked among this many times as many counters, which keeps their counts exact unless
+    // the breaking changes are spread very evenly across the types
+    private static final int COUNTERS_PER_TOP_TYPE = 10;
+
+    private final PrintStream out;
+    private final int topTypes;
+    private final int examplesPerCategory;
+    private final Map<DiffLevel, Long> countsByLevel = new EnumMap<>(DiffLevel.class);
+    private final Map<DiffCategory, Long> countsByCategory = new EnumMap<>(DiffCategory.class);
+    private final Map<TypeKind, Long> countsByTypeKind = new EnumMap<>(TypeKind.class);
+    private final Map<DiffCategory, List<DiffEvent>> examples = new EnumMap<>(DiffCategory.class);
+    private final HeavyHitters breakingTypes;
+    private long eventCount;
+
+    /**
+     * A reporter that prints to System.out and keeps the 10 types with the most breaking changes and 3 examples of
+     * each category
+     */
+    public SummarizingReporter() {
+        this(System.out, 10, 3);
+    }
+
+    /**
+     * @param out                 where to print the summary to
+     * @param topTypes            how many of the types with the most breaking changes to keep
+     * @param examplesPerCategory how many events of each category to keep
+     */
+    public SummarizingReporter(PrintStream out, int topTypes, int examplesPerCategory) {
+        Assert.assertTrue(topTypes > 0, "topTypes must be greater than zero");
+        Assert.assertTrue(examplesPerCategory >= 0, "examplesPerCategory must not be negative");
+        this.out = Assert.assertNotNull(out, "out must be provided");
+        this.topTypes = topTypes;
+        this.examplesPerCategory = examplesPerCategory;
+        this.breakingTypes = new HeavyHitters(topTypes * COUNTERS_PER_TOP_TYPE);
+    }
+
+    @Override
+    public void report(DiffEvent differenceEvent) {
+        eventCount++;
+        countsByLevel.merge(differenceEvent.getLevel(), 1L, Long::sum);
+        if (differenceEvent.getTypeKind() != null) {
+            countsByTypeKind.merge(differenceEvent.getTypeKind(), 1L, Long::sum);
+        }
+        if (differenceEvent.getLevel() == DiffLevel.BREAKING && differenceEvent.getTypeName() != null) {
+            breakingTypes.add(differenceEvent.getTypeName());
+        }
+        DiffCategory category = differenceEvent.getCategory();
+        if (category != null) {
+            countsByCategory.merge(category, 1L, Long::sum);
+            List<DiffEvent> categoryExamples = examples.computeIfAbsent(category, k -> new ArrayList<>(examplesPerCategory));
+            if (categoryExamples.size() < examplesPerCategory) {
+                categoryExamples.add(differenceEvent);
+            }
+        }
+    }
+
+    @Override
+    public void onEnd() {
+        out.println(format("%d events : %d breaking, %d dangerous, %d info", eventCount,
+                getCount(DiffLevel.BREAKING), getCount(DiffLevel.DANGEROUS), getCount(DiffLevel.INFO)));
+        if (!countsByCategory.isEmpty()) {
+            out.println("By category : " + joinCounts(countsByCategory));
+        }
+        if (!countsByTypeKind.isEmpty()) {
+            out.println("By type kind : " + joinCounts(countsByTypeKind));
+        }
+        List<TypeCount> topBreakingTypes = getTopBreakingTypes();
+        if (!topBreakingTypes.isEmpty()) {
+            out.println("Types with the most breaking changes :");
+            for (TypeCount typeCount : topBreakingTypes) {
+                String overestimate = typeCount.getMaxOverestimate() == 0 ? "" : format(" (at most %d fewer)", typeCount.getMaxOverestimate());
+                out.println(format("\t'%s' : %d%s", typeCount.getTypeName(), typeCount.getCount(), overestimate));
+            }
+        }
+        examples.forEach((category, categoryExamples) -> {
+            if (categoryExamples.isEmpty()) {
+                return;
+            }
+            out.println(format("Examples of %s :", category));
+            for (DiffEvent event : categoryExamples) {
+                String objectName = event.getFieldName() == null ? event.getTypeName() : event.getTypeName() + "." + event.getFieldName();
+                out.println(format("\t%s - '%s' : '%s' : %s", event.getLevel(), event.getTypeKind(), objectName, event.getReasonMsg()));
+            }
+            long more = countsByCategory.get(category) - categoryExamples.size();
+            if (more > 0) {
+                out.println(format("\t... and %d more", more));
+            }
+        });
+    }
+
+    private static <K> String joinCounts(Map<K, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> entry.getKey() + " " + entry.getValue())
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * @return the number of events reported
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getCount(DiffLevel level) {
+        return countsByLevel.getOrDefault(level, 0L);
+    }
+
+    public long getCount(DiffCategory category) {
+        return countsByCategory.getOrDefault(category, 0L);
+    }
+
+    public long getCount(TypeKind typeKind) {
+        return countsByTypeKind.getOrDefault(typeKind, 0L);
+    }
+
+    /**
+     * @return the types with the most breaking changes, most first
+     */
+    public List<TypeCount> getTopBreakingTypes() {
+        return breakingTypes.top(topTypes).stream()
+                .map(counter -> new TypeCount(counter.key, counter.count, counter.error))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param category the category of events
+     *
+     * @return the first events of the category, at most as many as the reporter keeps
+     */
+    public List<DiffEvent> getExamples(DiffCategory category) {
+        return new ArrayList<>(examples.getOrDefault(category, new ArrayList<>()));
+    }
+}
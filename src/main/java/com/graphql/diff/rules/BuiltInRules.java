@@ -0,0 +1,49 @@
+package com.graphql.diff.rules;
+
+import graphql.PublicApi;
+
+/**
+ * The names of the rules that every {@link com.graphql.diff.SchemaDiff} starts with, for use with
+ * {@link com.graphql.diff.SchemaDiff.Options#disableRules(String...)}
+ */
+@PublicApi
+public final class BuiltInRules {
+
+    /**
+     * Fields of object and interface types must keep the same named type and must not become stricter about null or lists
+     */
+    public static final String FIELD_TYPE = "fieldType";
+
+    /**
+     * Field arguments must keep the same named type and must not become stricter about null or lists
+     */
+    public static final String ARGUMENT_TYPE = "argumentType";
+
+    /**
+     * Changes to the default values of field arguments are dangerous
+     */
+    public static final String ARGUMENT_DEFAULT_VALUE = "argumentDefaultValue";
+
+    /**
+     * Input fields must keep the same named type and must not become stricter about null or lists
+     */
+    public static final String INPUT_FIELD_TYPE = "inputFieldType";
+
+    /**
+     * Object types must still implement the interfaces they did.  The interfaces themselves are compared as types.
+     */
+    public static final String OBJECT_INTERFACES = "objectInterfaces";
+
+    /**
+     * Unions must keep their member types, and added member types are dangerous
+     */
+    public static final String UNION_MEMBERS = "unionMembers";
+
+    /**
+     * Directives must keep their arguments and the types of their argument values
+     */
+    public static final String DIRECTIVE_ARGUMENTS = "directiveArguments";
+
+    private BuiltInRules() {
+    }
+}
@@ -0,0 +1,49 @@
+package com.graphql.diff.rules;
+
+import com.graphql.diff.TypeKind;
+import graphql.PublicSpi;
+
+import java.util.Set;
+
+/**
+ * A check of an element that is in both the old and the new schema, such as a field whose type may have changed.
+ * The differ walks the schemas, reports elements that are missing or added, and calls the rules registered for the
+ * kind of element and the kind of type it belongs to with each pair of matching elements.
+ *
+ * Rules are looked up once, when the {@link com.graphql.diff.SchemaDiff} is constructed, so a rule is never asked
+ * whether it applies during a difference operation and elements that no rule is registered for cost nothing.
+ *
+ * The elements are the graphql-java AST classes given in {@link com.graphql.diff.rules.ElementKind}.  A rule may be
+ * called from several threads when its differ is shared, so it should keep no state of its own.
+ *
+ * @param <T> the AST class of the elements the rule compares
+ */
+@PublicSpi
+public interface CompatibilityRule<T> {
+
+    /**
+     * @return the unique name of the rule, used to disable it and to report its timings
+     */
+    String getName();
+
+    /**
+     * @return the kind of element the rule compares
+     */
+    ElementKind getElementKind();
+
+    /**
+     * @return the kinds of type whose elements the rule compares, for example {@link com.graphql.diff.TypeKind#Object}
+     * and {@link com.graphql.diff.TypeKind#Interface} for a rule about fields
+     */
+    Set<TypeKind> getTypeKinds();
+
+    /**
+     * Compares an element of the old schema with the element of the same name in the new schema and reports any
+     * difference to the context
+     *
+     * @param ctx        the types the elements belong to and where to report to
+     * @param oldElement the element in the old schema
+     * @param newElement the element in the new schema
+     */
+    void check(RuleContext ctx, T oldElement, T newElement);
+}
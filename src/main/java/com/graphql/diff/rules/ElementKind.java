@@ -0,0 +1,36 @@
+package com.graphql.diff.rules;
+
+import graphql.PublicApi;
+
+/**
+ * The parts of a schema that a {@link com.graphql.diff.rules.CompatibilityRule} can compare.  Each kind of element
+ * is given to a rule as a particular graphql-java AST class.
+ */
+@PublicApi
+public enum ElementKind {
+    /**
+     * A whole type, given as a {@link graphql.language.TypeDefinition}
+     */
+    TYPE,
+    /**
+     * A field of an object or interface type, given as a {@link graphql.language.FieldDefinition}
+     */
+    FIELD,
+    /**
+     * An argument of a field, given as a {@link graphql.language.InputValueDefinition}
+     */
+    ARGUMENT,
+    /**
+     * A field of an input object type, given as a {@link graphql.language.InputValueDefinition}
+     */
+    INPUT_FIELD,
+    /**
+     * A value of an enum type, given as a {@link graphql.language.EnumValueDefinition}
+     */
+    ENUM_VALUE,
+    /**
+     * A directive on a type or on one of its members, given as a {@link graphql.language.Directive}.  Directives
+     * are only compared when {@link com.graphql.diff.SchemaDiff.Options#enforceDirectives()} is set.
+     */
+    DIRECTIVE
+}
@@ -0,0 +1,59 @@
+package com.graphql.diff.rules;
+
+import com.graphql.diff.DiffEvent;
+import graphql.PublicApi;
+import graphql.language.FieldDefinition;
+import graphql.language.TypeDefinition;
+
+import java.util.Optional;
+
+/**
+ * What a {@link com.graphql.diff.rules.CompatibilityRule} is told about the elements it compares
+ */
+@PublicApi
+public interface RuleContext {
+
+    /**
+     * @return the type the compared elements belong to in the old schema, or the compared type itself for
+     * {@link com.graphql.diff.rules.ElementKind#TYPE} rules
+     */
+    TypeDefinition getOldType();
+
+    /**
+     * @return the type the compared elements belong to in the new schema, or the compared type itself for
+     * {@link com.graphql.diff.rules.ElementKind#TYPE} rules
+     */
+    TypeDefinition getNewType();
+
+    /**
+     * @return the field the compared arguments or directives belong to in the old schema, otherwise null
+     */
+    FieldDefinition getOldField();
+
+    /**
+     * @return the field the compared arguments or directives belong to in the new schema, otherwise null
+     */
+    FieldDefinition getNewField();
+
+    /**
+     * @param typeName the name of a type
+     *
+     * @return the definition of the type in the old schema
+     */
+    Optional<TypeDefinition> getOldTypeDefinition(String typeName);
+
+    /**
+     * @param typeName the name of a type
+     *
+     * @return the definition of the type in the new schema
+     */
+    Optional<TypeDefinition> getNewTypeDefinition(String typeName);
+
+    /**
+     * Reports a difference.  Reporting may end the difference operation, for example when the breakage limit of the
+     * options is reached, by throwing an exception that a rule must let through.
+     *
+     * @param event the difference event
+     */
+    void report(DiffEvent event);
+}
@@ -0,0 +1,428 @@
+package com.graphql.diff.snapshot;
+
+import com.graphql.diff.util.TypeHasher;
+import graphql.PublicApi;
+import graphql.language.Argument;
+import graphql.language.ArrayValue;
+import graphql.language.BooleanValue;
+import graphql.language.Definition;
+import graphql.language.Directive;
+import graphql.language.Document;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValue;
+import graphql.language.EnumValueDefinition;
+import graphql.language.Field;
+import graphql.language.FieldDefinition;
+import graphql.language.FloatValue;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.IntValue;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
+import graphql.language.ObjectField;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.ObjectValue;
+import graphql.language.OperationDefinition;
+import graphql.language.OperationTypeDefinition;
+import graphql.language.ScalarTypeDefinition;
+import graphql.language.SchemaDefinition;
+import graphql.language.StringValue;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeName;
+import graphql.language.UnionTypeDefinition;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+import graphql.parser.Parser;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.graphql.diff.snapshot.SnapshotFormat.*;
+
+/**
+ * A read only view of a schema snapshot file written by {@link com.graphql.diff.snapshot.SchemaSnapshotWriter}.
+ *
+ * The file is memory mapped and nothing is decoded up front.  Strings and type definitions are materialized
+ * on first use and then cached, so opening a large baseline costs little more than reading its header.  The
+ * structural type hashes are stored with the index, so they can be had without materializing any type.
+ *
+ * A snapshot can be shared between threads.  Each type is materialized into a single definition that every thread
+ * sees, although two threads asking for it at the same time may both decode it.
+ */
+@PublicApi
+public class SchemaSnapshot {
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int typeCount;
+    private final int operationCount;
+    private final int stringOffsetsPos;
+    private final int stringDataPos;
+    private final int typeIndexPos;
+    private final int recordsPos;
+
+    // a string decoded twice by racing threads is harmless since strings are immutable
+    private final String[] strings;
+    // while definitions are not, so the first one decoded is published to every thread
+    private final AtomicReferenceArray<TypeDefinition> definitions;
+
+    private SchemaSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("The file is not a schema snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException(String.format("The schema snapshot is version %d but only version %d is supported", version, VERSION));
+        }
+        this.stringCount = buffer.getInt(8);
+        this.typeCount = buffer.getInt(12);
+        this.operationCount = buffer.getInt(16);
+        this.stringOffsetsPos = Math.toIntExact(buffer.getLong(20));
+        this.stringDataPos = Math.toIntExact(buffer.getLong(28));
+        this.typeIndexPos = Math.toIntExact(buffer.getLong(36));
+        this.recordsPos = Math.toIntExact(buffer.getLong(44));
+        this.strings = new String[stringCount];
+        this.definitions = new AtomicReferenceArray<>(typeCount);
+    }
+
+    /**
+     * Memory maps a schema snapshot file
+     *
+     * @param path the snapshot file
+     *
+     * @return a snapshot of the schema
+     *
+     * @throws IOException if the file cannot be read
+     */
+    public static SchemaSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SchemaSnapshot(mapped);
+        }
+    }
+
+    /**
+     * @return the number of types in the snapshot
+     */
+    public int getTypeCount() {
+        return typeCount;
+    }
+
+    /**
+     * @return the names of the types in the snapshot in sorted order
+     */
+    public List<String> getTypeNames() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return typeName(index);
+            }
+
+            @Override
+            public int size() {
+                return typeCount;
+            }
+        };
+    }
+
+    /**
+     * @param typeName the name of the type
+     *
+     * @return the precomputed structural hash of the type or null if there is no such type
+     *
+     * @see com.graphql.diff.util.TypeHasher
+     */
+    public byte[] getTypeHash(String typeName) {
+        int index = indexOf(typeName);
+        return index < 0 ? null : typeHash(index);
+    }
+
+    private byte[] typeHash(int index) {
+        byte[] hash = new byte[HASH_SIZE];
+        for (int i = 0; i < HASH_SIZE; i++) {
+            hash[i] = buffer.get(indexEntryPos(index) + 5 + i);
+        }
+        return hash;
+    }
+
+    /**
+     * The precomputed structural hashes of all the types, as taken by
+     * {@link com.graphql.diff.DiffSet#diffSet(graphql.language.Document, graphql.language.Document, java.util.Map, java.util.Map)},
+     * read from the index without materializing any type
+     *
+     * @return the hex structural hashes of the types keyed by type name, in type name order
+     *
+     * @see com.graphql.diff.util.TypeHasher#typeHashes(graphql.language.Document)
+     */
+    public Map<String, String> getTypeHashes() {
+        Map<String, String> typeHashes = new LinkedHashMap<>();
+        for (int index = 0; index < typeCount; index++) {
+            typeHashes.put(typeName(index), TypeHasher.toHex(typeHash(index)));
+        }
+        return typeHashes;
+    }
+
+    /**
+     * @param typeName the name of the type
+     *
+     * @return the type definition or null if there is no such type
+     */
+    public TypeDefinition getTypeDefinition(String typeName) {
+        int index = indexOf(typeName);
+        return index < 0 ? null : typeDefinition(index);
+    }
+
+    /**
+     * Returns a schema definition document whose definitions are materialized as they are accessed
+     *
+     * @return a document view of the snapshot
+     */
+    public Document toDocument() {
+        SchemaDefinition schemaDefinition = schemaDefinition();
+        int offset = schemaDefinition == null ? 0 : 1;
+        return new Document(new AbstractList<Definition>() {
+            @Override
+            public Definition get(int index) {
+                if (index < offset) {
+                    return schemaDefinition;
+                }
+                return typeDefinition(index - offset);
+            }
+
+            @Override
+            public int size() {
+                return typeCount + offset;
+            }
+        });
+    }
+
+    private SchemaDefinition schemaDefinition() {
+        if (operationCount == 0) {
+            return null;
+        }
+        SchemaDefinition schemaDefinition = new SchemaDefinition();
+        for (int i = 0; i < operationCount; i++) {
+            int pos = HEADER_SIZE + i * 8;
+            String operation = string(buffer.getInt(pos));
+            String typeName = string(buffer.getInt(pos + 4));
+            schemaDefinition.getOperationTypeDefinitions().add(new OperationTypeDefinition(operation, new TypeName(typeName)));
+        }
+        return schemaDefinition;
+    }
+
+    private int indexEntryPos(int index) {
+        return typeIndexPos + index * INDEX_ENTRY_SIZE;
+    }
+
+    private String typeName(int index) {
+        return string(buffer.getInt(indexEntryPos(index)));
+    }
+
+    private int indexOf(String typeName) {
+        int low = 0;
+        int high = typeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = typeName(mid).compareTo(typeName);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private String string(int id) {
+        String s = strings[id];
+        if (s == null) {
+            int pos = stringDataPos + buffer.getInt(stringOffsetsPos + id * 4);
+            byte[] utf8 = new byte[buffer.getInt(pos)];
+            ByteBuffer data = buffer.duplicate();
+            ((Buffer) data).position(pos + 4);
+            data.get(utf8);
+            s = new String(utf8, StandardCharsets.UTF_8);
+            strings[id] = s;
+        }
+        return s;
+    }
+
+    private TypeDefinition typeDefinition(int index) {
+        TypeDefinition definition = definitions.get(index);
+        if (definition == null) {
+            int entryPos = indexEntryPos(index);
+            ByteBuffer record = buffer.duplicate();
+            ((Buffer) record).position(recordsPos + buffer.getInt(entryPos + 5 + HASH_SIZE));
+            definition = readRecord(record, typeName(index), buffer.get(entryPos + 4));
+            if (!definitions.compareAndSet(index, null, definition)) {
+                definition = definitions.get(index);
+            }
+        }
+        return definition;
+    }
+
+    private TypeDefinition readRecord(ByteBuffer in, String name, byte kind) {
+        switch (kind) {
+            case KIND_OBJECT:
+                ObjectTypeDefinition objectType = new ObjectTypeDefinition(name);
+                readDirectives(in, objectType.getDirectives());
+                readTypeNames(in, objectType.getImplements());
+                readFields(in, objectType.getFieldDefinitions());
+                return objectType;
+            case KIND_INTERFACE:
+                InterfaceTypeDefinition interfaceType = new InterfaceTypeDefinition(name);
+                readDirectives(in, interfaceType.getDirectives());
+                readFields(in, interfaceType.getFieldDefinitions());
+                return interfaceType;
+            case KIND_UNION:
+                UnionTypeDefinition unionType = new UnionTypeDefinition(name);
+                readDirectives(in, unionType.getDirectives());
+                readTypeNames(in, unionType.getMemberTypes());
+                return unionType;
+            case KIND_ENUM:
+                EnumTypeDefinition enumType = new EnumTypeDefinition(name);
+                readDirectives(in, enumType.getDirectives());
+                int valueCount = in.getInt();
+                for (int i = 0; i < valueCount; i++) {
+                    EnumValueDefinition enumValue = new EnumValueDefinition(string(in.getInt()));
+                    readDirectives(in, enumValue.getDirectives());
+                    enumType.getEnumValueDefinitions().add(enumValue);
+                }
+                return enumType;
+            case KIND_INPUT_OBJECT:
+                InputObjectTypeDefinition inputType = new InputObjectTypeDefinition(name);
+                readDirectives(in, inputType.getDirectives());
+                readInputValues(in, inputType.getInputValueDefinitions());
+                return inputType;
+            case KIND_SCALAR:
+                ScalarTypeDefinition scalarType = new ScalarTypeDefinition(name);
+                readDirectives(in, scalarType.getDirectives());
+                return scalarType;
+            default:
+                throw new IllegalStateException(String.format("Type '%s' has an unknown kind %d", name, kind));
+        }
+    }
+
+    private void readTypeNames(ByteBuffer in, List<Type> types) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            types.add(new TypeName(string(in.getInt())));
+        }
+    }
+
+    private void readFields(ByteBuffer in, List<FieldDefinition> fields) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            FieldDefinition field = new FieldDefinition(string(in.getInt()), readTypeRef(in));
+            readInputValues(in, field.getInputValueDefinitions());
+            readDirectives(in, field.getDirectives());
+            fields.add(field);
+        }
+    }
+
+    private void readInputValues(ByteBuffer in, List<InputValueDefinition> inputValues) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            String name = string(in.getInt());
+            Type type = readTypeRef(in);
+            InputValueDefinition inputValue = new InputValueDefinition(name, type, readValue(in));
+            readDirectives(in, inputValue.getDirectives());
+            inputValues.add(inputValue);
+        }
+    }
+
+    private void readDirectives(ByteBuffer in, List<Directive> directives) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            Directive directive = new Directive(string(in.getInt()));
+            int argCount = in.getInt();
+            for (int j = 0; j < argCount; j++) {
+                String name = string(in.getInt());
+                directive.getArguments().add(new Argument(name, readValue(in)));
+            }
+            directives.add(directive);
+        }
+    }
+
+    private Type readTypeRef(ByteBuffer in) {
+        Type type = new TypeName(string(in.getInt()));
+        byte[] wrappers = new byte[in.get()];
+        in.get(wrappers);
+        // the wrappers are stored outermost first so apply them from the inside out
+        for (int i = wrappers.length - 1; i >= 0; i--) {
+            type = wrappers[i] == WRAPPER_NON_NULL ? new NonNullType(type) : new ListType(type);
+        }
+        return type;
+    }
+
+    private Value readValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case VALUE_ABSENT:
+                return null;
+            case VALUE_INT:
+                return new IntValue(new BigInteger(string(in.getInt())));
+            case VALUE_FLOAT:
+                return new FloatValue(new BigDecimal(string(in.getInt())));
+            case VALUE_STRING:
+                return new StringValue(string(in.getInt()));
+            case VALUE_BOOLEAN:
+                return new BooleanValue(in.get() != 0);
+            case VALUE_ENUM:
+                return new EnumValue(string(in.getInt()));
+            case VALUE_ARRAY:
+                ArrayValue arrayValue = new ArrayValue();
+                int size = in.getInt();
+                for (int i = 0; i < size; i++) {
+                    arrayValue.getValues().add(readValue(in));
+                }
+                return arrayValue;
+            case VALUE_OBJECT:
+                ObjectValue objectValue = new ObjectValue();
+                int fieldCount = in.getInt();
+                for (int i = 0; i < fieldCount; i++) {
+                    String name = string(in.getInt());
+                    objectValue.getObjectFields().add(new ObjectField(name, readValue(in)));
+                }
+                return objectValue;
+            case VALUE_VARIABLE:
+                return new VariableReference(string(in.getInt()));
+            case VALUE_PRINTED:
+                return parseValue(string(in.getInt()));
+            default:
+                throw new IllegalStateException("Unknown value tag " + tag);
+        }
+    }
+
+    private static Value parseValue(String printed) {
+        Document document = new Parser().parseDocument("query { f(a: " + printed + ") }");
+        OperationDefinition operation = (OperationDefinition) document.getDefinitions().get(0);
+        Field field = (Field) operation.getSelectionSet().getSelections().get(0);
+        return field.getArguments().get(0).getValue();
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaSnapshot{" +
+                "typeCount=" + typeCount +
+                '}';
+    }
+}
@@ -0,0 +1,334 @@
+package com.graphql.diff.snapshot;
+
+import com.graphql.diff.util.TypeHasher;
+import graphql.PublicApi;
+import graphql.introspection.IntrospectionResultToSchema;
+import graphql.language.Argument;
+import graphql.language.ArrayValue;
+import graphql.language.AstPrinter;
+import graphql.language.BooleanValue;
+import graphql.language.Definition;
+import graphql.language.Directive;
+import graphql.language.Document;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValue;
+import graphql.language.EnumValueDefinition;
+import graphql.language.FieldDefinition;
+import graphql.language.FloatValue;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.IntValue;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ListType;
+import graphql.language.NonNullType;
+import graphql.language.ObjectField;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.ObjectValue;
+import graphql.language.OperationTypeDefinition;
+import graphql.language.ScalarTypeDefinition;
+import graphql.language.SchemaDefinition;
+import graphql.language.StringValue;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeName;
+import graphql.language.UnionTypeDefinition;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.graphql.diff.snapshot.SnapshotFormat.*;
+
+/**
+ * Writes the parts of a schema that the differ looks at into a compact binary snapshot file that
+ * can be opened quickly via {@link com.graphql.diff.snapshot.SchemaSnapshot#open(java.nio.file.Path)}
+ */
+@PublicApi
+public class SchemaSnapshotWriter {
+
+    /**
+     * Writes a snapshot of the result of an introspection query
+     *
+     * @param introspectionResult the introspection result
+     * @param path                the file to write
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Map<String, Object> introspectionResult, Path path) throws IOException {
+        write(new IntrospectionResultToSchema().createSchemaDefinition(introspectionResult), path);
+    }
+
+    /**
+     * Writes a snapshot of a schema definition document
+     *
+     * @param document the schema definition document
+     * @param path     the file to write
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Document document, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            new SchemaSnapshotWriter().writeImpl(document, out);
+        }
+    }
+
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    private SchemaSnapshotWriter() {
+    }
+
+    private void writeImpl(Document document, OutputStream outputStream) throws IOException {
+        List<TypeDefinition> typeDefinitions = new ArrayList<>();
+        List<OperationTypeDefinition> operations = new ArrayList<>();
+        for (Definition definition : document.getDefinitions()) {
+            if (definition instanceof TypeDefinition) {
+                typeDefinitions.add((TypeDefinition) definition);
+            }
+            if (definition instanceof SchemaDefinition) {
+                operations.addAll(((SchemaDefinition) definition).getOperationTypeDefinitions());
+            }
+        }
+        typeDefinitions.sort(Comparator.comparing(TypeDefinition::getName));
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream records = new DataOutputStream(recordBytes);
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream index = new DataOutputStream(indexBytes);
+        for (TypeDefinition typeDefinition : typeDefinitions) {
+            index.writeInt(stringId(typeDefinition.getName()));
+            index.writeByte(kindOf(typeDefinition));
+            index.write(TypeHasher.hash(typeDefinition));
+            index.writeInt(records.size());
+            writeRecord(records, typeDefinition);
+        }
+
+        ByteArrayOutputStream operationBytes = new ByteArrayOutputStream();
+        DataOutputStream operationOut = new DataOutputStream(operationBytes);
+        for (OperationTypeDefinition operation : operations) {
+            operationOut.writeInt(stringId(operation.getName()));
+            operationOut.writeInt(stringId(((TypeName) operation.getType()).getName()));
+        }
+
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        DataOutputStream stringData = new DataOutputStream(stringBytes);
+        int[] stringOffsets = new int[strings.size()];
+        for (int i = 0; i < strings.size(); i++) {
+            stringOffsets[i] = stringData.size();
+            byte[] utf8 = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            stringData.writeInt(utf8.length);
+            stringData.write(utf8);
+        }
+
+        long stringOffsetsPos = HEADER_SIZE + operationBytes.size();
+        long stringDataPos = stringOffsetsPos + 4L * strings.size();
+        long typeIndexPos = stringDataPos + stringBytes.size();
+        long recordsPos = typeIndexPos + indexBytes.size();
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(strings.size());
+        out.writeInt(typeDefinitions.size());
+        out.writeInt(operations.size());
+        out.writeLong(stringOffsetsPos);
+        out.writeLong(stringDataPos);
+        out.writeLong(typeIndexPos);
+        out.writeLong(recordsPos);
+        operationBytes.writeTo(out);
+        for (int stringOffset : stringOffsets) {
+            out.writeInt(stringOffset);
+        }
+        stringBytes.writeTo(out);
+        indexBytes.writeTo(out);
+        recordBytes.writeTo(out);
+        out.flush();
+    }
+
+    private int stringId(String s) {
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            strings.add(s);
+            stringIds.put(s, id);
+        }
+        return id;
+    }
+
+    private static byte kindOf(TypeDefinition def) {
+        if (def instanceof ObjectTypeDefinition) {
+            return KIND_OBJECT;
+        }
+        if (def instanceof InterfaceTypeDefinition) {
+            return KIND_INTERFACE;
+        }
+        if (def instanceof UnionTypeDefinition) {
+            return KIND_UNION;
+        }
+        if (def instanceof EnumTypeDefinition) {
+            return KIND_ENUM;
+        }
+        if (def instanceof InputObjectTypeDefinition) {
+            return KIND_INPUT_OBJECT;
+        }
+        if (def instanceof ScalarTypeDefinition) {
+            return KIND_SCALAR;
+        }
+        throw new IllegalArgumentException("Unsupported type definition " + def.getClass().getSimpleName());
+    }
+
+    private void writeRecord(DataOutputStream out, TypeDefinition def) throws IOException {
+        if (def instanceof ObjectTypeDefinition) {
+            ObjectTypeDefinition objectType = (ObjectTypeDefinition) def;
+            writeDirectives(out, objectType.getDirectives());
+            writeTypeNames(out, objectType.getImplements());
+            writeFields(out, objectType.getFieldDefinitions());
+        }
+        if (def instanceof InterfaceTypeDefinition) {
+            InterfaceTypeDefinition interfaceType = (InterfaceTypeDefinition) def;
+            writeDirectives(out, interfaceType.getDirectives());
+            writeFields(out, interfaceType.getFieldDefinitions());
+        }
+        if (def instanceof UnionTypeDefinition) {
+            UnionTypeDefinition unionType = (UnionTypeDefinition) def;
+            writeDirectives(out, unionType.getDirectives());
+            writeTypeNames(out, unionType.getMemberTypes());
+        }
+        if (def instanceof EnumTypeDefinition) {
+            EnumTypeDefinition enumType = (EnumTypeDefinition) def;
+            writeDirectives(out, enumType.getDirectives());
+            out.writeInt(enumType.getEnumValueDefinitions().size());
+            for (EnumValueDefinition enumValue : enumType.getEnumValueDefinitions()) {
+                out.writeInt(stringId(enumValue.getName()));
+                writeDirectives(out, enumValue.getDirectives());
+            }
+        }
+        if (def instanceof InputObjectTypeDefinition) {
+            InputObjectTypeDefinition inputType = (InputObjectTypeDefinition) def;
+            writeDirectives(out, inputType.getDirectives());
+            writeInputValues(out, inputType.getInputValueDefinitions());
+        }
+        if (def instanceof ScalarTypeDefinition) {
+            writeDirectives(out, ((ScalarTypeDefinition) def).getDirectives());
+        }
+    }
+
+    private void writeTypeNames(DataOutputStream out, List<Type> types) throws IOException {
+        out.writeInt(types.size());
+        for (Type type : types) {
+            out.writeInt(stringId(((TypeName) type).getName()));
+        }
+    }
+
+    private void writeFields(DataOutputStream out, List<FieldDefinition> fields) throws IOException {
+        out.writeInt(fields.size());
+        for (FieldDefinition field : fields) {
+            out.writeInt(stringId(field.getName()));
+            writeTypeRef(out, field.getType());
+            writeInputValues(out, field.getInputValueDefinitions());
+            writeDirectives(out, field.getDirectives());
+        }
+    }
+
+    private void writeInputValues(DataOutputStream out, List<InputValueDefinition> inputValues) throws IOException {
+        out.writeInt(inputValues.size());
+        for (InputValueDefinition inputValue : inputValues) {
+            out.writeInt(stringId(inputValue.getName()));
+            writeTypeRef(out, inputValue.getType());
+            writeValue(out, inputValue.getDefaultValue());
+            writeDirectives(out, inputValue.getDirectives());
+        }
+    }
+
+    private void writeDirectives(DataOutputStream out, List<Directive> directives) throws IOException {
+        out.writeInt(directives.size());
+        for (Directive directive : directives) {
+            out.writeInt(stringId(directive.getName()));
+            out.writeInt(directive.getArguments().size());
+            for (Argument argument : directive.getArguments()) {
+                out.writeInt(stringId(argument.getName()));
+                writeValue(out, argument.getValue());
+            }
+        }
+    }
+
+    /*
+     * the named type followed by its precomputed wrapper signature, outermost first
+     */
+    private void writeTypeRef(DataOutputStream out, Type type) throws IOException {
+        byte[] wrappers = new byte[8];
+        int wrapperCount = 0;
+        while (!(type instanceof TypeName)) {
+            if (wrapperCount == wrappers.length) {
+                byte[] grown = new byte[wrappers.length * 2];
+                System.arraycopy(wrappers, 0, grown, 0, wrappers.length);
+                wrappers = grown;
+            }
+            if (type instanceof NonNullType) {
+                wrappers[wrapperCount++] = WRAPPER_NON_NULL;
+                type = ((NonNullType) type).getType();
+            } else {
+                wrappers[wrapperCount++] = WRAPPER_LIST;
+                type = ((ListType) type).getType();
+            }
+        }
+        out.writeInt(stringId(((TypeName) type).getName()));
+        out.writeByte(wrapperCount);
+        out.write(wrappers, 0, wrapperCount);
+    }
+
+    private void writeValue(DataOutputStream out, Value value) throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_ABSENT);
+        } else if (value instanceof IntValue) {
+            out.writeByte(VALUE_INT);
+            out.writeInt(stringId(((IntValue) value).getValue().toString()));
+        } else if (value instanceof FloatValue) {
+            out.writeByte(VALUE_FLOAT);
+            out.writeInt(stringId(((FloatValue) value).getValue().toString()));
+        } else if (value instanceof StringValue) {
+            out.writeByte(VALUE_STRING);
+            out.writeInt(stringId(((StringValue) value).getValue()));
+        } else if (value instanceof BooleanValue) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean(((BooleanValue) value).isValue());
+        } else if (value instanceof EnumValue) {
+            out.writeByte(VALUE_ENUM);
+            out.writeInt(stringId(((EnumValue) value).getName()));
+        } else if (value instanceof ArrayValue) {
+            out.writeByte(VALUE_ARRAY);
+            List<Value> values = ((ArrayValue) value).getValues();
+            out.writeInt(values.size());
+            for (Value element : values) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof ObjectValue) {
+            out.writeByte(VALUE_OBJECT);
+            List<ObjectField> objectFields = ((ObjectValue) value).getObjectFields();
+            out.writeInt(objectFields.size());
+            for (ObjectField objectField : objectFields) {
+                out.writeInt(stringId(objectField.getName()));
+                writeValue(out, objectField.getValue());
+            }
+        } else if (value instanceof VariableReference) {
+            out.writeByte(VALUE_VARIABLE);
+            out.writeInt(stringId(((VariableReference) value).getName()));
+        } else {
+            // any other value (such as null) is kept in its printed form
+            out.writeByte(VALUE_PRINTED);
+            out.writeInt(stringId(AstPrinter.printAst(value)));
+        }
+    }
+}
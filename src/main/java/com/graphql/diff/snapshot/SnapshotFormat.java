@@ -0,0 +1,48 @@
+package com.graphql.diff.snapshot;
+
+import graphql.Internal;
+
+/*
+ * The layout of a schema snapshot file.  All numbers are big endian.
+ *
+ *  header    : int magic, int version, int stringCount, int typeCount, int operationCount,
+ *              long stringOffsetsPos, long stringDataPos, long typeIndexPos, long recordsPos
+ *  operations: operationCount x (int opNameId, int typeNameId)
+ *  strings   : stringCount x int offset into the string data, then the data as (int byteLength, utf-8 bytes)
+ *  type index: typeCount x (int nameId, byte kind, 32 byte structural hash, int recordOffset) sorted by type name
+ *  records   : one record per type, see SchemaSnapshotWriter for the encoding of each kind
+ */
+@Internal
+class SnapshotFormat {
+
+    static final int MAGIC = 0x47514C53; // GQLS
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 4 * 5 + 8 * 4;
+    static final int HASH_SIZE = 32;
+    static final int INDEX_ENTRY_SIZE = 4 + 1 + HASH_SIZE + 4;
+
+    // type kinds
+    static final byte KIND_OBJECT = 1;
+    static final byte KIND_INTERFACE = 2;
+    static final byte KIND_UNION = 3;
+    static final byte KIND_ENUM = 4;
+    static final byte KIND_INPUT_OBJECT = 5;
+    static final byte KIND_SCALAR = 6;
+
+    // type wrappers, outermost first
+    static final byte WRAPPER_NON_NULL = 1;
+    static final byte WRAPPER_LIST = 2;
+
+    // value tags
+    static final byte VALUE_ABSENT = 0;
+    static final byte VALUE_INT = 1;
+    static final byte VALUE_FLOAT = 2;
+    static final byte VALUE_STRING = 3;
+    static final byte VALUE_BOOLEAN = 4;
+    static final byte VALUE_ENUM = 5;
+    static final byte VALUE_ARRAY = 6;
+    static final byte VALUE_OBJECT = 7;
+    static final byte VALUE_VARIABLE = 8;
+    static final byte VALUE_PRINTED = 9;
+}
@@ -0,0 +1,110 @@
+package com.graphql.diff.store;
+
+import graphql.PublicApi;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A version of a schema in a {@link com.graphql.diff.store.SchemaStore}.  It names the operation types
+ * and lists the structural hash of every type, the type definitions themselves are stored once per hash.
+ */
+@PublicApi
+public class SchemaManifest {
+
+    private final String service;
+    private final String version;
+    private final Map<String, String> operationTypes;
+    private final Map<String, String> typeHashes;
+
+    SchemaManifest(String service, String version, Map<String, String> operationTypes, Map<String, String> typeHashes) {
+        this.service = service;
+        this.version = version;
+        this.operationTypes = Collections.unmodifiableMap(new LinkedHashMap<>(operationTypes));
+        this.typeHashes = Collections.unmodifiableMap(new TreeMap<>(typeHashes));
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the operation names (query, mutation and subscription) mapped to the names of their types
+     */
+    public Map<String, String> getOperationTypes() {
+        return operationTypes;
+    }
+
+    /**
+     * @return the type names in name order mapped to the hex encoded structural hashes of the types
+     */
+    public Map<String, String> getTypeHashes() {
+        return typeHashes;
+    }
+
+    /**
+     * Compares the manifests without loading any type definitions
+     *
+     * @param other the manifest to compare with
+     *
+     * @return the names of the types that have been added, removed or changed between the manifests
+     */
+    public Set<String> getChangedTypes(SchemaManifest other) {
+        Set<String> changed = new TreeSet<>();
+        typeHashes.forEach((typeName, hash) -> {
+            if (!hash.equals(other.typeHashes.get(typeName))) {
+                changed.add(typeName);
+            }
+        });
+        other.typeHashes.keySet().forEach(typeName -> {
+            if (!typeHashes.containsKey(typeName)) {
+                changed.add(typeName);
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * @param other the manifest to compare with
+     *
+     * @return true if both manifests describe exactly the same schema
+     */
+    public boolean isSameSchemaAs(SchemaManifest other) {
+        return operationTypes.equals(other.operationTypes) && typeHashes.equals(other.typeHashes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SchemaManifest that = (SchemaManifest) o;
+        return service.equals(that.service) && version.equals(that.version) && isSameSchemaAs(that);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(service, version, typeHashes);
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaManifest{" +
+                "service='" + service + '\'' +
+                ", version='" + version + '\'' +
+                ", typeCount=" + typeHashes.size() +
+                '}';
+    }
+}
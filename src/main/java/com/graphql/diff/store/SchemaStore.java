@@ -0,0 +1,298 @@
+package com.graphql.diff.store;
+
+import com.graphql.diff.DiffSet;
+import com.graphql.diff.HashedSchemaLoader;
+import com.graphql.diff.snapshot.SchemaSnapshot;
+import com.graphql.diff.snapshot.SchemaSnapshotWriter;
+import com.graphql.diff.util.TypeHasher;
+import graphql.Assert;
+import graphql.PublicApi;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.language.OperationTypeDefinition;
+import graphql.language.SchemaDefinition;
+import graphql.language.TypeDefinition;
+import graphql.language.TypeName;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A local on disk store of schema versions.  Type definitions are content addressed by their structural hash
+ * (see {@link com.graphql.diff.util.TypeHasher}) so a type that is the same across many versions is stored once,
+ * and each version is a small manifest of type hashes.
+ *
+ * The layout under the root directory is
+ * <pre>
+ *     types/ab/cdef....gqlsnap            a single type snapshot of the type whose hash is abcdef...
+ *     manifests/service/version.manifest  the operation types and type hashes of a version
+ * </pre>
+ */
+@PublicApi
+public class SchemaStore {
+
+    private static final String MANIFEST_HEADER = "graphql-diff-manifest 1";
+    private static final String MANIFEST_EXTENSION = ".manifest";
+
+    private final Path root;
+
+    private SchemaStore(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Opens a store, creating the root directory if need be
+     *
+     * @param root the root directory of the store
+     *
+     * @return the store
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    public static SchemaStore open(Path root) throws IOException {
+        Files.createDirectories(root);
+        return new SchemaStore(root);
+    }
+
+    /**
+     * Adds a version of a service schema to the store, only writing the type definitions that are not already present
+     *
+     * @param service  the name of the service
+     * @param version  the version of the schema
+     * @param document the schema definition
+     *
+     * @return the manifest of the version
+     *
+     * @throws IOException if the store cannot be written to
+     */
+    public SchemaManifest put(String service, String version, Document document) throws IOException {
+        assertValidName(service, "service");
+        assertValidName(version, "version");
+
+        Map<String, String> operationTypes = new LinkedHashMap<>();
+        Map<String, String> typeHashes = new HashMap<>();
+        for (Definition definition : document.getDefinitions()) {
+            if (definition instanceof SchemaDefinition) {
+                for (OperationTypeDefinition operation : ((SchemaDefinition) definition).getOperationTypeDefinitions()) {
+                    operationTypes.put(operation.getName(), ((TypeName) operation.getType()).getName());
+                }
+            }
+            if (definition instanceof TypeDefinition) {
+                TypeDefinition typeDefinition = (TypeDefinition) definition;
+                String hash = TypeHasher.hashHex(typeDefinition);
+                Path typePath = typePath(hash);
+                if (!Files.exists(typePath)) {
+                    writeType(typePath, typeDefinition);
+                }
+                typeHashes.put(typeDefinition.getName(), hash);
+            }
+        }
+        SchemaManifest manifest = new SchemaManifest(service, version, operationTypes, typeHashes);
+        writeAtomically(manifestPath(service, version), formatManifest(manifest));
+        return manifest;
+    }
+
+    /**
+     * @param service the name of the service
+     * @param version the version of the schema
+     *
+     * @return true if the store has that version of the service
+     */
+    public boolean contains(String service, String version) {
+        return Files.exists(manifestPath(service, version));
+    }
+
+    /**
+     * @param service the name of the service
+     *
+     * @return the versions of the service in the store in name order
+     *
+     * @throws IOException if the store cannot be read
+     */
+    public List<String> getVersions(String service) throws IOException {
+        List<String> versions = new ArrayList<>();
+        Path serviceDir = root.resolve("manifests").resolve(service);
+        if (!Files.isDirectory(serviceDir)) {
+            return versions;
+        }
+        try (DirectoryStream<Path> manifests = Files.newDirectoryStream(serviceDir, "*" + MANIFEST_EXTENSION)) {
+            for (Path manifest : manifests) {
+                String fileName = manifest.getFileName().toString();
+                versions.add(fileName.substring(0, fileName.length() - MANIFEST_EXTENSION.length()));
+            }
+        }
+        versions.sort(String::compareTo);
+        return versions;
+    }
+
+    /**
+     * Reads a manifest without loading any of its type definitions
+     *
+     * @param service the name of the service
+     * @param version the version of the schema
+     *
+     * @return the manifest of the version
+     *
+     * @throws IOException if the version is not in the store or cannot be read
+     */
+    public SchemaManifest getManifest(String service, String version) throws IOException {
+        List<String> lines = Files.readAllLines(manifestPath(service, version), StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(MANIFEST_HEADER)) {
+            throw new IOException(String.format("The manifest for service '%s' version '%s' is not valid", service, version));
+        }
+        Map<String, String> operationTypes = new LinkedHashMap<>();
+        Map<String, String> typeHashes = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] parts = line.split(" ");
+            if (parts.length != 3) {
+                throw new IOException(String.format("The manifest for service '%s' version '%s' has an invalid line '%s'", service, version, line));
+            }
+            if (parts[0].equals("operation")) {
+                operationTypes.put(parts[1], parts[2]);
+            } else {
+                typeHashes.put(parts[1], parts[2]);
+            }
+        }
+        return new SchemaManifest(service, version, operationTypes, typeHashes);
+    }
+
+    /**
+     * Loads a version of a service schema from the store
+     *
+     * @param service the name of the service
+     * @param version the version of the schema
+     *
+     * @return the schema definition
+     *
+     * @throws IOException if the version is not in the store or cannot be read
+     */
+    public Document load(String service, String version) throws IOException {
+        return load(getManifest(service, version), new HashMap<>());
+    }
+
+    /**
+     * A loader of the versions of a service schema, for {@link com.graphql.diff.SchemaChainDiff} and
+     * {@link com.graphql.diff.SchemaMatrixDiff}, that takes the type hashes of each version from its manifest
+     *
+     * @param service the name of the service
+     *
+     * @return a loader of the versions of the service
+     */
+    public HashedSchemaLoader loader(String service) {
+        return new HashedSchemaLoader() {
+            @Override
+            public Document load(String version) throws IOException {
+                return SchemaStore.this.load(service, version);
+            }
+
+            @Override
+            public Map<String, String> typeHashes(String version, Document document) throws IOException {
+                return getManifest(service, version).getTypeHashes();
+            }
+        };
+    }
+
+    /**
+     * Creates a diff set of two versions of a service schema.  The manifests are compared first and the type definitions
+     * that are shared by both versions are only read once and then skipped by the differ.
+     *
+     * @param service    the name of the service
+     * @param oldVersion the older version
+     * @param newVersion the newer version
+     *
+     * @return a diff set representing them
+     *
+     * @throws IOException if either version is not in the store or cannot be read
+     */
+    public DiffSet diffSet(String service, String oldVersion, String newVersion) throws IOException {
+        SchemaManifest oldManifest = getManifest(service, oldVersion);
+        SchemaManifest newManifest = getManifest(service, newVersion);
+        Map<String, TypeDefinition> typesByHash = new HashMap<>();
+        Document oldDocument = load(oldManifest, typesByHash);
+        Document newDocument = load(newManifest, typesByHash);
+        return DiffSet.diffSet(oldDocument, newDocument, oldManifest.getTypeHashes(), newManifest.getTypeHashes());
+    }
+
+    private Document load(SchemaManifest manifest, Map<String, TypeDefinition> typesByHash) throws IOException {
+        List<Definition> definitions = new ArrayList<>();
+        if (!manifest.getOperationTypes().isEmpty()) {
+            SchemaDefinition schemaDefinition = new SchemaDefinition();
+            manifest.getOperationTypes().forEach((operation, typeName) ->
+                    schemaDefinition.getOperationTypeDefinitions().add(new OperationTypeDefinition(operation, new TypeName(typeName))));
+            definitions.add(schemaDefinition);
+        }
+        for (String hash : manifest.getTypeHashes().values()) {
+            TypeDefinition typeDefinition = typesByHash.get(hash);
+            if (typeDefinition == null) {
+                typeDefinition = readType(hash);
+                typesByHash.put(hash, typeDefinition);
+            }
+            definitions.add(typeDefinition);
+        }
+        return new Document(definitions);
+    }
+
+    private TypeDefinition readType(String hash) throws IOException {
+        SchemaSnapshot snapshot = SchemaSnapshot.open(typePath(hash));
+        return snapshot.getTypeDefinition(snapshot.getTypeNames().get(0));
+    }
+
+    private static void writeType(Path path, TypeDefinition typeDefinition) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        SchemaSnapshotWriter.write(new Document(Collections.singletonList(typeDefinition)), temp);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private String formatManifest(SchemaManifest manifest) {
+        StringBuilder sb = new StringBuilder(MANIFEST_HEADER).append('\n');
+        manifest.getOperationTypes().forEach((operation, typeName) ->
+                sb.append("operation ").append(operation).append(' ').append(typeName).append('\n'));
+        manifest.getTypeHashes().forEach((typeName, hash) ->
+                sb.append("type ").append(typeName).append(' ').append(hash).append('\n'));
+        return sb.toString();
+    }
+
+    private Path typePath(String hash) {
+        return root.resolve("types").resolve(hash.substring(0, 2)).resolve(hash.substring(2) + ".gqlsnap");
+    }
+
+    private Path manifestPath(String service, String version) {
+        return root.resolve("manifests").resolve(service).resolve(version + MANIFEST_EXTENSION);
+    }
+
+    /*
+     * written to a temporary file and then moved into place so that readers never see a partial file
+     */
+    private static void writeAtomically(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void assertValidName(String name, String what) {
+        Assert.assertTrue(name != null && !name.isEmpty() && name.matches("[A-Za-z0-9._-]+") && !name.startsWith("."),
+                "The " + what + " must be made up of letters, digits, '.', '_' and '-'");
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaStore{" +
+                "root=" + root +
+                '}';
+    }
+}
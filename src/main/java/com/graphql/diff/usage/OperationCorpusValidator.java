@@ -0,0 +1,247 @@
+package com.graphql.diff.usage;
+
+import com.graphql.diff.util.TypeHasher;
+import graphql.Assert;
+import graphql.PublicApi;
+import graphql.PublicSpi;
+import graphql.language.Document;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.validation.ValidationError;
+import graphql.validation.Validator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Validates a corpus of client operations, such as persisted queries, against a schema with the graphql-java
+ * {@link graphql.validation.Validator}, to find the operations that a new schema would reject.
+ *
+ * The operations are split up across a work stealing pool and share the one schema.  Operations with identical text
+ * are only parsed and validated once.  Invalid operations are passed to a listener as soon as they are found rather
+ * than at the end.
+ */
+@PublicApi
+public class OperationCorpusValidator {
+
+    /**
+     * Told about each invalid operation as it is found.  It is called from the threads of the pool.
+     */
+    @PublicSpi
+    public interface Listener {
+        /**
+         * @param operationId the id of the operation
+         * @param errors      the parse or validation error messages of the operation
+         */
+        void onInvalid(String operationId, List<String> errors);
+    }
+
+    /**
+     * The counts of a validation run
+     */
+    @PublicApi
+    public static class Summary {
+        private final int operationCount;
+        private final int invalidCount;
+        private final int validatedCount;
+        private final long elapsedNanos;
+
+        Summary(int operationCount, int invalidCount, int validatedCount, long elapsedNanos) {
+            this.operationCount = operationCount;
+            this.invalidCount = invalidCount;
+            this.validatedCount = validatedCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return the number of operations in the corpus
+         */
+        public int getOperationCount() {
+            return operationCount;
+        }
+
+        /**
+         * @return the number of operations that did not parse or validate
+         */
+        public int getInvalidCount() {
+            return invalidCount;
+        }
+
+        /**
+         * @return the number of distinct operation texts that were actually validated
+         */
+        public int getValidatedCount() {
+            return validatedCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary{" +
+                    "operationCount=" + operationCount +
+                    ", invalidCount=" + invalidCount +
+                    ", validatedCount=" + validatedCount +
+                    ", elapsedNanos=" + elapsedNanos +
+                    '}';
+        }
+    }
+
+    // the operations a task validates itself rather than splitting further
+    private static final int BATCH_SIZE = 64;
+
+    private final GraphQLSchema schema;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a validator that runs on the common fork join pool
+     *
+     * @param schema the schema to validate against
+     */
+    public OperationCorpusValidator(GraphQLSchema schema) {
+        this(schema, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param schema the schema to validate against
+     * @param pool   the pool to validate on
+     */
+    public OperationCorpusValidator(GraphQLSchema schema, ForkJoinPool pool) {
+        this.schema = Assert.assertNotNull(schema, "schema must be provided");
+        this.pool = Assert.assertNotNull(pool, "pool must be provided");
+    }
+
+    /**
+     * Validates every .graphql and .gql file under a directory, each identified by its path relative to the directory.
+     * The files are read by the tasks of the pool.
+     *
+     * @param directory the directory of operation files
+     * @param listener  told about each invalid operation
+     *
+     * @return the counts of the run
+     *
+     * @throws IOException if the directory or a file cannot be read
+     */
+    public Summary validate(Path directory, Listener listener) throws IOException {
+        List<Path> files = OperationFiles.list(directory);
+        try {
+            return validate(files.size(),
+                    i -> OperationFiles.operationId(directory, files.get(i)),
+                    i -> OperationFiles.read(files.get(i)), listener);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Validates operations that are already in memory
+     *
+     * @param operations the text of each operation document keyed by operation id
+     * @param listener   told about each invalid operation
+     *
+     * @return the counts of the run
+     */
+    public Summary validate(Map<String, String> operations, Listener listener) {
+        List<Map.Entry<String, String>> entries = new ArrayList<>(operations.entrySet());
+        return validate(entries.size(), i -> entries.get(i).getKey(), i -> entries.get(i).getValue(), listener);
+    }
+
+    private Summary validate(int count, IntFunction<String> ids, IntFunction<String> texts, Listener listener) {
+        long start = System.nanoTime();
+        Run run = new Run(ids, texts, listener);
+        pool.invoke(new ValidateRange(run, 0, count));
+        return new Summary(count, run.invalidCount.get(), run.errorsByText.size(), System.nanoTime() - start);
+    }
+
+    private class Run {
+        final IntFunction<String> ids;
+        final IntFunction<String> texts;
+        final Listener listener;
+        // keyed by a hash of the text so that the texts themselves are not kept, and an empty list means valid
+        final Map<String, List<String>> errorsByText = new ConcurrentHashMap<>();
+        final AtomicInteger invalidCount = new AtomicInteger();
+
+        Run(IntFunction<String> ids, IntFunction<String> texts, Listener listener) {
+            this.ids = ids;
+            this.texts = texts;
+            this.listener = listener;
+        }
+
+        void validate(int i) {
+            String text = texts.apply(i);
+            String textHash = TypeHasher.toHex(TypeHasher.sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+            // validated outside the map so that other texts are not held up behind a slow validation, at the cost of two
+            // threads sometimes validating the same text, in which case the first errors to be put are kept
+            List<String> errors = errorsByText.get(textHash);
+            if (errors == null) {
+                errors = errors(text);
+                List<String> known = errorsByText.putIfAbsent(textHash, errors);
+                if (known != null) {
+                    errors = known;
+                }
+            }
+            if (!errors.isEmpty()) {
+                invalidCount.incrementAndGet();
+                listener.onInvalid(ids.apply(i), errors);
+            }
+        }
+
+        private List<String> errors(String text) {
+            Document document;
+            try {
+                document = new Parser().parseDocument(text);
+            } catch (RuntimeException e) {
+                // the parser can fail without a message
+                return Collections.singletonList("Unable to parse the operation : " + (e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage()));
+            }
+            List<ValidationError> validationErrors = new Validator().validateDocument(schema, document);
+            List<String> errors = new ArrayList<>(validationErrors.size());
+            for (ValidationError validationError : validationErrors) {
+                errors.add(validationError.getMessage());
+            }
+            return errors;
+        }
+    }
+
+    /*
+     * halves the range until it is small enough so that idle threads can steal the other halves
+     */
+    private static class ValidateRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        ValidateRange(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    run.validate(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ValidateRange(run, from, middle), new ValidateRange(run, middle, to));
+        }
+    }
+}
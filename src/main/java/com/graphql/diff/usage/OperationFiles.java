@@ -0,0 +1,45 @@
+package com.graphql.diff.usage;
+
+import graphql.Internal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * The files of a corpus of operations, which are the .graphql and .gql files under a directory identified by
+ * their path relative to it
+ */
+@Internal
+class OperationFiles {
+
+    private static final PathMatcher OPERATION_FILES = FileSystems.getDefault().getPathMatcher("glob:*.{graphql,gql}");
+
+    static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> OPERATION_FILES.matches(path.getFileName()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    static String operationId(Path directory, Path file) {
+        return directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    static String read(Path file) {
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.graphql.diff.usage;
+
+import com.graphql.diff.DiffEvent;
+import com.graphql.diff.TypeKind;
+import graphql.PublicApi;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.parser.Parser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An index of which operations of a corpus of client operations, such as persisted queries, use each schema
+ * coordinate.  The coordinates are {@code Type.field} for the fields of object and interface types and {@code Type}
+ * for every type an operation touches, including the input types and enums of its arguments and variables.
+ *
+ * Operations are resolved against the older schema of a difference, since that is the schema they were written for.
+ * The index is built once, in parallel, and then answers lookups in constant time so that annotating the events of
+ * a difference does not depend on the size of the corpus.
+ */
+@PublicApi
+public class OperationUsageIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final String[] operationIds;
+    private final Map<String, int[]> operationsByCoordinate;
+
+    private OperationUsageIndex(String[] operationIds, Map<String, int[]> operationsByCoordinate) {
+        this.operationIds = operationIds;
+        this.operationsByCoordinate = operationsByCoordinate;
+    }
+
+    /**
+     * Indexes every .graphql and .gql file under a directory.  A file with more than one operation gives an
+     * operation id per operation of the form {@code path#operationName}, otherwise the id is the path of the file
+     * relative to the directory.
+     *
+     * @param schema    the schema the operations were written against
+     * @param directory the directory of operation files
+     *
+     * @return the usage index
+     *
+     * @throws IOException if the directory cannot be read
+     */
+    public static OperationUsageIndex build(Document schema, Path directory) throws IOException {
+        List<Path> files = OperationFiles.list(directory);
+        UsageCollector collector = new UsageCollector(schema);
+        List<Map<String, Set<String>>> usages;
+        try {
+            usages = files.parallelStream()
+                    .map(file -> collect(collector, OperationFiles.operationId(directory, file), OperationFiles.read(file)))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return index(usages);
+    }
+
+    /**
+     * Indexes operations that are already in memory
+     *
+     * @param schema     the schema the operations were written against
+     * @param operations the text of each operation document keyed by operation id
+     *
+     * @return the usage index
+     */
+    public static OperationUsageIndex build(Document schema, Map<String, String> operations) {
+        UsageCollector collector = new UsageCollector(schema);
+        List<Map<String, Set<String>>> usages = new ArrayList<>(operations.entrySet()).parallelStream()
+                .map(entry -> collect(collector, entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+        return index(usages);
+    }
+
+    /**
+     * @return the number of operations in the index
+     */
+    public int getOperationCount() {
+        return operationIds.length;
+    }
+
+    /**
+     * @param coordinate a schema coordinate such as {@code Query.orders} or {@code OrderStatus}
+     *
+     * @return the ids of the operations that use the coordinate
+     */
+    public List<String> getOperations(String coordinate) {
+        int[] operations = operationsByCoordinate.getOrDefault(coordinate, NONE);
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return operationIds[operations[index]];
+            }
+
+            @Override
+            public int size() {
+                return operations.length;
+            }
+        };
+    }
+
+    /**
+     * @param coordinate a schema coordinate such as {@code Query.orders} or {@code OrderStatus}
+     *
+     * @return the number of operations that use the coordinate
+     */
+    public int getUsageCount(String coordinate) {
+        return operationsByCoordinate.getOrDefault(coordinate, NONE).length;
+    }
+
+    /**
+     * @param event a difference event
+     *
+     * @return the ids of the operations that use what the event is about
+     */
+    public List<String> getAffectedOperations(DiffEvent event) {
+        return getOperations(coordinateOf(event));
+    }
+
+    /**
+     * Field events of object and interface types are about the field, every other event is about its whole type,
+     * for example an input field or enum value can be used by any operation that uses the input type or enum
+     *
+     * @param event a difference event
+     *
+     * @return the schema coordinate the event is about
+     */
+    public static String coordinateOf(DiffEvent event) {
+        TypeKind typeKind = event.getTypeKind();
+        if (event.getFieldName() != null && (typeKind == TypeKind.Object || typeKind == TypeKind.Interface)) {
+            return event.getTypeName() + "." + event.getFieldName();
+        }
+        return event.getTypeName();
+    }
+
+    private static Map<String, Set<String>> collect(UsageCollector collector, String id, String text) {
+        Document document;
+        try {
+            document = new Parser().parseDocument(text);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Unable to parse operation " + id + " : " + e.getMessage(), e);
+        }
+        List<OperationDefinition> operations = document.getDefinitions().stream()
+                .filter(definition -> definition instanceof OperationDefinition)
+                .map(definition -> (OperationDefinition) definition)
+                .collect(Collectors.toList());
+        Map<String, Set<String>> usages = new LinkedHashMap<>();
+        for (OperationDefinition operation : operations) {
+            String operationId = operations.size() == 1 ? id : id + "#" + operation.getName();
+            usages.put(operationId, collector.collect(document, operation));
+        }
+        return usages;
+    }
+
+    /*
+     * counted first so that each coordinate gets an exact size int array of operation numbers
+     */
+    private static OperationUsageIndex index(List<Map<String, Set<String>>> usages) {
+        List<String> ids = new ArrayList<>();
+        Map<String, int[]> counts = new HashMap<>();
+        for (Map<String, Set<String>> fileUsages : usages) {
+            fileUsages.forEach((id, coordinates) -> {
+                ids.add(id);
+                coordinates.forEach(coordinate -> counts.computeIfAbsent(coordinate, key -> new int[1])[0]++);
+            });
+        }
+        Map<String, int[]> operationsByCoordinate = new HashMap<>(counts.size() * 2);
+        counts.forEach((coordinate, count) -> {
+            operationsByCoordinate.put(coordinate, new int[count[0]]);
+            count[0] = 0;
+        });
+        int operation = 0;
+        for (Map<String, Set<String>> fileUsages : usages) {
+            for (Set<String> coordinates : fileUsages.values()) {
+                for (String coordinate : coordinates) {
+                    operationsByCoordinate.get(coordinate)[counts.get(coordinate)[0]++] = operation;
+                }
+                operation++;
+            }
+        }
+        return new OperationUsageIndex(ids.toArray(new String[0]), Collections.unmodifiableMap(operationsByCoordinate));
+    }
+
+    @Override
+    public String toString() {
+        return "OperationUsageIndex{" +
+                "operations=" + operationIds.length +
+                ", coordinates=" + operationsByCoordinate.size() +
+                '}';
+    }
+}
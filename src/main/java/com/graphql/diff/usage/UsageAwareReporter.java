@@ -0,0 +1,99 @@
+package com.graphql.diff.usage;
+
+import com.graphql.diff.DiffEvent;
+import com.graphql.diff.DiffLevel;
+import com.graphql.diff.reporting.DifferenceReporter;
+import graphql.PublicApi;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A reporter that looks up the operations of an {@link com.graphql.diff.usage.OperationUsageIndex} that each breaking
+ * change affects.  Breaking events are passed on with the number of affected operations, and a few of their ids,
+ * added to the reason.  Breaking changes that no operation uses are either passed on as such or dropped.
+ */
+@PublicApi
+public class UsageAwareReporter implements DifferenceReporter {
+
+    private static final int EXAMPLE_OPERATIONS = 3;
+
+    private final DifferenceReporter delegate;
+    private final OperationUsageIndex usageIndex;
+    private final boolean dropUnused;
+    private final Set<String> affectedOperations = new HashSet<>();
+    private int usedBreakageCount;
+    private int unusedBreakageCount;
+
+    /**
+     * @param delegate   the reporter to pass the events on to
+     * @param usageIndex the operations to check the breaking changes against
+     * @param dropUnused true if breaking changes that no operation uses are not passed on
+     */
+    public UsageAwareReporter(DifferenceReporter delegate, OperationUsageIndex usageIndex, boolean dropUnused) {
+        this.delegate = delegate;
+        this.usageIndex = usageIndex;
+        this.dropUnused = dropUnused;
+    }
+
+    @Override
+    public void report(DiffEvent differenceEvent) {
+        if (differenceEvent.getLevel() != DiffLevel.BREAKING) {
+            delegate.report(differenceEvent);
+            return;
+        }
+        List<String> operations = usageIndex.getAffectedOperations(differenceEvent);
+        if (operations.isEmpty()) {
+            unusedBreakageCount++;
+            if (!dropUnused) {
+                delegate.report(withReason(differenceEvent, differenceEvent.getReasonMsg() + " (not used by any operation)"));
+            }
+            return;
+        }
+        usedBreakageCount++;
+        affectedOperations.addAll(operations);
+        String examples = String.join(", ", operations.subList(0, Math.min(EXAMPLE_OPERATIONS, operations.size())));
+        String more = operations.size() > EXAMPLE_OPERATIONS ? ", ..." : "";
+        delegate.report(withReason(differenceEvent, String.format("%s (used by %d operation(s) : %s%s)",
+                differenceEvent.getReasonMsg(), operations.size(), examples, more)));
+    }
+
+    @Override
+    public void onEnd() {
+        delegate.onEnd();
+    }
+
+    /**
+     * @return the ids of every operation affected by at least one breaking change
+     */
+    public Set<String> getAffectedOperations() {
+        return new HashSet<>(affectedOperations);
+    }
+
+    /**
+     * @return the number of breaking changes that at least one operation uses
+     */
+    public int getUsedBreakageCount() {
+        return usedBreakageCount;
+    }
+
+    /**
+     * @return the number of breaking changes that no operation uses
+     */
+    public int getUnusedBreakageCount() {
+        return unusedBreakageCount;
+    }
+
+    private static DiffEvent withReason(DiffEvent event, String reasonMsg) {
+        return new DiffEvent.Builder()
+                .level(event.getLevel())
+                .category(event.getCategory())
+                .typeKind(event.getTypeKind())
+                .typeName(event.getTypeName())
+                .fieldName(event.getFieldName())
+                .components(event.getComponents().toArray())
+                .reasonMsg("%s", reasonMsg)
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.graphql.diff.usage;
+
+import com.graphql.diff.util.TypeInfo;
+import graphql.Internal;
+import graphql.language.Argument;
+import graphql.language.Definition;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FieldDefinition;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.OperationDefinition;
+import graphql.language.OperationTypeDefinition;
+import graphql.language.SchemaDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.VariableDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Walks the selections of an operation against a schema and collects the schema coordinates that it uses.
+ * Selections that do not resolve against the schema are skipped since they cannot be affected by a change to it.
+ * The schema maps are built once and only read afterwards so a collector can be shared by threads.
+ */
+@Internal
+class UsageCollector {
+
+    private final Map<String, TypeDefinition> types = new HashMap<>();
+    private final Map<String, String> rootTypes = new HashMap<>();
+    private final Map<String, List<String>> implementations = new HashMap<>();
+
+    UsageCollector(Document schema) {
+        rootTypes.put("query", "Query");
+        rootTypes.put("mutation", "Mutation");
+        rootTypes.put("subscription", "Subscription");
+        for (Definition definition : schema.getDefinitions()) {
+            if (definition instanceof SchemaDefinition) {
+                for (OperationTypeDefinition operation : ((SchemaDefinition) definition).getOperationTypeDefinitions()) {
+                    rootTypes.put(operation.getName(), TypeInfo.typeInfo(operation.getType()).getName());
+                }
+            }
+            if (definition instanceof TypeDefinition) {
+                types.put(((TypeDefinition) definition).getName(), (TypeDefinition) definition);
+            }
+            if (definition instanceof ObjectTypeDefinition) {
+                ObjectTypeDefinition objectType = (ObjectTypeDefinition) definition;
+                for (Type implemented : objectType.getImplements()) {
+                    implementations.computeIfAbsent(TypeInfo.typeInfo(implemented).getName(), name -> new ArrayList<>()).add(objectType.getName());
+                }
+            }
+        }
+    }
+
+    Set<String> collect(Document document, OperationDefinition operation) {
+        Map<String, FragmentDefinition> fragments = new HashMap<>();
+        for (Definition definition : document.getDefinitions()) {
+            if (definition instanceof FragmentDefinition) {
+                fragments.put(((FragmentDefinition) definition).getName(), (FragmentDefinition) definition);
+            }
+        }
+        Walk walk = new Walk(fragments);
+        String operationName = operation.getOperation().name().toLowerCase();
+        String rootType = rootTypes.get(operationName);
+        // operation events are reported against the capitalized operation name rather than the root type name
+        walk.coordinates.add(Character.toUpperCase(operationName.charAt(0)) + operationName.substring(1));
+        walk.coordinates.add(rootType);
+        for (VariableDefinition variable : operation.getVariableDefinitions()) {
+            walk.inputType(variable.getType());
+        }
+        walk.selections(rootType, operation.getSelectionSet());
+        return walk.coordinates;
+    }
+
+    private class Walk {
+        final Set<String> coordinates = new HashSet<>();
+        final Map<String, FragmentDefinition> fragments;
+        final Set<String> spreadFragments = new HashSet<>();
+
+        Walk(Map<String, FragmentDefinition> fragments) {
+            this.fragments = fragments;
+        }
+
+        void selections(String scope, SelectionSet selectionSet) {
+            if (selectionSet == null) {
+                return;
+            }
+            for (Selection selection : selectionSet.getSelections()) {
+                if (selection instanceof Field) {
+                    field(scope, (Field) selection);
+                } else if (selection instanceof InlineFragment) {
+                    InlineFragment inlineFragment = (InlineFragment) selection;
+                    String typeCondition = inlineFragment.getTypeCondition() == null ? scope : inlineFragment.getTypeCondition().getName();
+                    coordinates.add(typeCondition);
+                    selections(typeCondition, inlineFragment.getSelectionSet());
+                } else if (selection instanceof FragmentSpread) {
+                    FragmentDefinition fragment = fragments.get(((FragmentSpread) selection).getName());
+                    // a fragment is walked once per operation, which also stops fragment cycles
+                    if (fragment != null && spreadFragments.add(fragment.getName())) {
+                        String typeCondition = fragment.getTypeCondition().getName();
+                        coordinates.add(typeCondition);
+                        selections(typeCondition, fragment.getSelectionSet());
+                    }
+                }
+            }
+        }
+
+        void field(String scope, Field field) {
+            if (field.getName().startsWith("__")) {
+                return;
+            }
+            FieldDefinition fieldDefinition = fieldDefinition(scope, field.getName());
+            if (fieldDefinition == null) {
+                return;
+            }
+            coordinates.add(scope + "." + field.getName());
+            // a field selected through an interface is served by the same field of every implementation
+            for (String implementation : implementations.getOrDefault(scope, Collections.emptyList())) {
+                coordinates.add(implementation + "." + field.getName());
+            }
+            for (Argument argument : field.getArguments()) {
+                for (InputValueDefinition argumentDefinition : fieldDefinition.getInputValueDefinitions()) {
+                    if (argumentDefinition.getName().equals(argument.getName())) {
+                        inputType(argumentDefinition.getType());
+                    }
+                }
+            }
+            String fieldType = TypeInfo.typeInfo(fieldDefinition.getType()).getName();
+            coordinates.add(fieldType);
+            selections(fieldType, field.getSelectionSet());
+        }
+
+        /*
+         * an input type is used as a whole since the values passed to it are not known until the operation is run
+         */
+        void inputType(Type type) {
+            String typeName = TypeInfo.typeInfo(type).getName();
+            if (!coordinates.add(typeName)) {
+                return;
+            }
+            TypeDefinition typeDefinition = types.get(typeName);
+            if (typeDefinition instanceof InputObjectTypeDefinition) {
+                for (InputValueDefinition inputField : ((InputObjectTypeDefinition) typeDefinition).getInputValueDefinitions()) {
+                    inputType(inputField.getType());
+                }
+            }
+        }
+
+        private FieldDefinition fieldDefinition(String typeName, String fieldName) {
+            TypeDefinition typeDefinition = types.get(typeName);
+            List<FieldDefinition> fieldDefinitions;
+            if (typeDefinition instanceof ObjectTypeDefinition) {
+                fieldDefinitions = ((ObjectTypeDefinition) typeDefinition).getFieldDefinitions();
+            } else if (typeDefinition instanceof InterfaceTypeDefinition) {
+                fieldDefinitions = ((InterfaceTypeDefinition) typeDefinition).getFieldDefinitions();
+            } else {
+                return null;
+            }
+            for (FieldDefinition fieldDefinition : fieldDefinitions) {
+                if (fieldDefinition.getName().equals(fieldName)) {
+                    return fieldDefinition;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.graphql.diff.util;
+
+import graphql.Internal;
+import graphql.language.Argument;
+import graphql.language.AstPrinter;
+import graphql.language.Definition;
+import graphql.language.Directive;
+import graphql.language.Document;
+import graphql.language.EnumTypeDefinition;
+import graphql.language.EnumValueDefinition;
+import graphql.language.FieldDefinition;
+import graphql.language.InputObjectTypeDefinition;
+import graphql.language.InputValueDefinition;
+import graphql.language.InterfaceTypeDefinition;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.OperationTypeDefinition;
+import graphql.language.ScalarTypeDefinition;
+import graphql.language.SchemaDefinition;
+import graphql.language.Type;
+import graphql.language.TypeDefinition;
+import graphql.language.UnionTypeDefinition;
+import graphql.language.Value;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static com.graphql.diff.util.TypeInfo.getAstDesc;
+
+/**
+ * Computes a structural hash of a type definition.  Only the things that the differ looks at in the definition itself
+ * contribute to the hash and members are hashed in name order, so the order of members makes no difference.  The
+ * hash only covers the definition itself, so two definitions with the same hash can still produce a difference when
+ * comparing them also looks at other types, such as an object type being checked against the interfaces it implements.
+ */
+@Internal
+public class TypeHasher {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * @param typeDefinition the type definition to hash
+     *
+     * @return the SHA-256 structural hash of the type
+     */
+    public static byte[] hash(TypeDefinition typeDefinition) {
+        MessageDigest digest = sha256();
+        try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(NULL_STREAM, digest))) {
+            writeType(out, typeDefinition);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * @param typeDefinition the type definition to hash
+     *
+     * @return the SHA-256 structural hash of the type as a hex string
+     */
+    public static String hashHex(TypeDefinition typeDefinition) {
+        return toHex(hash(typeDefinition));
+    }
+
+    /**
+     * @param document the schema definition document
+     *
+     * @return the hex structural hashes of all the types in the document keyed by type name
+     */
+    public static Map<String, String> typeHashes(Document document) {
+        Map<String, String> typeHashes = new HashMap<>();
+        for (Definition definition : document.getDefinitions()) {
+            if (definition instanceof TypeDefinition) {
+                typeHashes.put(((TypeDefinition) definition).getName(), hashHex((TypeDefinition) definition));
+            }
+        }
+        return typeHashes;
+    }
+
+    /**
+     * A canonical hash of a whole schema made from its operation types and the structural hashes of its types
+     * in name order, so the order of definitions in the document makes no difference.
+     *
+     * @param document   the schema definition document
+     * @param typeHashes the hex structural hashes of its types as returned by {@link #typeHashes(graphql.language.Document)}
+     *
+     * @return the hex fingerprint of the schema
+     */
+    public static String fingerprint(Document document, Map<String, String> typeHashes) {
+        Map<String, String> operationTypes = new TreeMap<>();
+        for (Definition definition : document.getDefinitions()) {
+            if (definition instanceof SchemaDefinition) {
+                for (OperationTypeDefinition operation : ((SchemaDefinition) definition).getOperationTypeDefinitions()) {
+                    operationTypes.put(operation.getName(), getAstDesc(operation.getType()));
+                }
+            }
+        }
+        MessageDigest digest = sha256();
+        try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(NULL_STREAM, digest))) {
+            writeSortedMap(out, operationTypes);
+            writeSortedMap(out, new TreeMap<>(typeHashes));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return toHex(digest.digest());
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always present in the JVM", e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static final OutputStream NULL_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private static void writeType(DataOutputStream out, TypeDefinition def) throws IOException {
+        writeString(out, def.getClass().getSimpleName());
+        writeString(out, def.getName());
+        if (def instanceof ObjectTypeDefinition) {
+            ObjectTypeDefinition objectType = (ObjectTypeDefinition) def;
+            writeDirectives(out, objectType.getDirectives());
+            List<Type> implementsList = sorted(objectType.getImplements(), TypeInfo::getAstDesc);
+            out.writeInt(implementsList.size());
+            for (Type type : implementsList) {
+                writeString(out, getAstDesc(type));
+            }
+            writeFields(out, objectType.getFieldDefinitions());
+        }
+        if (def instanceof InterfaceTypeDefinition) {
+            InterfaceTypeDefinition interfaceType = (InterfaceTypeDefinition) def;
+            writeDirectives(out, interfaceType.getDirectives());
+            writeFields(out, interfaceType.getFieldDefinitions());
+        }
+        if (def instanceof UnionTypeDefinition) {
+            UnionTypeDefinition unionType = (UnionTypeDefinition) def;
+            writeDirectives(out, unionType.getDirectives());
+            List<Type> memberTypes = sorted(unionType.getMemberTypes(), TypeInfo::getAstDesc);
+            out.writeInt(memberTypes.size());
+            for (Type type : memberTypes) {
+                writeString(out, getAstDesc(type));
+            }
+        }
+        if (def instanceof EnumTypeDefinition) {
+            EnumTypeDefinition enumType = (EnumTypeDefinition) def;
+            writeDirectives(out, enumType.getDirectives());
+            List<EnumValueDefinition> enumValues = sorted(enumType.getEnumValueDefinitions(), EnumValueDefinition::getName);
+            out.writeInt(enumValues.size());
+            for (EnumValueDefinition enumValue : enumValues) {
+                writeString(out, enumValue.getName());
+                writeDirectives(out, enumValue.getDirectives());
+            }
+        }
+        if (def instanceof InputObjectTypeDefinition) {
+            InputObjectTypeDefinition inputType = (InputObjectTypeDefinition) def;
+            writeDirectives(out, inputType.getDirectives());
+            writeInputValues(out, inputType.getInputValueDefinitions());
+        }
+        if (def instanceof ScalarTypeDefinition) {
+            writeDirectives(out, ((ScalarTypeDefinition) def).getDirectives());
+        }
+    }
+
+    private static void writeFields(DataOutputStream out, List<FieldDefinition> fieldDefinitions) throws IOException {
+        List<FieldDefinition> fields = sorted(fieldDefinitions, FieldDefinition::getName);
+        out.writeInt(fields.size());
+        for (FieldDefinition field : fields) {
+            writeString(out, field.getName());
+            writeString(out, getAstDesc(field.getType()));
+            writeInputValues(out, field.getInputValueDefinitions());
+            writeDirectives(out, field.getDirectives());
+        }
+    }
+
+    private static void writeInputValues(DataOutputStream out, List<InputValueDefinition> inputValueDefinitions) throws IOException {
+        List<InputValueDefinition> inputValues = sorted(inputValueDefinitions, InputValueDefinition::getName);
+        out.writeInt(inputValues.size());
+        for (InputValueDefinition inputValue : inputValues) {
+            writeString(out, inputValue.getName());
+            writeString(out, getAstDesc(inputValue.getType()));
+            writeValue(out, inputValue.getDefaultValue());
+            writeDirectives(out, inputValue.getDirectives());
+        }
+    }
+
+    private static void writeDirectives(DataOutputStream out, List<Directive> directiveList) throws IOException {
+        List<Directive> directives = sorted(directiveList, Directive::getName);
+        out.writeInt(directives.size());
+        for (Directive directive : directives) {
+            writeString(out, directive.getName());
+            List<Argument> arguments = sorted(directive.getArguments(), Argument::getName);
+            out.writeInt(arguments.size());
+            for (Argument argument : arguments) {
+                writeString(out, argument.getName());
+                writeValue(out, argument.getValue());
+            }
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Value value) throws IOException {
+        if (value == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            writeString(out, value.getClass().getSimpleName());
+            writeString(out, AstPrinter.printAst(value));
+        }
+    }
+
+    private static void writeSortedMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static <T> List<T> sorted(List<T> things, Function<T, String> nameFunc) {
+        List<T> sorted = new ArrayList<>(things);
+        sorted.sort(Comparator.comparing(nameFunc));
+        return sorted;
+    }
+}
@@ -0,0 +1,42 @@
+package com.graphql.diff
+
+import com.graphql.diff.reporting.CapturingReporter
+import spock.lang.Specification
+
+class DiffSetTest extends Specification {
+
+    def "a schema object is introspected and converted once"() {
+        def oldSchema = TestKit.loadSchemaFile("schema_ABaseLine.graphqls")
+        def newSchema = TestKit.loadSchemaFile("schema_changed_object_fields.graphqls")
+
+        expect:
+        !IntrospectedSchema.isIntrospected(oldSchema)
+
+        when:
+        def first = DiffSet.diffSet(oldSchema, newSchema)
+        def firstReporter = new CapturingReporter()
+        new SchemaDiff().diffSchema(first, firstReporter)
+        def second = DiffSet.diffSet(oldSchema, newSchema)
+        def secondReporter = new CapturingReporter()
+        new SchemaDiff().diffSchema(second, secondReporter)
+
+        then:
+        IntrospectedSchema.isIntrospected(oldSchema)
+        second.getOld().is(first.getOld())
+        second.getNewDocument().is(first.getNewDocument())
+        secondReporter.getEvents()*.reasonMsg == firstReporter.getEvents()*.reasonMsg
+    }
+
+    def "schema objects are told apart by identity"() {
+        def schema = TestKit.loadSchemaFile("schema_ABaseLine.graphqls")
+        def sameSdl = TestKit.loadSchemaFile("schema_ABaseLine.graphqls")
+
+        when:
+        def diffSet = DiffSet.diffSet(schema, sameSdl)
+
+        then:
+        !diffSet.getOld().is(diffSet.getNew())
+        diffSet.getOld() == diffSet.getNew()
+        !diffSet.getOldDocument().is(diffSet.getNewDocument())
+    }
+}
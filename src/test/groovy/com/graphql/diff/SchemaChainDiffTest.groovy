@@ -0,0 +1,57 @@
+package com.graphql.diff
+
+import com.graphql.diff.reporting.CapturingReporter
+import com.graphql.diff.reporting.DifferenceReporterFactory
+import graphql.introspection.IntrospectionResultToSchema
+import graphql.language.Document
+import spock.lang.Specification
+
+class SchemaChainDiffTest extends Specification {
+
+    Document document(String file) {
+        def diffSet = DiffSet.diffSet(TestKit.loadSchemaFile(file), TestKit.loadSchemaFile(file))
+        new IntrospectionResultToSchema().createSchemaDefinition(diffSet.getNew())
+    }
+
+    def versions = ["schema_ABaseLine.graphqls", "schema_missing_enum_value.graphqls", "schema_changed_object_fields.graphqls"]
+
+    def breakages(String oldFile, String newFile) {
+        def reporter = new CapturingReporter()
+        new SchemaDiff().diffSchema(DiffSet.diffSet(document(oldFile), document(newFile)), reporter)
+        reporter.getBreakageCount()
+    }
+
+    def "each version is loaded once and the chain matches pairwise diffs"() {
+        def loads = []
+        def loader = { String version -> loads.add(version); document(version) } as SchemaLoader
+        def reporters = { String oldVersion, String newVersion -> new CapturingReporter() } as DifferenceReporterFactory
+
+        when:
+        def result = new SchemaChainDiff(new SchemaDiff(), workers).diffChain(versions, loader, reporters)
+
+        then:
+        loads == versions
+        result.getSteps().collect { it.getOldVersion() + " -> " + it.getNewVersion() } ==
+                [versions[0] + " -> " + versions[1], versions[1] + " -> " + versions[2]]
+        result.getSteps()[0].getSummary().getBreakingCount() == breakages(versions[0], versions[1])
+        result.getSteps()[1].getSummary().getBreakingCount() == breakages(versions[1], versions[2])
+        result.getCumulative().getOldVersion() == versions[0]
+        result.getCumulative().getNewVersion() == versions[2]
+        result.getCumulative().getSummary().getBreakingCount() == breakages(versions[0], versions[2])
+
+        where:
+        workers << [1, 3]
+    }
+
+    def "a chain of two versions is its own cumulative difference"() {
+        def loader = { String version -> document(version) } as SchemaLoader
+        def reporters = { String oldVersion, String newVersion -> new CapturingReporter() } as DifferenceReporterFactory
+
+        when:
+        def result = new SchemaChainDiff(new SchemaDiff()).diffChain(versions.subList(0, 2), loader, reporters)
+
+        then:
+        result.getSteps().size() == 1
+        result.getCumulative().is(result.getSteps()[0])
+    }
+}
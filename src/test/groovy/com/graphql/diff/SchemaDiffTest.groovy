@@ -1,10 +1,18 @@
 package com.graphql.diff
 
+import com.graphql.diff.metrics.DiffMetricsListener
+import com.graphql.diff.metrics.DiffPhase
 import com.graphql.diff.reporting.CapturingReporter
 import com.graphql.diff.reporting.ChainedReporter
 import com.graphql.diff.reporting.PrintStreamReporter
+import com.graphql.diff.rules.BuiltInRules
+import com.graphql.diff.rules.CompatibilityRule
+import com.graphql.diff.rules.ElementKind
+import com.graphql.diff.rules.RuleContext
+import com.graphql.diff.util.TypeHasher
 import graphql.language.Argument
 import graphql.language.Directive
+import graphql.language.FieldDefinition
 import graphql.language.IntValue
 import graphql.language.ListType
 import graphql.language.NonNullType
@@ -13,8 +21,12 @@ import graphql.language.StringValue
 import graphql.language.Type
 import graphql.language.TypeDefinition
 import graphql.language.TypeName
+import graphql.parser.Parser
 import spock.lang.Specification
 
+import java.time.Duration
+
+import static DiffCategory.ADDITION
 import static DiffCategory.INVALID
 import static DiffCategory.MISSING
 import static DiffCategory.STRICTER
@@ -29,13 +41,34 @@ class SchemaDiffTest extends Specification {
     }
 
     DiffSet diffSet(String newFile) {
-        def schemaOld = TestKit.loadSchemaFile("schema_ABaseLine.graphqls")
+        diffSet("schema_ABaseLine.graphqls", newFile)
+    }
+
+    DiffSet diffSet(String oldFile, String newFile) {
+        def schemaOld = TestKit.loadSchemaFile(oldFile)
         def schemaNew = TestKit.loadSchemaFile(newFile)
 
         def diffSet = DiffSet.diffSet(schemaOld, schemaNew)
         diffSet
     }
 
+    // schemas parsed straight from SDL keep the interfaces that object types implement
+    DiffSet sdlDiffSet(String oldSdl, String newSdl) {
+        DiffSet.diffSet(new Parser().parseDocument(oldSdl), new Parser().parseDocument(newSdl))
+    }
+
+    static final String BEING_SDL = '''
+        type Query { beings : [Being] }
+        interface Being { name : String age : Int }
+        type Elf implements Being { name : String age : Int }
+    '''
+
+    static final String BEING_WITHOUT_AGE_SDL = '''
+        type Query { beings : [Being] }
+        interface Being { name : String }
+        type Elf implements Being { name : String age : Int }
+    '''
+
 
     def "change_in_null_ness"() {
 
@@ -84,7 +117,7 @@ class SchemaDiffTest extends Specification {
     def "directives_controlled_via_options"() {
 
         given:
-        DiffCtx ctx = new DiffCtx(reporter, null, null)
+        DiffCtx ctx = new DiffCtx(reporter, SchemaModel.of(null), SchemaModel.of(null))
 
         TypeDefinition left = new ObjectTypeDefinition("fooType")
 
@@ -108,7 +141,7 @@ class SchemaDiffTest extends Specification {
     def "directives enforced to be the same"() {
 
         given:
-        DiffCtx ctx = new DiffCtx(reporter, null, null)
+        DiffCtx ctx = new DiffCtx(reporter, SchemaModel.of(null), SchemaModel.of(null))
 
         TypeDefinition left = new ObjectTypeDefinition("fooType")
 
@@ -381,4 +414,343 @@ class SchemaDiffTest extends Specification {
 
     }
 
+    def "summary carries counters and phase timings"() {
+        DiffSet diffSet = diffSet("schema_missing_enum_value.graphqls")
+        // the models of the schemas are built by the first diff and reused by the next
+        new SchemaDiff().diffSchema(diffSet, new CapturingReporter())
+
+        def phases = []
+        def listener = new DiffMetricsListener() {
+            @Override
+            void onPhase(DiffPhase phase, long elapsedNanos) {
+                phases.add(phase)
+            }
+        }
+        def diff = new SchemaDiff(SchemaDiff.Options.defaultOptions().metricsListener(listener))
+        def summary = diff.diffSchemaWithSummary(diffSet, chainedReporter)
+
+        expect:
+        summary.getEventCount(DiffLevel.BREAKING) == reporter.breakageCount
+        summary.getEventCount(MISSING) == 1
+        summary.getEventCount(DiffLevel.INFO) == reporter.events.size() - reporter.breakageCount - reporter.dangerCount
+        summary.typesVisited > 0
+        summary.fieldsCompared > 0
+        summary.lookups > 0
+        summary.cacheHits > 0
+        phases == [DiffPhase.CONVERT, DiffPhase.TRAVERSE, DiffPhase.REPORT]
+    }
+
+    def "breaking count is accurate"() {
+        DiffSet diffSet = diffSet("schema_changed_object_fields.graphqls")
+
+        def diff = new SchemaDiff()
+        def breakingCount = diff.diffSchema(diffSet, chainedReporter)
+
+        expect:
+        breakingCount == 4
+        reporter.breakageCount == 4
+    }
+
+    def "fail fast stops at the first breakage"() {
+        DiffSet diffSet = diffSet("schema_changed_object_fields.graphqls")
+
+        def diff = new SchemaDiff(SchemaDiff.Options.defaultOptions().failFast())
+        def summary = diff.diffSchemaWithSummary(diffSet, chainedReporter)
+
+        expect:
+        summary.breakingCount == 1
+        summary.completion == DiffCompletion.STOPPED_AT_MAX_BREAKAGES
+        !summary.complete
+        reporter.breakageCount == 1
+        reporter.breakages[0].fieldName == 'being'
+    }
+
+    def "breakage budget is not hit when there are fewer breakages"() {
+        DiffSet diffSet = diffSet("schema_changed_object_fields.graphqls")
+
+        def diff = new SchemaDiff(SchemaDiff.Options.defaultOptions().maxBreakages(5))
+        def summary = diff.diffSchemaWithSummary(diffSet, chainedReporter)
+
+        expect:
+        summary.breakingCount == 4
+        summary.complete
+    }
+
+    def "deadline stops the traversal"() {
+        DiffSet diffSet = diffSet("schema_changed_object_fields.graphqls")
+
+        def diff = new SchemaDiff(SchemaDiff.Options.defaultOptions().deadline(Duration.ZERO))
+        def summary = diff.diffSchemaWithSummary(diffSet, chainedReporter)
+
+        expect:
+        summary.completion == DiffCompletion.STOPPED_AT_DEADLINE
+        summary.typesVisited == 0
+        reporter.events.isEmpty()
+    }
+
+    def "types only reachable via interfaces are diffed"() {
+        DiffSet diffSet = diffSet("schema_interface_implementation_only.graphqls", "schema_interface_implementation_only_changed.graphqls")
+
+        def diff = new SchemaDiff()
+        diff.diffSchema(diffSet, chainedReporter)
+
+        expect:
+        reporter.breakageCount == 1
+        reporter.breakages[0].category == MISSING
+        reporter.breakages[0].typeName == 'Elf'
+        reporter.breakages[0].fieldName == 'home'
+    }
+
+    def "an interface field removal is reported once for the interface and not for its implementations"() {
+        when:
+        def summary = new SchemaDiff().diffSchemaWithSummary(sdlDiffSet(BEING_SDL, BEING_WITHOUT_AGE_SDL), reporter)
+
+        then:
+        summary.breakingCount == 1
+        reporter.breakages[0].typeName == "Being"
+        reporter.breakages[0].fieldName == "age"
+    }
+
+    def "an object type that no longer implements an interface of that name is reported"() {
+        def newSdl = '''
+            type Query { beings : [Being] }
+            union Being = Elf
+            type Elf implements Being { name : String age : Int }
+        '''
+
+        when:
+        new SchemaDiff().diffSchema(sdlDiffSet(BEING_SDL, newSdl), reporter)
+
+        then:
+        reporter.breakages.find { it.typeName == "Elf" && it.category == MISSING }.reasonMsg == "The new API is missing the interface named 'Being'"
+    }
+
+    def "types with the same hash are only skipped when that cannot hide a difference"() {
+        def newSdl = '''
+            type Query { beings : [Being] }
+            union Being = Elf
+            type Elf implements Being { name : String age : Int }
+        '''
+        def oldDocument = new Parser().parseDocument(BEING_SDL)
+        def newDocument = new Parser().parseDocument(newSdl)
+        def hashed = DiffSet.diffSet(oldDocument, newDocument, TypeHasher.typeHashes(oldDocument), TypeHasher.typeHashes(newDocument))
+
+        when:
+        def summary = new SchemaDiff().diffSchemaWithSummary(hashed, reporter)
+        def plain = new SchemaDiff().diffSchemaWithSummary(DiffSet.diffSet(oldDocument, newDocument), new CapturingReporter())
+
+        then:
+        summary.breakingCount == plain.breakingCount
+        reporter.breakages.any { it.typeName == "Elf" && it.reasonMsg == "The new API is missing the interface named 'Being'" }
+    }
+
+    def "incremental diff only examines changed types and reuses the rest"() {
+        def diff = new SchemaDiff()
+        def previous = diff.diffSchemaWithResult(diffSet("schema_changed_object_fields.graphqls"), new CapturingReporter())
+
+        def full = new CapturingReporter()
+        def fullResult = diff.diffSchemaWithResult(diffSet("schema_dangerous_changes.graphqls"), full)
+
+        when:
+        def incremental = diff.diffSchemaIncrementally(previous, diffSet("schema_dangerous_changes.graphqls"), reporter)
+
+        then:
+        incremental.summary.typesVisited < fullResult.summary.typesVisited
+        reporter.breakageCount == full.breakageCount
+        reporter.dangerCount == full.dangerCount
+        (reporter.breakages + reporter.dangers).collect { it.toString() }.sort() == (full.breakages + full.dangers).collect { it.toString() }.sort()
+        incremental.newTypeHashes == fullResult.newTypeHashes
+    }
+
+    def "incremental and full diffs agree on an interface only change"() {
+        def diff = new SchemaDiff()
+        def previous = diff.diffSchemaWithResult(sdlDiffSet(BEING_SDL, BEING_SDL), new CapturingReporter())
+        def full = new CapturingReporter()
+        def fullSummary = diff.diffSchemaWithSummary(sdlDiffSet(BEING_SDL, BEING_WITHOUT_AGE_SDL), full)
+        def withResult = new CapturingReporter()
+        def fullResult = diff.diffSchemaWithResult(sdlDiffSet(BEING_SDL, BEING_WITHOUT_AGE_SDL), withResult)
+
+        when:
+        def incremental = diff.diffSchemaIncrementally(previous, sdlDiffSet(BEING_SDL, BEING_WITHOUT_AGE_SDL), reporter)
+
+        then:
+        fullSummary.breakingCount == 1
+        fullResult.summary.breakingCount == fullSummary.breakingCount
+        incremental.summary.breakingCount == fullSummary.breakingCount
+        withResult.events.collect { it.toString() } == full.events.collect { it.toString() }
+        // reused events are reported after the fresh ones, so only the order can differ
+        reporter.events.collect { it.toString() }.sort() == full.events.collect { it.toString() }.sort()
+    }
+
+    def "incremental diff is a full diff when custom rules could look at any type"() {
+        def oldSdl = "type Query { a : Int } type Unrelated { x : Int }"
+        def newSdl = "type Query { a : Int } type Unrelated { y : Int }"
+        def rule = new CompatibilityRule<TypeDefinition>() {
+            String getName() { "unrelatedKeepsX" }
+
+            ElementKind getElementKind() { ElementKind.TYPE }
+
+            Set<TypeKind> getTypeKinds() { EnumSet.of(TypeKind.Object) }
+
+            void check(RuleContext ctx, TypeDefinition oldType, TypeDefinition newType) {
+                def unrelated = ctx.getNewTypeDefinition("Unrelated").get() as ObjectTypeDefinition
+                if (oldType.name == "Query" && !unrelated.fieldDefinitions.any { it.name == "x" }) {
+                    ctx.report(DiffEvent.apiDanger().typeName("Query").typeKind(TypeKind.Object).reasonMsg("Unrelated lost x").build())
+                }
+            }
+        }
+        def diff = new SchemaDiff(SchemaDiff.Options.defaultOptions().rule(rule))
+        def previous = diff.diffSchemaWithResult(sdlDiffSet(oldSdl, oldSdl), new CapturingReporter())
+
+        when:
+        def incremental = diff.diffSchemaIncrementally(previous, sdlDiffSet(oldSdl, newSdl), reporter)
+
+        then:
+        reporter.dangers*.reasonMsg == ["Unrelated lost x"]
+        incremental.summary.typesVisited == diff.diffSchemaWithSummary(sdlDiffSet(oldSdl, newSdl), new CapturingReporter()).typesVisited
+    }
+
+    def "incremental diff falls back to a full diff when the old schema differs"() {
+        def diff = new SchemaDiff()
+        def previous = diff.diffSchemaWithResult(diffSet("schema_changed_object_fields.graphqls", "schema_ABaseLine.graphqls"), new CapturingReporter())
+
+        when:
+        def result = diff.diffSchemaIncrementally(previous, diffSet("schema_changed_object_fields.graphqls"), reporter)
+
+        then:
+        result.summary.breakingCount == 4
+        result.oldFingerprint != previous.oldFingerprint
+    }
+
+    def "scoped diff only examines the slice reachable from the scope"() {
+        def full = new SchemaDiff().diffSchemaWithSummary(diffSet("schema_changed_object_fields.graphqls"), new CapturingReporter())
+
+        when:
+        def summary = new SchemaDiff(SchemaDiff.Options.defaultOptions().scope(scope)).diffSchemaWithSummary(diffSet(newFile), reporter)
+
+        then:
+        summary.breakingCount == breakages
+        reporter.breakages.every { it.typeName == typeName }
+        summary.typesVisited < full.typesVisited
+
+        where:
+        scope                           | newFile                                 | breakages | typeName
+        ["Query.wizards"]               | "schema_changed_object_fields.graphqls" | 1         | "Query"
+        ["Query.gods"]                  | "schema_changed_object_fields.graphqls" | 0         | null
+        ["Query.wizards", "Query.gods"] | "schema_changed_object_fields.graphqls" | 1         | "Query"
+        ["Temperament"]                 | "schema_missing_enum_value.graphqls"    | 1         | "Temperament"
+        ["Query.wizards"]               | "schema_missing_enum_value.graphqls"    | 1         | "Temperament"
+    }
+
+    def "additions are reported in the same pass when asked for"() {
+        DiffSet diffSet = diffSet(oldFile, "schema_ABaseLine.graphqls")
+
+        when:
+        new SchemaDiff().diffSchema(diffSet, reporter)
+
+        then:
+        reporter.events.every { it.category != ADDITION }
+
+        when:
+        reporter = new CapturingReporter()
+        def summary = new SchemaDiff(SchemaDiff.Options.defaultOptions().reportAdditions()).diffSchemaWithSummary(diffSet, reporter)
+        def additions = reporter.events.findAll { it.category == ADDITION }
+
+        then:
+        additions.every { it.level == DiffLevel.INFO }
+        additions.collect { [it.typeName, it.fieldName] + it.components } == added
+        summary.getEventCount(ADDITION) == added.size()
+
+        where:
+        oldFile                                       | added
+        "schema_missing_operation.graphqls"           | [["Mutation", null, "mutation"], ["Mutation", null]]
+        "schema_missing_object_fields.graphqls"       | [["Istari", "colour"], ["Istari", "temperament"]]
+        "schema_missing_field_arguments.graphqls"     | [["Mutation", "being", "questor"], ["Mutation", "sword", "temperament"]]
+        "schema_missing_input_object_fields.graphqls" | [["Questor", "queryTarget"]]
+        "schema_interface_fields_missing.graphqls"    | [["Being", "name"], ["Being", "nameInQuenyan"]]
+    }
+
+    def "a type that only the new API has is not reported unless additions are asked for"() {
+        def diffSet = sdlDiffSet("type Query { hero : Hero } type Hero { ring : Ring }",
+                "type Query { hero : Hero } type Hero { ring : Ring } type Ring { name : String } type Elf { name : String }")
+
+        when:
+        new SchemaDiff().diffSchema(diffSet, reporter)
+
+        then: "the old API refers to a type it does not define"
+        reporter.events.findAll { it.reasonMsg.startsWith("Type ") }*.reasonMsg == ["Type 'Ring' is missing"]
+        reporter.events.every { it.typeName != "Elf" }
+    }
+
+    def "an added interface is reported with the other additions even when the interface rule is disabled"() {
+        def diffSet = sdlDiffSet("type Query { elf : Elf } type Elf { name : String } interface Named { name : String }",
+                "type Query { elf : Elf } type Elf implements Named { name : String } interface Named { name : String }")
+
+        when:
+        new SchemaDiff(SchemaDiff.Options.defaultOptions().reportAdditions().disableRules(BuiltInRules.OBJECT_INTERFACES)).diffSchema(diffSet, reporter)
+
+        then:
+        reporter.events.findAll { it.category == ADDITION }.collect { [it.typeName] + it.components } == [["Elf", "Named"]]
+
+        when:
+        reporter = new CapturingReporter()
+        new SchemaDiff(SchemaDiff.Options.defaultOptions().disableRules(BuiltInRules.OBJECT_INTERFACES)).diffSchema(diffSet, reporter)
+
+        then:
+        reporter.events.every { it.category != ADDITION }
+    }
+
+    def "disabled rules are not run"() {
+        when:
+        def summary = new SchemaDiff(SchemaDiff.Options.defaultOptions().disableRules(disabled as String[])).diffSchemaWithSummary(diffSet(newFile), reporter)
+
+        then:
+        summary.breakingCount == breakages
+        summary.getEventCount(DiffLevel.DANGEROUS) == dangers
+
+        where:
+        disabled                                                          | newFile                                   | breakages | dangers
+        []                                                                | "schema_dangerous_changes.graphqls"       | 0         | 3
+        [BuiltInRules.ARGUMENT_DEFAULT_VALUE]                             | "schema_dangerous_changes.graphqls"       | 0         | 2
+        [BuiltInRules.UNION_MEMBERS, BuiltInRules.ARGUMENT_DEFAULT_VALUE] | "schema_dangerous_changes.graphqls"       | 0         | 1
+        [BuiltInRules.FIELD_TYPE]                                         | "schema_changed_object_fields.graphqls"   | 1         | 1
+        [BuiltInRules.ARGUMENT_TYPE]                                      | "schema_changed_field_arguments.graphqls" | 0         | 0
+    }
+
+    def "custom rules are called with the elements of their kind"() {
+        def compared = []
+        def rule = new CompatibilityRule<FieldDefinition>() {
+            String getName() { "noRenamedDescriptions" }
+
+            ElementKind getElementKind() { ElementKind.FIELD }
+
+            Set<TypeKind> getTypeKinds() { EnumSet.of(TypeKind.Interface) }
+
+            void check(RuleContext ctx, FieldDefinition oldField, FieldDefinition newField) {
+                compared.add(ctx.oldType.name + "." + oldField.name)
+                if (oldField.name == "name") {
+                    ctx.report(DiffEvent.apiDanger().typeName(ctx.oldType.name).typeKind(TypeKind.Interface).fieldName(oldField.name).reasonMsg("checked").build())
+                }
+            }
+        }
+
+        when:
+        def summary = new SchemaDiff(SchemaDiff.Options.defaultOptions().rule(rule).timeRules()).diffSchemaWithSummary(diffSet("schema_ABaseLine.graphqls"), reporter)
+
+        then:
+        compared.every { it.startsWith("Being.") }
+        compared.contains("Being.name")
+        reporter.dangers.every { it.reasonMsg == "checked" }
+        summary.ruleTimings.keySet().contains("noRenamedDescriptions")
+        summary.ruleTimings["noRenamedDescriptions"].checks == compared.size()
+        summary.ruleTimings[BuiltInRules.FIELD_TYPE].checks > 0
+    }
+
+    def "unknown rule names are rejected"() {
+        when:
+        new SchemaDiff(SchemaDiff.Options.defaultOptions().disableRules("noSuchRule"))
+
+        then:
+        thrown(graphql.AssertException)
+    }
 }
@@ -0,0 +1,61 @@
+package com.graphql.diff
+
+import com.graphql.diff.reporting.CapturingReporter
+import com.graphql.diff.reporting.DifferenceReporter
+import com.graphql.diff.reporting.DifferenceReporterFactory
+import graphql.introspection.IntrospectionResultToSchema
+import graphql.language.Document
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+
+class SchemaMatrixDiffTest extends Specification {
+
+    Document document(String file) {
+        def diffSet = DiffSet.diffSet(TestKit.loadSchemaFile(file), TestKit.loadSchemaFile(file))
+        new IntrospectionResultToSchema().createSchemaDefinition(diffSet.getNew())
+    }
+
+    def breakages(String oldFile, String newFile) {
+        def reporter = new CapturingReporter()
+        new SchemaDiff().diffSchema(DiffSet.diffSet(document(oldFile), document(newFile)), reporter)
+        reporter.getBreakageCount()
+    }
+
+    def "every pair is diffed with each version loaded once"() {
+        def oldVersions = ["schema_ABaseLine.graphqls", "schema_missing_enum_value.graphqls", "schema_changed_object_fields.graphqls"]
+        def newVersions = ["schema_changed_object_fields.graphqls", "schema_ABaseLine.graphqls"]
+        def loads = new ConcurrentHashMap<String, Integer>()
+        def loader = { String version -> loads.merge(version, 1, Integer.&sum); document(version) } as SchemaLoader
+        def reporters = { String oldVersion, String newVersion -> DifferenceReporter.NOOP } as DifferenceReporterFactory
+
+        when:
+        def result = new SchemaMatrixDiff(new SchemaDiff(), 4).diffMatrix(oldVersions, newVersions, loader, reporters)
+
+        then:
+        loads.size() == 3
+        loads.values().every { it == 1 }
+        result.getOldVersions() == oldVersions
+        result.getNewVersions() == newVersions
+        oldVersions.every { oldVersion ->
+            newVersions.every { newVersion -> result.getBreakingCount(oldVersion, newVersion) == breakages(oldVersion, newVersion) }
+        }
+        result.isCompatible("schema_ABaseLine.graphqls", "schema_ABaseLine.graphqls")
+        !result.isCompatible("schema_ABaseLine.graphqls", "schema_changed_object_fields.graphqls")
+    }
+
+    def "the pairs with the most changed types are started first"() {
+        def oldVersions = ["schema_ABaseLine.graphqls", "schema_changed_object_fields.graphqls"]
+        def newVersions = ["schema_ABaseLine.graphqls"]
+        def started = new CopyOnWriteArrayList<String>()
+        def loader = { String version -> document(version) } as SchemaLoader
+        def reporters = { String oldVersion, String newVersion -> started.add(oldVersion); DifferenceReporter.NOOP } as DifferenceReporterFactory
+
+        when:
+        new SchemaMatrixDiff(new SchemaDiff(), 1).diffMatrix(oldVersions, newVersions, loader, reporters)
+
+        then:
+        started == ["schema_changed_object_fields.graphqls", "schema_ABaseLine.graphqls"]
+    }
+}
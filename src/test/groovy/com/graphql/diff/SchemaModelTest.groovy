@@ -0,0 +1,96 @@
+package com.graphql.diff
+
+import graphql.language.ListType
+import graphql.language.NonNullType
+import graphql.language.TypeName
+import graphql.parser.Parser
+import spock.lang.Specification
+
+import static DiffCategory.INVALID
+import static DiffCategory.STRICTER
+
+class SchemaModelTest extends Specification {
+
+    def "a model is built once per document"() {
+        def document = new Parser().parseDocument("type Query { hello : String }")
+
+        expect:
+        !SchemaModel.isBuilt(document)
+        SchemaModel.of(document).is(SchemaModel.of(document))
+        SchemaModel.isBuilt(document)
+    }
+
+    def "members and arguments are laid out in name order with the last duplicate kept"() {
+        def document = new Parser().parseDocument('''
+            type Query {
+                zebra(b: Int, a: [String!]!) : String
+                apple : Int
+                zebra(c: Int) : [Int]!
+            }
+            enum Colour { RED GREEN BLUE }
+        ''')
+
+        when:
+        def model = SchemaModel.of(document)
+        def query = model.typeId("Query")
+        def colour = model.typeId("Colour")
+        def zebra = model.member(query, "zebra")
+
+        then:
+        (model.memberStart[query]..<model.memberStart[query + 1]).collect { model.memberName(it) } == ["apple", "zebra"]
+        (model.memberStart[colour]..<model.memberStart[colour + 1]).collect { model.memberName(it) } == ["BLUE", "GREEN", "RED"]
+        (model.argStart[zebra]..<model.argStart[zebra + 1]).collect { model.argName(it) } == ["c"]
+        model.memberTypeName(zebra) == "Int"
+        model.memberWrappers[zebra] == SchemaModel.wrappers(new NonNullType(new ListType(new TypeName("Int"))))
+        model.member(query, "missing") == -1
+        model.typeId("Missing") == -1
+    }
+
+    def "the nodes of members and arguments are looked up in the declarations of their types"() {
+        def document = new Parser().parseDocument('''
+            scalar Empty
+            type Query {
+                zebra(b: Int, a: [String!]!) : String
+                apple : Int
+                zebra(c: Int) : [Int]!
+            }
+            union Nothing = Query
+            input Filter { to : Int from : Int }
+        ''')
+        def query = document.definitions[1]
+        def filter = document.definitions[3]
+
+        when:
+        def model = SchemaModel.of(document)
+        def zebra = model.member(model.typeId("Query"), "zebra")
+        def apple = model.member(model.typeId("Query"), "apple")
+        def from = model.member(model.typeId("Filter"), "from")
+
+        then:
+        model.field(zebra).is(query.fieldDefinitions[2])
+        model.field(apple).is(query.fieldDefinitions[1])
+        model.argDefinition(model.argStart[zebra]).is(query.fieldDefinitions[2].inputValueDefinitions[0])
+        model.inputField(from).is(filter.inputValueDefinitions[1])
+        model.inputField(from + 1).is(filter.inputValueDefinitions[0])
+    }
+
+    def "type references are compared by their wrappers"() {
+        def a = new TypeName("A")
+
+        expect:
+        SchemaModel.compareTypes(true, SchemaModel.wrappers(oldType(a)), SchemaModel.wrappers(newType(a))) == category
+
+        where:
+        oldType                                           | newType                                           | category
+        { t -> t }                                        | { t -> t }                                        | null
+        { t -> new NonNullType(t) }                       | { t -> t }                                        | null
+        { t -> t }                                        | { t -> new NonNullType(t) }                       | STRICTER
+        { t -> new ListType(t) }                          | { t -> t }                                        | INVALID
+        { t -> t }                                        | { t -> new ListType(t) }                          | INVALID
+        { t -> new NonNullType(new ListType(t)) }         | { t -> new ListType(t) }                          | null
+        { t -> new ListType(t) }                          | { t -> new ListType(new NonNullType(t)) }         | STRICTER
+        { t -> new ListType(new NonNullType(t)) }         | { t -> new ListType(t) }                          | null
+        { t -> new ListType(new ListType(t)) }            | { t -> new ListType(t) }                          | INVALID
+        { t -> new NonNullType(t) }                       | { t -> new ListType(new NonNullType(t)) }         | INVALID
+    }
+}
@@ -0,0 +1,153 @@
+package com.graphql.diff
+
+import spock.lang.Specification
+
+import java.util.function.Function
+
+class SortedMergeTest extends Specification {
+
+    static class Named {
+        final String name
+        final String tag
+
+        Named(String name, String tag) {
+            this.name = name
+            this.tag = tag
+        }
+
+        String toString() {
+            return name + ":" + tag
+        }
+    }
+
+    static final Function<Named, String> NAME = { Named it -> it.name } as Function<Named, String>
+
+    static class RecordingVisitor implements SortedMerge.Visitor<Named> {
+        final List<String> calls = []
+
+        void missing(Named oldThing) {
+            calls << "missing " + oldThing
+        }
+
+        void common(Named oldThing, Named newThing) {
+            calls << "common " + oldThing + " " + newThing
+        }
+
+        void added(Named newThing) {
+            calls << "added " + newThing
+        }
+    }
+
+    static class RecordingIndexVisitor implements SortedMerge.IndexVisitor {
+        final List<String> calls = []
+
+        void missing(int oldIndex) {
+            calls << "missing " + oldIndex
+        }
+
+        void common(int oldIndex, int newIndex) {
+            calls << "common " + oldIndex + " " + newIndex
+        }
+
+        void added(int newIndex) {
+            calls << "added " + newIndex
+        }
+    }
+
+    static List<Named> named(String... namesAndTags) {
+        namesAndTags.collect { String it ->
+            def parts = it.split(":")
+            new Named(parts[0], parts.length > 1 ? parts[1] : "")
+        }
+    }
+
+    static List<String> merge(List<Named> oldThings, List<Named> newThings) {
+        def visitor = new RecordingVisitor()
+        SortedMerge.merge(SortedMerge.sort(oldThings, NAME), SortedMerge.sort(newThings, NAME), NAME, visitor)
+        return visitor.calls
+    }
+
+    def "sort orders by name and keeps the last of any duplicate names"() {
+        when:
+        def sorted = SortedMerge.sort(named("b:1", "a:1", "b:2", "c:1", "a:2", "b:3"), NAME)
+
+        then:
+        sorted*.toString() == ["a:2", "b:3", "c:1"]
+    }
+
+    def "sort does not change the list it is given"() {
+        def things = named("b", "a", "a")
+
+        when:
+        SortedMerge.sort(things, NAME)
+
+        then:
+        things*.name == ["b", "a", "a"]
+    }
+
+    def "missing and common are visited in name order and added afterwards"() {
+        when:
+        def calls = merge(named("d:o", "a:o", "c:o", "f:o"), named("e:n", "c:n", "b:n", "a:n", "g:n"))
+
+        then:
+        calls == [
+                "common a:o a:n",
+                "common c:o c:n",
+                "missing d:o",
+                "missing f:o",
+                "added b:n",
+                "added e:n",
+                "added g:n",
+        ]
+    }
+
+    def "duplicate names are merged as the last of each name"() {
+        when:
+        def calls = merge(named("a:o1", "a:o2", "b:o1"), named("b:n1", "b:n2", "b:n3"))
+
+        then:
+        calls == ["missing a:o2", "common b:o1 b:n3"]
+    }
+
+    def "empty and one sided lists"() {
+        expect:
+        merge([], []) == []
+        merge(named("b", "a"), []) == ["missing a:", "missing b:"]
+        merge([], named("b", "a")) == ["added a:", "added b:"]
+    }
+
+    def "the index merge compares names by rank and visits in the same order"() {
+        // name ids 0..4 are ranked so that their names sort as 3, 0, 4, 1, 2
+        int[] ranks = [1, 3, 4, 0, 2]
+        // the members are sorted by the rank of their names, and only some of them are merged
+        int[] oldNames = [2, 3, 4, 1, 2]
+        int[] newNames = [3, 0, 1, 2, 0]
+        def visitor = new RecordingIndexVisitor()
+
+        when:
+        SortedMerge.merge(oldNames, ranks, 1, 4, newNames, ranks, 0, 4, visitor)
+
+        then:
+        // old 1 (name 3) matches new 0, old 2 (name 4) is missing, old 3 (name 1) matches new 2, then new 1 (name 0)
+        // and new 3 (name 2) are added
+        visitor.calls == ["common 1 0", "missing 2", "common 3 2", "added 1", "added 3"]
+    }
+
+    def "the index merge of empty and one sided ranges"() {
+        int[] ranks = [0, 1, 2]
+        int[] names = [0, 1, 2]
+
+        when:
+        def bothEmpty = new RecordingIndexVisitor()
+        SortedMerge.merge(names, ranks, 1, 1, names, ranks, 2, 2, bothEmpty)
+        def onlyOld = new RecordingIndexVisitor()
+        SortedMerge.merge(names, ranks, 0, 3, names, ranks, 0, 0, onlyOld)
+        def onlyNew = new RecordingIndexVisitor()
+        SortedMerge.merge(names, ranks, 3, 3, names, ranks, 1, 3, onlyNew)
+
+        then:
+        bothEmpty.calls == []
+        onlyOld.calls == ["missing 0", "missing 1", "missing 2"]
+        onlyNew.calls == ["added 1", "added 2"]
+    }
+}
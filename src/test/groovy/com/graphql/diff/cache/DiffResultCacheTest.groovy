@@ -0,0 +1,191 @@
+package com.graphql.diff.cache
+
+import com.graphql.diff.DiffCompletion
+import com.graphql.diff.DiffEvent
+import com.graphql.diff.DiffSet
+import com.graphql.diff.SchemaDiff
+import com.graphql.diff.TestKit
+import com.graphql.diff.TypeKind
+import com.graphql.diff.reporting.CapturingReporter
+import com.graphql.diff.rules.CompatibilityRule
+import com.graphql.diff.rules.ElementKind
+import com.graphql.diff.rules.RuleContext
+import com.graphql.diff.util.TypeHasher
+import graphql.language.TypeDefinition
+import graphql.parser.Parser
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+
+class DiffResultCacheTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    DiffSet diffSet(String newFile) {
+        DiffSet.diffSet(TestKit.loadSchemaFile("schema_ABaseLine.graphqls"), TestKit.loadSchemaFile(newFile))
+    }
+
+    static DiffSet sdlDiffSet(String oldSdl, String newSdl) {
+        DiffSet.diffSet(new Parser().parseDocument(oldSdl), new Parser().parseDocument(newSdl))
+    }
+
+    def "a cache hit replays the events without traversing"() {
+        def cache = new LruDiffResultCache(10)
+        def options = SchemaDiff.Options.defaultOptions().resultCache(cache)
+        def first = new CapturingReporter()
+        def second = new CapturingReporter()
+
+        when:
+        def missSummary = new SchemaDiff(options).diffSchemaWithSummary(diffSet("schema_changed_object_fields.graphqls"), first)
+        def hitSummary = new SchemaDiff(options).diffSchemaWithSummary(diffSet("schema_changed_object_fields.graphqls"), second)
+
+        then:
+        cache.size() == 1
+        missSummary.typesVisited > 0
+        hitSummary.typesVisited == 0
+        hitSummary.cacheHits == 1
+        hitSummary.breakingCount == 4
+        second.events.collect { it.toString() } == first.events.collect { it.toString() }
+    }
+
+    def "a diff with a cache reports the same events as one without"() {
+        def cached = new CapturingReporter()
+        def plain = new CapturingReporter()
+
+        when:
+        new SchemaDiff(SchemaDiff.Options.defaultOptions().resultCache(new LruDiffResultCache(10))).diffSchema(newDiffSet(), cached)
+        new SchemaDiff().diffSchema(newDiffSet(), plain)
+
+        then:
+        cached.events.collect { it.toString() } == plain.events.collect { it.toString() }
+
+        where:
+        newDiffSet << [
+                { -> sdlDiffSet('''
+                    type Query { beings : [Being] }
+                    interface Being { name : String age : Int }
+                    type Elf implements Being { name : String age : Int }
+                ''', '''
+                    type Query { beings : [Being] }
+                    interface Being { name : String }
+                    type Elf implements Being { name : String age : Int }
+                ''') },
+                { -> diffSet("schema_changed_object_fields.graphqls") },
+                { -> diffSet("schema_interface_fields_missing.graphqls") },
+                { -> diffSet("schema_missing_union_members.graphqls") },
+        ]
+    }
+
+    def "options that change the result are part of the key"() {
+        def cache = new LruDiffResultCache(10)
+        def options = SchemaDiff.Options.defaultOptions().resultCache(cache)
+
+        when:
+        new SchemaDiff(options).diffSchema(diffSet("schema_changed_object_fields.graphqls"), new CapturingReporter())
+        def summary = new SchemaDiff(options.failFast()).diffSchemaWithSummary(diffSet("schema_changed_object_fields.graphqls"), new CapturingReporter())
+        def replayed = new SchemaDiff(options.failFast()).diffSchemaWithSummary(diffSet("schema_changed_object_fields.graphqls"), new CapturingReporter())
+
+        then:
+        cache.size() == 2
+        summary.breakingCount == 1
+        replayed.cacheHits == 1
+        replayed.completion == DiffCompletion.STOPPED_AT_MAX_BREAKAGES
+    }
+
+    static class ReportingRule implements CompatibilityRule<TypeDefinition> {
+        final String message
+
+        ReportingRule(String message) {
+            this.message = message
+        }
+
+        String getName() { "sameName" }
+
+        ElementKind getElementKind() { ElementKind.TYPE }
+
+        Set<TypeKind> getTypeKinds() { EnumSet.of(TypeKind.Object) }
+
+        void check(RuleContext ctx, TypeDefinition oldType, TypeDefinition newType) {
+            if (oldType.name == "Query") {
+                ctx.report(DiffEvent.apiDanger().typeName("Query").typeKind(TypeKind.Object).reasonMsg(message).build())
+            }
+        }
+    }
+
+    static class OtherReportingRule extends ReportingRule {
+        OtherReportingRule() {
+            super("other")
+        }
+    }
+
+    def "custom rules of different classes with the same name do not share results"() {
+        def cache = new LruDiffResultCache(10)
+        def first = new CapturingReporter()
+        def second = new CapturingReporter()
+
+        when:
+        new SchemaDiff(SchemaDiff.Options.defaultOptions().resultCache(cache).rule(new ReportingRule("first")))
+                .diffSchema(diffSet("schema_changed_object_fields.graphqls"), first)
+        new SchemaDiff(SchemaDiff.Options.defaultOptions().resultCache(cache).rule(new OtherReportingRule()))
+                .diffSchema(diffSet("schema_changed_object_fields.graphqls"), second)
+
+        then:
+        cache.size() == 2
+        first.dangers*.reasonMsg.contains("first")
+        second.dangers*.reasonMsg.contains("other")
+        !second.dangers*.reasonMsg.contains("first")
+    }
+
+    def "the events handed out by the memory cache cannot be changed"() {
+        def cache = new LruDiffResultCache(10)
+        def events = [DiffEvent.apiDanger().typeName("Query").reasonMsg("danger").build()]
+        cache.put("key", events)
+
+        when:
+        cache.get("key").clear()
+
+        then:
+        thrown(UnsupportedOperationException)
+        cache.get("key").size() == 1
+    }
+
+    def "results on disk are found by a fresh memory cache"() {
+        def directory = temporaryFolder.root.toPath()
+        def first = new CapturingReporter()
+        def second = new CapturingReporter()
+        def memory = new LruDiffResultCache(10)
+
+        when:
+        def diskOnly = SchemaDiff.Options.defaultOptions().resultCache(new DiskDiffResultCache(directory))
+        new SchemaDiff(diskOnly).diffSchema(diffSet("schema_dangerous_changes.graphqls"), first)
+
+        def chained = SchemaDiff.Options.defaultOptions().resultCache(new ChainedDiffResultCache(memory, new DiskDiffResultCache(directory)))
+        def summary = new SchemaDiff(chained).diffSchemaWithSummary(diffSet("schema_dangerous_changes.graphqls"), second)
+
+        then:
+        summary.cacheHits == 1
+        memory.size() == 1
+        second.dangerCount == first.dangerCount
+        second.events.collect { it.toString() } == first.events.collect { it.toString() }
+    }
+
+    def "a failed write leaves no temp file behind"() {
+        def directory = temporaryFolder.root.toPath()
+        def key = "old:new:options"
+        // a non empty directory where the result should go makes the move fail
+        def target = directory.resolve(TypeHasher.toHex(TypeHasher.sha256().digest(key.getBytes(StandardCharsets.UTF_8))) + ".diff")
+        Files.createDirectories(target.resolve("blocker"))
+        def cache = new DiskDiffResultCache(directory)
+
+        when:
+        cache.put(key, [])
+
+        then:
+        cache.get(key) == null
+        Files.list(directory).collect { it.fileName.toString() } == [target.fileName.toString()]
+    }
+}
@@ -0,0 +1,125 @@
+package com.graphql.diff.jfr
+
+import com.graphql.diff.DiffSet
+import com.graphql.diff.SchemaDiff
+import com.graphql.diff.TestKit
+import com.graphql.diff.TypeKind
+import com.graphql.diff.reporting.CapturingReporter
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordingFile
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class DiffFlightRecorderTest extends Specification {
+
+    /*
+     * Loads the differ classes afresh, so that the recorder is chosen again, optionally hiding the JFR classes
+     */
+    static class IsolatedClassLoader extends URLClassLoader {
+        final boolean hideJfr
+
+        IsolatedClassLoader(boolean hideJfr) {
+            super([DiffFlightRecorder.class.getProtectionDomain().getCodeSource().getLocation()] as URL[],
+                    DiffFlightRecorder.class.getClassLoader())
+            this.hideJfr = hideJfr
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                if (hideJfr && name.startsWith("jdk.jfr.")) {
+                    throw new ClassNotFoundException(name)
+                }
+                if (!name.startsWith("com.graphql.diff.")) {
+                    return super.loadClass(name, resolve)
+                }
+                Class<?> loaded = findLoadedClass(name)
+                return loaded != null ? loaded : findClass(name)
+            }
+        }
+    }
+
+    static void finishNoopSpans(Class<?> recorderClass) {
+        def recorder = recorderClass.getMethod("get").invoke(null)
+        assert recorder.getClass().getName() == DiffFlightRecorder.class.getName()
+        assert !recorder.isTypeTracingEnabled()
+        // the classes of the other loader are called reflectively, and a null summary shows it is never looked at
+        recorder.beginLoad("schema.graphqls").finish()
+        recorder.beginConversion().finish()
+        recorder.beginDiff().finish(null)
+        recorder.beginType("Query").finish(null, 1, 2, 3L)
+    }
+
+    def "a no-op recorder is used when the JVM has no flight recorder"() {
+        def loader = new IsolatedClassLoader(true)
+
+        when:
+        def recorderClass = Class.forName(DiffFlightRecorder.class.getName(), true, loader)
+
+        then:
+        recorderClass.getClassLoader().is(loader)
+        finishNoopSpans(recorderClass)
+
+        cleanup:
+        loader.close()
+    }
+
+    def "a no-op recorder is used when the flight recorder is turned off"() {
+        def previous = System.getProperty("graphql.diff.jfr")
+        System.setProperty("graphql.diff.jfr", "false")
+        def loader = new IsolatedClassLoader(false)
+
+        when:
+        def recorderClass = Class.forName(DiffFlightRecorder.class.getName(), true, loader)
+
+        then:
+        recorderClass.getClassLoader().is(loader)
+        finishNoopSpans(recorderClass)
+
+        cleanup:
+        loader.close()
+        if (previous == null) {
+            System.clearProperty("graphql.diff.jfr")
+        } else {
+            System.setProperty("graphql.diff.jfr", previous)
+        }
+    }
+
+    def "the spans of the JFR recorder finish without error and are recorded"() {
+        def summary = new SchemaDiff().diffSchemaWithSummary(DiffSet.diffSet(
+                TestKit.loadSchemaFile("schema_ABaseLine.graphqls"),
+                TestKit.loadSchemaFile("schema_changed_object_fields.graphqls")), new CapturingReporter())
+        def recorder = new JfrDiffFlightRecorder()
+        def recording = new Recording()
+        ["graphql.diff.SchemaLoad", "graphql.diff.SchemaConversion", "graphql.diff.SchemaDiff", "graphql.diff.TypeComparison"].each {
+            recording.enable(it).withoutThreshold()
+        }
+        def file = Files.createTempFile("graphql-diff", ".jfr")
+
+        when:
+        recording.start()
+        def typeTracing = recorder.isTypeTracingEnabled()
+        recorder.beginLoad("schema.graphqls").finish()
+        recorder.beginConversion().finish()
+        recorder.beginDiff().finish(summary)
+        recorder.beginType("Query").finish(TypeKind.Object, 3, 1, 100L)
+        recording.stop()
+        recording.dump(file)
+        def recorded = RecordingFile.readAllEvents(file)
+
+        then:
+        typeTracing
+        recorded*.eventType*.name.toSet() == ["graphql.diff.SchemaLoad", "graphql.diff.SchemaConversion",
+                                              "graphql.diff.SchemaDiff", "graphql.diff.TypeComparison"] as Set
+        def diffEvent = recorded.find { it.eventType.name == "graphql.diff.SchemaDiff" }
+        diffEvent.getInt("typesVisited") == summary.getTypesVisited()
+        diffEvent.getInt("breakingEvents") == summary.getBreakingCount()
+        def typeEvent = recorded.find { it.eventType.name == "graphql.diff.TypeComparison" }
+        typeEvent.getString("typeName") == "Query"
+
+        cleanup:
+        recording.close()
+        Files.deleteIfExists(file)
+    }
+}
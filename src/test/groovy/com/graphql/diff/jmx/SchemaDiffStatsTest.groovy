@@ -0,0 +1,98 @@
+package com.graphql.diff.jmx
+
+import com.graphql.diff.DiffSet
+import com.graphql.diff.DiffSummary
+import com.graphql.diff.SchemaDiff
+import com.graphql.diff.TestKit
+import com.graphql.diff.reporting.CapturingReporter
+import com.graphql.diff.reporting.DifferenceReporter
+import spock.lang.Specification
+
+import javax.management.MBeanServerFactory
+import javax.management.ObjectName
+
+class SchemaDiffStatsTest extends Specification {
+
+    def "histogram buckets are within an eighth of the recorded value"() {
+        expect:
+        def bucket = LatencyHistogram.bucketOf(value)
+        def upper = LatencyHistogram.upperBoundOf(bucket)
+        upper >= value
+        upper - value <= value / 8
+
+        where:
+        value << [0L, 7L, 8L, 15L, 16L, 1000L, 123_456_789L, Long.MAX_VALUE]
+    }
+
+    def "histogram percentiles"() {
+        def histogram = new LatencyHistogram()
+        (1..100).each { histogram.record(it * 1000L) }
+
+        expect:
+        histogram.percentile(50) >= 50_000L
+        histogram.percentile(50) <= 50_000L * 9 / 8
+        histogram.percentile(100) >= 100_000L
+    }
+
+    def "stats are updated by the differ and visible via jmx"() {
+        def stats = new SchemaDiffStats()
+        def server = MBeanServerFactory.newMBeanServer()
+        def name = stats.register(server, SchemaDiffStats.DEFAULT_OBJECT_NAME)
+
+        def diffSet = DiffSet.diffSet(TestKit.loadSchemaFile("schema_ABaseLine.graphqls"), TestKit.loadSchemaFile("schema_missing_enum_value.graphqls"))
+        def differ = new SchemaDiff(SchemaDiff.Options.defaultOptions().metricsListener(stats))
+        differ.diffSchema(diffSet, new CapturingReporter())
+        differ.diffSchema(diffSet, new CapturingReporter())
+
+        expect:
+        server.getAttribute(name, "DiffCount") == 2L
+        server.getAttribute(name, "InFlightDiffs") == 0L
+        stats.eventsByLevel["BREAKING"] == 2L
+        stats.eventsByCategory["MISSING"] == 2L
+        stats.latencyP50Millis > 0
+        name == new ObjectName(SchemaDiffStats.DEFAULT_OBJECT_NAME)
+    }
+
+    def "a diff that fails with an error is counted as failed and is no longer in flight"() {
+        def stats = new SchemaDiffStats()
+        def diffSet = DiffSet.diffSet(TestKit.loadSchemaFile("schema_ABaseLine.graphqls"), TestKit.loadSchemaFile("schema_missing_enum_value.graphqls"))
+        def failingReporter = [report: { throw new AssertionError("reporter failed") }, onEnd: {}] as DifferenceReporter
+
+        when:
+        new SchemaDiff(SchemaDiff.Options.defaultOptions().metricsListener(stats)).diffSchema(diffSet, failingReporter)
+
+        then:
+        thrown(AssertionError)
+        stats.inFlightDiffs == 0L
+        stats.failedDiffCount == 1L
+        stats.diffCount == 0L
+    }
+
+    def "a listener that fails at the end of a diff is not told of an error as well"() {
+        def errors = 0
+        def stats = new SchemaDiffStats() {
+            @Override
+            void onDiffEnd(DiffSummary summary) {
+                super.onDiffEnd(summary)
+                throw new IllegalStateException("listener failed")
+            }
+
+            @Override
+            void onDiffError(Throwable error) {
+                errors++
+                super.onDiffError(error)
+            }
+        }
+        def diffSet = DiffSet.diffSet(TestKit.loadSchemaFile("schema_ABaseLine.graphqls"), TestKit.loadSchemaFile("schema_missing_enum_value.graphqls"))
+
+        when:
+        new SchemaDiff(SchemaDiff.Options.defaultOptions().metricsListener(stats)).diffSchema(diffSet, new CapturingReporter())
+
+        then:
+        thrown(IllegalStateException)
+        errors == 0
+        stats.inFlightDiffs == 0L
+        stats.failedDiffCount == 0L
+        stats.diffCount == 1L
+    }
+}
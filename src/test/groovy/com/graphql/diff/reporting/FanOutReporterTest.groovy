@@ -0,0 +1,197 @@
+package com.graphql.diff.reporting
+
+import com.graphql.diff.DiffCategory
+import com.graphql.diff.DiffEvent
+import com.graphql.diff.DiffSet
+import com.graphql.diff.SchemaDiff
+import com.graphql.diff.TestKit
+import com.graphql.diff.TypeKind
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.IntBinaryOperator
+
+class FanOutReporterTest extends Specification {
+
+    static DiffEvent breakage(int i) {
+        DiffEvent.apiBreakage().category(DiffCategory.MISSING).typeName("Type" + i).typeKind(TypeKind.Object)
+                .reasonMsg("The type is missing").build()
+    }
+
+    def "every reporter is given every event in order and has ended by the time onEnd returns"() {
+        def first = new CapturingReporter()
+        def second = new CapturingReporter()
+        def reporter = new FanOutReporter(4, [first, second])
+
+        when:
+        (1..100).each { reporter.report(breakage(it)) }
+        reporter.onEnd()
+
+        then:
+        first.getEvents().collect { it.typeName } == (1..100).collect { "Type" + it }
+        second.getEvents().collect { it.typeName } == (1..100).collect { "Type" + it }
+        reporter.getFailures().isEmpty()
+    }
+
+    def "a reporter that throws does not stop the others"() {
+        def failing = new DifferenceReporter() {
+            @Override
+            void report(DiffEvent differenceEvent) {
+                throw new IllegalStateException("broken")
+            }
+
+            @Override
+            void onEnd() {
+            }
+        }
+        def capturing = new CapturingReporter()
+        def reporter = new FanOutReporter(2, [failing, capturing])
+
+        when:
+        (1..50).each { reporter.report(breakage(it)) }
+        reporter.onEnd()
+
+        then:
+        capturing.getEvents().size() == 50
+        reporter.getFailures().keySet().toList() == [failing]
+        reporter.getFailures()[failing].message == "broken"
+
+        when:
+        reporter.report(breakage(51))
+        reporter.onEnd()
+
+        then:
+        capturing.getEvents().size() == 51
+    }
+
+    def "a slow reporter does not hold up the others until its queue is full"() {
+        def release = new CountDownLatch(1)
+        def slow = new CapturingReporter() {
+            @Override
+            void report(DiffEvent differenceEvent) {
+                release.await()
+                super.report(differenceEvent)
+            }
+        }
+        def fast = new CapturingReporter()
+        def reporter = new FanOutReporter(10, [slow, fast])
+
+        when:
+        (1..5).each { reporter.report(breakage(it)) }
+
+        then:
+        slow.getEvents().isEmpty()
+
+        when:
+        release.countDown()
+        reporter.onEnd()
+
+        then:
+        slow.getEvents().size() == 5
+        fast.getEvents().size() == 5
+    }
+
+    def "a reporter that misses an event because the reporting thread is interrupted is failed"() {
+        def release = new CountDownLatch(1)
+        def slow = new CapturingReporter() {
+            @Override
+            void report(DiffEvent differenceEvent) {
+                release.await()
+                super.report(differenceEvent)
+            }
+        }
+        def fast = new CapturingReporter()
+        def reporter = new FanOutReporter(1, [slow, fast])
+        def stayedInterrupted = false
+        def reporting = Thread.start {
+            (1..3).each { reporter.report(breakage(it)) }
+            stayedInterrupted = Thread.interrupted()
+            reporter.onEnd()
+        }
+
+        when:
+        // the slow reporter is stuck on the first event with the second in its queue, so the reporting thread waits
+        // to hand it the third, while the fast reporter has reported the first two and has room
+        while (reporting.getState() != Thread.State.WAITING || fast.getEvents().size() != 2) {
+            Thread.sleep(5)
+        }
+        reporting.interrupt()
+        reporting.join()
+
+        then:
+        stayedInterrupted
+        reporter.getFailures().keySet().toList() == [slow]
+        reporter.getFailures()[slow] instanceof InterruptedException
+        fast.getEvents().collect { it.typeName } == ["Type1", "Type2", "Type3"]
+        slow.getEvents().isEmpty()
+
+        cleanup:
+        release.countDown()
+    }
+
+    def "a reporter reused after an interrupted onEnd is never called from two threads at once"() {
+        def release = new CountDownLatch(1)
+        def active = new AtomicInteger()
+        def maxActive = new AtomicInteger()
+        def calls = Collections.synchronizedList([])
+        def track = { String call, Closure work ->
+            maxActive.accumulateAndGet(active.incrementAndGet(), { a, b -> Math.max(a, b) } as IntBinaryOperator)
+            try {
+                work()
+                calls << call
+            } finally {
+                active.decrementAndGet()
+            }
+        }
+        def slow = new DifferenceReporter() {
+            @Override
+            void report(DiffEvent differenceEvent) {
+                track(differenceEvent.typeName, { release.await() })
+            }
+
+            @Override
+            void onEnd() {
+                track("end", {})
+            }
+        }
+        def reporter = new FanOutReporter(10, [slow])
+
+        when: "the first run ends while the reporting thread is interrupted, so it does not wait for the reporter"
+        def first = Thread.start {
+            reporter.report(breakage(1))
+            Thread.currentThread().interrupt()
+            reporter.onEnd()
+        }
+        first.join()
+
+        and: "the reporter is used again while it is still reporting the first run"
+        def second = Thread.start {
+            reporter.report(breakage(2))
+            reporter.onEnd()
+        }
+        Thread.sleep(200)
+        release.countDown()
+        second.join()
+
+        then:
+        maxActive.get() == 1
+        calls == ["Type1", "end", "Type2", "end"]
+        reporter.getFailures().isEmpty()
+    }
+
+    def "a schema diff can be fanned out more than once"() {
+        def diffSet = DiffSet.diffSet(TestKit.loadSchemaFile("schema_ABaseLine.graphqls"), TestKit.loadSchemaFile("schema_changed_field_arguments.graphqls"))
+        def capturing = new CapturingReporter()
+        def reporter = new FanOutReporter(capturing)
+
+        when:
+        new SchemaDiff().diffSchema(diffSet, reporter)
+        def once = capturing.getEvents().size()
+        new SchemaDiff().diffSchema(diffSet, reporter)
+
+        then:
+        once > 0
+        capturing.getEvents().size() == 2 * once
+    }
+}
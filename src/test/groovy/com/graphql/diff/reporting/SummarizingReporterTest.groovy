@@ -0,0 +1,75 @@
+package com.graphql.diff.reporting
+
+import com.graphql.diff.DiffCategory
+import com.graphql.diff.DiffEvent
+import com.graphql.diff.DiffLevel
+import com.graphql.diff.DiffSet
+import com.graphql.diff.SchemaDiff
+import com.graphql.diff.TestKit
+import com.graphql.diff.TypeKind
+import spock.lang.Specification
+
+class SummarizingReporterTest extends Specification {
+
+    static DiffEvent breakage(String typeName) {
+        DiffEvent.apiBreakage().category(DiffCategory.MISSING).typeName(typeName).typeKind(TypeKind.Object)
+                .fieldName("f").reasonMsg("The field is missing").build()
+    }
+
+    def "events are counted and a few kept as examples"() {
+        def out = new ByteArrayOutputStream()
+        def reporter = new SummarizingReporter(new PrintStream(out, true), 2, 2)
+
+        when:
+        (1..5).each { reporter.report(breakage("Busy")) }
+        (1..3).each { reporter.report(breakage("Quiet")) }
+        reporter.report(breakage("Rare"))
+        reporter.report(DiffEvent.apiDanger().category(DiffCategory.ADDITION).typeName("Colour").typeKind(TypeKind.Enum).reasonMsg("An enum value was added").build())
+        reporter.onEnd()
+
+        then:
+        reporter.getEventCount() == 10
+        reporter.getCount(DiffLevel.BREAKING) == 9
+        reporter.getCount(DiffLevel.DANGEROUS) == 1
+        reporter.getCount(DiffCategory.MISSING) == 9
+        reporter.getCount(TypeKind.Enum) == 1
+        reporter.getTopBreakingTypes().collect { it.typeName } == ["Busy", "Quiet"]
+        reporter.getTopBreakingTypes()[0].count == 5
+        reporter.getExamples(DiffCategory.MISSING).size() == 2
+        reporter.getExamples(DiffCategory.INVALID).isEmpty()
+
+        def summary = out.toString()
+        summary.contains("10 events : 9 breaking, 1 dangerous, 0 info")
+        summary.contains("'Busy' : 5")
+        summary.contains("BREAKING - 'Object' : 'Busy.f' : The field is missing")
+        summary.contains("... and 7 more")
+    }
+
+    def "the most breaking types are found among many more types than there are counters"() {
+        def reporter = new SummarizingReporter(new PrintStream(new ByteArrayOutputStream()), 1, 0)
+
+        when:
+        (1..1000).each {
+            reporter.report(breakage("Type" + it))
+            reporter.report(breakage("Hot"))
+        }
+
+        then:
+        reporter.getTopBreakingTypes().size() == 1
+        reporter.getTopBreakingTypes()[0].typeName == "Hot"
+        reporter.getTopBreakingTypes()[0].count - reporter.getTopBreakingTypes()[0].maxOverestimate <= 1000
+        reporter.getTopBreakingTypes()[0].count >= 1000
+    }
+
+    def "a schema diff can be summarized"() {
+        def diffSet = DiffSet.diffSet(TestKit.loadSchemaFile("schema_ABaseLine.graphqls"), TestKit.loadSchemaFile("schema_changed_field_arguments.graphqls"))
+        def reporter = new SummarizingReporter(new PrintStream(new ByteArrayOutputStream()), 10, 3)
+
+        when:
+        def summary = new SchemaDiff().diffSchemaWithSummary(diffSet, reporter)
+
+        then:
+        reporter.getCount(DiffLevel.BREAKING) == summary.getEventCount(DiffLevel.BREAKING)
+        reporter.getCount(DiffLevel.DANGEROUS) == summary.getEventCount(DiffLevel.DANGEROUS)
+    }
+}
@@ -0,0 +1,136 @@
+package com.graphql.diff.snapshot
+
+import com.graphql.diff.DiffLevel
+import com.graphql.diff.DiffSet
+import com.graphql.diff.SchemaDiff
+import com.graphql.diff.TestKit
+import com.graphql.diff.reporting.CapturingReporter
+import com.graphql.diff.util.TypeHasher
+import graphql.introspection.IntrospectionResultToSchema
+import graphql.language.AstPrinter
+import graphql.language.Document
+import graphql.language.TypeDefinition
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CountDownLatch
+
+class SchemaSnapshotTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    Document document(String file) {
+        def diffSet = DiffSet.diffSet(TestKit.loadSchemaFile(file), TestKit.loadSchemaFile(file))
+        new IntrospectionResultToSchema().createSchemaDefinition(diffSet.getNew())
+    }
+
+    Path writeSnapshot(Document document) {
+        def path = temporaryFolder.newFile().toPath()
+        SchemaSnapshotWriter.write(document, path)
+        path
+    }
+
+    def "snapshot round trips every type"() {
+        def original = document("schema_ABaseLine.graphqls")
+        def snapshot = SchemaSnapshot.open(writeSnapshot(original))
+        def originalTypes = original.getDefinitions().findAll { it instanceof TypeDefinition }
+
+        expect:
+        snapshot.getTypeCount() == originalTypes.size()
+        snapshot.getTypeNames() == originalTypes.collect { it.name }.sort()
+        originalTypes.every { TypeDefinition type ->
+            AstPrinter.printAst(snapshot.getTypeDefinition(type.name)) == AstPrinter.printAst(type) &&
+                    snapshot.getTypeHash(type.name) == TypeHasher.hash(type)
+        }
+        snapshot.getTypeDefinition("NoSuchType") == null
+        snapshot.getTypeHash("NoSuchType") == null
+    }
+
+    def "diffing snapshots gives the same result as diffing introspection"() {
+        def viaIntrospection = new CapturingReporter()
+        def viaSnapshot = new CapturingReporter()
+
+        def oldDoc = document("schema_ABaseLine.graphqls")
+        def newDoc = document("schema_changed_object_fields.graphqls")
+        def oldSnapshot = SchemaSnapshot.open(writeSnapshot(oldDoc))
+        def newSnapshot = SchemaSnapshot.open(writeSnapshot(newDoc))
+
+        when:
+        new SchemaDiff().diffSchema(DiffSet.diffSet(oldDoc, newDoc), viaIntrospection)
+        new SchemaDiff().diffSchema(DiffSet.diffSet(oldSnapshot.toDocument(), newSnapshot.toDocument()), viaSnapshot)
+
+        then:
+        viaSnapshot.getBreakageCount() == viaIntrospection.getBreakageCount()
+        viaSnapshot.getBreakageCount() > 0
+        viaSnapshot.getDangerCount() == viaIntrospection.getDangerCount()
+    }
+
+    def "the type hashes are read from the index without materializing any type"() {
+        def original = document("schema_ABaseLine.graphqls")
+        def snapshot = SchemaSnapshot.open(writeSnapshot(original))
+
+        when:
+        def typeHashes = snapshot.getTypeHashes()
+
+        then:
+        (0..<snapshot.getTypeCount()).every { snapshot.@definitions.get(it) == null }
+        typeHashes == TypeHasher.typeHashes(original)
+        typeHashes == TypeHasher.typeHashes(snapshot.toDocument())
+    }
+
+    def "diffing snapshots with their type hashes finds the same changes and skips the unchanged types"() {
+        def oldSnapshot = SchemaSnapshot.open(writeSnapshot(document("schema_ABaseLine.graphqls")))
+        def newSnapshot = SchemaSnapshot.open(writeSnapshot(document("schema_changed_object_fields.graphqls")))
+        def withHashes = new CapturingReporter()
+        def withoutHashes = new CapturingReporter()
+
+        when:
+        new SchemaDiff().diffSchema(DiffSet.diffSet(oldSnapshot.toDocument(), newSnapshot.toDocument(),
+                oldSnapshot.getTypeHashes(), newSnapshot.getTypeHashes()), withHashes)
+        new SchemaDiff().diffSchema(DiffSet.diffSet(oldSnapshot.toDocument(), newSnapshot.toDocument()), withoutHashes)
+
+        then:
+        withHashes.getEvents().findAll { it.level != DiffLevel.INFO }*.toString() ==
+                withoutHashes.getEvents().findAll { it.level != DiffLevel.INFO }*.toString()
+        withHashes.getBreakageCount() > 0
+        // unchanged types are not examined
+        withoutHashes.getEvents().any { it.reasonMsg == "Examining type 'Temperament' ..." }
+        !withHashes.getEvents().any { it.reasonMsg == "Examining type 'Temperament' ..." }
+    }
+
+    def "threads that materialize a type at the same time get the same definition"() {
+        def snapshot = SchemaSnapshot.open(writeSnapshot(document("schema_ABaseLine.graphqls")))
+        def typeName = snapshot.getTypeNames().get(0)
+        def start = new CountDownLatch(1)
+        def definitions = Collections.synchronizedList([])
+
+        when:
+        def threads = (1..8).collect {
+            Thread.start {
+                start.await()
+                definitions << snapshot.getTypeDefinition(typeName)
+            }
+        }
+        start.countDown()
+        threads*.join()
+
+        then:
+        definitions.size() == 8
+        definitions.every { it.is(definitions[0]) }
+    }
+
+    def "files that are not snapshots are rejected"() {
+        def path = temporaryFolder.newFile().toPath()
+        Files.write(path, new byte[100])
+
+        when:
+        SchemaSnapshot.open(path)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
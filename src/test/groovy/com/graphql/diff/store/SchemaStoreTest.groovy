@@ -0,0 +1,83 @@
+package com.graphql.diff.store
+
+import com.graphql.diff.DiffSet
+import com.graphql.diff.SchemaChainDiff
+import com.graphql.diff.SchemaDiff
+import com.graphql.diff.TestKit
+import com.graphql.diff.reporting.CapturingReporter
+import com.graphql.diff.reporting.DifferenceReporterFactory
+import graphql.introspection.IntrospectionResultToSchema
+import graphql.language.Document
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class SchemaStoreTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    Document document(String file) {
+        def diffSet = DiffSet.diffSet(TestKit.loadSchemaFile(file), TestKit.loadSchemaFile(file))
+        new IntrospectionResultToSchema().createSchemaDefinition(diffSet.getNew())
+    }
+
+    def "identical types are stored once across versions"() {
+        def root = temporaryFolder.root.toPath()
+        def store = SchemaStore.open(root)
+
+        when:
+        def v1 = store.put("starwars", "1", document("schema_ABaseLine.graphqls"))
+        def v2 = store.put("starwars", "2", document("schema_missing_enum_value.graphqls"))
+        def storedTypes = Files.walk(root.resolve("types")).filter { Files.isRegularFile(it) }.count()
+
+        then:
+        store.getVersions("starwars") == ["1", "2"]
+        store.getManifest("starwars", "2") == v2
+        v1.getChangedTypes(v2).size() == 1
+        !v1.isSameSchemaAs(v2)
+        storedTypes == v1.getTypeHashes().size() + 1
+    }
+
+    def "diffing versions from the store gives the same breakages"() {
+        def store = SchemaStore.open(temporaryFolder.root.toPath())
+        def oldDoc = document("schema_ABaseLine.graphqls")
+        def newDoc = document("schema_changed_object_fields.graphqls")
+        store.put("starwars", "1", oldDoc)
+        store.put("starwars", "2", newDoc)
+
+        def viaDocuments = new CapturingReporter()
+        def viaStore = new CapturingReporter()
+
+        when:
+        new SchemaDiff().diffSchema(DiffSet.diffSet(oldDoc, newDoc), viaDocuments)
+        def summary = new SchemaDiff().diffSchemaWithSummary(DiffSet.diffSet(store, "starwars", "1", "2"), viaStore)
+
+        then:
+        viaStore.getBreakageCount() == viaDocuments.getBreakageCount()
+        viaStore.getDangerCount() == viaDocuments.getDangerCount()
+        summary.getTypesVisited() < store.getManifest("starwars", "1").getTypeHashes().size()
+    }
+
+    def "the loader of a service takes the type hashes from the manifests"() {
+        def store = SchemaStore.open(temporaryFolder.root.toPath())
+        def oldDoc = document("schema_ABaseLine.graphqls")
+        def newDoc = document("schema_changed_object_fields.graphqls")
+        store.put("starwars", "1", oldDoc)
+        store.put("starwars", "2", newDoc)
+        def loader = store.loader("starwars")
+        def viaDocuments = new CapturingReporter()
+
+        when:
+        def loaded = loader.load("2")
+        def typeHashes = loader.typeHashes("2", loaded)
+        new SchemaDiff().diffSchema(DiffSet.diffSet(oldDoc, newDoc), viaDocuments)
+        def chain = new SchemaChainDiff(new SchemaDiff(), 1).diffChain(["1", "2"], loader, { oldVersion, newVersion -> new CapturingReporter() } as DifferenceReporterFactory)
+
+        then:
+        typeHashes == store.getManifest("starwars", "2").getTypeHashes()
+        chain.getSteps()[0].getSummary().getBreakingCount() == viaDocuments.getBreakageCount()
+    }
+}
@@ -0,0 +1,52 @@
+package com.graphql.diff.usage
+
+import com.graphql.diff.TestKit
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ForkJoinPool
+
+class OperationCorpusValidatorTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    def schema = TestKit.loadSchemaFile("schema_ABaseLine.graphqls")
+
+    def "invalid operations are reported and identical texts are validated once"() {
+        def operations = [:]
+        (1..200).each { operations["valid" + it] = "{ wizards { name } }" }
+        operations["undefined"] = "{ gods { nope } }"
+        operations["unparseable"] = "{ gods { "
+        def invalid = new ConcurrentHashMap<String, List<String>>()
+
+        when:
+        def summary = new OperationCorpusValidator(schema, new ForkJoinPool(4)).validate(operations, { id, errors -> invalid.put(id, errors) } as OperationCorpusValidator.Listener)
+
+        then:
+        summary.getOperationCount() == 202
+        summary.getInvalidCount() == 2
+        summary.getValidatedCount() == 3
+        invalid.keySet() == ["undefined", "unparseable"].toSet()
+        invalid["undefined"][0].contains("nope")
+        invalid["unparseable"][0].startsWith("Unable to parse the operation")
+    }
+
+    def "a corpus directory is validated"() {
+        def directory = temporaryFolder.root.toPath()
+        Files.createDirectories(directory.resolve("app"))
+        Files.write(directory.resolve("app/ok.graphql"), "query Wizards { wizards { name colour } }".bytes)
+        Files.write(directory.resolve("app/bad.gql"), 'query Being($id : Int) { being(id : $id) { name } }'.bytes)
+        def invalid = []
+
+        when:
+        def summary = new OperationCorpusValidator(schema).validate(directory, { id, errors -> invalid.add(id) } as OperationCorpusValidator.Listener)
+
+        then:
+        summary.getOperationCount() == 2
+        invalid == ["app/bad.gql"]
+    }
+}
@@ -0,0 +1,86 @@
+package com.graphql.diff.usage
+
+import com.graphql.diff.DiffSet
+import com.graphql.diff.SchemaDiff
+import com.graphql.diff.TestKit
+import com.graphql.diff.reporting.CapturingReporter
+import graphql.introspection.IntrospectionResultToSchema
+import graphql.language.Document
+import graphql.parser.Parser
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class OperationUsageIndexTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    Document document(String file) {
+        def diffSet = DiffSet.diffSet(TestKit.loadSchemaFile(file), TestKit.loadSchemaFile(file))
+        new IntrospectionResultToSchema().createSchemaDefinition(diffSet.getNew())
+    }
+
+    def operations = [
+            "wizards.graphql": "{ wizards { name temperament } }",
+            "gods.graphql"   : "{ gods { name loves } }",
+            "being.graphql"  : 'query Being($id : ID) { being(id : $id) { ...Names } } fragment Names on Being { name nameInQuenyan }',
+            "sword.graphql"  : 'mutation { sword(name : "Anduril", temperament : Duplicitous) }',
+    ]
+
+    def "operations are indexed by the coordinates they use"() {
+        when:
+        def schema = new Parser().parseDocument(TestKit.loadFile("schema_ABaseLine.graphqls").text)
+        def index = OperationUsageIndex.build(schema, operations)
+
+        then:
+        index.getOperationCount() == 4
+        index.getOperations("Query.wizards") == ["wizards.graphql"]
+        index.getOperations("Being.name") == ["being.graphql"]
+        // selected through the interface so every implementation counts
+        index.getOperations("Istari.nameInQuenyan") == ["being.graphql"]
+        index.getOperations("Temperament").toSet() == ["wizards.graphql", "sword.graphql"].toSet()
+        index.getUsageCount("Query") == 3
+        index.getUsageCount("Mutation") == 1
+        index.getUsageCount("Query.deities") == 0
+    }
+
+    def "a corpus directory is parsed into the same index"() {
+        def directory = temporaryFolder.root.toPath()
+        operations.each { name, text -> Files.write(directory.resolve(name), text.bytes) }
+        Files.createDirectories(directory.resolve("nested"))
+        Files.write(directory.resolve("nested/both.graphql"), "query A { gods { name } } query B { wizards { colour } }".bytes)
+
+        when:
+        def index = OperationUsageIndex.build(document("schema_ABaseLine.graphqls"), directory)
+
+        then:
+        index.getOperationCount() == 6
+        index.getOperations("Query.gods").toSet() == ["gods.graphql", "nested/both.graphql#A"].toSet()
+        index.getOperations("Istari.colour") == ["nested/both.graphql#B"]
+    }
+
+    def "breaking changes are annotated with or filtered by the operations they affect"() {
+        def oldSchema = document("schema_ABaseLine.graphqls")
+        def index = OperationUsageIndex.build(oldSchema, operations)
+        def capturing = new CapturingReporter()
+        def reporter = new UsageAwareReporter(capturing, index, dropUnused)
+
+        when:
+        new SchemaDiff().diffSchema(DiffSet.diffSet(oldSchema, document("schema_changed_object_fields.graphqls")), reporter)
+
+        then:
+        reporter.getUsedBreakageCount() == 2
+        reporter.getUnusedBreakageCount() == 2
+        reporter.getAffectedOperations() == ["wizards.graphql", "being.graphql"].toSet()
+        capturing.getBreakages().any { it.getReasonMsg().endsWith("(used by 1 operation(s) : wizards.graphql)") }
+        capturing.getBreakageCount() == breakages
+
+        where:
+        dropUnused | breakages
+        false      | 4
+        true       | 2
+    }
+}